@@ -3,7 +3,6 @@ package ro.isdc.wro.cache;
 import java.io.Serializable;
 
 import org.apache.commons.lang3.Validate;
-import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 
 import ro.isdc.wro.model.resource.ResourceType;
@@ -72,7 +71,14 @@ public final class CacheEntry implements Serializable {
    */
   @Override
 	public boolean equals(final Object obj) {
-    return EqualsBuilder.reflectionEquals(this, obj);
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof CacheEntry)) {
+      return false;
+    }
+    final CacheEntry other = (CacheEntry) obj;
+    return minimize == other.minimize && type == other.type && groupName.equals(other.groupName);
 	}
 
   /**
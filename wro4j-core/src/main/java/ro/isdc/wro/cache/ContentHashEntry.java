@@ -17,10 +17,14 @@ import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.config.Context;
+import ro.isdc.wro.model.resource.ResourceType;
 
 
 /**
- * Entry holding a resource content along with its associated hash.
+ * Entry holding a resource content along with its associated hash. Beside the content, the entry holds the values of
+ * the response headers describing the content (ETag, Content-Type, Content-Length and Last-Modified), computed once
+ * when the entry is created, so that serving a cached bundle doesn't need to compute them for each request. The entry
+ * may also hold the source map of the content. The entry is immutable.
  *
  * @author Alex Objelean
  */
@@ -28,25 +32,62 @@ import ro.isdc.wro.config.Context;
 public final class ContentHashEntry
   implements Serializable {
   private static final Logger LOG = LoggerFactory.getLogger(ContentHashEntry.class);
-  private String rawContent;
-  private byte[] gzippedContent;
-  private String hash;
+  private final String rawContent;
+  /**
+   * The content encoded using the configured encoding. This is what is actually written to the response.
+   */
+  private final byte[] rawBytes;
+  private final byte[] gzippedContent;
+  private final String hash;
+  /**
+   * The value of the ETag header: the hash enclosed in quotes, in order to be compliant with the RFC.
+   */
+  private final String etag;
+  /**
+   * The value of the Content-Type header, including the charset. Null if the type of the content is unknown.
+   */
+  private final String contentType;
+  /**
+   * The time (in milliseconds) when the content was modified, used as value of the Last-Modified header.
+   */
+  private final long lastModified;
+  /**
+   * The source map of the content serialized as json, null if the content is not mapped.
+   */
+  private final String sourceMap;
 
-  private ContentHashEntry(final String rawContent, final String hash) {
+  private ContentHashEntry(final String rawContent, final String hash, final ResourceType type,
+      final String sourceMap, final long lastModified) {
+    final String encoding = Context.get().getConfig().getEncoding();
     this.rawContent = rawContent;
+    this.rawBytes = rawContent != null ? encode(rawContent, encoding) : null;
     this.hash = hash;
+    this.etag = hash != null ? "\"" + hash + "\"" : null;
+    this.contentType = type != null ? type.getContentType() + "; charset=" + encoding : null;
+    this.lastModified = lastModified;
+    this.sourceMap = sourceMap;
     //the trade-off between the memory and processing time
-    if (Context.get().getConfig().isCacheGzippedContent()) {
-      gzippedContent = computeGzippedContent(rawContent);
+    if (rawBytes != null && Context.get().getConfig().isCacheGzippedContent()) {
+      gzippedContent = computeGzippedContent(rawBytes);
+    } else {
+      gzippedContent = null;
+    }
+  }
+
+  private byte[] encode(final String content, final String encoding) {
+    try {
+      return content.getBytes(encoding);
+    } catch (final IOException e) {
+      throw new WroRuntimeException("Unsupported encoding: " + encoding, e).logError();
     }
   }
 
-  private byte[] computeGzippedContent(final String content) {
+  private byte[] computeGzippedContent(final byte[] content) {
     LOG.debug("Gzipping the content....");
     try {
       final ByteArrayOutputStream baos = new ByteArrayOutputStream();
       final OutputStream os = new GZIPOutputStream(new BufferedOutputStream(baos));
-      IOUtils.copy(new ByteArrayInputStream(content.getBytes(Context.get().getConfig().getEncoding())), os);
+      IOUtils.copy(new ByteArrayInputStream(content), os);
       os.close();
       return baos.toByteArray();
     } catch (final IOException e) {
@@ -61,7 +102,42 @@ public final class ContentHashEntry
    * @return {@link ContentHashEntry} based on supplied values.
    */
   public static final ContentHashEntry valueOf(final String rawContent, final String hash) {
-    return new ContentHashEntry(rawContent, hash);
+    return new ContentHashEntry(rawContent, hash, null, null, System.currentTimeMillis());
+  }
+
+  /**
+   * Factory method.
+   *
+   * @param type the {@link ResourceType} of the content, used to compute the Content-Type header value.
+   * @return {@link ContentHashEntry} based on supplied values.
+   */
+  public static final ContentHashEntry valueOf(final String rawContent, final String hash, final ResourceType type) {
+    return new ContentHashEntry(rawContent, hash, type, null, System.currentTimeMillis());
+  }
+
+  /**
+   * Factory method.
+   *
+   * @param type the {@link ResourceType} of the content, used to compute the Content-Type header value.
+   * @param sourceMap the source map of the content (as json), can be null.
+   * @return {@link ContentHashEntry} based on supplied values.
+   */
+  public static final ContentHashEntry valueOf(final String rawContent, final String hash, final ResourceType type,
+      final String sourceMap) {
+    return new ContentHashEntry(rawContent, hash, type, sourceMap, System.currentTimeMillis());
+  }
+
+  /**
+   * Factory method.
+   *
+   * @param type the {@link ResourceType} of the content, used to compute the Content-Type header value.
+   * @param sourceMap the source map of the content (as json), can be null.
+   * @param lastModified the time (in milliseconds) when the content was modified.
+   * @return {@link ContentHashEntry} based on supplied values.
+   */
+  public static final ContentHashEntry valueOf(final String rawContent, final String hash, final ResourceType type,
+      final String sourceMap, final long lastModified) {
+    return new ContentHashEntry(rawContent, hash, type, sourceMap, lastModified);
   }
 
   /**
@@ -73,10 +149,10 @@ public final class ContentHashEntry
 
 
   /**
-   * @param rawContent the content to set
+   * @return the content encoded with the configured encoding.
    */
-  public void setRawContent(final String rawContent) {
-    this.rawContent = rawContent;
+  public byte[] getRawBytes() {
+    return this.rawBytes;
   }
 
 
@@ -89,10 +165,33 @@ public final class ContentHashEntry
 
 
   /**
-   * @param hash the hash to set
+   * @return the value of the ETag header.
    */
-  public void setHash(final String hash) {
-    this.hash = hash;
+  public String getEtag() {
+    return this.etag;
+  }
+
+
+  /**
+   * @return the value of the Content-Type header or null if the type of the content is unknown.
+   */
+  public String getContentType() {
+    return this.contentType;
+  }
+
+
+  /**
+   * @return the time when the content was modified, used as value of Last-Modified header.
+   */
+  public long getLastModified() {
+    return this.lastModified;
+  }
+
+  /**
+   * @return the source map of the content serialized as json or null if the content is not mapped.
+   */
+  public String getSourceMap() {
+    return this.sourceMap;
   }
 
   /**
@@ -100,7 +199,7 @@ public final class ContentHashEntry
    */
   public byte[] getGzippedContent() {
     if (gzippedContent == null) {
-      return computeGzippedContent(rawContent);
+      return rawBytes != null ? computeGzippedContent(rawBytes) : null;
     }
     return this.gzippedContent;
   }
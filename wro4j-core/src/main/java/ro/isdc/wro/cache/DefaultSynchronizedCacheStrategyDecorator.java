@@ -2,6 +2,8 @@ package ro.isdc.wro.cache;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -10,6 +12,7 @@ import org.slf4j.LoggerFactory;
 import ro.isdc.wro.config.Context;
 import ro.isdc.wro.model.group.Inject;
 import ro.isdc.wro.model.group.processor.GroupsProcessor;
+import ro.isdc.wro.model.resource.processor.support.MappedContent;
 import ro.isdc.wro.model.resource.support.hash.HashStrategy;
 
 /**
@@ -25,6 +28,13 @@ public class DefaultSynchronizedCacheStrategyDecorator extends AbstractSynchroni
   private GroupsProcessor groupsProcessor;
   @Inject
   private HashStrategy hashBuilder; 
+  @Inject
+  private FingerprintIndex fingerprintIndex;
+  /**
+   * The last loaded version of each key. It is not cleared along with the cache, this way the reloaded content which is
+   * unchanged keeps its modification time and the clients holding it are not forced to download it again.
+   */
+  private final ConcurrentMap<CacheEntry, Version> versions = new ConcurrentHashMap<CacheEntry, Version>();
   
   public DefaultSynchronizedCacheStrategyDecorator(final CacheStrategy<CacheEntry, ContentHashEntry> cacheStrategy) {
     super(cacheStrategy);
@@ -37,21 +47,25 @@ public class DefaultSynchronizedCacheStrategyDecorator extends AbstractSynchroni
   @Override
   protected ContentHashEntry loadValue(final CacheEntry key) {
     LOG.debug("load value in cache for key: " + key);
-    final String content = groupsProcessor.process(key);
-    return computeCacheValueByContent(content);
+    final MappedContent mappedContent = groupsProcessor.processWithSourceMap(key);
+    final String sourceMap = mappedContent.getSourceMap() == null ? null : mappedContent.getSourceMap().toJson(
+        key.getGroupName() + "." + key.getType().name().toLowerCase());
+    return computeCacheValueByContent(mappedContent.getContent(), sourceMap, key);
   }
 
   /**
    * Creates a {@link ContentHashEntry} based on provided content.
    */
-  private ContentHashEntry computeCacheValueByContent(final String content) {
+  private ContentHashEntry computeCacheValueByContent(final String content, final String sourceMap,
+      final CacheEntry key) {
     String hash = null;
     try {
       if (content != null) {
         LOG.debug("Content to fingerprint: [{}]", StringUtils.abbreviate(content, 40));
         hash = hashBuilder.getHash(new ByteArrayInputStream(content.getBytes()));
       }
-      final ContentHashEntry entry = ContentHashEntry.valueOf(content, hash);
+      final ContentHashEntry entry = ContentHashEntry.valueOf(content, hash, key.getType(), sourceMap,
+          computeLastModified(key, hash));
       LOG.debug("computed entry: {}", entry);
       return entry;
     } catch (IOException e) {
@@ -59,6 +73,23 @@ public class DefaultSynchronizedCacheStrategyDecorator extends AbstractSynchroni
     }
   }
   
+  /**
+   * @return the modification time of the previous version if its hash is the same, the current time otherwise. The
+   *         fingerprint of a changed content is invalidated.
+   */
+  private long computeLastModified(final CacheEntry key, final String hash) {
+    final Version previous = versions.get(key);
+    if (previous != null && hash != null && hash.equals(previous.hash)) {
+      return previous.lastModified;
+    }
+    if (previous != null) {
+      fingerprintIndex.invalidate(key);
+    }
+    final long lastModified = System.currentTimeMillis();
+    versions.put(key, new Version(hash, lastModified));
+    return lastModified;
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -68,4 +99,17 @@ public class DefaultSynchronizedCacheStrategyDecorator extends AbstractSynchroni
       super.put(key, value);
     }
   }
+
+  /**
+   * Identifies a loaded content by its hash and the time it was modified.
+   */
+  private static final class Version {
+    private final String hash;
+    private final long lastModified;
+
+    Version(final String hash, final long lastModified) {
+      this.hash = hash;
+      this.lastModified = lastModified;
+    }
+  }
 }
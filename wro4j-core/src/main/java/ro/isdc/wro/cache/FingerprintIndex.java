@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang3.Validate;
+
+
+/**
+ * Remembers the fingerprint (ETag and Last-Modified values) of the last served version of each {@link CacheEntry}. This
+ * way a conditional request can be answered with a <code>304</code> status code without looking up (and potentially
+ * loading) the cache entry. Since the served content may change when the cache is reloaded, the fingerprints must be
+ * marked as stale along with the cache clear (see {@link CacheStrategy#clear()}). A stale fingerprint is not used until
+ * the content is loaded again: it is confirmed when the content is unchanged and invalidated otherwise. The index is
+ * thread-safe.
+ *
+ * @since 1.4.7
+ */
+public class FingerprintIndex {
+  private final ConcurrentMap<CacheEntry, Fingerprint> index = new ConcurrentHashMap<CacheEntry, Fingerprint>();
+  /**
+   * The keys whose fingerprint must be confirmed by loading the content again.
+   */
+  private final ConcurrentMap<CacheEntry, Boolean> staleKeys = new ConcurrentHashMap<CacheEntry, Boolean>();
+
+  /**
+   * Remember the fingerprint of the value served for provided key.
+   */
+  public void remember(final CacheEntry key, final ContentHashEntry value) {
+    Validate.notNull(key);
+    Validate.notNull(value);
+    if (value.getEtag() != null) {
+      final int contentLength = value.getRawBytes() != null ? value.getRawBytes().length : 0;
+      index.put(key, new Fingerprint(value.getEtag(), value.getLastModified(), value.getContentType(), contentLength));
+    }
+    staleKeys.remove(key);
+  }
+
+  /**
+   * Forget the fingerprint of provided key. Invoked when the content loaded for the key has changed.
+   */
+  public void invalidate(final CacheEntry key) {
+    Validate.notNull(key);
+    index.remove(key);
+    staleKeys.remove(key);
+  }
+
+  /**
+   * Keeps the remembered fingerprints, but doesn't use them until they are confirmed (by remembering the value loaded
+   * for the same key again) or invalidated.
+   */
+  public void markStale() {
+    for (final CacheEntry key : index.keySet()) {
+      staleKeys.put(key, Boolean.TRUE);
+    }
+  }
+
+  /**
+   * Checks if the client holds the last served version of the resource identified by the key. As stated by RFC 2616,
+   * when ifNoneMatch is available, the ifModifiedSince value is ignored.
+   *
+   * @param key
+   *          the {@link CacheEntry} identifying the requested resource.
+   * @param ifNoneMatch
+   *          the value of If-None-Match request header or null if not available.
+   * @param ifModifiedSince
+   *          the value of If-Modified-Since request header (in milliseconds) or a negative value if not available.
+   * @return true if the resource wasn't modified since the version identified by the provided values.
+   */
+  public boolean isNotModified(final CacheEntry key, final String ifNoneMatch, final long ifModifiedSince) {
+    final Fingerprint fingerprint = getFingerprint(key);
+    return fingerprint != null && fingerprint.isNotModified(ifNoneMatch, ifModifiedSince);
+  }
+
+  /**
+   * @return the {@link Fingerprint} of the last served version of the resource identified by the key or null if no
+   *         version was served yet or if the fingerprint is stale.
+   */
+  public Fingerprint getFingerprint(final CacheEntry key) {
+    Validate.notNull(key);
+    return staleKeys.containsKey(key) ? null : index.get(key);
+  }
+
+  /**
+   * Forget all remembered fingerprints.
+   */
+  public void clear() {
+    index.clear();
+    staleKeys.clear();
+  }
+
+  /**
+   * The values identifying and describing a version of a served resource.
+   */
+  public static final class Fingerprint {
+    private final String etag;
+    private final long lastModified;
+    private final String contentType;
+    private final int contentLength;
+
+    Fingerprint(final String etag, final long lastModified, final String contentType, final int contentLength) {
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.contentType = contentType;
+      this.contentLength = contentLength;
+    }
+
+    /**
+     * @return the value of the ETag header.
+     */
+    public String getEtag() {
+      return etag;
+    }
+
+    /**
+     * @return the time when the resource was created.
+     */
+    public long getLastModified() {
+      return lastModified;
+    }
+
+    /**
+     * @return the value of the Content-Type header or null if unknown.
+     */
+    public String getContentType() {
+      return contentType;
+    }
+
+    /**
+     * @return the length of the not compressed content.
+     */
+    public int getContentLength() {
+      return contentLength;
+    }
+
+    /**
+     * @return true if the client holds the version identified by this fingerprint. As stated by RFC 2616, when
+     *         ifNoneMatch is available, the ifModifiedSince value is ignored.
+     */
+    boolean isNotModified(final String ifNoneMatch, final long ifModifiedSince) {
+      if (ifNoneMatch != null) {
+        return matches(ifNoneMatch);
+      }
+      // http dates have a precision of seconds
+      return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * @return true if the ETag is equal to the provided If-None-Match header value. Weak validators (W/"..."), as well
+     *         as a list of comma separated values are supported.
+     */
+    boolean matches(final String ifNoneMatch) {
+      if (ifNoneMatch.indexOf(',') < 0) {
+        return matchesSingleValue(ifNoneMatch.trim());
+      }
+      for (final String value : ifNoneMatch.split(",")) {
+        if (matchesSingleValue(value.trim())) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private boolean matchesSingleValue(final String value) {
+      return "*".equals(value) || etag.equals(value) || (value.startsWith("W/") && etag.equals(value.substring(2)));
+    }
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+
+import ro.isdc.wro.cache.FingerprintIndex.Fingerprint;
+
+
+/**
+ * Holds the content of the proxy resources (the resources referred by the rewritten urls, ex: images referred by a
+ * css). A cached resource is served without locating it again and conditional requests are answered using its
+ * {@link Fingerprint}. Only the resources allowed to be served should be cached. The size of the cache is bounded by the
+ * number of resources and by the total size of their content, the least recently used resources being evicted first.
+ * The cache is thread-safe.
+ *
+ * @since 1.4.7
+ */
+public class ProxyResourceCache {
+  /**
+   * The default maximum number of cached resources.
+   */
+  public static final int DEFAULT_MAX_ENTRIES = 1000;
+  /**
+   * The default maximum total size (in bytes) of the cached resources: 10MB.
+   */
+  public static final long DEFAULT_MAX_BYTES = 10L * 1024L * 1024L;
+  private final int maxEntries;
+  private final long maxBytes;
+  /**
+   * The resources in the order of their usage, the least recently used first.
+   */
+  private final Map<String, ProxyResource> resources = new LinkedHashMap<String, ProxyResource>(16, 0.75f, true);
+  private long totalBytes;
+
+  public ProxyResourceCache() {
+    this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES);
+  }
+
+  /**
+   * @param maxEntries
+   *          the maximum number of cached resources.
+   * @param maxBytes
+   *          the maximum total size of the cached resources. A resource larger than this value is never cached.
+   */
+  public ProxyResourceCache(final int maxEntries, final long maxBytes) {
+    Validate.isTrue(maxEntries > 0, "maxEntries must be positive");
+    Validate.isTrue(maxBytes > 0, "maxBytes must be positive");
+    this.maxEntries = maxEntries;
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * @return the cached resource with provided uri or null if the resource is not cached.
+   */
+  public synchronized ProxyResource get(final String uri) {
+    Validate.notNull(uri);
+    return resources.get(uri);
+  }
+
+  /**
+   * Creates a {@link ProxyResource} and caches it.
+   *
+   * @param uri
+   *          the uri of the resource.
+   * @param content
+   *          the bytes of the resource.
+   * @param contentType
+   *          the mime type of the resource, can be null if unknown.
+   * @param hash
+   *          the hash of the content, used to compute the ETag.
+   * @return the cached resource.
+   */
+  public ProxyResource put(final String uri, final byte[] content, final String contentType, final String hash) {
+    Validate.notNull(uri);
+    final ProxyResource resource = create(content, contentType, hash);
+    synchronized (this) {
+      remove(uri);
+      if (content.length <= maxBytes) {
+        resources.put(uri, resource);
+        totalBytes += content.length;
+        evictLeastRecentlyUsed();
+      }
+    }
+    return resource;
+  }
+
+  /**
+   * Evicts the least recently used resources until the limits are respected.
+   */
+  private void evictLeastRecentlyUsed() {
+    final Iterator<ProxyResource> iterator = resources.values().iterator();
+    while (iterator.hasNext() && (resources.size() > maxEntries || totalBytes > maxBytes)) {
+      totalBytes -= iterator.next().getContent().length;
+      iterator.remove();
+    }
+  }
+
+  /**
+   * Forget the resource with provided uri.
+   *
+   * @return the removed resource or null if the resource was not cached.
+   */
+  public synchronized ProxyResource remove(final String uri) {
+    Validate.notNull(uri);
+    final ProxyResource resource = resources.remove(uri);
+    if (resource != null) {
+      totalBytes -= resource.getContent().length;
+    }
+    return resource;
+  }
+
+  /**
+   * @return the number of cached resources.
+   */
+  public synchronized int size() {
+    return resources.size();
+  }
+
+  /**
+   * Creates a {@link ProxyResource} without caching it.
+   */
+  public ProxyResource create(final byte[] content, final String contentType, final String hash) {
+    Validate.notNull(content);
+    Validate.notNull(hash);
+    return new ProxyResource(content, new Fingerprint("\"" + hash + "\"", System.currentTimeMillis(), contentType,
+        content.length));
+  }
+
+  /**
+   * Forget all cached resources.
+   */
+  public synchronized void clear() {
+    resources.clear();
+    totalBytes = 0;
+  }
+
+  /**
+   * The content of a proxy resource along with its fingerprint.
+   */
+  public static final class ProxyResource {
+    private final byte[] content;
+    private final Fingerprint fingerprint;
+
+    ProxyResource(final byte[] content, final Fingerprint fingerprint) {
+      this.content = content;
+      this.fingerprint = fingerprint;
+    }
+
+    /**
+     * @return the bytes of the resource.
+     */
+    public byte[] getContent() {
+      return content;
+    }
+
+    /**
+     * @return the values identifying the cached version of the resource.
+     */
+    public Fingerprint getFingerprint() {
+      return fingerprint;
+    }
+
+    /**
+     * @param ifNoneMatch
+     *          the value of If-None-Match request header or null if not available.
+     * @param ifModifiedSince
+     *          the value of If-Modified-Since request header (in milliseconds) or a negative value if not available.
+     * @return true if the client holds this version of the resource.
+     */
+    public boolean isNotModified(final String ifNoneMatch, final long ifModifiedSince) {
+      return fingerprint.isNotModified(ifNoneMatch, ifModifiedSince);
+    }
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang3.Validate;
+
+
+/**
+ * Holds the sprites generated during css processing (see
+ * {@link ro.isdc.wro.model.resource.processor.impl.css.CssSpritePreProcessor}). The sprites are identified by the hash
+ * of their content, thus the same sprite generated by several stylesheets is stored only once. The sprites are created
+ * along with the processed stylesheets referring them, thus this cache must be cleared along with the cache of the
+ * processed groups. The cache is thread-safe.
+ *
+ * @since 1.4.7
+ */
+public class SpriteCache {
+  /**
+   * Prefix of the sprite uri's.
+   */
+  public static final String PREFIX = "sprite:";
+  private static final String EXTENSION = ".png";
+  private final ConcurrentMap<String, byte[]> sprites = new ConcurrentHashMap<String, byte[]>();
+
+  /**
+   * Stores a generated sprite.
+   *
+   * @param content
+   *          the png content of the sprite.
+   * @param hash
+   *          the hash of the content.
+   * @return the uri of the sprite.
+   */
+  public String put(final byte[] content, final String hash) {
+    Validate.notNull(content);
+    Validate.notNull(hash);
+    final String uri = PREFIX + hash + EXTENSION;
+    sprites.put(uri, content);
+    return uri;
+  }
+
+  /**
+   * @return the content of the sprite with provided uri or null if the sprite is not cached.
+   */
+  public byte[] get(final String uri) {
+    Validate.notNull(uri);
+    return sprites.get(uri.trim());
+  }
+
+  /**
+   * Check if a uri is a sprite.
+   *
+   * @param uri
+   *          to check.
+   * @return true if the uri is a sprite.
+   */
+  public static boolean isSprite(final String uri) {
+    return uri != null && uri.trim().startsWith(PREFIX);
+  }
+
+  /**
+   * Forget all cached sprites.
+   */
+  public void clear() {
+    sprites.clear();
+  }
+}
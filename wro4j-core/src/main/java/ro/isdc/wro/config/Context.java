@@ -3,10 +3,9 @@
  */
 package ro.isdc.wro.config;
 
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.servlet.FilterConfig;
 import javax.servlet.ServletContext;
@@ -33,15 +32,24 @@ import ro.isdc.wro.model.resource.ResourceType;
 public class Context {
   private static final Logger LOG = LoggerFactory.getLogger(Context.class);
   /**
-   * Maps correlationId with a Context.
+   * Holds the {@link Context} bound to the current thread. The context is set in {@link WroFilter} and propagated to
+   * worker threads using {@link ContextPropagatingCallable}.
    */
-  private static final Map<String, Context> CONTEXT_MAP = Collections.synchronizedMap(new HashMap<String, Context>());
+  private static final ThreadLocal<Context> CURRENT = new ThreadLocal<Context>();
   /**
-   * Holds a correlationId, created in {@link WroFilter}. A correlationId will be associated with a {@link Context}
-   * object.
+   * Maps the correlationId of each set context with the context. Used only by the deprecated
+   * {@link #setCorrelationId(String)}, the lookup of the current context doesn't depend on it.
    */
-  private static ThreadLocal<String> CORRELATION_ID = new ThreadLocal<String>();
+  private static final Map<String, Context> CONTEXT_MAP = new ConcurrentHashMap<String, Context>();
+  /**
+   * Sequence used to generate cheap, unique correlationId's (no need for cryptographic strength).
+   */
+  private static final AtomicLong CORRELATION_SEQUENCE = new AtomicLong();
   private WroConfiguration config;
+  /**
+   * Identifies the request cycle this context belongs to. Assigned when the context is set.
+   */
+  private String correlationId;
   /**
    * Request.
    */
@@ -103,26 +111,18 @@ public class Context {
    * @return {@link Context} associated with CURRENT request cycle.
    */
   public static Context get() {
-    validateContext();
-    final String correlationId = CORRELATION_ID.get();
-    return CONTEXT_MAP.get(correlationId);
+    final Context context = CURRENT.get();
+    if (context == null) {
+      throw new WroRuntimeException("No context associated with CURRENT request cycle!");
+    }
+    return context;
   }
 
   /**
    * @return true if the call is done during wro4j request cycle. In other words, if the context is set.
    */
   public static boolean isContextSet() {
-    return CORRELATION_ID.get() != null && CONTEXT_MAP.get(CORRELATION_ID.get()) != null;
-  }
-
-
-  /**
-   * Checks if the {@link Context} is accessible from current request cycle.
-   */
-  private static void validateContext() {
-    if (!isContextSet()) {
-      throw new WroRuntimeException("No context associated with CURRENT request cycle!");
-    }
+    return CURRENT.get() != null;
   }
 
   /**
@@ -142,17 +142,19 @@ public class Context {
     Validate.notNull(context);
     Validate.notNull(config);
     context.setConfig(config);
-
-    final String correlationId = generateCorrelationId();
-    CORRELATION_ID.set(correlationId);
-    CONTEXT_MAP.put(correlationId, context);
+    if (context.correlationId != null) {
+      CONTEXT_MAP.remove(context.correlationId);
+    }
+    context.correlationId = generateCorrelationId();
+    CONTEXT_MAP.put(context.correlationId, context);
+    CURRENT.set(context);
   }
-  
+
   /**
-   * @return a string representation of an unique id used to store Context in a map.
+   * @return a string representation of an unique id identifying the request cycle.
    */
   private static String generateCorrelationId() {
-    return UUID.randomUUID().toString();
+    return Long.toString(CORRELATION_SEQUENCE.incrementAndGet());
   }
 
 
@@ -160,11 +162,11 @@ public class Context {
    * Remove context from the local thread.
    */
   public static void unset() {
-    final String correlationId = CORRELATION_ID.get();
-    if (correlationId != null) {
-      CONTEXT_MAP.remove(correlationId);
+    final Context context = CURRENT.get();
+    if (context != null) {
+      CONTEXT_MAP.remove(context.correlationId);
     }
-    CORRELATION_ID.remove();
+    CURRENT.remove();
   }
 
 
@@ -247,31 +249,60 @@ public class Context {
     CONTEXT_MAP.clear();
   }
 
+  /**
+   * Binds an already configured context to the current thread, without altering its configuration or correlationId.
+   * Used by {@link ContextPropagatingCallable} to make the context of the parent thread accessible from a child
+   * thread. This simulates the {@link InheritableThreadLocal} functionality.
+   */
+  static void propagate(final Context context) {
+    Validate.notNull(context);
+    CURRENT.set(context);
+  }
+
+  /**
+   * Binds back the context which was bound to the current thread before a {@link #propagate(Context)} call. Unlike
+   * {@link #unset()}, the propagated context remains available to the thread owning it.
+   *
+   * @param previous
+   *          the context to bind or null if no context was bound.
+   */
+  static void restore(final Context previous) {
+    if (previous == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(previous);
+    }
+  }
+
   /**
    * Set the correlationId to the current thread.
+   *
+   * @deprecated the context is bound directly to the thread, use {@link ContextPropagatingCallable} to make it
+   *             accessible from a child thread.
    */
+  @Deprecated
   public static void setCorrelationId(final String correlationId) {
     Validate.notNull(correlationId);
-    CORRELATION_ID.set(correlationId);
+    restore(CONTEXT_MAP.get(correlationId));
   }
-  
+
   /**
    * Remove the correlationId from the current thread. This operation will not remove the {@link Context} associated
    * with the correlationId. In order to remove context, call {@link Context#unset()}.
-   * <p/>
-   * Unsetting correlationId is useful when you create child threads which needs to access the correlationId from the
-   * parent thread. This simulates the {@link InheritableThreadLocal} functionality.
+   *
+   * @deprecated the context is bound directly to the thread, use {@link ContextPropagatingCallable} to make it
+   *             accessible from a child thread.
    */
+  @Deprecated
   public static void unsetCorrelationId() {
-    CORRELATION_ID.remove();
+    CURRENT.remove();
   }
-  
+
   /**
    * @return the correlationId associated with this thread.
    */
   public static String getCorrelationId() {
-    validateContext();
-    return CORRELATION_ID.get();
+    return get().correlationId;
   }
   
 
@@ -5,29 +5,36 @@ import java.util.concurrent.Callable;
 import org.apache.commons.lang3.Validate;
 
 /**
- * A {@link Callable} decorator responsible for propagating the correlationId to the decorated callable.
+ * A {@link Callable} decorator responsible for propagating the {@link Context} of the creating thread to the decorated
+ * callable.
  * @author Alex Objelean
  * @created 8 May 2012
  * @since 1.4.6
  */
 public class ContextPropagatingCallable<T>
     implements Callable<T> {
-  private String correlationId;
-  private Callable<T> decorated;
+  private final Context context;
+  private final Callable<T> decorated;
   
   public ContextPropagatingCallable(final Callable<T> decorated) {
     Validate.notNull(decorated);
     this.decorated = decorated;
-    this.correlationId = Context.getCorrelationId();
+    this.context = Context.get();
   }
   
   public T call()
       throws Exception {
-    Context.setCorrelationId(correlationId);
+    if (Context.isContextSet() && Context.get() == context) {
+      //executed by the thread which created the callable, nothing to propagate.
+      return decorated.call();
+    }
+    final Context previous = Context.isContextSet() ? Context.get() : null;
+    Context.propagate(context);
     try {
       return decorated.call();
     } finally {
-      Context.unsetCorrelationId();
+      // the thread may be used by other request cycles, but the propagated context still belongs to its creator.
+      Context.restore(previous);
     }
   }
 }
@@ -61,6 +61,13 @@ public class PropertyWroConfigurationFactory
     config.setHeader(valueAsString(properties.get(ConfigConstants.header.name())));
     config.setCacheGzippedContent(valueAsBoolean(properties.get(ConfigConstants.cacheGzippedContent.name()), false));
     config.setParallelPreprocessing(valueAsBoolean(properties.get(ConfigConstants.parallelPreprocessing.name()), false));
+    config.setFuseCssProcessors(valueAsBoolean(properties.get(ConfigConstants.fuseCssProcessors.name()), false));
+    config.setParallelPostprocessing(valueAsBoolean(properties.get(ConfigConstants.parallelPostprocessing.name()),
+        false));
+    config.setFingerprintProxyResources(valueAsBoolean(
+        properties.get(ConfigConstants.fingerprintProxyResources.name()), false));
+    config.setGenerateSourceMaps(valueAsBoolean(properties.get(ConfigConstants.generateSourceMaps.name()), false));
+    config.setScriptEngine(valueAsString(properties.get(ConfigConstants.scriptEngine.name())));
     config.setConnectionTimeout((int) valueAsLong(properties.get(ConfigConstants.connectionTimeout.name()),
         WroConfiguration.DEFAULT_CONNECTION_TIMEOUT));
     LOG.debug("WroConfiguration created: {}", config);
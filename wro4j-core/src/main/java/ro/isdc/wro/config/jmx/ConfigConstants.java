@@ -41,6 +41,29 @@ public enum ConfigConstants {
    * When true, will run in parallel pre processing of multiple resources. In theory this should improve the performance.
    */
   parallelPreprocessing,
+  /**
+   * When true, the consecutive css pre processors able to visit a shared token stream are applied in a single pass.
+   */
+  fuseCssProcessors,
+  /**
+   * When true, the minimize aware js post processors are applied on each resource of the group in parallel.
+   */
+  parallelPostprocessing,
+  /**
+   * When true, the urls of the proxy resources (rewritten by the css url rewriting processor) contain a fingerprint of
+   * the resource content, allowing the proxy resources to be cached forever.
+   */
+  fingerprintProxyResources,
+  /**
+   * When true, the source map of each processed js group is created and served along with the group. The map is
+   * created only when all the applied processors are source map aware.
+   */
+  generateSourceMaps,
+  /**
+   * The name of the javascript engine used by the javascript based processors (ex: rhino, nashorn). When not set, the
+   * engine is selected by the wro4j.scriptEngine system property, falling back to rhino.
+   */
+  scriptEngine,
   /**
    * When this flag is enabled, the raw processed content will be gzipped only the first time and all subsequent
    * requests will use the cached gzipped content. Otherwise, the gzip operation will be performed for each request.
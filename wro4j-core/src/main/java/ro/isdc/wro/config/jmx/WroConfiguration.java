@@ -96,6 +96,36 @@ public final class WroConfiguration
    * By default this flag is false, because this feature is experimental.
    */
   private boolean parallelPreprocessing = false;
+  /**
+   * When true, the consecutive css pre processors able to visit a shared token stream are applied in a single pass:
+   * the resource is tokenized once and serialized once, instead of being parsed by each processor. By default this
+   * flag is false, because this feature is experimental.
+   */
+  private boolean fuseCssProcessors = false;
+  /**
+   * When true, the minimize aware js post processors are applied on each resource of the group in parallel and the
+   * results are merged afterwards, instead of being applied once on the merged content. By default this flag is false,
+   * because this feature is experimental.
+   */
+  private boolean parallelPostprocessing = false;
+  /**
+   * When true, the urls of the proxy resources (ex: images rewritten by CssUrlRewritingProcessor) contain the hash of
+   * the resource content. Such urls change whenever the resource changes, thus they are served as immutable. By default
+   * this flag is false.
+   */
+  private boolean fingerprintProxyResources = false;
+  /**
+   * When true, the source map of each processed js group is created and served along with the group. Only the
+   * processors able to describe their changes keep the map, thus it is created only when all the js processors are
+   * source map aware (ex: the google closure compiler is, while uglifyJs is not). Otherwise, a warning is logged and the
+   * request of the map is answered with 404 status code. By default this flag is false.
+   */
+  private boolean generateSourceMaps = false;
+  /**
+   * The name of the javascript engine used by the javascript based processors. When null, the engine is selected by
+   * the wro4j.scriptEngine system property, falling back to rhino.
+   */
+  private String scriptEngine;
   /**
    * When a group is empty and this flag is false, the processing will fail. This is useful for runtime solution to
    * allow filter chaining when there is nothing to process for a given request.
@@ -438,6 +468,81 @@ public final class WroConfiguration
     this.parallelPreprocessing = parallelPreprocessing;
   }
 
+  /**
+   * @return the fuseCssProcessors flag.
+   */
+  public boolean isFuseCssProcessors() {
+    return fuseCssProcessors;
+  }
+
+  /**
+   * @param fuseCssProcessors
+   *          true if the css pre processors should be applied in a single pass over a shared token stream.
+   */
+  public void setFuseCssProcessors(final boolean fuseCssProcessors) {
+    this.fuseCssProcessors = fuseCssProcessors;
+  }
+
+  /**
+   * @return the parallelPostprocessing flag.
+   */
+  public boolean isParallelPostprocessing() {
+    return parallelPostprocessing;
+  }
+
+  /**
+   * @param parallelPostprocessing
+   *          true if the minimize aware js post processors should be applied on each resource in parallel.
+   */
+  public void setParallelPostprocessing(final boolean parallelPostprocessing) {
+    this.parallelPostprocessing = parallelPostprocessing;
+  }
+
+  /**
+   * @return the fingerprintProxyResources flag.
+   */
+  public boolean isFingerprintProxyResources() {
+    return fingerprintProxyResources;
+  }
+
+  /**
+   * @param fingerprintProxyResources
+   *          true if the urls of the proxy resources should contain the hash of the resource content.
+   */
+  public void setFingerprintProxyResources(final boolean fingerprintProxyResources) {
+    this.fingerprintProxyResources = fingerprintProxyResources;
+  }
+
+  /**
+   * @return the generateSourceMaps flag.
+   */
+  public boolean isGenerateSourceMaps() {
+    return generateSourceMaps;
+  }
+
+  /**
+   * @param generateSourceMaps
+   *          true if the source maps of the processed js groups should be created. The map of a group is created only
+   *          when all the applied processors are source map aware.
+   */
+  public void setGenerateSourceMaps(final boolean generateSourceMaps) {
+    this.generateSourceMaps = generateSourceMaps;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public String getScriptEngine() {
+    return scriptEngine;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public void setScriptEngine(final String scriptEngine) {
+    this.scriptEngine = scriptEngine;
+  }
+
   /**
    * @return value of the flag responsible for handling empty group behavior.
    */
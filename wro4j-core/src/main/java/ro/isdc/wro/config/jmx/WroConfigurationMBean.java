@@ -123,4 +123,17 @@ public interface WroConfigurationMBean {
    * @return value of the flag responsible for handling empty group behavior.
    */
   boolean isIgnoreEmptyGroup();
+
+  /**
+   * Changes the javascript engine used by the javascript based processors. In order to take effect, after changing
+   * this value, reload the cache.
+   *
+   * @param scriptEngine the name of the engine (ex: rhino, nashorn) or null to use the default engine.
+   */
+  void setScriptEngine(String scriptEngine);
+
+  /**
+   * @return the name of the javascript engine or null if the default engine is used.
+   */
+  String getScriptEngine();
 }
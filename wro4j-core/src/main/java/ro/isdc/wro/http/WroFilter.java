@@ -9,7 +9,7 @@ import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.util.Calendar;
 import java.util.Collection;
-import java.util.Date;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -84,23 +84,12 @@ public class WroFilter
   private RequestHandlerFactory requestHandlerFactory = new DefaultRequestHandlerFactory();
 
   /**
-   * Map containing header values used to control caching. The keys from this values are trimmed and lower-cased when
-   * put, in order to avoid duplicate keys. This is done, because according to RFC 2616 Message Headers field names are
-   * case-insensitive.
+   * Immutable map containing header values used to control caching. The keys of this map are trimmed and lower-cased,
+   * in order to avoid duplicate keys. This is done, because according to RFC 2616 Message Headers field names are
+   * case-insensitive. The map is computed once and replaced (never mutated) when the configuration changes, this way
+   * it can be safely iterated by concurrent requests.
    */
-  @SuppressWarnings("serial")
-  private final Map<String, String> headersMap = new LinkedHashMap<String, String>() {
-    @Override
-    public String put(final String key, final String value) {
-      return super.put(key.trim().toLowerCase(), value);
-    }
-
-
-    @Override
-    public String get(final Object key) {
-      return super.get(((String)key).toLowerCase());
-    }
-  };
+  private volatile Map<String, String> headersMap = Collections.emptyMap();
 
   /**
    * @return implementation of {@link ObjectFactory<WroConfiguration>} used to create a {@link WroConfiguration} object.
@@ -240,25 +229,24 @@ public class WroFilter
    * Initialize header values.
    */
   private void initHeaderValues() {
-    // put defaults
+    final Map<String, String> headers = new LinkedHashMap<String, String>();
+    // put defaults. The Last-Modified header is set by the manager, based on the time the bundle was created.
     if (!wroConfiguration.isDebug()) {
-      final Long timestamp = new Date().getTime();
       final Calendar cal = Calendar.getInstance();
       cal.roll(Calendar.YEAR, 1);
-      headersMap.put(HttpHeader.CACHE_CONTROL.toString(), DEFAULT_CACHE_CONTROL_VALUE);
-      headersMap.put(HttpHeader.LAST_MODIFIED.toString(), WroUtil.toDateAsString(timestamp));
-      headersMap.put(HttpHeader.EXPIRES.toString(), WroUtil.toDateAsString(cal.getTimeInMillis()));
+      putHeader(headers, HttpHeader.CACHE_CONTROL.toString(), DEFAULT_CACHE_CONTROL_VALUE);
+      putHeader(headers, HttpHeader.EXPIRES.toString(), WroUtil.toDateAsString(cal.getTimeInMillis()));
     }
     final String headerParam = wroConfiguration.getHeader();
     if (!StringUtils.isEmpty(headerParam)) {
       try {
         if (headerParam.contains("|")) {
-          final String[] headers = headerParam.split("[|]");
-          for (final String header : headers) {
-            parseHeader(header);
+          final String[] headerValues = headerParam.split("[|]");
+          for (final String header : headerValues) {
+            parseHeader(headers, header);
           }
         } else {
-          parseHeader(headerParam);
+          parseHeader(headers, headerParam);
         }
       } catch (final Exception e) {
         throw new WroRuntimeException("Invalid header init-param value: " + headerParam
@@ -267,21 +255,27 @@ public class WroFilter
           + "Expires: Thu, 15 Apr 2010 20:00:00 GMT | cache-control: public", e);
       }
     }
+    headersMap = Collections.unmodifiableMap(headers);
     LOG.debug("Header Values: {}", headersMap);
   }
 
 
   /**
-   * Parse header value & puts the found values in headersMap field.
+   * Parse header value & puts the found values in provided headers map.
    *
    * @param header value to parse.
    */
-  private void parseHeader(final String header) {
+  private void parseHeader(final Map<String, String> headers, final String header) {
     LOG.debug("parseHeader: {}", header);
     final String headerName = header.substring(0, header.indexOf(":"));
-    if (!headersMap.containsKey(headerName)) {
-      headersMap.put(headerName, header.substring(header.indexOf(":") + 1));
-    }
+    putHeader(headers, headerName, header.substring(header.indexOf(":") + 1));
+  }
+
+  /**
+   * Puts the header into provided map using trimmed and lower-cased name as a key.
+   */
+  private void putHeader(final Map<String, String> headers, final String name, final String value) {
+    headers.put(name.trim().toLowerCase(), value);
   }
 
   /**
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2012.
+ * All rights reserved.
+ */
+package ro.isdc.wro.http.support;
+
+/**
+ * A single byte range requested using the Range header, as described by RFC 2616 (section 14.35). Only a single range
+ * is supported, requests with multiple ranges are served with the entire content.
+ *
+ * @since 1.4.7
+ */
+public final class ByteRange {
+  private static final String BYTES_UNIT = "bytes=";
+  private final long start;
+  private final long end;
+  private final long length;
+
+  private ByteRange(final long start, final long end, final long length) {
+    this.start = start;
+    this.end = end;
+    this.length = length;
+  }
+
+  /**
+   * Parse the value of the Range header.
+   *
+   * @param rangeHeader
+   *          the value of Range header.
+   * @param length
+   *          the length of the entire content.
+   * @return the {@link ByteRange} identified by the header or null if the header should be ignored (it is missing,
+   *         malformed or contains multiple ranges).
+   */
+  public static ByteRange parse(final String rangeHeader, final long length) {
+    if (rangeHeader == null || !rangeHeader.startsWith(BYTES_UNIT) || rangeHeader.indexOf(',') >= 0) {
+      return null;
+    }
+    final String range = rangeHeader.substring(BYTES_UNIT.length()).trim();
+    final int dashIndex = range.indexOf('-');
+    if (dashIndex < 0) {
+      return null;
+    }
+    try {
+      final String first = range.substring(0, dashIndex).trim();
+      final String last = range.substring(dashIndex + 1).trim();
+      if (first.length() == 0) {
+        // suffix range: the last N bytes
+        final long suffixLength = Long.parseLong(last);
+        return suffixLength < 0 ? null : new ByteRange(Math.max(0, length - suffixLength), length - 1, length);
+      }
+      final long start = Long.parseLong(first);
+      if (last.length() == 0) {
+        return new ByteRange(start, length - 1, length);
+      }
+      final long lastValue = Long.parseLong(last);
+      // syntactically invalid range
+      if (start < 0 || lastValue < start) {
+        return null;
+      }
+      return new ByteRange(start, Math.min(lastValue, length - 1), length);
+    } catch (final NumberFormatException e) {
+      return null;
+    }
+  }
+
+  /**
+   * @return false if the range doesn't overlap the content (a 416 status code should be returned).
+   */
+  public boolean isSatisfiable() {
+    return start < length && start <= end;
+  }
+
+  /**
+   * @return index of the first byte of the range.
+   */
+  public int getStart() {
+    return (int) start;
+  }
+
+  /**
+   * @return the number of bytes in the range.
+   */
+  public int getSize() {
+    return (int) (end - start + 1);
+  }
+
+  /**
+   * @return the value of the Content-Range header to use when the range is served.
+   */
+  public String toContentRange() {
+    return isSatisfiable() ? "bytes " + start + "-" + end + "/" + length : "bytes */" + length;
+  }
+}
@@ -11,7 +11,9 @@ package ro.isdc.wro.http.support;
  */
 public enum HttpHeader {
   CACHE_CONTROL("Cache-Control"), LAST_MODIFIED("Last-Modified"), ETAG("ETag"), EXPIRES("Expires"), IF_MODIFIED_SINCE(
-    "If-Modified-Since"), IF_NONE_MATCH("If-None-Match"), CONTENT_ENCODING("Content-Encoding"), PRAGMA("Pragma");
+    "If-Modified-Since"), IF_NONE_MATCH("If-None-Match"), CONTENT_ENCODING("Content-Encoding"), PRAGMA("Pragma"), VARY(
+    "Vary"), RANGE("Range"), IF_RANGE("If-Range"), CONTENT_RANGE("Content-Range"), ACCEPT_RANGES("Accept-Ranges"),
+    SOURCE_MAP("SourceMap"), X_SOURCE_MAP("X-SourceMap");
   /**
    * HTTP header as string.
    */
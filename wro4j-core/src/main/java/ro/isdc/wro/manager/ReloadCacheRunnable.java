@@ -29,7 +29,7 @@ public final class ReloadCacheRunnable
   public void run() {
     LOG.debug("Reloading Cache....");
     try {
-      wroManagerReference.get().getCacheStrategy().clear();
+      wroManagerReference.get().clearCache();
     } catch (final Exception e) {
       LOG.error("Exception occured during cache reload: ", e);
     }
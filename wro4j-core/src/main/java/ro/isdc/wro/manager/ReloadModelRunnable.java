@@ -32,7 +32,7 @@ public final class ReloadModelRunnable
     try {
       // TODO: do not destroy, until the creation is done and the new model is different than the new one
       wroManagerReference.get().getModelFactory().destroy();
-      wroManagerReference.get().getCacheStrategy().clear();
+      wroManagerReference.get().clearCache();
     } catch (final Exception e) {
       LOG.error("Exception occured during cache reload: ", e);
     }
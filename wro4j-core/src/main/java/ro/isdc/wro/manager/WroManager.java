@@ -3,12 +3,20 @@
  */
 package ro.isdc.wro.manager;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -25,9 +33,15 @@ import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.cache.CacheEntry;
 import ro.isdc.wro.cache.CacheStrategy;
 import ro.isdc.wro.cache.ContentHashEntry;
+import ro.isdc.wro.cache.FingerprintIndex;
+import ro.isdc.wro.cache.FingerprintIndex.Fingerprint;
+import ro.isdc.wro.cache.ProxyResourceCache;
+import ro.isdc.wro.cache.ProxyResourceCache.ProxyResource;
+import ro.isdc.wro.cache.SpriteCache;
 import ro.isdc.wro.config.Context;
 import ro.isdc.wro.config.WroConfigurationChangeListener;
 import ro.isdc.wro.config.jmx.WroConfiguration;
+import ro.isdc.wro.http.support.ByteRange;
 import ro.isdc.wro.http.support.HttpHeader;
 import ro.isdc.wro.http.support.UnauthorizedRequestException;
 import ro.isdc.wro.manager.callback.LifecycleCallback;
@@ -35,6 +49,7 @@ import ro.isdc.wro.manager.callback.LifecycleCallbackRegistry;
 import ro.isdc.wro.manager.factory.WroManagerFactory;
 import ro.isdc.wro.model.WroModel;
 import ro.isdc.wro.model.factory.WroModelFactory;
+import ro.isdc.wro.model.group.Group;
 import ro.isdc.wro.model.group.GroupExtractor;
 import ro.isdc.wro.model.group.Inject;
 import ro.isdc.wro.model.group.processor.GroupsProcessor;
@@ -42,10 +57,13 @@ import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.locator.factory.UriLocatorFactory;
 import ro.isdc.wro.model.resource.processor.ProcessorsUtils;
 import ro.isdc.wro.model.resource.processor.factory.ProcessorsFactory;
+import ro.isdc.wro.model.resource.processor.impl.css.CssSpritePreProcessor;
 import ro.isdc.wro.model.resource.processor.impl.css.CssUrlRewritingProcessor;
 import ro.isdc.wro.model.resource.support.hash.HashBuilder;
 import ro.isdc.wro.model.resource.support.hash.HashStrategy;
 import ro.isdc.wro.model.resource.support.naming.NamingStrategy;
+import ro.isdc.wro.util.AbstractDecorator;
+import ro.isdc.wro.util.Destroyable;
 import ro.isdc.wro.util.LazyInitializer;
 import ro.isdc.wro.util.SchedulerHelper;
 import ro.isdc.wro.util.Transformer;
@@ -63,6 +81,15 @@ import ro.isdc.wro.util.WroUtil;
 public class WroManager
     implements WroConfigurationChangeListener {
   private static final Logger LOG = LoggerFactory.getLogger(WroManager.class);
+  private static final String METHOD_HEAD = "HEAD";
+  /**
+   * The request parameter identifying a request for the source map of a group.
+   */
+  public static final String PARAM_SOURCE_MAP = "wroSourceMap";
+  /**
+   * The Cache-Control value of the proxy resources having the hash of the content in their url.
+   */
+  private static final String IMMUTABLE_CACHE_CONTROL_VALUE = "public, max-age=31536000, immutable";
   @Inject
   private WroModelFactory modelFactory;
   @Inject
@@ -104,6 +131,18 @@ public class WroManager
    * Schedules the model update.
    */
   private final SchedulerHelper modelSchedulerHelper;
+  /**
+   * Remembers the fingerprint of served bundles, allowing to answer conditional requests without loading the cache.
+   */
+  private final FingerprintIndex fingerprintIndex = new FingerprintIndex();
+  /**
+   * Holds the proxy resources (ex: images referred by css), avoiding to locate them for each request.
+   */
+  private final ProxyResourceCache proxyResourceCache = new ProxyResourceCache();
+  /**
+   * Holds the sprites generated while processing the stylesheets. Cleared along with the cache of the processed groups.
+   */
+  private final SpriteCache spriteCache = new SpriteCache();
   
   public WroManager() {
     cacheSchedulerHelper = SchedulerHelper.create(new LazyInitializer<Runnable>() {
@@ -178,44 +217,61 @@ public class WroManager
       modelSchedulerHelper.scheduleWithPeriod(configuration.getModelUpdatePeriod());
       
       final CacheEntry cacheKey = new CacheEntry(groupName, type, minimize);
-      final ContentHashEntry cacheValue = cacheStrategy.get(cacheKey);
-      
+      if (request.getParameter(PARAM_SOURCE_MAP) != null) {
+        serveSourceMap(cacheKey, configuration);
+        return;
+      }
       // TODO move ETag check in wroManagerFactory
       final String ifNoneMatch = request.getHeader(HttpHeader.IF_NONE_MATCH.toString());
+      final long ifModifiedSince = getIfModifiedSince(request);
       
-      // enclose etag value in quotes to be compliant with the RFC
-      final String etagValue = String.format("\"%s\"", cacheValue.getHash());
+      if (!configuration.isDebug() && fingerprintIndex.isNotModified(cacheKey, ifNoneMatch, ifModifiedSince)) {
+        LOG.debug("Fingerprint detected for: {}. Sending {} status code", cacheKey,
+            HttpServletResponse.SC_NOT_MODIFIED);
+        // the fingerprints are marked as stale along with the cache clear, thus the cache doesn't have to be loaded.
+        response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        response.setHeader(HttpHeader.ETAG.toString(), fingerprintIndex.getFingerprint(cacheKey).getEtag());
+        return;
+      }
+      if (METHOD_HEAD.equals(request.getMethod())) {
+        serveHeadRequest(cacheKey, configuration);
+        return;
+      }
+      final ContentHashEntry cacheValue = cacheStrategy.get(cacheKey);
+      fingerprintIndex.remember(cacheKey, cacheValue);
+      
+      // the etag value is enclosed in quotes to be compliant with the RFC
+      final String etagValue = cacheValue.getEtag();
       
       if (etagValue != null && etagValue.equals(ifNoneMatch)) {
         LOG.debug("ETag hash detected: {}. Sending {} status code", etagValue, HttpServletResponse.SC_NOT_MODIFIED);
         response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        response.setHeader(HttpHeader.ETAG.toString(), etagValue);
         // because we cannot return null, return a stream containing nothing.
         // TODO close output stream?
         return;
       }
-      /**
-       * Set contentType before actual content is written, solves <br/>
-       * <a href="http://code.google.com/p/wro4j/issues/detail?id=341">issue341</a>
-       */
-      if (type != null) {
-        response.setContentType(type.getContentType() + "; charset=" + configuration.getEncoding());
+      setEntityHeaders(response, cacheValue.getContentType(), etagValue, cacheValue.getLastModified(), type,
+          configuration);
+      if (cacheValue.getSourceMap() != null) {
+        final String sourceMapUrl = getSourceMapUrl(request);
+        response.setHeader(HttpHeader.SOURCE_MAP.toString(), sourceMapUrl);
+        // the header used by the browsers implementing an older version of the specification
+        response.setHeader(HttpHeader.X_SOURCE_MAP.toString(), sourceMapUrl);
       }
-      // set ETag header
-      response.setHeader(HttpHeader.ETAG.toString(), etagValue);
       
       os = response.getOutputStream();
-      if (cacheValue.getRawContent() != null) {
-        // use gziped response if supported & Set content length based on gzip flag
+      if (cacheValue.getRawBytes() != null) {
+        // use gziped response if supported
+        final byte[] content;
         if (isGzipAllowed()) {
-          response.setContentLength(cacheValue.getGzippedContent().length);
+          content = cacheValue.getGzippedContent();
           // add gzip header and gzip response
           response.setHeader(HttpHeader.CONTENT_ENCODING.toString(), "gzip");
-          response.setHeader("Vary", "Accept-Encoding");
-          IOUtils.write(cacheValue.getGzippedContent(), os);
         } else {
-          response.setContentLength(cacheValue.getRawContent().length());
-          IOUtils.write(cacheValue.getRawContent(), os, configuration.getEncoding());
+          content = cacheValue.getRawBytes();
         }
+        writeContent(content, etagValue, os);
       }
     } finally {
       if (os != null)
@@ -223,6 +279,138 @@ public class WroManager
     }
   }
   
+  /**
+   * @return the url of the source map of the group served by the provided request.
+   */
+  private String getSourceMapUrl(final HttpServletRequest request) {
+    final String queryString = request.getQueryString();
+    return request.getRequestURI() + "?" + (StringUtils.isEmpty(queryString) ? "" : queryString + "&")
+        + PARAM_SOURCE_MAP + "=true";
+  }
+  
+  /**
+   * Serves the source map of the group, cached along with the processed group. When the group has no source map (ex:
+   * source maps generation is disabled), the {@link HttpServletResponse#SC_NOT_FOUND} status code is sent.
+   */
+  private void serveSourceMap(final CacheEntry cacheKey, final WroConfiguration configuration)
+      throws IOException {
+    final HttpServletResponse response = Context.get().getResponse();
+    final String sourceMap = cacheStrategy.get(cacheKey).getSourceMap();
+    if (sourceMap == null) {
+      LOG.warn("No source map available for: {}. Check that all the applied processors are source map aware.",
+          cacheKey);
+      response.sendError(HttpServletResponse.SC_NOT_FOUND);
+      return;
+    }
+    final byte[] content = sourceMap.getBytes(configuration.getEncoding());
+    response.setContentType("application/json; charset=" + configuration.getEncoding());
+    response.setContentLength(content.length);
+    final OutputStream os = response.getOutputStream();
+    try {
+      IOUtils.write(content, os);
+    } finally {
+      IOUtils.closeQuietly(os);
+    }
+  }
+  
+  /**
+   * Writes the content (or the slice of the content requested using Range header) to the output stream, setting the
+   * content length and status code accordingly.
+   */
+  private void writeContent(final byte[] content, final String etagValue, final OutputStream os)
+      throws IOException {
+    final HttpServletRequest request = Context.get().getRequest();
+    final HttpServletResponse response = Context.get().getResponse();
+    response.setHeader(HttpHeader.ACCEPT_RANGES.toString(), "bytes");
+    final ByteRange range = isRangeApplicable(request, etagValue) ? ByteRange.parse(
+        request.getHeader(HttpHeader.RANGE.toString()), content.length) : null;
+    if (range == null) {
+      response.setContentLength(content.length);
+      IOUtils.write(content, os);
+    } else if (range.isSatisfiable()) {
+      LOG.debug("Serving range: {}", range.toContentRange());
+      response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+      response.setHeader(HttpHeader.CONTENT_RANGE.toString(), range.toContentRange());
+      response.setContentLength(range.getSize());
+      os.write(content, range.getStart(), range.getSize());
+    } else {
+      response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+      response.setHeader(HttpHeader.CONTENT_RANGE.toString(), range.toContentRange());
+    }
+  }
+  
+  /**
+   * The Range header is ignored when the If-Range header is present and doesn't match the current ETag.
+   */
+  private boolean isRangeApplicable(final HttpServletRequest request, final String etagValue) {
+    final String ifRange = request.getHeader(HttpHeader.IF_RANGE.toString());
+    return ifRange == null || ifRange.equals(etagValue);
+  }
+  
+  /**
+   * Serves a HEAD request using only the metadata of the bundle. The bundle is loaded only when it wasn't served yet.
+   */
+  private void serveHeadRequest(final CacheEntry cacheKey, final WroConfiguration configuration) {
+    final HttpServletResponse response = Context.get().getResponse();
+    // in debug mode the bundle may change at any time, the fingerprint cannot be trusted
+    Fingerprint fingerprint = configuration.isDebug() ? null : fingerprintIndex.getFingerprint(cacheKey);
+    if (fingerprint == null) {
+      fingerprintIndex.remember(cacheKey, cacheStrategy.get(cacheKey));
+      fingerprint = fingerprintIndex.getFingerprint(cacheKey);
+    }
+    if (fingerprint != null) {
+      setEntityHeaders(response, fingerprint.getContentType(), fingerprint.getEtag(), fingerprint.getLastModified(),
+          cacheKey.getType(), configuration);
+      response.setHeader(HttpHeader.ACCEPT_RANGES.toString(), "bytes");
+      // the length must be the one of the content served by the GET request
+      if (isGzipAllowed()) {
+        // the gzipped content is computed once and kept by the cached entry
+        final byte[] gzippedContent = cacheStrategy.get(cacheKey).getGzippedContent();
+        response.setHeader(HttpHeader.CONTENT_ENCODING.toString(), "gzip");
+        response.setContentLength(gzippedContent != null ? gzippedContent.length : 0);
+      } else {
+        response.setContentLength(fingerprint.getContentLength());
+      }
+    }
+  }
+  
+  /**
+   * Set the headers describing the served bundle. The values are computed once, when the cache entry is created.
+   */
+  private void setEntityHeaders(final HttpServletResponse response, final String contentType, final String etagValue,
+      final long lastModified, final ResourceType type, final WroConfiguration configuration) {
+    /**
+     * Set contentType before actual content is written, solves <br/>
+     * <a href="http://code.google.com/p/wro4j/issues/detail?id=341">issue341</a>
+     */
+    response.setContentType(contentType != null ? contentType : type.getContentType() + "; charset="
+        + configuration.getEncoding());
+    if (etagValue != null) {
+      response.setHeader(HttpHeader.ETAG.toString(), etagValue);
+    }
+    // the response depends on Accept-Encoding request header whenever gzip is enabled, no matter if gzip is used.
+    if (configuration.isGzipEnabled()) {
+      response.setHeader(HttpHeader.VARY.toString(), "Accept-Encoding");
+    }
+    // an explicitly configured Last-Modified header has priority
+    if (!configuration.isDebug() && !response.containsHeader(HttpHeader.LAST_MODIFIED.toString())) {
+      response.setDateHeader(HttpHeader.LAST_MODIFIED.toString(), lastModified);
+    }
+  }
+  
+  /**
+   * @return the value of If-Modified-Since header in milliseconds or -1 if the header is missing or invalid.
+   */
+  private long getIfModifiedSince(final HttpServletRequest request) {
+    try {
+      return request.getDateHeader(HttpHeader.IF_MODIFIED_SINCE.toString());
+    } catch (final IllegalArgumentException e) {
+      LOG.debug("Invalid If-Modified-Since header value: {}",
+          request.getHeader(HttpHeader.IF_MODIFIED_SINCE.toString()));
+      return -1;
+    }
+  }
+  
   /**
    * Set the aggregatedFolderPath if required.
    */
@@ -265,22 +453,98 @@ public class WroManager
   }
   
   /**
-   * Serve images and other external resources referred by bundled resources.
+   * Serve images and other external resources referred by bundled resources. The served resources are cached (unless
+   * debug mode is enabled) and served along with validators (ETag and Last-Modified headers), allowing conditional
+   * requests to be answered with <code>304</code> status code.
    * 
-   * @param request
-   *          {@link HttpServletRequest} object.
-   * @param outputStream
-   *          where the stream will be written.
    * @throws IOException
    *           if no stream could be resolved.
    */
   private void serveProxyResourceRequest()
       throws IOException {
     final HttpServletRequest request = Context.get().getRequest();
-    final OutputStream outputStream = Context.get().getResponse().getOutputStream();
+    final HttpServletResponse response = Context.get().getResponse();
+    final boolean debug = Context.get().getConfig().isDebug();
     
     final String resourceId = request.getParameter(CssUrlRewritingProcessor.PARAM_RESOURCE_ID);
+    final String hash = request.getParameter(CssUrlRewritingProcessor.PARAM_RESOURCE_HASH);
     LOG.debug("locating stream for resourceId: {}", resourceId);
+    // only the allowed resources are cached, thus a cached resource doesn't have to be checked again
+    ProxyResource resource = resourceId != null && !debug ? proxyResourceCache.get(resourceId) : null;
+    if (resource != null && hash != null && !isFingerprintOf(hash, resource.getFingerprint())) {
+      // the url was created for a different version of the resource, which probably changed since it was cached.
+      LOG.debug("Outdated cached proxy resource: {}. Locating it again", resourceId);
+      proxyResourceCache.remove(resourceId);
+      resource = null;
+    }
+    if (resource == null) {
+      resource = SpriteCache.isSprite(resourceId) ? loadSprite(resourceId, debug) : loadProxyResource(resourceId,
+          debug);
+    }
+    if (resource == null) {
+      LOG.debug("Unknown sprite: {}. Sending {} status code", resourceId, HttpServletResponse.SC_NOT_FOUND);
+      response.sendError(HttpServletResponse.SC_NOT_FOUND);
+      return;
+    }
+    final Fingerprint fingerprint = resource.getFingerprint();
+    setProxyResourceCacheHeaders(response, hash, fingerprint, debug);
+    if (resource.isNotModified(request.getHeader(HttpHeader.IF_NONE_MATCH.toString()), getIfModifiedSince(request))) {
+      LOG.debug("Proxy resource not modified: {}. Sending {} status code", resourceId,
+          HttpServletResponse.SC_NOT_MODIFIED);
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      return;
+    }
+    if (fingerprint.getContentType() != null) {
+      response.setContentType(fingerprint.getContentType());
+    }
+    response.setHeader(HttpHeader.ETAG.toString(), fingerprint.getEtag());
+    if (!response.containsHeader(HttpHeader.LAST_MODIFIED.toString())) {
+      response.setDateHeader(HttpHeader.LAST_MODIFIED.toString(), fingerprint.getLastModified());
+    }
+    response.setContentLength(fingerprint.getContentLength());
+    final OutputStream outputStream = response.getOutputStream();
+    try {
+      IOUtils.write(resource.getContent(), outputStream);
+    } finally {
+      IOUtils.closeQuietly(outputStream);
+    }
+  }
+  
+  /**
+   * When the url of the proxy resource contains the hash of the resource content (see
+   * {@link WroConfiguration#isFingerprintProxyResources()}), the resource served for this url never changes and can be
+   * cached forever. When the hash is outdated (the resource changed after the url was created), the browser is asked to
+   * revalidate the resource.
+   */
+  private void setProxyResourceCacheHeaders(final HttpServletResponse response, final String hash,
+      final Fingerprint fingerprint, final boolean debug) {
+    if (hash != null && !debug) {
+      if (isFingerprintOf(hash, fingerprint)) {
+        final Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.YEAR, 1);
+        response.setHeader(HttpHeader.CACHE_CONTROL.toString(), IMMUTABLE_CACHE_CONTROL_VALUE);
+        response.setDateHeader(HttpHeader.EXPIRES.toString(), cal.getTimeInMillis());
+      } else {
+        LOG.debug("Outdated fingerprint of proxy resource: {}", hash);
+        response.setHeader(HttpHeader.CACHE_CONTROL.toString(), "no-cache");
+      }
+    }
+  }
+  
+  /**
+   * @return true if the hash identifies the version of the resource described by the fingerprint.
+   */
+  private boolean isFingerprintOf(final String hash, final Fingerprint fingerprint) {
+    return fingerprint.getEtag().equals("\"" + hash + "\"");
+  }
+  
+  /**
+   * Locates the proxy resource, after checking that it is allowed to be served, and caches it (unless debug mode is
+   * enabled).
+   */
+  private ProxyResource loadProxyResource(final String resourceId, final boolean debug)
+      throws IOException {
+    final HttpServletRequest request = Context.get().getRequest();
     final CssUrlRewritingProcessor processor = ProcessorsUtils.findPreProcessorByClass(CssUrlRewritingProcessor.class,
         processorsFactory.getPreProcessors());
     if (processor != null && !processor.isUriAllowed(resourceId)) {
@@ -290,9 +554,57 @@ public class WroManager
     if (is == null) {
       throw new WroRuntimeException("Cannot process request with uri: " + request.getRequestURI());
     }
-    IOUtils.copy(is, outputStream);
-    IOUtils.closeQuietly(is);
-    IOUtils.closeQuietly(outputStream);
+    final byte[] content;
+    try {
+      content = IOUtils.toByteArray(is);
+    } finally {
+      IOUtils.closeQuietly(is);
+    }
+    final String contentType = getProxyResourceContentType(resourceId);
+    final String hash = hashStrategy.getHash(new ByteArrayInputStream(content));
+    return debug || resourceId == null ? proxyResourceCache.create(content, contentType, hash) : proxyResourceCache.put(
+        resourceId, content, contentType, hash);
+  }
+  
+  /**
+   * Loads a sprite generated while processing the stylesheets. The sprites are generated by the application, thus are
+   * always allowed. A sprite missing from the {@link SpriteCache} (ex: after a cache clear, a restart or when served by
+   * another node of a cluster) is regenerated by processing the css groups, which are cached anyway for the requests of
+   * the stylesheets referring it.
+   *
+   * @return the sprite or null if no css group generates it.
+   */
+  private ProxyResource loadSprite(final String resourceId, final boolean debug)
+      throws IOException {
+    byte[] content = spriteCache.get(resourceId);
+    final boolean spritesEnabled = ProcessorsUtils.findPreProcessorByClass(CssSpritePreProcessor.class,
+        processorsFactory.getPreProcessors()) != null;
+    if (content == null && spritesEnabled) {
+      LOG.debug("Regenerating sprite: {}", resourceId);
+      for (final Group group : getModelFactory().create().getGroups()) {
+        if (content == null && group.hasResourcesOfType(ResourceType.CSS)) {
+          cacheStrategy.get(new CacheEntry(group.getName(), ResourceType.CSS, true));
+          content = spriteCache.get(resourceId);
+        }
+      }
+    }
+    if (content == null) {
+      return null;
+    }
+    final String contentType = getProxyResourceContentType(resourceId);
+    final String hash = hashStrategy.getHash(new ByteArrayInputStream(content));
+    return debug ? proxyResourceCache.create(content, contentType, hash) : proxyResourceCache.put(resourceId, content,
+        contentType, hash);
+  }
+  
+  /**
+   * @return the mime type of the proxy resource or null if it cannot be determined.
+   */
+  private String getProxyResourceContentType(final String resourceId) {
+    final String fileName = FilenameUtils.getName(resourceId);
+    final ServletContext servletContext = Context.get().getServletContext();
+    final String contentType = servletContext != null ? servletContext.getMimeType(fileName) : null;
+    return contentType != null ? contentType : URLConnection.guessContentTypeFromName(fileName);
   }
   
   /**
@@ -302,7 +614,23 @@ public class WroManager
     LOG.info("onCachePeriodChanged with value {} has been triggered!", period);
     cacheSchedulerHelper.scheduleWithPeriod(period);
     // flush the cache by destroying it.
+    clearCache();
+  }
+  
+  /**
+   * Clears the cache of the processed groups along with the data having the same lifetime: the generated sprites and the
+   * proxy resources referred by the groups. The fingerprints of the served bundles are kept until the reloaded content
+   * confirms or invalidates them. The registered callbacks are notified afterwards.
+   */
+  public final void clearCache() {
+    // the sprites are cleared first, since they are generated along with the cache.
+    spriteCache.clear();
+    // the referred resources (ex: images) may change as well
+    proxyResourceCache.clear();
     cacheStrategy.clear();
+    // the served content may change after the cache is cleared, thus the fingerprints must be confirmed by reloading it
+    fingerprintIndex.markStale();
+    callbackRegistry.onCacheCleared();
   }
   
   /**
@@ -312,6 +640,8 @@ public class WroManager
     LOG.info("onModelPeriodChanged with value {} has been triggered!", period);
     // trigger model destroy
     getModelFactory().destroy();
+    // the groups may change with the model
+    fingerprintIndex.markStale();
     modelSchedulerHelper.scheduleWithPeriod(period);
   }
   
@@ -324,6 +654,7 @@ public class WroManager
       modelSchedulerHelper.destroy();
       cacheStrategy.destroy();
       modelFactory.destroy();
+      destroyProcessors();
     } catch (final Exception e) {
       LOG.error("Exception occured during manager destroy!!!");
     } finally {
@@ -331,6 +662,22 @@ public class WroManager
     }
   }
   
+  /**
+   * Destroys the processors holding resources (ex: pools of engines). A processor used both as pre and post processor
+   * is destroyed only once.
+   */
+  private void destroyProcessors() {
+    final Collection<Object> processors = new ArrayList<Object>(processorsFactory.getPreProcessors());
+    processors.addAll(processorsFactory.getPostProcessors());
+    final Set<Object> destroyed = new HashSet<Object>();
+    for (final Object processor : processors) {
+      final Object original = AbstractDecorator.getOriginalDecoratedObject(processor);
+      if (original instanceof Destroyable && destroyed.add(original)) {
+        ((Destroyable) original).destroy();
+      }
+    }
+  }
+  
   /**
    * Check if all dependencies are set.
    */
@@ -446,6 +793,20 @@ public class WroManager
     return cacheStrategy;
   }
   
+  /**
+   * @return the {@link SpriteCache} holding the sprites generated while processing the stylesheets.
+   */
+  public final SpriteCache getSpriteCache() {
+    return spriteCache;
+  }
+  
+  /**
+   * @return the {@link FingerprintIndex} of the served bundles, which is marked as stale along with the cache clear.
+   */
+  public final FingerprintIndex getFingerprintIndex() {
+    return fingerprintIndex;
+  }
+  
   /**
    * @return the uriLocatorFactory
    */
@@ -479,6 +840,13 @@ public class WroManager
     callbackRegistry.registerCallback(callback);
   }
   
+  /**
+   * @return the {@link LifecycleCallbackRegistry} notified about the processing lifecycle.
+   */
+  public final LifecycleCallbackRegistry getCallbackRegistry() {
+    return callbackRegistry;
+  }
+  
   public final List<Transformer<WroModel>> getModelTransformers() {
     return modelTransformers;
   }
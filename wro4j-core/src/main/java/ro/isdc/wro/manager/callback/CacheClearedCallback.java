@@ -0,0 +1,18 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.manager.callback;
+
+/**
+ * An optional callback which can be implemented by a {@link LifecycleCallback} registered in the
+ * {@link LifecycleCallbackRegistry} in order to be notified when the cache is cleared. It is not part of the
+ * {@link LifecycleCallback} interface, thus the existing implementations of that interface are not affected.
+ *
+ * @since 1.4.7
+ */
+public interface CacheClearedCallback {
+  /**
+   * Called after the cache of the processed groups is cleared (ex: when the cache or the model is reloaded).
+   */
+  void onCacheCleared();
+}
@@ -15,7 +15,7 @@ import org.apache.commons.lang3.Validate;
  * @since 1.4.3
  */
 public class LifecycleCallbackDecorator
-    implements LifecycleCallback {
+    implements LifecycleCallback, CacheClearedCallback {
   private final LifecycleCallback decorated;
 
   public LifecycleCallbackDecorator(final LifecycleCallback decorated) {
@@ -85,4 +85,13 @@ public class LifecycleCallbackDecorator
   public void onProcessingComplete() {
     decorated.onProcessingComplete();
   }
+  
+  /**
+   * {@inheritDoc}
+   */
+  public void onCacheCleared() {
+    if (decorated instanceof CacheClearedCallback) {
+      ((CacheClearedCallback) decorated).onCacheCleared();
+    }
+  }
 }
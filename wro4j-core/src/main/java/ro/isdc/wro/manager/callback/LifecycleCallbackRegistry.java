@@ -3,8 +3,8 @@
  */
 package ro.isdc.wro.manager.callback;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
@@ -21,13 +21,13 @@ import org.slf4j.LoggerFactory;
  * @since 1.4.3
  */
 public class LifecycleCallbackRegistry
-  implements LifecycleCallback {
+  implements LifecycleCallback, CacheClearedCallback {
   private static final Logger LOG = LoggerFactory.getLogger(LifecycleCallbackRegistry.class);
 
   /**
-   * The list of registered callbacks.
+   * The list of registered callbacks. The callbacks can be registered while processing (ex: by processors).
    */
-  private List<LifecycleCallback> callbacks = new ArrayList<LifecycleCallback>();
+  private final List<LifecycleCallback> callbacks = new CopyOnWriteArrayList<LifecycleCallback>();
 
 
   /**
@@ -158,5 +158,20 @@ public class LifecycleCallbackRegistry
     }    
   }
   
+  /**
+   * Notifies the registered callbacks implementing {@link CacheClearedCallback}.
+   */
+  public void onCacheCleared() {
+    for (final LifecycleCallback callback : callbacks) {
+      try {
+        if (callback instanceof CacheClearedCallback) {
+          ((CacheClearedCallback) callback).onCacheCleared();
+        }
+      } catch (final Exception e) {
+        LOG.error("Problem invoking onCacheCleared", e);
+      }
+    }
+  }
+  
   
 }
@@ -11,7 +11,7 @@ package ro.isdc.wro.manager.callback;
  * @since 1.4.3
  */
 public class LifecycleCallbackSupport
-    implements LifecycleCallback {
+    implements LifecycleCallback, CacheClearedCallback {
   /**
    * {@inheritDoc}
    */
@@ -65,4 +65,10 @@ public class LifecycleCallbackSupport
    */
   public void onAfterMerge() {
   }
+  
+  /**
+   * {@inheritDoc}
+   */
+  public void onCacheCleared() {
+  }
 }
@@ -210,7 +210,7 @@ public class BaseWroManagerFactory
     try {
       managerInitializer.get().onModelPeriodChanged(period);
       // update cache too.
-      managerInitializer.get().getCacheStrategy().clear();
+      managerInitializer.get().clearCache();
     } catch (final WroRuntimeException e) {
       LOG.warn("[FAIL] Unable to reload model, probably because invoked outside of context");
     }
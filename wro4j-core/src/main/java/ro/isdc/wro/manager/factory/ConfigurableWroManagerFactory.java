@@ -19,6 +19,7 @@ import ro.isdc.wro.config.factory.FilterConfigWroConfigurationFactory;
 import ro.isdc.wro.config.factory.ServletContextPropertyWroConfigurationFactory;
 import ro.isdc.wro.model.resource.locator.ClasspathUriLocator;
 import ro.isdc.wro.model.resource.locator.ServletContextUriLocator;
+import ro.isdc.wro.model.resource.locator.SpriteUriLocator;
 import ro.isdc.wro.model.resource.locator.UriLocator;
 import ro.isdc.wro.model.resource.locator.UrlUriLocator;
 import ro.isdc.wro.model.resource.locator.factory.DefaultUriLocatorFactory;
@@ -54,6 +55,7 @@ public class ConfigurableWroManagerFactory extends BaseWroManagerFactory {
     map.put("servletContext", new ServletContextUriLocator());
     map.put("classpath", new ClasspathUriLocator());
     map.put("url", new UrlUriLocator());
+    map.put("sprite", new SpriteUriLocator());
     return map;
   }
 
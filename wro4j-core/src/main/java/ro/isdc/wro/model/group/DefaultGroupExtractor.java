@@ -5,8 +5,6 @@ package ro.isdc.wro.model.group;
 
 import javax.servlet.http.HttpServletRequest;
 
-import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,6 +30,10 @@ public class DefaultGroupExtractor
    * The name of the parameter used to decide if the group must be minimized.
    */
   public static final String PARAM_MINIMIZE = "minimize";
+  /**
+   * Cached copy of {@link ResourceType#values()}, avoiding the array clone on each request.
+   */
+  private static final ResourceType[] RESOURCE_TYPES = ResourceType.values();
 
   /**
    * {@inheritDoc}
@@ -44,8 +46,11 @@ public class DefaultGroupExtractor
     String uri = request.getRequestURI();
     // check if include or uri path are present and use one of these as request uri.
     uri = includeUriPath != null ? includeUriPath : uri;
-    final String groupName = FilenameUtils.getBaseName(uri);
-    return StringUtils.isEmpty(groupName) ? null : groupName;
+    final String path = stripPathParameters(uri);
+    final int nameStart = getNameStart(path);
+    final int extensionStart = path.lastIndexOf('.');
+    final int nameEnd = extensionStart < nameStart ? path.length() : extensionStart;
+    return nameStart == nameEnd ? null : path.substring(nameStart, nameEnd);
   }
 
   /**
@@ -58,21 +63,36 @@ public class DefaultGroupExtractor
   public ResourceType getResourceType(final HttpServletRequest request) {
     Validate.notNull(request);
     final String uri = request.getRequestURI();
-    ResourceType type = null;
-    try {
-      type = ResourceType.get(getExtensionFromUri(uri));
-    } catch (final IllegalArgumentException e) {
-      LOG.debug("[FAIL] Cannot identify resourceType for uri: {}", uri);
+    final String path = stripPathParameters(uri);
+    final int extensionStart = path.lastIndexOf('.');
+    if (extensionStart > getNameStart(path)) {
+      final int extensionLength = path.length() - extensionStart - 1;
+      for (final ResourceType type : RESOURCE_TYPES) {
+        final String extension = type.name();
+        if (extension.length() == extensionLength
+          && path.regionMatches(true, extensionStart + 1, extension, 0, extensionLength)) {
+          return type;
+        }
+      }
     }
-    return type;
+    LOG.debug("[FAIL] Cannot identify resourceType for uri: {}", uri);
+    return null;
+  }
+
+  /**
+   * The uri is cleaned up (the path parameters, like ;jsessionID, are removed). No copy is created when the uri doesn't
+   * contain any path parameter.
+   */
+  private static String stripPathParameters(final String uri) {
+    final int index = uri.indexOf(';');
+    return index < 0 ? uri : uri.substring(0, index);
   }
 
   /**
-   * The uri is cleaned up (the ;jsessionID is removed).
-   * @return the extension of the resource. 
+   * @return the index where the file name starts inside the provided path.
    */
-  private String getExtensionFromUri(final String uri) {
-    return FilenameUtils.getExtension(uri.replaceFirst("(.*)(;.*)", "$1"));
+  private static int getNameStart(final String path) {
+    return Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\')) + 1;
   }
 
   /**
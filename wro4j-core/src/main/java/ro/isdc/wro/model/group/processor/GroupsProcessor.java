@@ -4,30 +4,46 @@
 package ro.isdc.wro.model.group.processor;
 
 import java.io.IOException;
-import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.cache.CacheEntry;
+import ro.isdc.wro.config.ContextPropagatingCallable;
 import ro.isdc.wro.config.jmx.WroConfiguration;
 import ro.isdc.wro.manager.callback.LifecycleCallbackRegistry;
 import ro.isdc.wro.model.WroModel;
 import ro.isdc.wro.model.factory.WroModelFactory;
 import ro.isdc.wro.model.group.Group;
 import ro.isdc.wro.model.group.Inject;
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.SupportedResourceType;
+import ro.isdc.wro.model.resource.processor.GroupAware;
 import ro.isdc.wro.model.resource.processor.ProcessorsUtils;
+import ro.isdc.wro.model.resource.processor.ResourceIndependentAware;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.decorator.ExceptionHandlingProcessorDecorator;
+import ro.isdc.wro.model.resource.processor.decorator.ProcessorDecorator;
+import ro.isdc.wro.model.resource.processor.decorator.SourceMapAwareProcessorDecorator;
 import ro.isdc.wro.model.resource.processor.factory.ProcessorsFactory;
+import ro.isdc.wro.model.resource.processor.impl.js.SemicolonAppenderPreProcessor;
+import ro.isdc.wro.model.resource.processor.support.MappedContent;
+import ro.isdc.wro.model.resource.processor.support.SourceMap;
 import ro.isdc.wro.util.StopWatch;
+import ro.isdc.wro.util.WroUtil;
 
 
 /**
@@ -55,6 +71,10 @@ public class GroupsProcessor {
    */
   @Inject
   private transient PreProcessorExecutor preProcessorExecutor;
+  /**
+   * Runs the postProcessing of the resources in parallel.
+   */
+  private ExecutorService executor;
   
   /**
    * @param cacheKey
@@ -62,6 +82,16 @@ public class GroupsProcessor {
    * @return processed content.
    */
   public String process(final CacheEntry cacheKey) {
+    return processWithSourceMap(cacheKey).getContent();
+  }
+
+  /**
+   * @param cacheKey
+   *          to process.
+   * @return processed content along with its {@link SourceMap}. The map is null unless the source maps generation is
+   *         enabled and all the processors applied on the js group are source map aware.
+   */
+  public MappedContent processWithSourceMap(final CacheEntry cacheKey) {
     Validate.notNull(cacheKey);
     try {
       LOG.debug("Starting processing group [{}] of type [{}] with minimized flag: " + cacheKey.isMinimize(),
@@ -76,8 +106,13 @@ public class GroupsProcessor {
           throw new WroRuntimeException("No resources found in group: " + group.getName());
         }
       }
-      final String result = preProcessorExecutor.processAndMerge(filteredGroup.getResources(), cacheKey.isMinimize());
-      return doPostProcess(result, cacheKey);
+      final List<Resource> resources = filteredGroup.getResources();
+      final List<MappedContent> contents = preProcessorExecutor.processResourcesWithSourceMap(resources,
+          cacheKey.isMinimize());
+      if (shouldPostProcessInParallel(resources, cacheKey)) {
+        return doPostProcessInParallel(contents, cacheKey);
+      }
+      return doPostProcess(resources, contents, cacheKey);
     } catch (final IOException e) {
       throw new WroRuntimeException("Exception while merging resources", e);
     } finally {
@@ -86,21 +121,206 @@ public class GroupsProcessor {
   }
   
   /**
-   * Perform postProcessing.
+   * Perform postProcessing. When the first postProcessor is {@link GroupAware}, it is applied on the resources of the
+   * group, otherwise all the postProcessors are applied on the merged content.
    * 
    * @return the post processed contents.
    */
-  private String doPostProcess(final String content, final CacheEntry cacheEntry)
+  private MappedContent doPostProcess(final List<Resource> resources, final List<MappedContent> contents,
+      final CacheEntry cacheEntry)
+      throws IOException {
+    final List<ResourcePostProcessor> processors = new ArrayList<ResourcePostProcessor>(
+        getPostProcessorsToApply(cacheEntry));
+    if (!processors.isEmpty() && isGroupPostProcessor(processors.get(0))) {
+      final MappedContent content = applyGroupPostProcessor(processors.remove(0), resources, contents);
+      return applyPostProcessors(processors, content);
+    }
+    return applyPostProcessors(processors, MappedContent.merge(contents));
+  }
+
+  /**
+   * @return true if the postProcessor can process the resources of a group at once. The group processing doesn't
+   *         provide a {@link SourceMap}, thus it is not used when the source maps are generated.
+   */
+  private boolean isGroupPostProcessor(final ResourcePostProcessor processor) {
+    return !config.isGenerateSourceMaps()
+        && new ProcessorDecorator(processor).getOriginalDecoratedObject() instanceof GroupAware;
+  }
+
+  /**
+   * Applies the {@link GroupAware} postProcessor on the preProcessed content of each resource. A failure is handled
+   * the same way as {@link ExceptionHandlingProcessorDecorator} does: the merged content is left unchanged when the
+   * failing processors are ignored.
+   * 
+   * @return the content of the processed group.
+   */
+  private MappedContent applyGroupPostProcessor(final ResourcePostProcessor processor, final List<Resource> resources,
+      final List<MappedContent> contents)
       throws IOException {
-    Validate.notNull(content);
+    final GroupAware groupProcessor = (GroupAware) new ProcessorDecorator(processor).getOriginalDecoratedObject();
+    injector.inject(groupProcessor);
+    final List<String> inputs = new ArrayList<String>();
+    for (final MappedContent content : contents) {
+      inputs.add(content.getContent());
+    }
+    final StringWriter writer = new StringWriter();
+    callbackRegistry.onBeforePostProcess();
+    try {
+      groupProcessor.processGroup(resources, inputs, writer);
+      return new MappedContent(writer.toString(), null);
+    } catch (final Exception e) {
+      final String processorName = groupProcessor.getClass().getSimpleName();
+      LOG.debug("Failed to process the group using processor: {}", processorName);
+      if (config.isIgnoreFailingProcessor()) {
+        return MappedContent.merge(contents);
+      } else if (e instanceof RuntimeException) {
+        throw (RuntimeException) e;
+      } else {
+        throw new WroRuntimeException("The processor: " + processorName + " failed", e);
+      }
+    } finally {
+      callbackRegistry.onAfterPostProcess();
+    }
+  }
+
+  /**
+   * @return the postProcessors to apply for the provided cache entry.
+   */
+  private Collection<ResourcePostProcessor> getPostProcessorsToApply(final CacheEntry cacheEntry) {
     final Collection<ResourcePostProcessor> allPostProcessors = processorsFactory.getPostProcessors();
     if (allPostProcessors.isEmpty() && processorsFactory.getPreProcessors().isEmpty()) {
       LOG.warn("No processors defined. Please, check if your configuration is correct.");
     }
-    final Collection<ResourcePostProcessor> processors = ProcessorsUtils.filterProcessorsToApply(
-        cacheEntry.isMinimize(), cacheEntry.getType(), allPostProcessors);
+    return ProcessorsUtils.filterProcessorsToApply(cacheEntry.isMinimize(), cacheEntry.getType(), allPostProcessors);
+  }
+
+  /**
+   * The number of available processors is intentionally not checked (as for parallel preProcessing), because the
+   * result of the chunked postProcessing differs from the result of postProcessing the merged content, thus should not
+   * depend on the machine running the application.
+   */
+  private boolean shouldPostProcessInParallel(final List<Resource> resources, final CacheEntry cacheEntry) {
+    return config.isParallelPostprocessing() && cacheEntry.getType() == ResourceType.JS && resources.size() > 1;
+  }
+
+  /**
+   * Perform postProcessing of the resources processed separately. The leading minimize aware js postProcessors are
+   * applied on each resource in parallel, then the results are merged, each one ending with a semicolon (the same way
+   * as {@link SemicolonAppenderPreProcessor} does), thus a resource cannot change the meaning of the next one. The
+   * remaining postProcessors (which may need the entire content of the group) are applied on the merged content.
+   *
+   * @param contents
+   *          the preProcessed content of each resource.
+   * @return the post processed contents.
+   */
+  private MappedContent doPostProcessInParallel(final List<MappedContent> contents, final CacheEntry cacheEntry)
+      throws IOException {
+    final List<ResourcePostProcessor> processors = new ArrayList<ResourcePostProcessor>(
+        getPostProcessorsToApply(cacheEntry));
+    final List<ResourcePostProcessor> resourceProcessors = new ArrayList<ResourcePostProcessor>();
+    while (!processors.isEmpty() && isResourcePostProcessor(processors.get(0))) {
+      resourceProcessors.add(processors.remove(0));
+    }
+    final MappedContent content = resourceProcessors.isEmpty() ? MappedContent.merge(contents)
+        : applyResourcePostProcessors(resourceProcessors, contents);
     return applyPostProcessors(processors, content);
   }
+
+  /**
+   * Applies the postProcessors on each resource in parallel.
+   *
+   * @return the merged post processed contents.
+   */
+  private MappedContent applyResourcePostProcessors(final List<ResourcePostProcessor> processors,
+      final List<MappedContent> contents)
+      throws IOException {
+    LOG.debug("Running postProcessing in Parallel with processors: {}", processors);
+    final List<Future<MappedContent>> futures = new ArrayList<Future<MappedContent>>();
+    callbackRegistry.onBeforePostProcess();
+    try {
+      for (final MappedContent content : contents) {
+        // decorate with ContextPropagatingCallable in order to allow spawn threads to access the Context
+        futures.add(getExecutorService().submit(
+            new ContextPropagatingCallable<MappedContent>(new Callable<MappedContent>() {
+              public MappedContent call()
+                  throws Exception {
+                return postProcessResource(processors, content);
+              }
+            })));
+      }
+      final List<MappedContent> result = new ArrayList<MappedContent>();
+      for (final Future<MappedContent> future : futures) {
+        try {
+          result.add(future.get());
+        } catch (final Exception e) {
+          // propagate original cause
+          final Throwable cause = e.getCause();
+          if (cause instanceof WroRuntimeException) {
+            throw (WroRuntimeException) cause;
+          } else if (cause instanceof IOException) {
+            throw (IOException) cause;
+          } else {
+            throw new WroRuntimeException("Problem during parallel post processing", e.getCause());
+          }
+        }
+      }
+      return MappedContent.merge(result);
+    } finally {
+      for (final Future<MappedContent> future : futures) {
+        future.cancel(true);
+      }
+      callbackRegistry.onAfterPostProcess();
+    }
+  }
+
+  /**
+   * @return true if the postProcessor can be applied on each resource separately: only the minimize aware js
+   *         processors explicitly declaring (see {@link ResourceIndependentAware}) that they don't need the entire
+   *         content of the group are applied this way.
+   */
+  private boolean isResourcePostProcessor(final ResourcePostProcessor processor) {
+    final ProcessorDecorator decorator = new ProcessorDecorator(processor);
+    final SupportedResourceType supportedType = decorator.getSupportedResourceType();
+    final Object originalProcessor = decorator.getOriginalDecoratedObject();
+    return decorator.isMinimize() && supportedType != null && supportedType.value() == ResourceType.JS
+        && originalProcessor instanceof ResourceIndependentAware
+        && ((ResourceIndependentAware) originalProcessor).isResourceIndependent();
+  }
+
+  /**
+   * Applies the postProcessors on the content of a single resource and ends the result with a semicolon.
+   */
+  private MappedContent postProcessResource(final List<ResourcePostProcessor> processors, final MappedContent content)
+      throws IOException {
+    MappedContent result = content;
+    for (final ResourcePostProcessor processor : processors) {
+      result = postProcess(processor, result);
+    }
+    return postProcess(new SemicolonAppenderPreProcessor(), result);
+  }
+
+  /**
+   * Applies a decorated postProcessor and composes its {@link SourceMap} (if provided) with the map of the content.
+   */
+  private MappedContent postProcess(final Object processor, final MappedContent content)
+      throws IOException {
+    final Writer writer = new StringWriter();
+    final SourceMapAwareProcessorDecorator sourceMapAware = new SourceMapAwareProcessorDecorator(processor,
+        content.getSourceMap() != null);
+    decorateProcessor(sourceMapAware).process(new StringReader(content.getContent()), writer);
+    return sourceMapAware.next(content, writer.toString());
+  }
+
+  private ExecutorService getExecutorService() {
+    if (executor == null) {
+      // use at most the number of available processors (true parallelism)
+      final int threadPoolSize = Runtime.getRuntime().availableProcessors();
+      LOG.debug("Parallel thread pool size: {}", threadPoolSize);
+      executor = Executors.newFixedThreadPool(threadPoolSize,
+          WroUtil.createDaemonThreadFactory("parallelPostprocessing"));
+    }
+    return executor;
+  }
   
   /**
    * Apply resourcePostProcessors.
@@ -111,37 +331,33 @@ public class GroupsProcessor {
    *          to process with all postProcessors.
    * @return the post processed content.
    */
-  private String applyPostProcessors(final Collection<ResourcePostProcessor> processors, final String content)
+  private MappedContent applyPostProcessors(final Collection<ResourcePostProcessor> processors,
+      final MappedContent content)
       throws IOException {
     LOG.debug("postProcessors: {}", processors);
     if (processors.isEmpty()) {
       return content;
     }
-    Reader reader = new StringReader(content.toString());
-    Writer writer = null;
+    MappedContent result = content;
     final StopWatch stopWatch = new StopWatch();
     for (final ResourcePostProcessor processor : processors) {
       stopWatch.start("Using " + processor.getClass().getSimpleName());
-      writer = new StringWriter();
       try {
         callbackRegistry.onBeforePostProcess();
-        decorateProcessor(processor).process(reader, writer);
+        result = postProcess(processor, result);
       } finally {
         stopWatch.stop();
         callbackRegistry.onAfterPostProcess();
-        IOUtils.closeQuietly(reader);
-        IOUtils.closeQuietly(writer);
       }
-      reader = new StringReader(writer.toString());
     }
     LOG.debug(stopWatch.prettyPrint());
-    return writer.toString();
+    return result;
   }
   
   /**
    * @return a decorated postProcessor.
    */
-  private ResourcePostProcessor decorateProcessor(final ResourcePostProcessor processor) {
+  private ResourcePostProcessor decorateProcessor(final Object processor) {
     ResourcePostProcessor decorated = new ExceptionHandlingProcessorDecorator(processor);
     injector.inject(decorated);
     return decorated;
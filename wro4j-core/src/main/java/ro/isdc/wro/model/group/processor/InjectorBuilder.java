@@ -14,6 +14,8 @@ import ro.isdc.wro.cache.CacheEntry;
 import ro.isdc.wro.cache.CacheStrategy;
 import ro.isdc.wro.cache.ContentHashEntry;
 import ro.isdc.wro.cache.DefaultSynchronizedCacheStrategyDecorator;
+import ro.isdc.wro.cache.FingerprintIndex;
+import ro.isdc.wro.cache.SpriteCache;
 import ro.isdc.wro.cache.impl.LruMemoryCacheStrategy;
 import ro.isdc.wro.config.Context;
 import ro.isdc.wro.config.jmx.WroConfiguration;
@@ -53,6 +55,8 @@ public class InjectorBuilder {
   private ProcessorsFactory processorsFactory = new SimpleProcessorsFactory();
   private NamingStrategy namingStrategy = new NoOpNamingStrategy();
   private HashStrategy hashStrategy = new SHA1HashStrategy();
+  private SpriteCache spriteCache = new SpriteCache();
+  private FingerprintIndex fingerprintIndex = new FingerprintIndex();
   private WroModelFactory modelFactory = null;
   private GroupExtractor groupExtractor = null;
   /**
@@ -163,6 +167,16 @@ public class InjectorBuilder {
         return hashStrategy;
       }
     });
+    map.put(SpriteCache.class, new InjectorObjectFactory<SpriteCache>() {
+      public SpriteCache create() {
+        return spriteCache;
+      }
+    });
+    map.put(FingerprintIndex.class, new InjectorObjectFactory<FingerprintIndex>() {
+      public FingerprintIndex create() {
+        return fingerprintIndex;
+      }
+    });
   }
 
   public Injector build() {
@@ -180,6 +194,12 @@ public class InjectorBuilder {
     groupExtractor = manager.getGroupExtractor();
     cacheStrategy = manager.getCacheStrategy();
     hashStrategy = manager.getHashStrategy();
+    spriteCache = manager.getSpriteCache();
+    fingerprintIndex = manager.getFingerprintIndex();
+    // the registry of the manager is available once the manager is injected
+    if (manager.getCallbackRegistry() != null) {
+      callbackRegistry = manager.getCallbackRegistry();
+    }
     modelTransformers = manager.getModelTransformers();
     return this;
   }
@@ -27,12 +27,18 @@ import ro.isdc.wro.config.jmx.WroConfiguration;
 import ro.isdc.wro.manager.callback.LifecycleCallbackRegistry;
 import ro.isdc.wro.model.group.Inject;
 import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.locator.factory.UriLocatorFactory;
 import ro.isdc.wro.model.resource.processor.ProcessorsUtils;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
 import ro.isdc.wro.model.resource.processor.decorator.ExceptionHandlingProcessorDecorator;
 import ro.isdc.wro.model.resource.processor.decorator.MinimizeAwareProcessorDecorator;
+import ro.isdc.wro.model.resource.processor.decorator.SourceMapAwareProcessorDecorator;
 import ro.isdc.wro.model.resource.processor.factory.ProcessorsFactory;
+import ro.isdc.wro.model.resource.processor.support.MappedContent;
+import ro.isdc.wro.model.resource.processor.support.SourceMap;
+import ro.isdc.wro.model.resource.processor.support.css.CssTokenStreamProcessor;
+import ro.isdc.wro.model.resource.processor.support.css.CssVisitorProcessor;
 import ro.isdc.wro.util.StopWatch;
 import ro.isdc.wro.util.WroUtil;
 
@@ -73,20 +79,53 @@ public class PreProcessorExecutor {
    */
   public String processAndMerge(final List<Resource> resources, final boolean minimize)
       throws IOException {
+    return StringUtils.join(processResources(resources, minimize), "");
+  }
+
+  /**
+   * Apply preProcessors on resources without merging them. Useful when the resources must be post processed
+   * separately.
+   *
+   * @param resources
+   *          what are the resources to process.
+   * @param minimize
+   *          whether minimize aware processors must be applied or not.
+   * @return the preProcessed content of each resource, in the order of the provided resources.
+   */
+  public List<String> processResources(final List<Resource> resources, final boolean minimize)
+      throws IOException {
+    final List<String> result = new ArrayList<String>();
+    for (final MappedContent content : processResourcesWithSourceMap(resources, minimize)) {
+      result.add(content.getContent());
+    }
+    return result;
+  }
+
+  /**
+   * Apply preProcessors on resources without merging them and keep the {@link SourceMap} of each processed js resource
+   * (when the source maps generation is enabled).
+   *
+   * @param resources
+   *          what are the resources to process.
+   * @param minimize
+   *          whether minimize aware processors must be applied or not.
+   * @return the preProcessed content of each resource, in the order of the provided resources.
+   */
+  public List<MappedContent> processResourcesWithSourceMap(final List<Resource> resources, final boolean minimize)
+      throws IOException {
     callbackRegistry.onBeforeMerge();
     try {
       Validate.notNull(resources);
       LOG.debug("process and merge resources: {}", resources);
-      final StringBuffer result = new StringBuffer();
       if (shouldRunInParallel(resources)) {
-        result.append(runInParallel(resources, minimize));
-      } else {
-        for (final Resource resource : resources) {
-          LOG.debug("\tmerging resource: {}", resource);
-          result.append(applyPreProcessors(resource, minimize));
-        }
+        return runInParallel(resources, minimize);
       }
-      return result.toString();
+      final List<MappedContent> result = new ArrayList<MappedContent>();
+      for (final Resource resource : resources) {
+        LOG.debug("\tmerging resource: {}", resource);
+        result.add(applyPreProcessors(resource, minimize));
+      }
+      return result;
     } finally {
       callbackRegistry.onAfterMerge();
     }
@@ -101,17 +140,17 @@ public class PreProcessorExecutor {
   /**
    * runs the pre processors in parallel.
    * 
-   * @return merged and pre processed content.
+   * @return the pre processed content of each resource.
    */
-  private String runInParallel(final List<Resource> resources, final boolean minimize)
+  private List<MappedContent> runInParallel(final List<Resource> resources, final boolean minimize)
       throws IOException {
     LOG.debug("Running preProcessing in Parallel");
-    final StringBuffer result = new StringBuffer();
-    final List<Callable<String>> callables = new ArrayList<Callable<String>>();
+    final List<MappedContent> result = new ArrayList<MappedContent>();
+    final List<Callable<MappedContent>> callables = new ArrayList<Callable<MappedContent>>();
     for (final Resource resource : resources) {
       // decorate with ContextPropagatingCallable in order to allow spawn threads to access the Context
-      callables.add(new ContextPropagatingCallable<String>(new Callable<String>() {
-        public String call()
+      callables.add(new ContextPropagatingCallable<MappedContent>(new Callable<MappedContent>() {
+        public MappedContent call()
             throws Exception {
           LOG.debug("Callable started for resource: {} ...", resource);
           return applyPreProcessors(resource, minimize);
@@ -119,14 +158,14 @@ public class PreProcessorExecutor {
       }));
     }
     final ExecutorService exec = getExecutorService();
-    final List<Future<String>> futures = new ArrayList<Future<String>>();
-    for (final Callable<String> callable : callables) {
+    final List<Future<MappedContent>> futures = new ArrayList<Future<MappedContent>>();
+    for (final Callable<MappedContent> callable : callables) {
       futures.add(exec.submit(callable));
     }
     
-    for (final Future<String> future : futures) {
+    for (final Future<MappedContent> future : futures) {
       try {
-        result.append(future.get());
+        result.add(future.get());
       } catch (final Exception e) {
         // propagate original cause
         final Throwable cause = e.getCause();
@@ -139,7 +178,7 @@ public class PreProcessorExecutor {
         }
       }
     }
-    return result.toString();
+    return result;
   }
   
   private ExecutorService getExecutorService() {
@@ -160,14 +199,20 @@ public class PreProcessorExecutor {
    *          the {@link Resource} on which processors will be applied
    * @param processors
    *          the list of processor to apply on the resource.
+   * @return the processed content, mapped to the resource if the source maps generation is enabled.
    */
-  private String applyPreProcessors(final Resource resource, final boolean minimize)
+  private MappedContent applyPreProcessors(final Resource resource, final boolean minimize)
       throws IOException {
     //TODO: apply filtering inside a specialized decorator
-    final Collection<ResourcePreProcessor> processors = ProcessorsUtils.filterProcessorsToApply(minimize,
+    Collection<ResourcePreProcessor> processors = ProcessorsUtils.filterProcessorsToApply(minimize,
         resource.getType(), processorsFactory.getPreProcessors());
+    if (config.isFuseCssProcessors() && resource.getType() == ResourceType.CSS) {
+      processors = fuseCssProcessors(processors);
+    }
     LOG.debug("applying preProcessors: {}", processors);
-    String resourceContent = getResourceContent(resource);
+    final String content = getResourceContent(resource);
+    MappedContent resourceContent = new MappedContent(content, isGenerateSourceMap(resource) ? SourceMap.identity(
+        resource.getUri(), content) : null);
     if (processors.isEmpty()) {
       return resourceContent;
     }
@@ -179,12 +224,14 @@ public class PreProcessorExecutor {
       callbackRegistry.onBeforePreProcess();
       
       writer = new StringWriter();
-      final Reader reader = new StringReader(resourceContent);
+      final Reader reader = new StringReader(resourceContent.getContent());
       try {
         //decorate and process
-        decoratePreProcessor(processor).process(resource, reader, writer);
+        final SourceMapAwareProcessorDecorator sourceMapAware = new SourceMapAwareProcessorDecorator(processor,
+            resourceContent.getSourceMap() != null);
+        decoratePreProcessor(sourceMapAware).process(resource, reader, writer);
         //use the outcome for next input
-        resourceContent = writer.toString();
+        resourceContent = sourceMapAware.next(resourceContent, writer.toString());
       } finally {
         stopWatch.stop();
         callbackRegistry.onAfterPreProcess();
@@ -193,9 +240,47 @@ public class PreProcessorExecutor {
       }
     }
     LOG.debug(stopWatch.prettyPrint());
-    return writer.toString();
+    return resourceContent;
+  }
+
+  /**
+   * @return true if the source map of the provided resource should be created.
+   */
+  private boolean isGenerateSourceMap(final Resource resource) {
+    return config.isGenerateSourceMaps() && resource.getType() == ResourceType.JS;
   }
   
+  /**
+   * Replaces the consecutive {@link CssVisitorProcessor}'s with a {@link CssTokenStreamProcessor} applying them in a
+   * single pass.
+   */
+  private Collection<ResourcePreProcessor> fuseCssProcessors(final Collection<ResourcePreProcessor> processors) {
+    final List<ResourcePreProcessor> result = new ArrayList<ResourcePreProcessor>();
+    final List<CssVisitorProcessor> fused = new ArrayList<CssVisitorProcessor>();
+    for (final ResourcePreProcessor processor : processors) {
+      if (processor instanceof CssVisitorProcessor) {
+        // the fused processors are not decorated, thus must be injected here
+        injector.inject(processor);
+        fused.add((CssVisitorProcessor) processor);
+      } else {
+        addFusedProcessor(result, fused);
+        result.add(processor);
+      }
+    }
+    addFusedProcessor(result, fused);
+    return result;
+  }
+
+  private void addFusedProcessor(final List<ResourcePreProcessor> processors, final List<CssVisitorProcessor> fused) {
+    if (fused.size() == 1) {
+      processors.add((ResourcePreProcessor) fused.get(0));
+    } else if (fused.size() > 1) {
+      LOG.debug("fusing css processors: {}", fused);
+      processors.add(new CssTokenStreamProcessor(fused));
+    }
+    fused.clear();
+  }
+
   /**
    * Decorates preProcessor with mandatory decorators.
    */
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.locator;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.commons.lang3.Validate;
+
+import ro.isdc.wro.cache.SpriteCache;
+import ro.isdc.wro.model.group.Inject;
+
+
+/**
+ * Locates the sprites generated during css processing (see
+ * {@link ro.isdc.wro.model.resource.processor.impl.css.CssSpritePreProcessor}) and held by the injected
+ * {@link SpriteCache}.
+ *
+ * @since 1.4.7
+ */
+public class SpriteUriLocator
+    implements UriLocator {
+  /**
+   * Prefix of the sprite uri's.
+   */
+  public static final String PREFIX = SpriteCache.PREFIX;
+  @Inject
+  private SpriteCache spriteCache;
+
+  /**
+   * Check if a uri is a sprite.
+   *
+   * @param uri
+   *          to check.
+   * @return true if the uri is a sprite.
+   */
+  public static boolean isValid(final String uri) {
+    return SpriteCache.isSprite(uri);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public boolean accept(final String uri) {
+    return isValid(uri);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public InputStream locate(final String uri)
+      throws IOException {
+    Validate.notNull(uri);
+    final byte[] content = spriteCache == null ? null : spriteCache.get(uri);
+    if (content == null) {
+      throw new IOException("Unknown sprite: " + uri);
+    }
+    return new ByteArrayInputStream(content);
+  }
+}
@@ -5,6 +5,7 @@ package ro.isdc.wro.model.resource.locator.factory;
 
 import ro.isdc.wro.model.resource.locator.ClasspathUriLocator;
 import ro.isdc.wro.model.resource.locator.ServletContextUriLocator;
+import ro.isdc.wro.model.resource.locator.SpriteUriLocator;
 import ro.isdc.wro.model.resource.locator.UrlUriLocator;
 
 
@@ -18,6 +19,6 @@ import ro.isdc.wro.model.resource.locator.UrlUriLocator;
 public final class DefaultUriLocatorFactory extends SimpleUriLocatorFactory {
   public DefaultUriLocatorFactory() {
     addUriLocator(new ServletContextUriLocator()).addUriLocator(new ClasspathUriLocator()).addUriLocator(
-      new UrlUriLocator());
+      new UrlUriLocator()).addUriLocator(new SpriteUriLocator());
   }
 }
@@ -0,0 +1,20 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor;
+
+/**
+ * Implemented by processors which output depends only on the processed content and on a configuration which can be
+ * described by a string (the fingerprint). Two processors having the same fingerprint must produce the same result for
+ * the same input. Only such processors can have their results remembered by
+ * {@link ro.isdc.wro.model.resource.processor.decorator.MemoizingProcessorDecorator}.
+ *
+ * @since 1.4.7
+ */
+public interface FingerprintAware {
+  /**
+   * @return the string identifying the processor and its configuration (ex: the compilation level of a compressor) or
+   *         null if the configuration cannot be identified, in which case the results are not remembered.
+   */
+  String getFingerprint();
+}
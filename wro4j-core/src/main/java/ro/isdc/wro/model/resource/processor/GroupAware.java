@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import ro.isdc.wro.model.resource.Resource;
+
+
+/**
+ * Mark postProcessors implementing this interface as able to process all the resources of a group at once, each
+ * resource being a separate input (ex: a compiler handling several source files in a single compilation). When such a
+ * processor is the first postProcessor applied on a group, it receives the preProcessed content of each resource
+ * instead of the merged content. The group processing is not used when the source maps are generated.
+ *
+ * @since 1.4.7
+ */
+public interface GroupAware {
+  /**
+   * Process the resources of the group and write the merged result.
+   *
+   * @param resources
+   *          the resources of the group, in the order they are merged.
+   * @param contents
+   *          the preProcessed content of each resource, in the same order as the resources.
+   * @param writer
+   *          where the processed content of the group is written.
+   */
+  void processGroup(List<Resource> resources, List<String> contents, Writer writer)
+      throws IOException;
+}
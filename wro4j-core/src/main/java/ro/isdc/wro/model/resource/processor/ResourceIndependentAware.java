@@ -0,0 +1,19 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor;
+
+/**
+ * Mark processors implementing this interface as able to process each resource of a group separately, with the same
+ * result as processing the merged content. Only such postProcessors are applied on each resource when the parallel
+ * postProcessing is enabled. A processor which needs the entire content of the group (ex: a compiler renaming the
+ * symbols shared by several resources) must not implement this interface or must return false.
+ *
+ * @since 1.4.7
+ */
+public interface ResourceIndependentAware {
+  /**
+   * @return true if the processor doesn't need the other resources of the group to process a resource.
+   */
+  boolean isResourceIndependent();
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.processor.support.SourceMap;
+
+
+/**
+ * Mark processors implementing this interface as able to describe how they change the content using a
+ * {@link SourceMap}. When the source maps generation is enabled, the maps of all processors are composed into the map
+ * of the processed group. A processor which changes the content without implementing this interface prevents the
+ * generation of the map.
+ *
+ * @since 1.4.7
+ */
+public interface SourceMapAware {
+  /**
+   * Process the content the same way as the process method does.
+   *
+   * @param resource
+   *          the processed resource, can be null when used as postProcessor.
+   * @return the map of the written content to the content of the reader.
+   */
+  SourceMap processWithSourceMap(Resource resource, Reader reader, Writer writer)
+      throws IOException;
+}
@@ -0,0 +1,190 @@
+/**
+ * Copyright wro4j@2012
+ */
+package ro.isdc.wro.model.resource.processor.decorator;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.processor.FingerprintAware;
+import ro.isdc.wro.model.resource.support.hash.HashStrategy;
+import ro.isdc.wro.model.resource.support.hash.SHA1HashStrategy;
+
+
+/**
+ * Remembers the result of the decorated processor, identified by the hash of the processed content. Useful for slow
+ * processors (ex: the ones based on a javascript engine) which output depends only on the processed content and on the
+ * processor configuration: the result survives cache clearing and model reloading.
+ * <p/>
+ * The results are stored in memory (the least recently used results are discarded when the maximum number of entries is
+ * reached) and optionally in a folder, which makes them available after a restart. The resource uri is part of the key,
+ * because some processors (ex: css url rewriting) produce a result which depends on the location of the resource.
+ * <p/>
+ * The decorated processor is identified by its {@link FingerprintAware#getFingerprint()}, which describes its options.
+ * The results of a processor which doesn't provide a fingerprint are not remembered, since the results of differently
+ * configured processors could be mixed.
+ *
+ * @since 1.4.7
+ */
+public class MemoizingProcessorDecorator
+    extends ProcessorDecorator {
+  private static final Logger LOG = LoggerFactory.getLogger(MemoizingProcessorDecorator.class);
+  /**
+   * The default maximum number of results kept in memory.
+   */
+  public static final int DEFAULT_MAX_ENTRIES = 500;
+  /**
+   * The stored content is not related to the encoding of the processed resources, UTF-8 handles any content.
+   */
+  private static final String STORAGE_ENCODING = "UTF-8";
+  private static final String EXTENSION = ".processed";
+  private final HashStrategy hashStrategy = new SHA1HashStrategy();
+  private final Map<String, String> memoryCache;
+  /**
+   * The folder where the results are stored or null if the disk storage is not used.
+   */
+  private final File storageFolder;
+
+  /**
+   * Remembers the results of the processor in memory only.
+   *
+   * @param processor
+   *          the pre or post processor to decorate.
+   */
+  public MemoizingProcessorDecorator(final Object processor) {
+    this(processor, null);
+  }
+
+  /**
+   * @param processor
+   *          the pre or post processor to decorate.
+   * @param storageFolder
+   *          the folder where the results are stored. When null, the results are remembered in memory only.
+   */
+  public MemoizingProcessorDecorator(final Object processor, final File storageFolder) {
+    this(processor, storageFolder, DEFAULT_MAX_ENTRIES);
+  }
+
+  /**
+   * @param processor
+   *          the pre or post processor to decorate.
+   * @param storageFolder
+   *          the folder where the results are stored. When null, the results are remembered in memory only.
+   * @param maxEntries
+   *          the maximum number of results kept in memory.
+   */
+  public MemoizingProcessorDecorator(final Object processor, final File storageFolder, final int maxEntries) {
+    super(processor);
+    Validate.isTrue(maxEntries > 0, "The maximum number of entries must be positive");
+    this.storageFolder = storageFolder;
+    this.memoryCache = Collections.synchronizedMap(new LinkedHashMap<String, String>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, String> eldest) {
+        return size() > maxEntries;
+      }
+    });
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void process(final Resource resource, final Reader reader, final Writer writer)
+      throws IOException {
+    final String fingerprint = getProcessorFingerprint();
+    if (fingerprint == null) {
+      LOG.debug("No fingerprint available for processor: {}, the result is not remembered",
+          getOriginalDecoratedObject());
+      super.process(resource, reader, writer);
+      return;
+    }
+    try {
+      final String content = IOUtils.toString(reader);
+      final String key = computeKey(fingerprint, resource, content);
+      String result = memoryCache.get(key);
+      if (result == null) {
+        result = load(key);
+        if (result == null) {
+          final StringWriter processedWriter = new StringWriter();
+          super.process(resource, new StringReader(content), processedWriter);
+          result = processedWriter.toString();
+          store(key, result);
+        }
+        memoryCache.put(key, result);
+      } else {
+        LOG.debug("Reusing processed content of resource: {}", resource);
+      }
+      writer.write(result);
+    } finally {
+      reader.close();
+      writer.close();
+    }
+  }
+
+  /**
+   * @return the string identifying the decorated processor and its configuration or null if the results should not be
+   *         remembered. By default the fingerprint of a {@link FingerprintAware} processor is used.
+   */
+  protected String getProcessorFingerprint() {
+    final Object processor = getOriginalDecoratedObject();
+    return processor instanceof FingerprintAware ? ((FingerprintAware) processor).getFingerprint() : null;
+  }
+
+  private String computeKey(final String fingerprint, final Resource resource, final String content)
+      throws IOException {
+    final StringBuilder keySource = new StringBuilder(content.length() + 128);
+    keySource.append(fingerprint).append('\n');
+    keySource.append(resource == null ? "" : resource.getUri()).append('\n');
+    keySource.append(content);
+    return hashStrategy.getHash(new ByteArrayInputStream(keySource.toString().getBytes(STORAGE_ENCODING)));
+  }
+
+  /**
+   * @return the stored result or null if the disk storage is not used or it has no result for provided key.
+   */
+  private String load(final String key) {
+    if (storageFolder != null) {
+      final File file = new File(storageFolder, key + EXTENSION);
+      if (file.isFile()) {
+        try {
+          return FileUtils.readFileToString(file, STORAGE_ENCODING);
+        } catch (final IOException e) {
+          LOG.warn("Cannot read stored result: " + file, e);
+        }
+      }
+    }
+    return null;
+  }
+
+  private void store(final String key, final String result) {
+    if (storageFolder != null) {
+      final File file = new File(storageFolder, key + EXTENSION);
+      // write into a temporary file first, this way a concurrent reader never gets a partially written result.
+      final File tempFile = new File(storageFolder, key + "." + Thread.currentThread().getId() + ".tmp");
+      try {
+        FileUtils.writeStringToFile(tempFile, result, STORAGE_ENCODING);
+        if (!tempFile.renameTo(file)) {
+          FileUtils.deleteQuietly(tempFile);
+        }
+      } catch (final IOException e) {
+        LOG.warn("Cannot store result: " + file, e);
+        FileUtils.deleteQuietly(tempFile);
+      }
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor.decorator;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.processor.SourceMapAware;
+import ro.isdc.wro.model.resource.processor.support.MappedContent;
+import ro.isdc.wro.model.resource.processor.support.SourceMap;
+
+
+/**
+ * Keeps the {@link SourceMap} provided by the decorated processor, if it is {@link SourceMapAware} and the map is
+ * requested. The decorator must be used for a single processing, since the map of the last processing is kept. When the
+ * decorated processor is skipped (by an outer decorator), the map is null.
+ *
+ * @since 1.4.7
+ */
+public class SourceMapAwareProcessorDecorator
+    extends ProcessorDecorator {
+  private static final Logger LOG = LoggerFactory.getLogger(SourceMapAwareProcessorDecorator.class);
+  private final Object processor;
+  private final boolean generateSourceMap;
+  private SourceMap sourceMap;
+
+  /**
+   * @param processor
+   *          the processor to decorate.
+   * @param generateSourceMap
+   *          true if the map should be requested from the processor. When false, the processor is applied as usual,
+   *          thus doesn't spend time on computing the mappings.
+   */
+  public SourceMapAwareProcessorDecorator(final Object processor, final boolean generateSourceMap) {
+    super(processor);
+    this.processor = processor;
+    this.generateSourceMap = generateSourceMap;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void process(final Resource resource, final Reader reader, final Writer writer)
+      throws IOException {
+    if (generateSourceMap && processor instanceof SourceMapAware) {
+      sourceMap = ((SourceMapAware) processor).processWithSourceMap(resource, reader, writer);
+    } else {
+      super.process(resource, reader, writer);
+    }
+  }
+
+  /**
+   * @return the map of the processed content or null if the decorated processor didn't provide it.
+   */
+  public SourceMap getSourceMap() {
+    return sourceMap;
+  }
+
+  /**
+   * Creates the result of the processing and warns when the map of the content is dropped, because the decorated
+   * processor changed the content without being {@link SourceMapAware}.
+   *
+   * @param content
+   *          the content processed by the decorated processor.
+   * @param processed
+   *          the result of the processing.
+   * @return the processed content, mapped to the original resources if possible.
+   */
+  public MappedContent next(final MappedContent content, final String processed) {
+    final MappedContent result = content.next(processed, sourceMap);
+    if (content.getSourceMap() != null && result.getSourceMap() == null) {
+      LOG.warn("The source map is not generated, because the processor {} is not source map aware.",
+          getOriginalDecoratedObject().getClass().getName());
+    }
+    return result;
+  }
+}
@@ -26,6 +26,11 @@ import ro.isdc.wro.model.resource.locator.UrlUriLocator;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
 import ro.isdc.wro.model.resource.processor.support.DataUriGenerator;
+import ro.isdc.wro.model.resource.processor.support.css.CssToken;
+import ro.isdc.wro.model.resource.processor.support.css.CssTokenStream;
+import ro.isdc.wro.model.resource.processor.support.css.CssTokenizer.Type;
+import ro.isdc.wro.model.resource.processor.support.css.CssVisitor;
+import ro.isdc.wro.model.resource.processor.support.css.CssVisitorProcessor;
 import ro.isdc.wro.util.WroUtil;
 
 
@@ -37,7 +42,7 @@ import ro.isdc.wro.util.WroUtil;
  */
 @SupportedResourceType(ResourceType.CSS)
 public abstract class AbstractCssUrlRewritingProcessor
-    implements ResourcePreProcessor, ResourcePostProcessor {
+    implements ResourcePreProcessor, ResourcePostProcessor, CssVisitorProcessor {
   private static final Logger LOG = LoggerFactory.getLogger(AbstractCssUrlRewritingProcessor.class);
   /**
    * Resources mapping path. If request uri contains this, the filter will dispatch it to the original resource.
@@ -47,6 +52,10 @@ public abstract class AbstractCssUrlRewritingProcessor
    * The name of resource id parameter.
    */
   public static final String PARAM_RESOURCE_ID = "id";
+  /**
+   * The name of the parameter holding the hash of the resource content.
+   */
+  public static final String PARAM_RESOURCE_HASH = "hash";
   /**
    * Compiled pattern.
    */
@@ -137,15 +146,121 @@ public abstract class AbstractCssUrlRewritingProcessor
       final String css = IOUtils.toString(reader);
       final String result = parseCss(css, cssUri);
       writer.write(result);
-      onProcessCompleted();
     } finally {
+      // invoked even when the processing fails, thus the state of the processing can be always reset.
+      onProcessCompleted();
       reader.close();
       writer.close();
     }
   }
   
   /**
-   * Invoked when the process operation is completed. Useful to invoke some post processing logic or for custom logging.
+   * {@inheritDoc}
+   */
+  public CssVisitor createVisitor(final Resource resource) {
+    final String cssUri = resource.getUri();
+    return new CssVisitor() {
+      /**
+       * The last token of the latest rewritten declaration. The urls found up to this token were already processed.
+       */
+      private CssToken processedUntil;
+
+      public void visit(final CssTokenStream stream, final int index) {
+        final CssToken token = stream.get(index);
+        if (processedUntil != null) {
+          if (token == processedUntil) {
+            processedUntil = null;
+          }
+          return;
+        }
+        if (getUrl(stream, index) != null && stream.isDeclarationValue(index)) {
+          processedUntil = rewriteDeclaration(stream, index, cssUri);
+        }
+      }
+
+      public void end(final CssTokenStream stream) {
+        onProcessCompleted();
+      }
+    };
+  }
+
+  /**
+   * Rewrites all the urls of the declaration containing the token with provided index.
+   *
+   * @return the last token of the rewritten declaration or null if the declaration ends with the visited token.
+   */
+  private CssToken rewriteDeclaration(final CssTokenStream stream, final int index, final String cssUri) {
+    int start = index;
+    while (start > 0 && !isDeclarationDelimiter(stream.get(start - 1))) {
+      start--;
+    }
+    start = stream.get(start).isInsignificant() ? stream.next(start) : start;
+    int end = index;
+    while (end + 1 < stream.size() && !isDeclarationDelimiter(stream.get(end + 1))) {
+      end++;
+    }
+    if (end + 1 < stream.size() && stream.get(end + 1).isSymbol(';')) {
+      end++;
+    } else if (stream.get(end).isInsignificant()) {
+      end = stream.previous(end);
+    }
+    final String originalDeclaration = stream.getText(start, end);
+    final StringBuilder modifiedDeclaration = new StringBuilder();
+    final String[] modifiedTokens = new String[end - start + 1];
+    for (int i = start; i <= end; i++) {
+      final String text = stream.get(i).getText();
+      final String originalUrl = getUrl(stream, i);
+      if (originalUrl != null && isReplaceNeeded(originalUrl)) {
+        final String modifiedUrl = replaceImageUrl(cssUri, originalUrl);
+        LOG.debug("replaced old Url: [{}] with: [{}].", originalUrl, StringUtils.abbreviate(modifiedUrl, 40));
+        onUrlReplaced(modifiedUrl);
+        modifiedTokens[i - start] = text.replace(originalUrl, modifiedUrl);
+      } else {
+        modifiedTokens[i - start] = text;
+      }
+      modifiedDeclaration.append(modifiedTokens[i - start]);
+    }
+    final String newDeclaration = replaceDeclaration(originalDeclaration, modifiedDeclaration.toString());
+    if (newDeclaration.equals(modifiedDeclaration.toString())) {
+      for (int i = start; i <= end; i++) {
+        stream.get(i).setText(modifiedTokens[i - start]);
+      }
+    } else {
+      end = start + stream.replace(start, end, newDeclaration) - 1;
+    }
+    return end > index ? stream.get(end) : null;
+  }
+
+  private boolean isDeclarationDelimiter(final CssToken token) {
+    return token.isSymbol(';') || token.isSymbol('{') || token.isSymbol('}');
+  }
+
+  /**
+   * @return the url referred by the token with provided index or null if the token doesn't refer an url.
+   */
+  private String getUrl(final CssTokenStream stream, final int index) {
+    final CssToken token = stream.get(index);
+    if (token.getType() == Type.URL) {
+      return CssTokenStream.getUrl(token.getText());
+    }
+    if (token.getType() == Type.STRING) {
+      // ex: filter: progid:DXImageTransform.Microsoft.AlphaImageLoader(src='image.png', sizingMethod='scale');
+      final int equals = stream.previous(index);
+      if (equals > 0 && stream.get(equals).isSymbol('=')) {
+        final int name = stream.previous(equals);
+        if (name >= 0 && "src".equalsIgnoreCase(stream.get(name).getText())) {
+          final String text = token.getText();
+          return text.substring(1, text.length() > 1 && text.endsWith(text.substring(0, 1)) ? text.length() - 1
+              : text.length());
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Invoked when the process operation is completed (successfully or not). Useful to invoke some post processing logic
+   * or for custom logging.
    */
   protected void onProcessCompleted() {
   }
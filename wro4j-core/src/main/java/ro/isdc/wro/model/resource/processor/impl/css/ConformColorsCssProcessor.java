@@ -15,6 +15,11 @@ import ro.isdc.wro.model.resource.SupportedResourceType;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
 import ro.isdc.wro.model.resource.processor.support.Lessify;
+import ro.isdc.wro.model.resource.processor.support.css.CssToken;
+import ro.isdc.wro.model.resource.processor.support.css.CssTokenStream;
+import ro.isdc.wro.model.resource.processor.support.css.CssTokenizer.Type;
+import ro.isdc.wro.model.resource.processor.support.css.CssVisitor;
+import ro.isdc.wro.model.resource.processor.support.css.CssVisitorProcessor;
 
 
 /**
@@ -24,7 +29,7 @@ import ro.isdc.wro.model.resource.processor.support.Lessify;
  */
 @SupportedResourceType(ResourceType.CSS)
 public class ConformColorsCssProcessor
-  implements ResourcePreProcessor, ResourcePostProcessor {
+  implements ResourcePreProcessor, ResourcePostProcessor, CssVisitorProcessor {
   public static final String ALIAS = "conformColors";
 
   /**
@@ -48,4 +53,25 @@ public class ConformColorsCssProcessor
     throws IOException {
     process(null, reader, writer);
   }
+
+  /**
+   * {@inheritDoc}
+   */
+  public CssVisitor createVisitor(final Resource resource) {
+    final Lessify lessify = new Lessify();
+    return new CssVisitor() {
+      public void visit(final CssTokenStream stream, final int index) {
+        final CssToken token = stream.get(index);
+        if (token.getType() == Type.WORD && stream.isDeclarationValue(index)) {
+          final String color = lessify.conformColorValue(token.getText());
+          if (color != null) {
+            token.setText(color);
+          }
+        }
+      }
+
+      public void end(final CssTokenStream stream) {
+      }
+    };
+  }
 }
@@ -3,20 +3,23 @@
  */
 package ro.isdc.wro.model.resource.processor.impl.css;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.lang3.CharEncoding;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.model.group.Inject;
 import ro.isdc.wro.model.resource.locator.factory.UriLocatorFactory;
 import ro.isdc.wro.model.resource.processor.support.DataUriGenerator;
+import ro.isdc.wro.model.resource.support.hash.CRC32HashStrategy;
+import ro.isdc.wro.model.resource.support.hash.HashStrategy;
 
 
 /**
@@ -47,6 +50,28 @@ public class CssDataUriPreProcessor
    */
   @Inject
   private UriLocatorFactory uriLocatorFactory;
+  /**
+   * Used to detect the images changed since they were encoded.
+   */
+  private final HashStrategy hashStrategy = new CRC32HashStrategy();
+  /**
+   * Maps the uri of the encoded images to their dataUri. The same image referred by several stylesheets is encoded only
+   * once.
+   */
+  private final Map<String, CachedDataUri> dataUriCache = new ConcurrentHashMap<String, CachedDataUri>();
+
+  /**
+   * The dataUri of an image along with the hash of the image content.
+   */
+  private static final class CachedDataUri {
+    private final String hash;
+    private final String dataUri;
+
+    CachedDataUri(final String hash, final String dataUri) {
+      this.hash = hash;
+      this.dataUri = dataUri;
+    }
+  }
   
   /**
    * Replace provided url with the new url if needed.
@@ -61,8 +86,54 @@ public class CssDataUriPreProcessor
   protected String replaceImageUrl(final String cssUri, final String imageUrl) {
     Validate.notNull(uriLocatorFactory);
     LOG.debug("replace url for image: {} from css: {}", imageUrl, cssUri);
-    final String cleanImageUrl = cleanImageUrl(imageUrl);
     final String fileName = FilenameUtils.getName(imageUrl);
+    final String fullPath = computeImagePath(cssUri, imageUrl);
+    String result = imageUrl;
+    try {
+      final byte[] bytes = IOUtils.toByteArray(uriLocatorFactory.locate(fullPath));
+      // avoid encoding the images which are too large anyway
+      if (isSizeAccepted(getDataUriGenerator().getDataUriLength(bytes.length, fileName))) {
+        final String dataUri = getDataUri(fullPath, fileName, bytes);
+        if (isReplaceAccepted(dataUri)) {
+          result = dataUri;
+          LOG.debug("dataUri replacement: {}", StringUtils.abbreviate(dataUri, 30));
+        }
+      }
+    } catch (final IOException e) {
+      LOG.warn("[FAIL] extract dataUri from: {}, because: {}. "
+          + "A possible cause: using CssUrlRewritingProcessor before CssDataUriPreProcessor.", fullPath, e.getMessage());
+    }
+    return result;
+  }
+
+  /**
+   * @return the dataUri of the image with provided content, reused from the cache when the same image (with the same
+   *         content) was already encoded.
+   */
+  private String getDataUri(final String imageUri, final String fileName, final byte[] bytes)
+      throws IOException {
+    final String hash = hashStrategy.getHash(new ByteArrayInputStream(bytes));
+    final CachedDataUri cached = dataUriCache.get(imageUri);
+    if (cached != null && cached.hash.equals(hash)) {
+      LOG.debug("dataUri cache hit: {}", imageUri);
+      return cached.dataUri;
+    }
+    final String dataUri = getDataUriGenerator().generateDataURI(new ByteArrayInputStream(bytes), fileName);
+    if (dataUri != null) {
+      dataUriCache.put(imageUri, new CachedDataUri(hash, dataUri));
+    }
+    return dataUri;
+  }
+
+  /**
+   * @param cssUri
+   *          Uri of the css referring the image.
+   * @param imageUrl
+   *          the url of the image, as found in the css.
+   * @return the uri used to locate the image.
+   */
+  final String computeImagePath(final String cssUri, final String imageUrl) {
+    final String cleanImageUrl = cleanImageUrl(imageUrl);
     String fullPath = cleanImageUrl;
     /**
      * Allow dataUri transformation of absolute url's using http(s) protocol. All url's protocol are intentionally not
@@ -79,20 +150,9 @@ public class CssDataUriPreProcessor
     if (isImageUrlChangeRequired(cleanImageUrl)) {
       fullPath = FilenameUtils.getFullPath(cssUri) + cleanImageUrl;
     }
-    String result = imageUrl;
-    try {
-      final String dataUri = getDataUriGenerator().generateDataURI(uriLocatorFactory.locate(fullPath), fileName);
-      if (isReplaceAccepted(dataUri)) {
-        result = dataUri;
-        LOG.debug("dataUri replacement: {}", StringUtils.abbreviate(dataUri, 30));
-      }
-    } catch (final IOException e) {
-      LOG.warn("[FAIL] extract dataUri from: {}, because: {}. "
-          + "A possible cause: using CssUrlRewritingProcessor before CssDataUriPreProcessor.", fullPath, e.getMessage());
-    }
-    return result;
+    return fullPath;
   }
-  
+
   /**
    * @param imageUrl
    *          the original url of the image.
@@ -112,16 +172,25 @@ public class CssDataUriPreProcessor
    * @return true if dataUri should replace original image url.
    */
   protected boolean isReplaceAccepted(final String dataUri) {
-    try {
-      final byte[] bytes = dataUri.getBytes(CharEncoding.UTF_8);
-      final boolean exceedLimit = bytes.length >= SIZE_LIMIT;
-      LOG.debug("dataUri size: {}KB, limit exceeded: {}", bytes.length / 1024, exceedLimit);
-      return !exceedLimit;
-    } catch (UnsupportedEncodingException e) {
-      throw new WroRuntimeException("Should never happen", e);
-    }
+    // the dataUri contains only ascii characters, thus its length is the same as the number of bytes
+    return isSizeAccepted(dataUri.length());
   }
-  
+
+  /**
+   * Decides whether a dataUri of the provided size should replace the image url. This check is performed also before
+   * encoding the image (based on the size of the image), this way the images exceeding the limit are never encoded.
+   * Override this method to change the default limit (32KB).
+   *
+   * @param dataUriLength
+   *          the number of bytes of the dataUri.
+   * @return true if a dataUri of provided size is accepted.
+   */
+  protected boolean isSizeAccepted(final long dataUriLength) {
+    final boolean exceedLimit = dataUriLength >= SIZE_LIMIT;
+    LOG.debug("dataUri size: {}KB, limit exceeded: {}", dataUriLength / 1024, exceedLimit);
+    return !exceedLimit;
+  }
+
   /**
    * @deprecated use {@link CssDataUriPreProcessor#isReplaceAccepted(String)} instead.
    */
@@ -19,6 +19,7 @@ import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.config.jmx.WroConfiguration;
 import ro.isdc.wro.model.group.Inject;
 import ro.isdc.wro.model.group.processor.PreProcessorExecutor;
@@ -27,6 +28,11 @@ import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.SupportedResourceType;
 import ro.isdc.wro.model.resource.locator.factory.UriLocatorFactory;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.support.css.CssToken;
+import ro.isdc.wro.model.resource.processor.support.css.CssTokenStream;
+import ro.isdc.wro.model.resource.processor.support.css.CssTokenizer.Type;
+import ro.isdc.wro.model.resource.processor.support.css.CssVisitor;
+import ro.isdc.wro.model.resource.processor.support.css.CssVisitorProcessor;
 import ro.isdc.wro.util.StringUtils;
 import ro.isdc.wro.util.WroUtil;
 
@@ -43,7 +49,7 @@ import ro.isdc.wro.util.WroUtil;
  */
 @SupportedResourceType(ResourceType.CSS)
 public class CssImportPreProcessor
-  implements ResourcePreProcessor {
+  implements ResourcePreProcessor, CssVisitorProcessor {
   private static final Logger LOG = LoggerFactory.getLogger(CssImportPreProcessor.class);
   public static final String ALIAS = "cssImport";
   /**
@@ -78,6 +84,63 @@ public class CssImportPreProcessor
     }
   }
 
+  /**
+   * {@inheritDoc}
+   * <p/>
+   * The visitor removes the import statements of the visited stream and adds the pre processed imported resources in
+   * front of it.
+   */
+  public CssVisitor createVisitor(final Resource resource) {
+    validate();
+    final boolean recursive = processed.contains(resource);
+    if (recursive) {
+      LOG.warn("Recursive import detected: " + resource);
+    } else {
+      processed.add(resource);
+    }
+    return new CssVisitor() {
+      private final List<Resource> imports = new ArrayList<Resource>();
+
+      public void visit(final CssTokenStream stream, final int index) {
+        final CssToken token = stream.get(index);
+        if (recursive) {
+          stream.remove(index, index);
+        } else if (token.getType() == Type.WORD && "@import".equalsIgnoreCase(token.getText())) {
+          final int urlIndex = stream.next(index);
+          int end = stream.nextSymbol(index, ';');
+          end = end < 0 ? stream.size() - 1 : end;
+          if (urlIndex > 0 && urlIndex <= end) {
+            final CssToken url = stream.get(urlIndex);
+            final String importUrl = url.getType() == Type.URL ? CssTokenStream.getUrl(url.getText())
+                : url.getText();
+            final Resource importedResource = buildImportedResource(resource, CssTokenStream.unquote(importUrl));
+            if (imports.contains(importedResource)) {
+              LOG.warn("Duplicate imported resource: " + importedResource);
+            } else {
+              imports.add(importedResource);
+            }
+          }
+          stream.remove(index, end);
+        }
+      }
+
+      public void end(final CssTokenStream stream) {
+        if (!recursive) {
+          try {
+            if (!imports.isEmpty()) {
+              LOG.debug("Imported resources found : {}", imports.size());
+              stream.prepend(preProcessorExecutor.processAndMerge(imports, true));
+            }
+          } catch (final IOException e) {
+            throw new WroRuntimeException("Cannot process imported resources of " + resource, e);
+          } finally {
+            processed.clear();
+          }
+        }
+      }
+    };
+  }
+
   /**
    * Checks if required fields were injected.
    */
@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor.impl.css;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.cache.SpriteCache;
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.model.group.Inject;
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.SupportedResourceType;
+import ro.isdc.wro.model.resource.locator.UrlUriLocator;
+import ro.isdc.wro.model.resource.locator.factory.UriLocatorFactory;
+import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.support.DataUriGenerator;
+import ro.isdc.wro.model.resource.processor.support.SpriteBuilder;
+import ro.isdc.wro.model.resource.processor.support.css.CssToken;
+import ro.isdc.wro.model.resource.processor.support.css.CssTokenStream;
+import ro.isdc.wro.model.resource.processor.support.css.CssTokenStreamProcessor;
+import ro.isdc.wro.model.resource.processor.support.css.CssTokenizer.Type;
+import ro.isdc.wro.model.resource.processor.support.css.CssVisitor;
+import ro.isdc.wro.model.resource.processor.support.css.CssVisitorProcessor;
+import ro.isdc.wro.model.resource.support.hash.HashStrategy;
+import ro.isdc.wro.util.StringUtils;
+
+
+/**
+ * Packs the small images referred by a stylesheet into a single image (a sprite), reducing the number of requests
+ * needed to display the page. Only the declarations having the following form are changed:
+ *
+ * <pre>
+ * .icon {
+ *   background: url(icon.png) no-repeat;
+ * }
+ * </pre>
+ *
+ * The url is replaced with the url of the sprite (served as a proxy resource) and the position of the image inside the
+ * sprite is appended to the declaration:
+ *
+ * <pre>
+ * .icon {
+ *   background: url(/app/wro/wroResources?id=sprite:1a2b3c.png) no-repeat 0 -18px;
+ * }
+ * </pre>
+ *
+ * The declarations of a rule containing other background properties (ex: <code>background-position</code>) are left
+ * unchanged, because the sprite would break them. The same for the images which are too large (see
+ * {@link #isSpriteCandidate(BufferedImage)}) or which are not png or gif. The sprite is created only if at least two
+ * images can be packed. Since the sprites are identified by the hash of their content, a sprite is stored only once
+ * for the same images, no matter how many times the stylesheet is processed. The sprites are held by the
+ * {@link SpriteCache} of the manager, which is cleared along with the cache of the processed groups.
+ * <p/>
+ * Attention: This processor should be added before {@link CssUrlRewritingProcessor} and before the dataUri
+ * processors, otherwise the url's won't be replaced.
+ *
+ * @since 1.4.7
+ */
+@SupportedResourceType(ResourceType.CSS)
+public class CssSpritePreProcessor
+    implements ResourcePreProcessor, CssVisitorProcessor {
+  private static final Logger LOG = LoggerFactory.getLogger(CssSpritePreProcessor.class);
+  public static final String ALIAS = "cssSprite";
+  /**
+   * The maximum width and height of the images packed into a sprite.
+   */
+  private static final int MAX_IMAGE_SIZE = 64;
+  private static final String BACKGROUND = "background";
+  private static final String NO_REPEAT = "no-repeat";
+  @Inject
+  private Context context;
+  @Inject
+  private UriLocatorFactory uriLocatorFactory;
+  @Inject
+  private HashStrategy hashStrategy;
+  @Inject
+  private SpriteCache spriteCache;
+
+  /**
+   * {@inheritDoc}
+   */
+  public void process(final Resource resource, final Reader reader, final Writer writer)
+      throws IOException {
+    new CssTokenStreamProcessor(this).process(resource, reader, writer);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public CssVisitor createVisitor(final Resource resource) {
+    final String cssUri = resource == null ? null : resource.getUri();
+    return new CssVisitor() {
+      private final List<SpriteCandidate> candidates = new ArrayList<SpriteCandidate>();
+      /**
+       * The rule containing the visited token, null when the token is not part of a rule body.
+       */
+      private RuleState rule;
+
+      public void visit(final CssTokenStream stream, final int index) {
+        final CssToken token = stream.get(index);
+        if (token.isSymbol('{')) {
+          rule = new RuleState();
+        } else if (token.isSymbol('}')) {
+          rule = null;
+        } else if (rule != null) {
+          if (token.getType() == Type.WORD && isBackgroundProperty(stream, index)) {
+            rule.backgroundDeclarations++;
+          } else if (token.getType() == Type.URL && stream.isDeclarationValue(index)) {
+            final SpriteCandidate candidate = createCandidate(stream, index, rule);
+            if (candidate != null) {
+              candidates.add(candidate);
+            }
+          }
+        }
+      }
+
+      public void end(final CssTokenStream stream) {
+        if (cssUri != null) {
+          createSprite(cssUri, candidates);
+        }
+      }
+    };
+  }
+
+  /**
+   * @return true if the token with provided index is the name of a background property.
+   */
+  private boolean isBackgroundProperty(final CssTokenStream stream, final int index) {
+    final int next = stream.next(index);
+    return next > 0 && stream.get(next).isSymbol(':') && !stream.isDeclarationValue(index)
+        && stream.get(index).getText().toLowerCase().startsWith(BACKGROUND);
+  }
+
+  /**
+   * @return the {@link SpriteCandidate} for the url token with provided index or null if the declaration containing the
+   *         url doesn't have the form <code>background: url(image.png) no-repeat</code>.
+   */
+  private SpriteCandidate createCandidate(final CssTokenStream stream, final int index, final RuleState rule) {
+    final int colon = stream.previous(index);
+    if (colon < 0 || !stream.get(colon).isSymbol(':')) {
+      return null;
+    }
+    final int property = stream.previous(colon);
+    if (property < 0 || !BACKGROUND.equalsIgnoreCase(stream.get(property).getText())) {
+      return null;
+    }
+    final int repeat = stream.next(index);
+    if (repeat < 0 || !NO_REPEAT.equalsIgnoreCase(stream.get(repeat).getText())) {
+      return null;
+    }
+    final int end = stream.next(repeat);
+    if (end > 0 && !(stream.get(end).isSymbol(';') || stream.get(end).isSymbol('}'))) {
+      return null;
+    }
+    final String url = CssTokenStream.getUrl(stream.get(index).getText());
+    return url == null ? null : new SpriteCandidate(rule, url, stream.get(index), stream.get(repeat));
+  }
+
+  /**
+   * Packs the images of the provided candidates into a sprite and rewrites their declarations.
+   */
+  private void createSprite(final String cssUri, final List<SpriteCandidate> candidates) {
+    final String urlPrefix = getUrlPrefix();
+    if (urlPrefix == null) {
+      LOG.debug("No request available, sprites are not created");
+      return;
+    }
+    final SpriteBuilder builder = new SpriteBuilder();
+    final Map<String, Integer> offsets = new LinkedHashMap<String, Integer>();
+    final List<SpriteCandidate> packed = new ArrayList<SpriteCandidate>();
+    for (final SpriteCandidate candidate : candidates) {
+      if (candidate.rule.backgroundDeclarations != 1 || !isReplaceNeeded(candidate.url)) {
+        continue;
+      }
+      final String imagePath = computeImagePath(cssUri, candidate.url);
+      if (!offsets.containsKey(imagePath)) {
+        final BufferedImage image = readImage(imagePath);
+        if (image == null || !isSpriteCandidate(image)) {
+          continue;
+        }
+        offsets.put(imagePath, builder.add(image));
+      }
+      candidate.imagePath = imagePath;
+      packed.add(candidate);
+    }
+    if (builder.size() < 2) {
+      LOG.debug("Not enough images to create a sprite for: {}", cssUri);
+      return;
+    }
+    try {
+      final byte[] sprite = builder.build();
+      final String spriteUri = spriteCache.put(sprite, hashStrategy.getHash(new ByteArrayInputStream(sprite)));
+      LOG.debug("created sprite {} containing {} images of {}", new Object[] { spriteUri, builder.size(), cssUri });
+      for (final SpriteCandidate candidate : packed) {
+        final int offset = offsets.get(candidate.imagePath);
+        candidate.urlToken.setText("url(" + urlPrefix + spriteUri + ")");
+        candidate.repeatToken.setText(candidate.repeatToken.getText() + (offset == 0 ? " 0 0" : " 0 -" + offset + "px"));
+      }
+    } catch (final IOException e) {
+      LOG.warn("[FAIL] create sprite for: {}, because: {}", cssUri, e.getMessage());
+    }
+  }
+
+  /**
+   * @return the image located at provided uri or null if it cannot be read or is not a png or gif.
+   */
+  private BufferedImage readImage(final String imagePath) {
+    final String extension = FilenameUtils.getExtension(imagePath).toLowerCase();
+    if (!("png".equals(extension) || "gif".equals(extension))) {
+      return null;
+    }
+    InputStream is = null;
+    try {
+      is = uriLocatorFactory.locate(imagePath);
+      return ImageIO.read(is);
+    } catch (final IOException e) {
+      LOG.debug("Cannot read image: {}, because: {}", imagePath, e.getMessage());
+      return null;
+    } finally {
+      IOUtils.closeQuietly(is);
+    }
+  }
+
+  /**
+   * @return the uri used to locate the image with provided url, referred by the stylesheet with provided uri.
+   */
+  private String computeImagePath(final String cssUri, final String imageUrl) {
+    final String cleanUrl = imageUrl.trim();
+    if (cleanUrl.startsWith("/")) {
+      return cleanUrl;
+    }
+    return StringUtils.cleanPath(FilenameUtils.getFullPath(cssUri) + cleanUrl);
+  }
+
+  /**
+   * @return true if the image with provided url can be packed: the absolute urls, the dataUri's and the proxy resources
+   *         are left unchanged.
+   */
+  private boolean isReplaceNeeded(final String url) {
+    final String cleanUrl = url.trim();
+    return !(UrlUriLocator.isValid(cleanUrl) || DataUriGenerator.isDataUri(cleanUrl) || cleanUrl.contains(String.format(
+        "%s?%s=", AbstractCssUrlRewritingProcessor.PATH_RESOURCES, AbstractCssUrlRewritingProcessor.PARAM_RESOURCE_ID)));
+  }
+
+  /**
+   * Decides whether an image should be packed into the sprite. By default only the images not larger than 64x64 pixels
+   * are packed, since the larger images don't benefit much from spriting.
+   *
+   * @param image
+   *          the image to check.
+   * @return true if the image should be packed into the sprite.
+   */
+  protected boolean isSpriteCandidate(final BufferedImage image) {
+    return image.getWidth() <= MAX_IMAGE_SIZE && image.getHeight() <= MAX_IMAGE_SIZE;
+  }
+
+  /**
+   * @return the prefix of the url of the sprite (served as a proxy resource) or null if there is no request to compute
+   *         it from.
+   * @VisibleForTesting
+   */
+  protected String getUrlPrefix() {
+    if (context == null || context.getRequest() == null) {
+      return null;
+    }
+    return FilenameUtils.getFullPath(context.getRequest().getRequestURI())
+        + String.format("%s?%s=", AbstractCssUrlRewritingProcessor.PATH_RESOURCES,
+            AbstractCssUrlRewritingProcessor.PARAM_RESOURCE_ID);
+  }
+
+  /**
+   * The background properties found in the body of a rule.
+   */
+  private static final class RuleState {
+    private int backgroundDeclarations;
+  }
+
+  /**
+   * A declaration which could be changed to use a sprite.
+   */
+  private static final class SpriteCandidate {
+    private final RuleState rule;
+    private final String url;
+    private final CssToken urlToken;
+    private final CssToken repeatToken;
+    private String imagePath;
+
+    SpriteCandidate(final RuleState rule, final String url, final CssToken urlToken, final CssToken repeatToken) {
+      this.rule = rule;
+      this.url = url;
+      this.urlToken = urlToken;
+      this.repeatToken = repeatToken;
+    }
+  }
+}
@@ -5,13 +5,15 @@ package ro.isdc.wro.model.resource.processor.impl.css;
 
 import static ro.isdc.wro.util.StringUtils.cleanPath;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,6 +25,8 @@ import ro.isdc.wro.model.resource.locator.ClasspathUriLocator;
 import ro.isdc.wro.model.resource.locator.ServletContextUriLocator;
 import ro.isdc.wro.model.resource.locator.UriLocator;
 import ro.isdc.wro.model.resource.locator.UrlUriLocator;
+import ro.isdc.wro.model.resource.locator.factory.UriLocatorFactory;
+import ro.isdc.wro.model.resource.support.hash.HashStrategy;
 
 
 /**
@@ -116,7 +120,7 @@ public class CssUrlRewritingProcessor
   /**
    * A set of allowed url's.
    */
-  private final Set<String> allowedUrls = Collections.synchronizedSet(new HashSet<String>());
+  private final Map<String, Boolean> allowedUrls = new ConcurrentHashMap<String, Boolean>();
   /**
    * Prefix of the path to the overwritten image url. This will be of the following type: "../" or "../.." depending on
    * the depth of the aggregatedFolderPath.
@@ -124,6 +128,10 @@ public class CssUrlRewritingProcessor
   private String aggregatedPathPrefix;
   @Inject
   private Context context;
+  @Inject
+  private UriLocatorFactory uriLocatorFactory;
+  @Inject
+  private HashStrategy hashStrategy;
   
   /**
    * The folder where the final css is located. This is important for computing image location after url rewriting.
@@ -142,7 +150,7 @@ public class CssUrlRewritingProcessor
    */
   @Override
   protected void onProcessCompleted() {
-    LOG.debug("allowed urls: {}", allowedUrls);
+    LOG.debug("allowed urls: {}", allowedUrls.keySet());
   }
   
   /**
@@ -150,9 +158,11 @@ public class CssUrlRewritingProcessor
    */
   @Override
   protected void onUrlReplaced(final String replacedUrl) {
-    final String allowedUrl = StringUtils.removeStart(replacedUrl, getUrlPrefix());
+    // the fingerprint is not part of the resource id
+    final String allowedUrl = StringUtils.substringBefore(StringUtils.removeStart(replacedUrl, getUrlPrefix()),
+        getFingerprintSeparator());
     LOG.debug("adding allowed url: {}", allowedUrl);
-    allowedUrls.add(allowedUrl);
+    allowedUrls.put(allowedUrl, Boolean.TRUE);
   }
   
   /**
@@ -172,7 +182,7 @@ public class CssUrlRewritingProcessor
       }
       // Treat WEB-INF special case
       if (ServletContextUriLocator.isProtectedResource(cssUri)) {
-        return getUrlPrefix() + computeNewImageLocation(cssUri, imageUrl);
+        return computeProxyUrl(cssUri, imageUrl);
       }
       // ensure the folder path is set
       setAggregatedFolderPath(context.getAggregatedFolderPath());
@@ -184,11 +194,39 @@ public class CssUrlRewritingProcessor
       return computeNewImageLocation(externalServerCssUri, imageUrl);
     }
     if (ClasspathUriLocator.isValid(cssUri)) {
-      return getUrlPrefix() + computeNewImageLocation(cssUri, imageUrl);
+      return computeProxyUrl(cssUri, imageUrl);
     }
     throw new WroRuntimeException("Could not replace imageUrl: " + imageUrl + ", contained at location: " + cssUri);
   }
 
+  /**
+   * @return the url of the image served as a proxy resource. When fingerprinting is enabled, the url contains also the
+   *         hash of the image, ex: <code>wroResources?id=/path/to/image.png&hash=1a2b3c</code>.
+   */
+  private String computeProxyUrl(final String cssUri, final String imageUrl) {
+    final String imageLocation = computeNewImageLocation(cssUri, imageUrl);
+    final String proxyUrl = getUrlPrefix() + imageLocation;
+    if (Context.get().getConfig().isFingerprintProxyResources() && uriLocatorFactory != null && hashStrategy != null) {
+      InputStream is = null;
+      try {
+        is = uriLocatorFactory.locate(imageLocation);
+        return proxyUrl + getFingerprintSeparator() + hashStrategy.getHash(is);
+      } catch (final IOException e) {
+        LOG.debug("Cannot compute fingerprint of: {}, because: {}", imageLocation, e.getMessage());
+      } finally {
+        IOUtils.closeQuietly(is);
+      }
+    }
+    return proxyUrl;
+  }
+
+  /**
+   * @return the part of the url preceding the hash of the resource.
+   */
+  private String getFingerprintSeparator() {
+    return "&" + PARAM_RESOURCE_HASH + "=";
+  }
+
   /**
    * Css files hosted on external server, should use its host as the root context when rewriting image url's starting
    * with '/' character.
@@ -274,6 +312,6 @@ public class CssUrlRewritingProcessor
    * @return true if passed argument is contained in allowed list.
    */
   public final boolean isUriAllowed(final String uri) {
-    return allowedUrls.contains(uri);
+    return uri != null && allowedUrls.containsKey(uri);
   }
 }
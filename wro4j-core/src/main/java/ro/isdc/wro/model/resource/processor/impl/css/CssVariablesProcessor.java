@@ -6,7 +6,9 @@ package ro.isdc.wro.model.resource.processor.impl.css;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -20,6 +22,11 @@ import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.SupportedResourceType;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.support.css.CssToken;
+import ro.isdc.wro.model.resource.processor.support.css.CssTokenStream;
+import ro.isdc.wro.model.resource.processor.support.css.CssTokenizer.Type;
+import ro.isdc.wro.model.resource.processor.support.css.CssVisitor;
+import ro.isdc.wro.model.resource.processor.support.css.CssVisitorProcessor;
 import ro.isdc.wro.util.WroUtil;
 
 
@@ -34,7 +41,7 @@ import ro.isdc.wro.util.WroUtil;
  */
 @SupportedResourceType(ResourceType.CSS)
 public class CssVariablesProcessor
-    implements ResourcePreProcessor, ResourcePostProcessor {
+    implements ResourcePreProcessor, ResourcePostProcessor, CssVisitorProcessor {
   private static final Logger LOG = LoggerFactory.getLogger(CssVariablesProcessor.class);
   public static final String ALIAS = "cssVariables";
   /**
@@ -95,6 +102,66 @@ public class CssVariablesProcessor
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  public CssVisitor createVisitor(final Resource resource) {
+    return new CssVisitor() {
+      private final Map<String, String> variables = new HashMap<String, String>();
+      /**
+       * The first and the last token of the variables used before being defined.
+       */
+      private final List<CssToken[]> forwardReferences = new ArrayList<CssToken[]>();
+
+      public void visit(final CssTokenStream stream, final int index) {
+        final CssToken token = stream.get(index);
+        if (token.getType() != Type.WORD) {
+          return;
+        }
+        final int open = stream.next(index);
+        if (open < 0 || !stream.get(open).isSymbol(token.getText().startsWith("@") ? '{' : '(')) {
+          return;
+        }
+        if ("@variables".equalsIgnoreCase(token.getText())) {
+          final int close = stream.nextSymbol(open, '}');
+          if (close > 0) {
+            variables.putAll(extractVariables(stream.getText(open + 1, close - 1)));
+            stream.remove(index, close);
+          }
+        } else if ("var".equalsIgnoreCase(token.getText())) {
+          final int close = stream.nextSymbol(open, ')');
+          if (close > 0) {
+            final String value = variables.get(stream.getText(open + 1, close - 1).trim());
+            if (value != null) {
+              stream.replace(index, close, value.trim());
+            } else {
+              forwardReferences.add(new CssToken[] {
+                token, stream.get(close)
+              });
+            }
+          }
+        }
+      }
+
+      public void end(final CssTokenStream stream) {
+        for (final CssToken[] reference : forwardReferences) {
+          final int from = stream.indexOf(reference[0]);
+          final int to = stream.indexOf(reference[1]);
+          if (from < 0 || to < 0) {
+            continue;
+          }
+          final String variableName = stream.getText(stream.next(from) + 1, to - 1).trim();
+          final String value = variables.get(variableName);
+          if (value != null) {
+            stream.replace(from, to, value.trim());
+          } else {
+            LOG.warn("No variable with name " + variableName + " was found!");
+          }
+        }
+      }
+    };
+  }
+
   /**
    * Parse css, find all defined variables & replace them.
    * 
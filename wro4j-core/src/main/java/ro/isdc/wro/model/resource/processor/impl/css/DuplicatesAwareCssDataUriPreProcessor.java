@@ -3,16 +3,44 @@
  */
 package ro.isdc.wro.model.resource.processor.impl.css;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ro.isdc.wro.config.jmx.WroConfiguration;
+import ro.isdc.wro.manager.callback.LifecycleCallbackRegistry;
+import ro.isdc.wro.manager.callback.LifecycleCallbackSupport;
+import ro.isdc.wro.model.WroModel;
+import ro.isdc.wro.model.factory.WroModelFactory;
+import ro.isdc.wro.model.group.Group;
+import ro.isdc.wro.model.group.Inject;
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.locator.factory.UriLocatorFactory;
+import ro.isdc.wro.model.resource.processor.support.css.CssImageRegistry;
+import ro.isdc.wro.model.resource.processor.support.css.CssTokenStream;
+import ro.isdc.wro.model.resource.processor.support.css.CssVisitor;
+
 
 /**
  * Similar to {@link CssDataUriPreProcessor} which instead of replacing a url blindly with dataUri, is is smart enough to
  * detect duplicated image url and avoid replacing it with dataUri.
+ * <p/>
+ * The duplicates are detected across the entire model: the stylesheets of all groups are scanned once (and again when
+ * the model changes or the cache is cleared, since the stylesheets may have changed) and the found images are recorded
+ * in a {@link CssImageRegistry}, which is replaced by a new one after each scan. An image referred only once is
+ * replaced with dataUri, while an image referred many times is left unchanged, this way it is served (ex: as a proxy
+ * resource, by {@link CssUrlRewritingProcessor}) and cached only once. The images which are not part of the registry
+ * (ex: referred by imported stylesheets) are replaced only the first time they are found in a stylesheet.
+ * <p/>
+ * This processor is thread-safe and can be used with parallel preProcessing.
  *
  * @author Alex Objelean
  * @created May 9, 2010
@@ -21,7 +49,62 @@ public class DuplicatesAwareCssDataUriPreProcessor
   extends CssDataUriPreProcessor {
   private static final Logger LOG = LoggerFactory.getLogger(DuplicatesAwareCssDataUriPreProcessor.class);
   public static final String ALIAS_DUPLICATE = "duplicateAwareCssDataUri";
-  private final List<String> imageUrls = new ArrayList<String>();
+  @Inject
+  private WroModelFactory modelFactory;
+  @Inject
+  private UriLocatorFactory uriLocatorFactory;
+  @Inject
+  private WroConfiguration config;
+  @Inject
+  private LifecycleCallbackRegistry callbackRegistry;
+  /**
+   * The result of the last scan, replaced when the model changes or the cache is cleared.
+   */
+  private volatile ScannedModel scannedModel;
+  /**
+   * Incremented each time the cache is cleared, making the previous scan outdated.
+   */
+  private final AtomicInteger cacheGeneration = new AtomicInteger();
+  private final AtomicBoolean callbackRegistered = new AtomicBoolean();
+  /**
+   * The state of the stylesheet processed by the current thread.
+   */
+  private final ThreadLocal<ProcessingState> processingState = new ThreadLocal<ProcessingState>() {
+    @Override
+    protected ProcessingState initialValue() {
+      return new ProcessingState();
+    }
+  };
+
+  /**
+   * Holds the state of a single stylesheet processing.
+   */
+  private static final class ProcessingState {
+    private final Set<String> imageUrls = new HashSet<String>();
+    /**
+     * The registry used for the entire stylesheet, even if a new one is created meanwhile.
+     */
+    private CssImageRegistry imageRegistry;
+  }
+
+  /**
+   * The images found by scanning a model, during a cache generation.
+   */
+  private static final class ScannedModel {
+    private final WroModel model;
+    private final int cacheGeneration;
+    private final CssImageRegistry imageRegistry;
+
+    ScannedModel(final WroModel model, final int cacheGeneration, final CssImageRegistry imageRegistry) {
+      this.model = model;
+      this.cacheGeneration = cacheGeneration;
+      this.imageRegistry = imageRegistry;
+    }
+
+    boolean isValid(final WroModel currentModel, final int currentCacheGeneration) {
+      return model == currentModel && cacheGeneration == currentCacheGeneration;
+    }
+  }
 
   /**
    * Replace provided url with the new url if needed.
@@ -32,19 +115,109 @@ public class DuplicatesAwareCssDataUriPreProcessor
    */
   @Override
   protected final String replaceImageUrl(final String cssUri, final String imageUrl) {
-    if (!imageUrls.contains(imageUrl)) {
-      imageUrls.add(imageUrl);
+    final ProcessingState state = processingState.get();
+    if (state.imageRegistry == null) {
+      state.imageRegistry = getImageRegistry();
+    }
+    final int referenceCount = state.imageRegistry.getReferenceCount(computeImagePath(cssUri, imageUrl));
+    if (referenceCount == 1 || (referenceCount == 0 && state.imageUrls.add(imageUrl))) {
       return super.replaceImageUrl(cssUri, imageUrl);
     }
     LOG.debug("duplicate Image url detected: '{}', skipping dataUri replacement", imageUrl);
     return imageUrl;
   }
 
+  /**
+   * @return the registry of the images referred by the stylesheets of the model. The stylesheets are scanned only if the
+   *         model changed or the cache was cleared since the last scan. When the model cannot be created, an empty
+   *         registry is returned, thus the duplicates are detected only inside each stylesheet.
+   */
+  public CssImageRegistry getImageRegistry() {
+    if (modelFactory == null) {
+      return new CssImageRegistry();
+    }
+    registerCallback();
+    final WroModel model;
+    try {
+      model = modelFactory.create();
+    } catch (final RuntimeException e) {
+      LOG.debug("Cannot create model, duplicates are detected only inside each stylesheet", e);
+      return new CssImageRegistry();
+    }
+    ScannedModel scanned = scannedModel;
+    if (scanned == null || !scanned.isValid(model, cacheGeneration.get())) {
+      synchronized (this) {
+        // the generation is read before scanning, thus a cache clear during the scan makes the result outdated.
+        final int generation = cacheGeneration.get();
+        scanned = scannedModel;
+        if (scanned == null || !scanned.isValid(model, generation)) {
+          scanned = new ScannedModel(model, generation, scan(model));
+          scannedModel = scanned;
+        }
+      }
+    }
+    return scanned.imageRegistry;
+  }
+
+  /**
+   * Registers the callback making the scan outdated when the cache is cleared.
+   */
+  private void registerCallback() {
+    if (callbackRegistry != null && callbackRegistered.compareAndSet(false, true)) {
+      callbackRegistry.registerCallback(new LifecycleCallbackSupport() {
+        @Override
+        public void onCacheCleared() {
+          cacheGeneration.incrementAndGet();
+        }
+      });
+    }
+  }
+
+  /**
+   * @return a new registry of the images referred by the stylesheets of the provided model.
+   */
+  private CssImageRegistry scan(final WroModel model) {
+    final CssImageRegistry imageRegistry = new CssImageRegistry();
+    for (final Group group : model.getGroups()) {
+      for (final Resource resource : group.getResources()) {
+        if (resource.getType() == ResourceType.CSS) {
+          scan(imageRegistry, resource, group.getName());
+        }
+      }
+    }
+    LOG.debug("image registry: {}", imageRegistry);
+    return imageRegistry;
+  }
+
+  /**
+   * Records all the images referred by the provided stylesheet.
+   */
+  private void scan(final CssImageRegistry imageRegistry, final Resource resource, final String groupName) {
+    try {
+      final String css = IOUtils.toString(uriLocatorFactory.locate(resource.getUri()), config.getEncoding());
+      final AbstractCssUrlRewritingProcessor collector = new AbstractCssUrlRewritingProcessor() {
+        @Override
+        protected String replaceImageUrl(final String cssUri, final String imageUrl) {
+          imageRegistry.register(computeImagePath(cssUri, imageUrl), groupName);
+          return imageUrl;
+        }
+
+        @Override
+        protected boolean isReplaceNeeded(final String url) {
+          return DuplicatesAwareCssDataUriPreProcessor.this.isReplaceNeeded(url);
+        }
+      };
+      new CssTokenStream(css).accept(Collections.<CssVisitor> singletonList(collector.createVisitor(resource)));
+    } catch (final IOException e) {
+      LOG.debug("Cannot scan images of resource: {}, because: {}", resource.getUri(), e.getMessage());
+    }
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
   protected void onProcessCompleted() {
-    imageUrls.clear();
+    processingState.remove();
   }
 }
@@ -0,0 +1,68 @@
+/**
+ * Copyright Alex Objelean
+ */
+package ro.isdc.wro.model.resource.processor.impl.css;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.model.group.processor.Minimize;
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.SupportedResourceType;
+import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
+import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.support.css.FastCssCompressor;
+
+
+/**
+ * A processor implementation using {@link FastCssCompressor}. It produces the same result as
+ * {@link CssCompressorProcessor}, but is faster because the stylesheet is tokenized only once instead of being
+ * processed by a long list of regular expressions. This processor can be used as both: PreProcessor &
+ * postProcessor.<br/>
+ * This processor is annotated with {@link Minimize} because it performs minimization.
+ *
+ * @since 1.4.7
+ */
+@Minimize
+@SupportedResourceType(ResourceType.CSS)
+public class FastCssCompressorProcessor
+  implements ResourcePreProcessor, ResourcePostProcessor {
+  private static final Logger LOG = LoggerFactory.getLogger(FastCssCompressorProcessor.class);
+  public static final String ALIAS = "fastCssCompressor";
+  private final FastCssCompressor compressor = new FastCssCompressor();
+
+  /**
+   * {@inheritDoc}
+   */
+  public void process(final Reader reader, final Writer writer)
+    throws IOException {
+    process(null, reader, writer);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public void process(final Resource resource, final Reader reader, final Writer writer)
+    throws IOException {
+    try {
+      writer.write(compressor.compress(IOUtils.toString(reader)));
+      writer.flush();
+    } catch (final RuntimeException e) {
+      final String resourceUri = resource == null ? StringUtils.EMPTY : "[" + resource.getUri() + "]";
+      final String message = "Exception while applying " + getClass().getSimpleName() + " processor on the "
+          + resourceUri + " resource";
+      LOG.error(message, e);
+      throw new IOException(message);
+    } finally {
+      reader.close();
+      writer.close();
+    }
+  }
+}
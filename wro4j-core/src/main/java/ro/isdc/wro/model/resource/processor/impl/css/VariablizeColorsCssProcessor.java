@@ -6,6 +6,9 @@ package ro.isdc.wro.model.resource.processor.impl.css;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.apache.commons.io.IOUtils;
 
@@ -15,13 +18,18 @@ import ro.isdc.wro.model.resource.SupportedResourceType;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
 import ro.isdc.wro.model.resource.processor.support.Lessify;
+import ro.isdc.wro.model.resource.processor.support.css.CssToken;
+import ro.isdc.wro.model.resource.processor.support.css.CssTokenStream;
+import ro.isdc.wro.model.resource.processor.support.css.CssTokenizer.Type;
+import ro.isdc.wro.model.resource.processor.support.css.CssVisitor;
+import ro.isdc.wro.model.resource.processor.support.css.CssVisitorProcessor;
 
 /**
  * @author Alex Objelean
  */
 @SupportedResourceType(ResourceType.CSS)
 public class VariablizeColorsCssProcessor
-  implements ResourcePreProcessor, ResourcePostProcessor {
+  implements ResourcePreProcessor, ResourcePostProcessor, CssVisitorProcessor {
   public static final String ALIAS = "variablizeColors";
 
   /**
@@ -47,4 +55,44 @@ public class VariablizeColorsCssProcessor
     process(null, reader, writer);
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  public CssVisitor createVisitor(final Resource resource) {
+    final Lessify lessify = new Lessify();
+    return new CssVisitor() {
+      /**
+       * The variable name of each color, in the order of their first usage.
+       */
+      private final Map<String, String> colorNames = new LinkedHashMap<String, String>();
+      private final Map<String, Integer> colorCount = new HashMap<String, Integer>();
+
+      public void visit(final CssTokenStream stream, final int index) {
+        final CssToken token = stream.get(index);
+        if (token.getType() == Type.WORD && stream.isDeclarationValue(index)) {
+          final String color = lessify.conformColorValue(token.getText());
+          if (color != null) {
+            String name = colorNames.get(color);
+            if (name == null) {
+              name = String.format("color%03d", colorNames.size());
+              colorNames.put(color, name);
+              colorCount.put(color, 0);
+            }
+            colorCount.put(color, colorCount.get(color) + 1);
+            token.setText("@" + name);
+          }
+        }
+      }
+
+      public void end(final CssTokenStream stream) {
+        final StringBuilder sb = new StringBuilder();
+        for (final Map.Entry<String, String> entry : colorNames.entrySet()) {
+          sb.append("@").append(entry.getValue()).append(": ").append(entry.getKey()).append("; /* used ").append(
+              colorCount.get(entry.getKey())).append(" times */\n");
+        }
+        stream.prepend(sb.toString());
+      }
+    };
+  }
+
 }
@@ -4,25 +4,20 @@
 package ro.isdc.wro.model.resource.processor.impl.js;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
 
-import org.apache.commons.io.input.ProxyInputStream;
-import org.apache.commons.io.input.ReaderInputStream;
-import org.apache.commons.io.output.ProxyOutputStream;
-import org.apache.commons.io.output.WriterOutputStream;
-
-import ro.isdc.wro.config.jmx.WroConfiguration;
-import ro.isdc.wro.model.group.Inject;
 import ro.isdc.wro.model.group.processor.Minimize;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.SupportedResourceType;
+import ro.isdc.wro.model.resource.processor.FingerprintAware;
+import ro.isdc.wro.model.resource.processor.ResourceIndependentAware;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.SourceMapAware;
 import ro.isdc.wro.model.resource.processor.support.JSMin;
+import ro.isdc.wro.model.resource.processor.support.SourceMap;
 
 
 /**
@@ -35,28 +30,40 @@ import ro.isdc.wro.model.resource.processor.support.JSMin;
 @Minimize
 @SupportedResourceType(ResourceType.JS)
 public class JSMinProcessor implements ResourcePreProcessor,
-    ResourcePostProcessor {
+    ResourcePostProcessor, SourceMapAware, ResourceIndependentAware, FingerprintAware {
   public static final String ALIAS = "jsMin";
-  @Inject
-  private WroConfiguration config;
-  private String encoding;
   
   /**
    * {@inheritDoc}
    */
   public void process(final Resource resource, final Reader reader, final Writer writer)
       throws IOException {
+    minimize(reader, writer, false);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public SourceMap processWithSourceMap(final Resource resource, final Reader reader, final Writer writer)
+      throws IOException {
+    return minimize(reader, writer, true);
+  }
+
+  private SourceMap minimize(final Reader reader, final Writer writer, final boolean generateSourceMap)
+      throws IOException {
     try {
-      final InputStream is = new ProxyInputStream(new ReaderInputStream(reader, getEncoding())) {};
-      final OutputStream os = new ProxyOutputStream(new WriterOutputStream(writer, getEncoding()));
-      
-      new JSMin(is, os).jsmin();
-      
-      is.close();
-      os.close();
-		} catch (final Exception e) {
+      final JSMin jsmin = new JSMin(reader, writer);
+      jsmin.setGenerateSourceMap(generateSourceMap);
+      jsmin.jsmin();
+      return jsmin.getSourceMap();
+    } catch (final IOException e) {
+      throw e;
+    } catch (final Exception e) {
       throw new IOException(e);
-    } 
+    } finally {
+      reader.close();
+      writer.close();
+    }
   }
 
   /**
@@ -69,21 +76,27 @@ public class JSMinProcessor implements ResourcePreProcessor,
   }
 
   /**
-   * @return the encoding
+   * {@inheritDoc}
    */
-  private String getEncoding() {
-    if (encoding == null) {
-      //use config is available to get encoding
-      this.encoding = config == null ? WroConfiguration.DEFAULT_ENCODING : config.getEncoding();
-    }
-    return encoding;
+  public boolean isResourceIndependent() {
+    // only removes the comments and the whitespaces, thus doesn't depend on other resources.
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public String getFingerprint() {
+    // the processor has no options
+    return getClass().getName();
   }
 
   /**
    * @param encoding the encoding to set
+   * @deprecated the processor works with characters, thus the encoding is not used anymore.
    */
+  @Deprecated
   public JSMinProcessor setEncoding(final String encoding) {
-    this.encoding = encoding;
     return this;
   }
 }
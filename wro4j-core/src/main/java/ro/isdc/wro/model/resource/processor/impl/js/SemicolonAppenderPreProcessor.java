@@ -14,6 +14,8 @@ import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.SupportedResourceType;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.SourceMapAware;
+import ro.isdc.wro.model.resource.processor.support.SourceMap;
 import ro.isdc.wro.util.WroUtil;
 
 
@@ -25,7 +27,7 @@ import ro.isdc.wro.util.WroUtil;
  */
 @SupportedResourceType(ResourceType.JS)
 public class SemicolonAppenderPreProcessor
-  implements ResourcePreProcessor {
+  implements ResourcePreProcessor, SourceMapAware {
   public static final String ALIAS = "semicolonAppender";
   /**
    * check if the last character is a semicolon and append only if one is missing.
@@ -36,6 +38,23 @@ public class SemicolonAppenderPreProcessor
    * {@inheritDoc}
    */
   public void process(final Resource resource, final Reader reader, final Writer writer)
+    throws IOException {
+    appendSemicolon(reader, writer);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public SourceMap processWithSourceMap(final Resource resource, final Reader reader, final Writer writer)
+    throws IOException {
+    // the script is left unchanged, thus each line is mapped to itself
+    return SourceMap.identity(resource == null ? "" : resource.getUri(), appendSemicolon(reader, writer));
+  }
+
+  /**
+   * @return the processed script.
+   */
+  private String appendSemicolon(final Reader reader, final Writer writer)
     throws IOException {
     try {
       final String script = IOUtils.toString(reader);
@@ -43,6 +62,7 @@ public class SemicolonAppenderPreProcessor
       if (isSemicolonNeeded(script)) {
         writer.write(';');
       }
+      return script;
     } finally {
       reader.close();
       writer.close();
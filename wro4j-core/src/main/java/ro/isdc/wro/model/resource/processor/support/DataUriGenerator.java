@@ -11,7 +11,6 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,6 +26,11 @@ import ro.isdc.wro.util.Base64;
 public class DataUriGenerator {
   private static final Logger LOG = LoggerFactory.getLogger(DataUriGenerator.class);
   private static final String DATA_URI_PREFIX = "data:";
+  private static final String BASE64_SEPARATOR = ";base64,";
+  /**
+   * The number of bytes encoded at once. Must be a multiple of 3, otherwise the encoded chunks would contain padding.
+   */
+  private static final int CHUNK_SIZE = 3 * 4096;
   private final Map<String, String> binaryTypes = new HashMap<String, String>();
   private final Map<String, String> textTypes = new HashMap<String, String>();
 
@@ -79,55 +83,71 @@ public class DataUriGenerator {
   }
 
   /**
-   * Generates DataURI based on provided InputStream, fileName and mimeType.
+   * Generates the dataUri associated to the passed InputStream and writes it directly to the provided writer. The
+   * stream is encoded in chunks, thus the complete content of the stream is never held in memory. The stream is closed
+   * after it is read.
+   *
+   * @param inputStream
+   *          the stream to encode.
+   * @param out
+   *          where to output the data URI.
+   * @param fileName
+   *          the name of the file used to guess the MIME type.
    */
-  private void generateDataURI(final InputStream inputStream, final Writer out, final String fileName, String mimeType)
+  public void generateDataURI(final InputStream inputStream, final Writer out, final String fileName)
     throws IOException {
-    // read the bytes from the file
-    final byte[] bytes = IOUtils.toByteArray(inputStream);
-    inputStream.close();
-
-    // verify MIME type and charset
-    mimeType = getMimeType(fileName, mimeType);
-    // actually write
-    generateDataURI(bytes, out, mimeType);
+    try {
+      // verify MIME type before reading anything
+      final String mimeType = getMimeType(fileName, null);
+      out.write(DATA_URI_PREFIX);
+      out.write(mimeType);
+      out.write(BASE64_SEPARATOR);
+      final byte[] buffer = new byte[CHUNK_SIZE];
+      int length = 0;
+      while ((length = fill(inputStream, buffer)) > 0) {
+        out.write(Base64.encodeBytes(buffer, 0, length));
+      }
+    } finally {
+      inputStream.close();
+    }
   }
 
   /**
-   * Generates dataUri without specifying the mimeType -  this one being guessed from the fileName.
+   * Reads from the stream until the buffer is full or the stream is exhausted. Only the last chunk of the stream can be
+   * smaller than the buffer, this way the encoded chunks can be concatenated without padding in between.
+   *
+   * @return the number of bytes read.
    */
-  private void generateDataURI(final InputStream inputStream, final Writer out, final String fileName)
+  private int fill(final InputStream inputStream, final byte[] buffer)
     throws IOException {
-    generateDataURI(inputStream, out, fileName, null);
+    int length = 0;
+    int read = 0;
+    while (length < buffer.length && (read = inputStream.read(buffer, length, buffer.length - length)) >= 0) {
+      length += read;
+    }
+    return length;
   }
 
-
   /**
-   * Generates a data URI from a byte array and outputs to the given writer.
+   * Computes the length of the data URI of a content having the provided size, without encoding it. Useful to decide if
+   * a content should be encoded at all.
    *
-   * @param bytes The array of bytes to output to the data URI.
-   * @param out Where to output the data URI.
-   * @param mimeType The MIME type to specify in the data URI.
-   * @throws java.io.IOException
+   * @param size
+   *          the number of bytes of the content to encode.
+   * @param fileName
+   *          the name of the file used to guess the MIME type.
+   * @return the number of characters of the data URI.
+   * @throws IOException
+   *           when the MIME type cannot be determined.
    */
-  private void generateDataURI(final byte[] bytes, final Writer out, final String mimeType)
+  public long getDataUriLength(final long size, final String fileName)
     throws IOException {
-    // create the output
-    final StringBuffer buffer = new StringBuffer();
-    buffer.append(DATA_URI_PREFIX);
-
-    // add MIME type
-    buffer.append(mimeType);
-
-    // output base64-encoding
-    buffer.append(";base64,");
-    buffer.append(Base64.encodeBytes(bytes));
-
-    // output to writer
-    out.write(buffer.toString());
+    final String mimeType = getMimeType(fileName, null);
+    // each group of 3 bytes (the last one padded) is encoded as 4 characters
+    final long base64Length = ((size + 2) / 3) * 4;
+    return DATA_URI_PREFIX.length() + mimeType.length() + BASE64_SEPARATOR.length() + base64Length;
   }
 
-
   /**
    * Determines the MIME type to use for the given filename. If a MIME type is passed in, then that is used by default.
    * Otherwise, the filename is inspected to determine the appropriate MIME type.
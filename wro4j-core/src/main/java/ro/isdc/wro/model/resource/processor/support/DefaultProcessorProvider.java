@@ -14,10 +14,12 @@ import ro.isdc.wro.model.resource.processor.impl.css.CssCompressorProcessor;
 import ro.isdc.wro.model.resource.processor.impl.css.CssDataUriPreProcessor;
 import ro.isdc.wro.model.resource.processor.impl.css.CssImportPreProcessor;
 import ro.isdc.wro.model.resource.processor.impl.css.CssMinProcessor;
+import ro.isdc.wro.model.resource.processor.impl.css.CssSpritePreProcessor;
 import ro.isdc.wro.model.resource.processor.impl.css.CssUrlRewritingProcessor;
 import ro.isdc.wro.model.resource.processor.impl.css.CssVariablesProcessor;
 import ro.isdc.wro.model.resource.processor.impl.css.DuplicatesAwareCssDataUriPreProcessor;
 import ro.isdc.wro.model.resource.processor.impl.css.FallbackCssDataUriProcessor;
+import ro.isdc.wro.model.resource.processor.impl.css.FastCssCompressorProcessor;
 import ro.isdc.wro.model.resource.processor.impl.css.JawrCssMinifierProcessor;
 import ro.isdc.wro.model.resource.processor.impl.css.VariablizeColorsCssProcessor;
 import ro.isdc.wro.model.resource.processor.impl.js.ConsoleStripperProcessor;
@@ -67,10 +69,12 @@ public class DefaultProcessorProvider
     map.put(CssImportPreProcessor.ALIAS, new CssImportPreProcessor());
     map.put(CssVariablesProcessor.ALIAS, new CssVariablesProcessor());
     map.put(CssCompressorProcessor.ALIAS, new CssCompressorProcessor());
+    map.put(FastCssCompressorProcessor.ALIAS, new FastCssCompressorProcessor());
     map.put(SemicolonAppenderPreProcessor.ALIAS, new SemicolonAppenderPreProcessor());
     map.put(CssDataUriPreProcessor.ALIAS, new CssDataUriPreProcessor());
     map.put(FallbackCssDataUriProcessor.ALIAS, new FallbackCssDataUriProcessor());
     map.put(DuplicatesAwareCssDataUriPreProcessor.ALIAS_DUPLICATE, new DuplicatesAwareCssDataUriPreProcessor());
+    map.put(CssSpritePreProcessor.ALIAS, new CssSpritePreProcessor());
     map.put(JawrCssMinifierProcessor.ALIAS, new JawrCssMinifierProcessor());
     map.put(CssMinProcessor.ALIAS, new CssMinProcessor());
     map.put(JSMinProcessor.ALIAS, new JSMinProcessor());
@@ -5,8 +5,14 @@ package ro.isdc.wro.model.resource.processor.support;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.PushbackInputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.Validate;
 
 /**
  * JsMin.java.
@@ -17,6 +23,13 @@ import java.io.PushbackInputStream;
  * conditions as the jsmin.c on which it is based.
  * <p>
  * http://www.crockford.com/javascript/jsmin.html
+ * <p>
+ * The input is read once into a char buffer and the result is accumulated in a {@link StringBuilder}, thus the
+ * lookahead is a simple index check and no stream is accessed per character.
+ * <p>
+ * When requested, the {@link SourceMap} of the minimized script is created: each character written keeps the index of
+ * the input character it was read from and a mapping is added when the written characters stop being consecutive in
+ * the input.
  *
  * @author Alex Objelean
  * @created Created on Dec 5, 2008
@@ -24,18 +37,89 @@ import java.io.PushbackInputStream;
 @SuppressWarnings("serial")
 public class JSMin {
   private static final int EOF = -1;
+  /**
+   * The encoding used when working with streams: maps each byte to a char and back, thus the bytes are preserved.
+   */
+  private static final String BYTE_ENCODING = "ISO-8859-1";
+
+  private final Reader reader;
+
+  private final Writer writer;
+
+  private char[] in;
+
+  private int length;
 
-  private final PushbackInputStream in;
+  private int position;
 
-  private final OutputStream out;
+  private StringBuilder out;
 
   private int theA;
 
   private int theB;
 
+  /**
+   * The index (in the input) of theA, theB and of the last character read. -1 if not read from input.
+   */
+  private int indexA;
+
+  private int indexB;
+
+  private int lastIndex;
+
+  private boolean generateSourceMap;
+
+  private SourceMap sourceMap;
+
+  /**
+   * The start index of each input line, used to compute the original positions.
+   */
+  private int[] lineStarts;
+
+  private int outLine;
+
+  private int outColumn;
+
+  /**
+   * The index of the last character written. -1 if no character was written on the current line.
+   */
+  private int previousIndex;
+
+  /**
+   * @param reader
+   *          the script to minimize.
+   * @param writer
+   *          where the minimized script is written.
+   */
+  public JSMin(final Reader reader, final Writer writer) {
+    Validate.notNull(reader);
+    Validate.notNull(writer);
+    this.reader = reader;
+    this.writer = writer;
+  }
+
+  /**
+   * @deprecated use {@link JSMin#JSMin(Reader, Writer)} instead, which doesn't need to convert the characters to bytes.
+   */
+  @Deprecated
   public JSMin(final InputStream in, final OutputStream out) {
-    this.in = new PushbackInputStream(in);
-    this.out = out;
+    this(createReader(in), createWriter(out));
+  }
+
+  private static Reader createReader(final InputStream in) {
+    try {
+      return new InputStreamReader(in, BYTE_ENCODING);
+    } catch (final IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static Writer createWriter(final OutputStream out) {
+    try {
+      return new OutputStreamWriter(out, BYTE_ENCODING);
+    } catch (final IOException e) {
+      throw new IllegalStateException(e);
+    }
   }
 
   /**
@@ -48,13 +132,18 @@ public class JSMin {
   }
 
   /**
-   * get -- return the next character from stdin. Watch out for lookahead. If
+   * get -- return the next character from the buffer. Watch out for lookahead. If
    * the character is a control character, translate it to a space or linefeed.
    */
-  int get() throws IOException {
-    final int c = in.read();
+  int get() {
+    if (position >= length) {
+      lastIndex = -1;
+      return EOF;
+    }
+    lastIndex = position;
+    final char c = in[position++];
 
-    if (c >= ' ' || c == '\n' || c == EOF) {
+    if (c >= ' ' || c == '\n') {
       return c;
     }
 
@@ -68,17 +157,15 @@ public class JSMin {
   /**
    * Get the next character without getting it.
    */
-  int peek() throws IOException {
-    final int lookaheadChar = in.read();
-    in.unread(lookaheadChar);
-    return lookaheadChar;
+  int peek() {
+    return position < length ? in[position] : EOF;
   }
 
   /**
    * next -- get the next character, excluding comments. peek() is used to see
    * if a '/' is followed by a '/' or '*'.
    */
-  int next() throws IOException, UnterminatedCommentException {
+  int next() throws UnterminatedCommentException {
     int c = get();
     if (c == '/') {
       switch (peek()) {
@@ -120,19 +207,20 @@ public class JSMin {
    * Wow! action recognizes a regular expression if it is preceded by ( or , or =.
    */
 
-  void action(final int d) throws IOException,
-      UnterminatedRegExpLiteralException, UnterminatedCommentException,
+  void action(final int d) throws UnterminatedRegExpLiteralException, UnterminatedCommentException,
       UnterminatedStringLiteralException {
     switch (d) {
     case 1:
-      out.write(theA);
+      write(theA, indexA);
     case 2:
       theA = theB;
+      indexA = indexB;
 
       if (theA == '\'' || theA == '"') {
         for (;;) {
-          out.write(theA);
+          write(theA, indexA);
           theA = get();
+          indexA = lastIndex;
           if (theA == theB) {
             break;
           }
@@ -140,35 +228,121 @@ public class JSMin {
             throw new UnterminatedStringLiteralException();
           }
           if (theA == '\\') {
-            out.write(theA);
+            write(theA, indexA);
             theA = get();
+            indexA = lastIndex;
           }
         }
       }
 
     case 3:
       theB = next();
+      indexB = lastIndex;
       if (theB == '/'
           && (theA == '(' || theA == ',' || theA == '=' || theA == ':'
               || theA == '[' || theA == '!' || theA == '&' || theA == '|'
               || theA == '?' || theA == '{' || theA == '}' || theA == ';' || theA == '\n')) {
-        out.write(theA);
-        out.write(theB);
+        write(theA, indexA);
+        write(theB, indexB);
         for (;;) {
           theA = get();
+          indexA = lastIndex;
           if (theA == '/') {
             break;
           } else if (theA == '\\') {
-            out.write(theA);
+            write(theA, indexA);
             theA = get();
+            indexA = lastIndex;
           } else if (theA <= '\n') {
             throw new UnterminatedRegExpLiteralException();
           }
-          out.write(theA);
+          write(theA, indexA);
         }
         theB = next();
+        indexB = lastIndex;
+      }
+    }
+  }
+
+  /**
+   * Writes a character to the output, adding a mapping when the character doesn't follow the previous one in input.
+   *
+   * @param index
+   *          the index of the character in the input or -1 if it doesn't come from input.
+   */
+  private void write(final int c, final int index) {
+    out.append((char) c);
+    if (sourceMap != null) {
+      if (index >= 0 && (previousIndex < 0 || index != previousIndex + 1)) {
+        final int line = getInputLine(index);
+        sourceMap.addMapping(outLine, outColumn, 0, line, index - lineStarts[line]);
+      }
+      if (c == '\n') {
+        outLine++;
+        outColumn = 0;
+        previousIndex = -1;
+      } else {
+        outColumn++;
+        previousIndex = index;
+      }
+    }
+  }
+
+  /**
+   * @return the line of the input character with provided index.
+   */
+  private int getInputLine(final int index) {
+    int low = 0;
+    int high = lineStarts.length - 1;
+    while (low < high) {
+      final int middle = (low + high + 1) >>> 1;
+      if (lineStarts[middle] <= index) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Computes the start index of each input line. A line break is either <code>\n</code>, <code>\r\n</code> or
+   * <code>\r</code>.
+   */
+  private int[] computeLineStarts() {
+    int[] starts = new int[64];
+    int count = 1;
+    for (int i = 0; i < length; i++) {
+      if (in[i] == '\n' || (in[i] == '\r' && (i + 1 == length || in[i + 1] != '\n'))) {
+        if (count == starts.length) {
+          starts = copyOf(starts, count * 2);
+        }
+        starts[count++] = i + 1;
       }
     }
+    return copyOf(starts, count);
+  }
+
+  private static int[] copyOf(final int[] array, final int length) {
+    final int[] result = new int[length];
+    System.arraycopy(array, 0, result, 0, Math.min(array.length, length));
+    return result;
+  }
+
+  /**
+   * @param generateSourceMap
+   *          true if the {@link SourceMap} of the minimized script should be created.
+   */
+  public void setGenerateSourceMap(final boolean generateSourceMap) {
+    this.generateSourceMap = generateSourceMap;
+  }
+
+  /**
+   * @return the map of the minimized script to the input script, having a single (unnamed) source. Null if the source
+   *         map generation wasn't requested.
+   */
+  public SourceMap getSourceMap() {
+    return sourceMap;
   }
 
   /**
@@ -179,7 +353,19 @@ public class JSMin {
    */
   public void jsmin() throws IOException, UnterminatedRegExpLiteralException,
       UnterminatedCommentException, UnterminatedStringLiteralException {
+    in = IOUtils.toCharArray(reader);
+    length = in.length;
+    position = 0;
+    out = new StringBuilder(length);
+    if (generateSourceMap) {
+      sourceMap = new SourceMap("");
+      lineStarts = computeLineStarts();
+      outLine = 0;
+      outColumn = 0;
+      previousIndex = -1;
+    }
     theA = '\n';
+    indexA = -1;
     action(3);
     while (theA != EOF) {
       switch (theA) {
@@ -244,7 +430,8 @@ public class JSMin {
         }
       }
     }
-    out.flush();
+    writer.write(out.toString());
+    writer.flush();
   }
 
   private static class UnterminatedCommentException extends Exception {
@@ -32,6 +32,15 @@ import java.util.regex.Pattern;
 public class Lessify {
   private static final Pattern PATTERN_COLOR = Pattern.compile("#[0-9a-fA-F]{3,6}[^0-9a-fA-F]");
   private static final Pattern PATTERN_WORD_COLOR = Pattern.compile(getGiantCssColorRegex());
+  /**
+   * Css colors mapped by their lower case name.
+   */
+  private static final Map<String, CssColors> COLORS = new HashMap<String, CssColors>();
+  static {
+    for (final CssColors color : CssColors.values()) {
+      COLORS.put(color.name().toLowerCase(), color);
+    }
+  }
 
 
   public String variablizeColors(String css) {
@@ -85,6 +94,31 @@ public class Lessify {
   }
 
 
+  /**
+   * Conforms a single token of a declaration value, used when the colors are processed token by token.
+   *
+   * @param value
+   *          a part of a declaration value, ex: <code>#FFF</code> or <code>red</code>.
+   * @return the color in <code>#rrggbb</code> format or null if the value is not a color.
+   */
+  public String conformColorValue(final String value) {
+    if (value.length() > 1 && value.charAt(0) == '#') {
+      final String color = value.substring(1);
+      if (color.length() > 6 || color.length() < 3) {
+        return null;
+      }
+      for (int i = 0; i < color.length(); i++) {
+        if (Character.digit(color.charAt(i), 16) < 0) {
+          return null;
+        }
+      }
+      return "#" + conformColor(color);
+    }
+    final CssColors color = COLORS.get(value.toLowerCase());
+    return color == null ? null : "#" + color.getColorAsHexString().toLowerCase();
+  }
+
+
   private String conformColor(final String color) {
     if (CssColors.forName(color) != null) {
       return CssColors.forName(color).getColorAsHexString().toLowerCase();
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor.support;
+
+import java.util.List;
+
+import org.apache.commons.lang3.Validate;
+
+
+/**
+ * A processed content along with the {@link SourceMap} mapping it to the original resources. The source map is
+ * optional: it is null when it wasn't requested or when a processor changed the content without providing the mappings
+ * of its changes. The object is immutable, the map must not be changed after creation.
+ *
+ * @since 1.4.7
+ */
+public final class MappedContent {
+  private final String content;
+  private final SourceMap sourceMap;
+
+  /**
+   * @param content
+   *          the processed content.
+   * @param sourceMap
+   *          the map of the content, can be null.
+   */
+  public MappedContent(final String content, final SourceMap sourceMap) {
+    Validate.notNull(content);
+    this.content = content;
+    this.sourceMap = sourceMap;
+  }
+
+  /**
+   * @return the processed content.
+   */
+  public String getContent() {
+    return content;
+  }
+
+  /**
+   * @return the map of the content or null if the content is not mapped.
+   */
+  public SourceMap getSourceMap() {
+    return sourceMap;
+  }
+
+  /**
+   * Creates the {@link MappedContent} resulted from processing this content.
+   *
+   * @param processed
+   *          the result of the processing.
+   * @param stageMap
+   *          the map of the result to this content, null if the processor didn't provide it.
+   * @return the processed content, mapped to the original resources if possible.
+   */
+  public MappedContent next(final String processed, final SourceMap stageMap) {
+    if (sourceMap == null) {
+      return new MappedContent(processed, null);
+    }
+    if (stageMap != null) {
+      return new MappedContent(processed, stageMap.compose(sourceMap));
+    }
+    // a processor which didn't change the content doesn't need to provide a map
+    return new MappedContent(processed, processed.equals(content) ? sourceMap : null);
+  }
+
+  /**
+   * Merges the provided contents. The merged content is mapped only if all the contents are mapped.
+   *
+   * @param contents
+   *          the contents to merge.
+   * @return the merged content.
+   */
+  public static MappedContent merge(final List<MappedContent> contents) {
+    Validate.notNull(contents);
+    final StringBuilder sb = new StringBuilder();
+    SourceMap merged = new SourceMap();
+    int line = 0;
+    int column = 0;
+    for (final MappedContent content : contents) {
+      if (merged != null && content.sourceMap != null) {
+        merged.append(content.sourceMap, line, column);
+      } else {
+        merged = null;
+      }
+      sb.append(content.content);
+      final int lines = SourceMap.countLines(content.content);
+      line += lines - 1;
+      column = lines > 1 ? SourceMap.lastLineLength(content.content) : column + content.content.length();
+    }
+    return new MappedContent(sb.toString(), merged);
+  }
+}
@@ -0,0 +1,340 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang3.Validate;
+
+
+/**
+ * Maps the positions of a generated content to the positions of the original sources (see <a
+ * href="https://docs.google.com/document/d/1U1RGAehQwRypUTovF1KRlpiOFze0b-_2gc6fAH0KY0k">Source Map Revision 3
+ * Proposal</a>). A mapping is a point: the position of a generated character and the position of the original character.
+ * The characters following a mapping on the same line are mapped relatively to it, until the next mapping. Thus a
+ * single mapping per line is enough for a content which was only moved (ex: merged) and a processor changing the
+ * content (ex: a minimizer) has to add a mapping only where the generated content stops following the original content.
+ * <p/>
+ * The lines and columns are zero-based. This class is not thread-safe.
+ *
+ * @since 1.4.7
+ */
+public class SourceMap {
+  private static final String BASE64_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+  private static final int VLQ_BASE_SHIFT = 5;
+  private static final int VLQ_BASE = 1 << VLQ_BASE_SHIFT;
+  private static final int VLQ_BASE_MASK = VLQ_BASE - 1;
+  private final List<String> sources;
+  /**
+   * The mappings of each generated line, sorted by generated column.
+   */
+  private final List<List<Mapping>> lines = new ArrayList<List<Mapping>>();
+
+  /**
+   * A generated position mapped to a position of a source.
+   */
+  private static final class Mapping {
+    private final int generatedColumn;
+    private final int sourceIndex;
+    private final int originalLine;
+    private final int originalColumn;
+
+    Mapping(final int generatedColumn, final int sourceIndex, final int originalLine, final int originalColumn) {
+      this.generatedColumn = generatedColumn;
+      this.sourceIndex = sourceIndex;
+      this.originalLine = originalLine;
+      this.originalColumn = originalColumn;
+    }
+  }
+
+  /**
+   * @param sources
+   *          the names of the original sources (ex: the uri of the resources).
+   */
+  public SourceMap(final String... sources) {
+    this(Arrays.asList(sources));
+  }
+
+  /**
+   * @param sources
+   *          the names of the original sources (ex: the uri of the resources).
+   */
+  public SourceMap(final List<String> sources) {
+    Validate.notNull(sources);
+    this.sources = new ArrayList<String>(sources);
+  }
+
+  /**
+   * Creates the map of a content generated by copying the original source: each line is mapped to the same line of
+   * the source.
+   *
+   * @param source
+   *          the name of the source.
+   * @param content
+   *          the content of the source.
+   * @return the created {@link SourceMap}.
+   */
+  public static SourceMap identity(final String source, final String content) {
+    final SourceMap sourceMap = new SourceMap(source);
+    final int lineCount = countLines(content);
+    for (int line = 0; line < lineCount; line++) {
+      sourceMap.addMapping(line, 0, 0, line, 0);
+    }
+    return sourceMap;
+  }
+
+  /**
+   * @return the number of lines of the provided content. A line break is either <code>\n</code>, <code>\r\n</code> or
+   *         <code>\r</code>.
+   */
+  static int countLines(final CharSequence content) {
+    int lines = 1;
+    final int length = content.length();
+    for (int i = 0; i < length; i++) {
+      final char c = content.charAt(i);
+      if (c == '\n' || (c == '\r' && (i + 1 == length || content.charAt(i + 1) != '\n'))) {
+        lines++;
+      }
+    }
+    return lines;
+  }
+
+  /**
+   * @return the length of the last line of the provided content.
+   */
+  static int lastLineLength(final CharSequence content) {
+    int i = content.length();
+    while (i > 0 && content.charAt(i - 1) != '\n' && content.charAt(i - 1) != '\r') {
+      i--;
+    }
+    return content.length() - i;
+  }
+
+  /**
+   * Adds a mapping. The mappings of a line must be added in the order of their generated column.
+   *
+   * @param generatedLine
+   *          the line of the generated content.
+   * @param generatedColumn
+   *          the column of the generated content.
+   * @param sourceIndex
+   *          the index of the source (in the list of sources provided to constructor).
+   * @param originalLine
+   *          the line of the source.
+   * @param originalColumn
+   *          the column of the source.
+   */
+  public void addMapping(final int generatedLine, final int generatedColumn, final int sourceIndex,
+      final int originalLine, final int originalColumn) {
+    Validate.isTrue(sourceIndex >= 0 && sourceIndex < sources.size(), "Invalid source index: " + sourceIndex);
+    getLine(generatedLine).add(new Mapping(generatedColumn, sourceIndex, originalLine, originalColumn));
+  }
+
+  private List<Mapping> getLine(final int line) {
+    while (lines.size() <= line) {
+      lines.add(new ArrayList<Mapping>());
+    }
+    return lines.get(line);
+  }
+
+  /**
+   * @return the names of the original sources.
+   */
+  public List<String> getSources() {
+    return Collections.unmodifiableList(sources);
+  }
+
+  /**
+   * @return the original position of the provided generated position as an array: source index, line and column, or
+   *         null if the position is not mapped.
+   */
+  public int[] getOriginalPosition(final int generatedLine, final int generatedColumn) {
+    if (generatedLine >= lines.size()) {
+      return null;
+    }
+    final Mapping mapping = findMapping(lines.get(generatedLine), generatedColumn);
+    return mapping == null ? null : new int[] {
+      mapping.sourceIndex, mapping.originalLine, mapping.originalColumn + generatedColumn - mapping.generatedColumn
+    };
+  }
+
+  /**
+   * @return the mapping with the greatest generated column not exceeding the provided column or null if there is no
+   *         such mapping.
+   */
+  private Mapping findMapping(final List<Mapping> line, final int column) {
+    int low = 0;
+    int high = line.size() - 1;
+    Mapping result = null;
+    while (low <= high) {
+      final int middle = (low + high) >>> 1;
+      final Mapping mapping = line.get(middle);
+      if (mapping.generatedColumn <= column) {
+        result = mapping;
+        low = middle + 1;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Composes this map with the map of the content this map was generated from. This is useful when the content is
+   * processed by several processors: the map of each processor maps its output to its input, the composed map maps the
+   * output of the last processor to the original sources.
+   *
+   * @param previous
+   *          the map of the content this map was generated from, having the position of this map's source as generated
+   *          positions.
+   * @return the map of the content of this map to the sources of the previous map.
+   */
+  public SourceMap compose(final SourceMap previous) {
+    Validate.notNull(previous);
+    final SourceMap result = new SourceMap(previous.sources);
+    for (int line = 0; line < lines.size(); line++) {
+      final List<Mapping> mappings = lines.get(line);
+      for (int i = 0; i < mappings.size(); i++) {
+        final Mapping mapping = mappings.get(i);
+        // the generated characters following the mapping follow the original ones, until the next mapping
+        final int length = i + 1 < mappings.size() ? mappings.get(i + 1).generatedColumn - mapping.generatedColumn
+            : Integer.MAX_VALUE;
+        composeMapping(result, line, mapping, length, previous);
+      }
+    }
+    return result;
+  }
+
+  private void composeMapping(final SourceMap result, final int line, final Mapping mapping, final int length,
+      final SourceMap previous) {
+    final int[] start = previous.getOriginalPosition(mapping.originalLine, mapping.originalColumn);
+    if (start != null) {
+      result.addMapping(line, mapping.generatedColumn, start[0], start[1], start[2]);
+    }
+    if (mapping.originalLine < previous.lines.size()) {
+      // the mappings of the previous map inside the mapped range are preserved
+      for (final Mapping inner : previous.lines.get(mapping.originalLine)) {
+        final int offset = inner.generatedColumn - mapping.originalColumn;
+        if (offset > 0 && offset < length) {
+          result.addMapping(line, mapping.generatedColumn + offset, inner.sourceIndex, inner.originalLine,
+              inner.originalColumn);
+        }
+      }
+    }
+  }
+
+  /**
+   * Appends the mappings of a content which is appended to the content of this map.
+   *
+   * @param other
+   *          the map of the appended content.
+   * @param lineOffset
+   *          the line of this map's content where the appended content starts.
+   * @param columnOffset
+   *          the column where the appended content starts (the length of the last line of this map's content).
+   */
+  public void append(final SourceMap other, final int lineOffset, final int columnOffset) {
+    Validate.notNull(other);
+    final int[] sourceIndexes = new int[other.sources.size()];
+    for (int i = 0; i < sourceIndexes.length; i++) {
+      final String source = other.sources.get(i);
+      int index = sources.indexOf(source);
+      if (index < 0) {
+        index = sources.size();
+        sources.add(source);
+      }
+      sourceIndexes[i] = index;
+    }
+    for (int line = 0; line < other.lines.size(); line++) {
+      for (final Mapping mapping : other.lines.get(line)) {
+        addMapping(lineOffset + line, mapping.generatedColumn + (line == 0 ? columnOffset : 0),
+            sourceIndexes[mapping.sourceIndex], mapping.originalLine, mapping.originalColumn);
+      }
+    }
+  }
+
+  /**
+   * @param file
+   *          the name of the generated file.
+   * @return the map serialized as json, using the Source Map Revision 3 format.
+   */
+  public String toJson(final String file) {
+    final StringBuilder sb = new StringBuilder("{\"version\":3,");
+    if (file != null) {
+      sb.append("\"file\":");
+      appendString(sb, file);
+      sb.append(',');
+    }
+    sb.append("\"sources\":[");
+    for (int i = 0; i < sources.size(); i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      appendString(sb, sources.get(i));
+    }
+    sb.append("],\"names\":[],\"mappings\":\"");
+    appendMappings(sb);
+    return sb.append("\"}").toString();
+  }
+
+  private void appendMappings(final StringBuilder sb) {
+    int previousSourceIndex = 0;
+    int previousOriginalLine = 0;
+    int previousOriginalColumn = 0;
+    for (int line = 0; line < lines.size(); line++) {
+      if (line > 0) {
+        sb.append(';');
+      }
+      int previousGeneratedColumn = 0;
+      boolean first = true;
+      for (final Mapping mapping : lines.get(line)) {
+        if (!first) {
+          sb.append(',');
+        }
+        first = false;
+        appendVlq(sb, mapping.generatedColumn - previousGeneratedColumn);
+        appendVlq(sb, mapping.sourceIndex - previousSourceIndex);
+        appendVlq(sb, mapping.originalLine - previousOriginalLine);
+        appendVlq(sb, mapping.originalColumn - previousOriginalColumn);
+        previousGeneratedColumn = mapping.generatedColumn;
+        previousSourceIndex = mapping.sourceIndex;
+        previousOriginalLine = mapping.originalLine;
+        previousOriginalColumn = mapping.originalColumn;
+      }
+    }
+  }
+
+  /**
+   * Appends the base64 VLQ encoding of the provided value.
+   */
+  private void appendVlq(final StringBuilder sb, final int value) {
+    int vlq = value < 0 ? ((-value) << 1) + 1 : value << 1;
+    do {
+      int digit = vlq & VLQ_BASE_MASK;
+      vlq >>>= VLQ_BASE_SHIFT;
+      if (vlq > 0) {
+        digit |= VLQ_BASE;
+      }
+      sb.append(BASE64_CHARS.charAt(digit));
+    } while (vlq > 0);
+  }
+
+  private void appendString(final StringBuilder sb, final String value) {
+    sb.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        sb.append('\\').append(c);
+      } else if (c < ' ') {
+        sb.append(String.format("\\u%04x", (int) c));
+      } else {
+        sb.append(c);
+      }
+    }
+    sb.append('"');
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor.support;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import org.apache.commons.lang3.Validate;
+
+
+/**
+ * Packs several images into a single png image (a sprite). The images are stacked vertically, separated by a small
+ * margin, thus each image can be displayed using the <code>background-position</code> of its offset. This class is not
+ * thread-safe.
+ *
+ * @since 1.4.7
+ */
+public class SpriteBuilder {
+  /**
+   * The number of transparent pixels between two images, prevents the neighbour images to be visible when the browser
+   * scales the sprite.
+   */
+  private static final int MARGIN = 2;
+  private final List<BufferedImage> images = new ArrayList<BufferedImage>();
+  private int width;
+  private int height;
+
+  /**
+   * Adds an image to the sprite.
+   *
+   * @param image
+   *          the image to add.
+   * @return the vertical offset (in pixels) of the image inside the sprite.
+   */
+  public int add(final BufferedImage image) {
+    Validate.notNull(image);
+    final int offset = images.isEmpty() ? 0 : height + MARGIN;
+    images.add(image);
+    width = Math.max(width, image.getWidth());
+    height = offset + image.getHeight();
+    return offset;
+  }
+
+  /**
+   * @return the number of images added to the sprite.
+   */
+  public int size() {
+    return images.size();
+  }
+
+  /**
+   * @return the content of the sprite, encoded as png.
+   */
+  public byte[] build()
+      throws IOException {
+    Validate.isTrue(!images.isEmpty(), "The sprite doesn't contain any image");
+    final BufferedImage sprite = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    final Graphics2D graphics = sprite.createGraphics();
+    try {
+      int offset = 0;
+      for (final BufferedImage image : images) {
+        graphics.drawImage(image, 0, offset, null);
+        offset += image.getHeight() + MARGIN;
+      }
+    } finally {
+      graphics.dispose();
+    }
+    final ByteArrayOutputStream os = new ByteArrayOutputStream();
+    ImageIO.write(sprite, "png", os);
+    return os.toByteArray();
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor.support.css;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.Validate;
+
+
+/**
+ * Records the images referred by the stylesheets of the model: which groups refer each image and how many times.
+ * Useful to decide if an image should be inlined (when used once) or served as a single cached resource (when used
+ * many times). This class is thread-safe.
+ *
+ * @since 1.4.7
+ */
+public class CssImageRegistry {
+  /**
+   * Maps the uri of an image to the number of references of the image by each group.
+   */
+  private final ConcurrentMap<String, ConcurrentMap<String, AtomicInteger>> images = new ConcurrentHashMap<String, ConcurrentMap<String, AtomicInteger>>();
+
+  /**
+   * Records a reference of an image.
+   *
+   * @param imageUri
+   *          the uri of the referred image.
+   * @param groupName
+   *          the name of the group containing the stylesheet referring the image.
+   */
+  public void register(final String imageUri, final String groupName) {
+    Validate.notNull(imageUri);
+    Validate.notNull(groupName);
+    ConcurrentMap<String, AtomicInteger> groups = images.get(imageUri);
+    if (groups == null) {
+      final ConcurrentMap<String, AtomicInteger> newGroups = new ConcurrentHashMap<String, AtomicInteger>();
+      groups = images.putIfAbsent(imageUri, newGroups);
+      if (groups == null) {
+        groups = newGroups;
+      }
+    }
+    AtomicInteger count = groups.get(groupName);
+    if (count == null) {
+      final AtomicInteger newCount = new AtomicInteger();
+      count = groups.putIfAbsent(groupName, newCount);
+      if (count == null) {
+        count = newCount;
+      }
+    }
+    count.incrementAndGet();
+  }
+
+  /**
+   * @return the number of references of the image with provided uri, from all groups. When the image is unknown, 0 is
+   *         returned.
+   */
+  public int getReferenceCount(final String imageUri) {
+    Validate.notNull(imageUri);
+    int result = 0;
+    final Map<String, AtomicInteger> groups = images.get(imageUri);
+    if (groups != null) {
+      for (final AtomicInteger count : groups.values()) {
+        result += count.get();
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return true if the image with provided uri is referred more than once.
+   */
+  public boolean isShared(final String imageUri) {
+    return getReferenceCount(imageUri) > 1;
+  }
+
+  /**
+   * @return the names of the groups referring the image with provided uri.
+   */
+  public Set<String> getGroupNames(final String imageUri) {
+    Validate.notNull(imageUri);
+    final Map<String, AtomicInteger> groups = images.get(imageUri);
+    return groups == null ? Collections.<String> emptySet() : Collections.unmodifiableSet(new HashSet<String>(
+        groups.keySet()));
+  }
+
+  /**
+   * @return the uri's of all registered images.
+   */
+  public Set<String> getImageUris() {
+    return Collections.unmodifiableSet(new HashSet<String>(images.keySet()));
+  }
+
+  /**
+   * Forgets all the registered images.
+   */
+  public void clear() {
+    images.clear();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    return images.toString();
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor.support.css;
+
+import org.apache.commons.lang3.Validate;
+
+import ro.isdc.wro.model.resource.processor.support.css.CssTokenizer.Type;
+
+
+/**
+ * A token of a {@link CssTokenStream}. The text of a token can be changed by the visitors, the type remains the one
+ * found by the {@link CssTokenizer}.
+ *
+ * @since 1.4.7
+ */
+public class CssToken {
+  private final Type type;
+  private String text;
+  private boolean removed;
+
+  public CssToken(final Type type, final String text) {
+    Validate.notNull(type);
+    Validate.notNull(text);
+    this.type = type;
+    this.text = text;
+  }
+
+  /**
+   * @return the type of the token.
+   */
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * @return the text of the token.
+   */
+  public String getText() {
+    return text;
+  }
+
+  /**
+   * @param text
+   *          the new text of the token.
+   */
+  public void setText(final String text) {
+    Validate.notNull(text);
+    this.text = text;
+  }
+
+  /**
+   * @return true if the token is the provided symbol.
+   */
+  public boolean isSymbol(final char symbol) {
+    return type == Type.SYMBOL && text.length() == 1 && text.charAt(0) == symbol;
+  }
+
+  /**
+   * @return true if the token is a whitespace or a comment.
+   */
+  public boolean isInsignificant() {
+    return type == Type.WHITESPACE || type == Type.COMMENT;
+  }
+
+  /**
+   * @return true if the token was removed from the stream.
+   */
+  public boolean isRemoved() {
+    return removed;
+  }
+
+  void remove() {
+    removed = true;
+    text = "";
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    return type + ":" + text;
+  }
+}
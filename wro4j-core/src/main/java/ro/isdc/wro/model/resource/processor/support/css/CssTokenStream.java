@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor.support.css;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.Validate;
+
+
+/**
+ * A stylesheet tokenized once by the {@link CssTokenizer} and shared by several {@link CssVisitor}'s. The stream is
+ * lossless: when no token is changed, the serialized stream is identical to the original stylesheet. The visitors
+ * change the tokens in place and the stylesheet is serialized only once, after all visitors are applied.
+ * <p/>
+ * This class is not thread-safe.
+ *
+ * @since 1.4.7
+ */
+public class CssTokenStream {
+  private final List<CssToken> tokens;
+  /**
+   * The css to add in front of the tokens when serializing the stream.
+   */
+  private final StringBuilder prefix = new StringBuilder();
+
+  /**
+   * @param css
+   *          the stylesheet to tokenize.
+   */
+  public CssTokenStream(final String css) {
+    tokens = tokenize(css);
+  }
+
+  private static List<CssToken> tokenize(final String css) {
+    final List<CssToken> result = new ArrayList<CssToken>();
+    final CssTokenizer tokenizer = new CssTokenizer(css);
+    while (tokenizer.next()) {
+      result.add(new CssToken(tokenizer.getType(), tokenizer.getText()));
+    }
+    return result;
+  }
+
+  /**
+   * Visits each token with all the provided visitors, in the order they are provided. A token is visited by the next
+   * visitor only after the previous visitors are done with it, thus a visitor sees the changes made by the previous
+   * ones, the same way as a processor sees the result of the previous processor.
+   *
+   * @param visitors
+   *          the list of {@link CssVisitor} to apply.
+   */
+  public void accept(final List<CssVisitor> visitors) {
+    Validate.notNull(visitors);
+    for (int i = 0; i < tokens.size(); i++) {
+      for (final CssVisitor visitor : visitors) {
+        if (tokens.get(i).isRemoved()) {
+          break;
+        }
+        visitor.visit(this, i);
+      }
+    }
+    for (final CssVisitor visitor : visitors) {
+      visitor.end(this);
+    }
+  }
+
+  /**
+   * @return the number of tokens.
+   */
+  public int size() {
+    return tokens.size();
+  }
+
+  /**
+   * @return the token with provided index.
+   */
+  public CssToken get(final int index) {
+    return tokens.get(index);
+  }
+
+  /**
+   * @return the index of the provided token or -1 if it is not part of the stream anymore.
+   */
+  public int indexOf(final CssToken token) {
+    for (int i = 0; i < tokens.size(); i++) {
+      if (tokens.get(i) == token) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return the index of the first token after the provided index which is not a whitespace, a comment or a removed
+   *         token, or -1 if there is no such token.
+   */
+  public int next(final int index) {
+    for (int i = index + 1; i < tokens.size(); i++) {
+      final CssToken token = tokens.get(i);
+      if (!token.isInsignificant() && !token.isRemoved()) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return the index of the first token before the provided index which is not a whitespace, a comment or a removed
+   *         token, or -1 if there is no such token.
+   */
+  public int previous(final int index) {
+    for (int i = index - 1; i >= 0; i--) {
+      final CssToken token = tokens.get(i);
+      if (!token.isInsignificant() && !token.isRemoved()) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return the index of the first provided symbol found after the provided index, or -1 if there is no such symbol.
+   */
+  public int nextSymbol(final int index, final char symbol) {
+    for (int i = index + 1; i < tokens.size(); i++) {
+      if (tokens.get(i).isSymbol(symbol)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return true if the token with provided index is part of a declaration value, ex: <code>red</code> in
+   *         <code>a {color: red}</code>.
+   */
+  public boolean isDeclarationValue(final int index) {
+    for (int i = index - 1; i >= 0; i--) {
+      final CssToken token = tokens.get(i);
+      if (token.isSymbol(':')) {
+        return true;
+      }
+      if (token.isSymbol('{') || token.isSymbol('}') || token.isSymbol(';')) {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the text of the tokens between provided indexes (inclusive).
+   */
+  public String getText(final int from, final int to) {
+    final StringBuilder sb = new StringBuilder();
+    for (int i = from; i <= to; i++) {
+      sb.append(tokens.get(i).getText());
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Removes the tokens between provided indexes (inclusive). The removed tokens remain in the stream, thus the indexes
+   * of the other tokens don't change.
+   */
+  public void remove(final int from, final int to) {
+    for (int i = from; i <= to; i++) {
+      tokens.get(i).remove();
+    }
+  }
+
+  /**
+   * Replaces the tokens between provided indexes (inclusive) with the tokens of the provided css. The tokens of the
+   * provided css are visited by the visitors which haven't visited yet the replaced tokens.
+   *
+   * @return the number of tokens replacing the removed ones.
+   */
+  public int replace(final int from, final int to, final String css) {
+    Validate.isTrue(from <= to);
+    final List<CssToken> replacement = tokenize(css);
+    if (replacement.isEmpty()) {
+      remove(from, to);
+      return 0;
+    }
+    tokens.subList(from, to + 1).clear();
+    tokens.addAll(from, replacement);
+    return replacement.size();
+  }
+
+  /**
+   * @param text
+   *          the text of a token.
+   * @return the text of a token with the outer quotes removed, if any.
+   */
+  public static String unquote(final String text) {
+    final String result = text.trim();
+    if (result.length() > 1) {
+      final char first = result.charAt(0);
+      if ((first == '"' || first == '\'') && result.charAt(result.length() - 1) == first) {
+        return result.substring(1, result.length() - 1);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @param text
+   *          the text of a {@link CssTokenizer.Type#URL} token.
+   * @return the url referred by the token, ex: <code>image.png</code> for <code>url('image.png')</code>. Only the
+   *         quotes adjacent to the parentheses are removed, thus the result is always a substring of the token.
+   */
+  public static String getUrl(final String text) {
+    int start = text.indexOf('(') + 1;
+    int end = text.endsWith(")") ? text.length() - 1 : text.length();
+    if (start < end && isQuote(text.charAt(start))) {
+      start++;
+    }
+    if (start < end && isQuote(text.charAt(end - 1))) {
+      end--;
+    }
+    return text.substring(start, end);
+  }
+
+  private static boolean isQuote(final char c) {
+    return c == '"' || c == '\'';
+  }
+
+  /**
+   * Adds css in front of the stream. The added css is not visited.
+   */
+  public void prepend(final String css) {
+    prefix.insert(0, css);
+  }
+
+  /**
+   * @return the serialized stream.
+   */
+  @Override
+  public String toString() {
+    int length = prefix.length();
+    for (final CssToken token : tokens) {
+      length += token.getText().length();
+    }
+    final StringBuilder sb = new StringBuilder(length);
+    sb.append(prefix);
+    for (final CssToken token : tokens) {
+      sb.append(token.getText());
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor.support.css;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.Validate;
+
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.SupportedResourceType;
+import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+
+
+/**
+ * Applies several {@link CssVisitorProcessor}'s in a single pass: the resource is tokenized once into a
+ * {@link CssTokenStream}, visited by the visitors of all processors and serialized once. The result is the same as
+ * applying the processors one after the other, except that:
+ * <ul>
+ * <li>the css added by a processor in front of the resource (ex: the imported resources) is not visited by the next
+ * processors.</li>
+ * <li>the processors are applied only on the relevant tokens (ex: colors are changed only inside declarations, urls
+ * and colors inside comments are left untouched).</li>
+ * </ul>
+ * The processors must be already injected.
+ *
+ * @since 1.4.7
+ */
+@SupportedResourceType(ResourceType.CSS)
+public class CssTokenStreamProcessor
+    implements ResourcePreProcessor {
+  private final List<CssVisitorProcessor> processors;
+
+  public CssTokenStreamProcessor(final CssVisitorProcessor... processors) {
+    this(Arrays.asList(processors));
+  }
+
+  public CssTokenStreamProcessor(final List<CssVisitorProcessor> processors) {
+    Validate.notNull(processors);
+    this.processors = Collections.unmodifiableList(new ArrayList<CssVisitorProcessor>(processors));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public void process(final Resource resource, final Reader reader, final Writer writer)
+      throws IOException {
+    try {
+      final CssTokenStream stream = new CssTokenStream(IOUtils.toString(reader));
+      final List<CssVisitor> visitors = new ArrayList<CssVisitor>(processors.size());
+      for (final CssVisitorProcessor processor : processors) {
+        visitors.add(processor.createVisitor(resource));
+      }
+      stream.accept(visitors);
+      writer.write(stream.toString());
+    } finally {
+      reader.close();
+      writer.close();
+    }
+  }
+
+  /**
+   * @return the fused processors.
+   */
+  public List<CssVisitorProcessor> getProcessors() {
+    return processors;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + processors;
+  }
+}
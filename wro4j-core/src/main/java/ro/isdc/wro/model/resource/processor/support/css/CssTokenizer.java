@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor.support.css;
+
+import org.apache.commons.lang3.Validate;
+
+
+/**
+ * Splits a stylesheet into tokens in a single pass, without using regular expressions. The tokens are not copied: each
+ * token is identified by its type and its position in the stylesheet, the text being created only when requested. The
+ * tokenizer is lenient: any input is accepted, unterminated comments, strings or urls end with the stylesheet.
+ * <p/>
+ * This class is not thread-safe.
+ *
+ * @since 1.4.7
+ */
+public class CssTokenizer {
+  /**
+   * The characters which are tokens by themselves.
+   */
+  private static final String SYMBOLS = "{}:;,>+()[]!=";
+  private static final String URL_START = "url(";
+
+  /**
+   * The types of tokens.
+   */
+  public static enum Type {
+    /**
+     * One or more whitespace characters.
+     */
+    WHITESPACE,
+    /**
+     * A comment, including the comment delimiters.
+     */
+    COMMENT,
+    /**
+     * A single or double quoted string, including the quotes.
+     */
+    STRING,
+    /**
+     * The url function with its argument, ex: <code>url(image.png)</code>.
+     */
+    URL,
+    /**
+     * One of the following characters: <code>{}:;,>+()[]!=</code>.
+     */
+    SYMBOL,
+    /**
+     * Any other sequence of characters: identifiers, numbers, selectors parts, at-keywords, etc.
+     */
+    WORD
+  }
+
+  private final String css;
+  private final int length;
+  private Type type;
+  private int start;
+  private int end;
+
+  /**
+   * @param css
+   *          the stylesheet to tokenize.
+   */
+  public CssTokenizer(final String css) {
+    Validate.notNull(css);
+    this.css = css;
+    this.length = css.length();
+  }
+
+  /**
+   * Moves to the next token.
+   *
+   * @return false if there are no more tokens.
+   */
+  public boolean next() {
+    start = end;
+    if (start >= length) {
+      type = null;
+      return false;
+    }
+    final char c = css.charAt(start);
+    if (Character.isWhitespace(c)) {
+      type = Type.WHITESPACE;
+      end = start + 1;
+      while (end < length && Character.isWhitespace(css.charAt(end))) {
+        end++;
+      }
+    } else if (c == '/' && start + 1 < length && css.charAt(start + 1) == '*') {
+      type = Type.COMMENT;
+      final int commentEnd = css.indexOf("*/", start + 2);
+      end = commentEnd < 0 ? length : commentEnd + 2;
+    } else if (c == '"' || c == '\'') {
+      type = Type.STRING;
+      end = skipString(start);
+    } else if (SYMBOLS.indexOf(c) >= 0) {
+      type = Type.SYMBOL;
+      end = start + 1;
+    } else if (css.regionMatches(true, start, URL_START, 0, URL_START.length())) {
+      type = Type.URL;
+      end = skipUrl(start + URL_START.length());
+    } else {
+      type = Type.WORD;
+      end = skipWord(start);
+    }
+    return true;
+  }
+
+  /**
+   * @return the index following the string starting at provided index.
+   */
+  private int skipString(final int index) {
+    final char quote = css.charAt(index);
+    int i = index + 1;
+    while (i < length) {
+      final char c = css.charAt(i++);
+      if (c == '\\') {
+        i++;
+      } else if (c == quote) {
+        return i;
+      }
+    }
+    return length;
+  }
+
+  /**
+   * @return the index following the closing parenthesis of the url.
+   */
+  private int skipUrl(final int index) {
+    int i = index;
+    while (i < length) {
+      final char c = css.charAt(i);
+      if (c == '"' || c == '\'') {
+        i = skipString(i);
+      } else if (c == '\\') {
+        i += 2;
+      } else if (c == ')') {
+        return i + 1;
+      } else {
+        i++;
+      }
+    }
+    return length;
+  }
+
+  private int skipWord(final int index) {
+    int i = index;
+    while (i < length) {
+      final char c = css.charAt(i);
+      if (c == '\\') {
+        i += 2;
+      } else if (Character.isWhitespace(c) || SYMBOLS.indexOf(c) >= 0 || c == '"' || c == '\''
+          || (c == '/' && i + 1 < length && css.charAt(i + 1) == '*')) {
+        break;
+      } else {
+        i++;
+      }
+    }
+    return Math.min(i, length);
+  }
+
+  /**
+   * @return the type of the current token or null if there is no current token.
+   */
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * @return the index of the first character of the current token.
+   */
+  public int getStart() {
+    return start;
+  }
+
+  /**
+   * @return the index following the last character of the current token.
+   */
+  public int getEnd() {
+    return end;
+  }
+
+  /**
+   * @return the first character of the current token.
+   */
+  public char getFirstChar() {
+    return css.charAt(start);
+  }
+
+  /**
+   * @return true if the current token is the provided symbol.
+   */
+  public boolean isSymbol(final char symbol) {
+    return type == Type.SYMBOL && css.charAt(start) == symbol;
+  }
+
+  /**
+   * @return the text of the current token.
+   */
+  public String getText() {
+    return css.substring(start, end);
+  }
+
+  /**
+   * @return the tokenized stylesheet.
+   */
+  public String getCss() {
+    return css;
+  }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor.support.css;
+
+/**
+ * Visits the tokens of a {@link CssTokenStream}. A visitor can change the text of the visited token and of the tokens
+ * following it, remove them or replace them with new css. The tokens preceding the visited one must be left unchanged,
+ * because the other visitors have already seen them.
+ *
+ * @since 1.4.7
+ */
+public interface CssVisitor {
+  /**
+   * Visits a token of the stream.
+   *
+   * @param stream
+   *          the visited {@link CssTokenStream}.
+   * @param index
+   *          the index of the visited token.
+   */
+  void visit(CssTokenStream stream, int index);
+
+  /**
+   * Invoked after all the tokens were visited.
+   *
+   * @param stream
+   *          the visited {@link CssTokenStream}.
+   */
+  void end(CssTokenStream stream);
+}
@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor.support.css;
+
+import ro.isdc.wro.model.resource.Resource;
+
+
+/**
+ * A css processor which can also be applied as a {@link CssVisitor}. This way several processors can be applied on a
+ * single {@link CssTokenStream}: the stylesheet is tokenized once, visited once by all the processors and serialized
+ * once, instead of being parsed by each processor. See {@link CssTokenStreamProcessor}.
+ *
+ * @since 1.4.7
+ */
+public interface CssVisitorProcessor {
+  /**
+   * @param resource
+   *          the processed {@link Resource}.
+   * @return a new {@link CssVisitor} performing the same transformation as the processor on the provided resource.
+   */
+  CssVisitor createVisitor(Resource resource);
+}
@@ -0,0 +1,507 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor.support.css;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+
+import ro.isdc.wro.model.resource.processor.support.CssCompressor;
+import ro.isdc.wro.model.resource.processor.support.css.CssTokenizer.Type;
+
+
+/**
+ * Css minifier producing the same result as {@link CssCompressor}, but built on top of {@link CssTokenizer}: the
+ * stylesheet is traversed only once and the compression rules are applied on each token or declaration, instead of
+ * running a cascade of regular expressions over the whole stylesheet. Besides being faster, this approach avoids a few
+ * problems of the regex based implementation:
+ * <ul>
+ * <li>the content of strings and urls is left untouched.</li>
+ * <li>the rules nested inside at-rules (ex: <code>@media</code>) are preserved.</li>
+ * <li>the colors are replaced with their names only when it makes them shorter (ex: <code>#c0c0c0</code> becomes
+ * <code>silver</code>).</li>
+ * </ul>
+ * The top-level rules having the same declarations are merged, but only between two at-rules (or preserved comments),
+ * because moving a rule across an at-rule could change the meaning of the stylesheet.
+ * <p/>
+ * This class is thread-safe.
+ *
+ * @since 1.4.7
+ */
+public class FastCssCompressor {
+  /**
+   * Whitespaces before these characters are removed.
+   */
+  private static final String NO_SPACE_BEFORE = "!{};:>+()],";
+  /**
+   * Whitespaces after these characters are removed.
+   */
+  private static final String NO_SPACE_AFTER = "!{}:;>+([,";
+  private static final String[] ZERO_UNITS = {
+    "0px", "0em", "0%", "0in", "0cm", "0mm", "0pc", "0pt", "0ex"
+  };
+  private static final String[] ZERO_VALUES = {
+    "0 0 0 0", "0 0 0", "0 0"
+  };
+  /**
+   * Colors (lower-case hex codes) which are shorter when replaced with their names.
+   */
+  private static final Map<String, String> COLOR_NAMES = new HashMap<String, String>();
+  static {
+    COLOR_NAMES.put("c0c0c0", "silver");
+    COLOR_NAMES.put("800000", "maroon");
+    COLOR_NAMES.put("800080", "purple");
+    COLOR_NAMES.put("008000", "green");
+    COLOR_NAMES.put("808000", "olive");
+    COLOR_NAMES.put("000080", "navy");
+    COLOR_NAMES.put("008080", "teal");
+  }
+
+  /**
+   * @param css
+   *          the stylesheet to compress.
+   * @return the compressed stylesheet.
+   */
+  public String compress(final String css) {
+    Validate.notNull(css);
+    return new Compression(css).compress();
+  }
+
+  /**
+   * Holds the state of a single compression.
+   */
+  private static class Compression {
+    private final CssTokenizer tokenizer;
+    /**
+     * True when at least one whitespace (or comment) was found since the last appended token.
+     */
+    private boolean pendingSpace;
+    /**
+     * True after a comment using IE Mac hack was found, in order to preserve the comment closing it.
+     */
+    private boolean insideIeMacHack;
+
+    Compression(final String css) {
+      tokenizer = new CssTokenizer(css);
+    }
+
+    String compress() {
+      final StringBuilder out = new StringBuilder(tokenizer.getCss().length() / 2);
+      compressRules(out, true);
+      return out.toString();
+    }
+
+    /**
+     * Compress the rules until the end of the stylesheet or the end of the current block.
+     *
+     * @param topLevel
+     *          true if the rules are not nested inside an at-rule. Only top-level rules are merged.
+     */
+    private void compressRules(final StringBuilder out, final boolean topLevel) {
+      // declarations mapped to the selectors using them, in the order of their first occurrence
+      final Map<String, StringBuilder> mergedRules = new LinkedHashMap<String, StringBuilder>();
+      while (tokenizer.next()) {
+        final Type type = tokenizer.getType();
+        if (type == Type.WHITESPACE || tokenizer.isSymbol(';') || (topLevel && tokenizer.isSymbol('}'))) {
+          continue;
+        }
+        if (type == Type.COMMENT) {
+          if (isPreservedComment()) {
+            flush(mergedRules, out);
+            out.append(tokenizer.getText());
+          }
+          continue;
+        }
+        if (tokenizer.isSymbol('}')) {
+          break;
+        }
+        final boolean atRule = tokenizer.getFirstChar() == '@';
+        final StringBuilder prelude = new StringBuilder();
+        readPrelude(prelude, atRule);
+        if (tokenizer.isSymbol('{')) {
+          if (atRule && isNestingAtRule(prelude)) {
+            final StringBuilder nested = new StringBuilder();
+            compressRules(nested, false);
+            if (nested.length() > 0) {
+              flush(mergedRules, out);
+              out.append(prelude).append('{').append(nested).append('}');
+            }
+          } else {
+            final String declarations = readDeclarations();
+            if (declarations.length() > 0) {
+              if (topLevel && !atRule) {
+                final StringBuilder selectors = mergedRules.get(declarations);
+                if (selectors == null) {
+                  mergedRules.put(declarations, prelude);
+                } else {
+                  selectors.append(',').append(prelude);
+                }
+              } else {
+                flush(mergedRules, out);
+                out.append(prelude).append('{').append(declarations).append('}');
+              }
+            }
+          }
+        } else if (tokenizer.isSymbol(';')) {
+          flush(mergedRules, out);
+          out.append(prelude).append(';');
+        } else if (tokenizer.isSymbol('}') && !topLevel) {
+          break;
+        }
+      }
+      flush(mergedRules, out);
+    }
+
+    private void flush(final Map<String, StringBuilder> mergedRules, final StringBuilder out) {
+      for (final Map.Entry<String, StringBuilder> entry : mergedRules.entrySet()) {
+        out.append(entry.getValue()).append('{').append(entry.getKey()).append('}');
+      }
+      mergedRules.clear();
+    }
+
+    /**
+     * @return true if the at-rule contains rules (ex: media, keyframes) instead of declarations (ex: font-face, page).
+     */
+    private boolean isNestingAtRule(final StringBuilder prelude) {
+      final String name = prelude.toString();
+      return name.startsWith("@media") || name.startsWith("@supports") || name.startsWith("@document")
+          || name.startsWith("@-moz-document") || name.indexOf("keyframes") > 0;
+    }
+
+    /**
+     * Reads the selectors of a rule or the prelude of an at-rule, starting with the current token. Stops on the first
+     * <code>{</code>, <code>;</code> or <code>}</code> symbol, or at the end of the stylesheet.
+     */
+    private void readPrelude(final StringBuilder prelude, final boolean atRule) {
+      pendingSpace = false;
+      do {
+        final Type type = tokenizer.getType();
+        if (type == Type.WHITESPACE) {
+          pendingSpace = true;
+        } else if (type == Type.COMMENT) {
+          if (isPreservedComment()) {
+            append(prelude, tokenizer.getText(), true, atRule);
+          }
+        } else if (tokenizer.isSymbol('{') || tokenizer.isSymbol(';') || tokenizer.isSymbol('}')) {
+          return;
+        } else {
+          append(prelude, tokenizer.getText(), true, atRule);
+        }
+      } while (tokenizer.next());
+    }
+
+    /**
+     * Reads and compresses the declarations of the current block, up to the closing <code>}</code>.
+     *
+     * @return the compressed declarations separated by <code>;</code>.
+     */
+    private String readDeclarations() {
+      final StringBuilder declarations = new StringBuilder();
+      StringBuilder property = new StringBuilder();
+      StringBuilder value = null;
+      int depth = 0;
+      pendingSpace = false;
+      while (tokenizer.next()) {
+        final Type type = tokenizer.getType();
+        final StringBuilder current = value == null ? property : value;
+        if (type == Type.WHITESPACE) {
+          pendingSpace = true;
+        } else if (type == Type.COMMENT) {
+          if (isPreservedComment()) {
+            append(current, tokenizer.getText(), false, false);
+          }
+        } else if (depth == 0 && (tokenizer.isSymbol('}') || tokenizer.isSymbol(';'))) {
+          addDeclaration(declarations, property, value);
+          if (tokenizer.isSymbol('}')) {
+            return declarations.toString();
+          }
+          property = new StringBuilder();
+          value = null;
+          pendingSpace = false;
+        } else if (depth == 0 && value == null && tokenizer.isSymbol(':')) {
+          value = new StringBuilder();
+          pendingSpace = false;
+        } else {
+          if (tokenizer.isSymbol('(')) {
+            depth++;
+          } else if (tokenizer.isSymbol(')')) {
+            depth = Math.max(0, depth - 1);
+          }
+          final String text = tokenizer.getText();
+          append(current, text, false, false);
+          if (value != null && type == Type.WORD) {
+            compressNumber(value, text);
+          }
+        }
+      }
+      addDeclaration(declarations, property, value);
+      return declarations.toString();
+    }
+
+    private void addDeclaration(final StringBuilder declarations, final StringBuilder property,
+        final StringBuilder value) {
+      if (property.length() == 0 && value == null) {
+        return;
+      }
+      if (declarations.length() > 0) {
+        declarations.append(';');
+      }
+      declarations.append(property);
+      if (value != null) {
+        declarations.append(':').append(compressValue(property.toString(), value.toString()));
+      }
+    }
+
+    /**
+     * Appends a token, preceded by a single space if whitespaces were found before it and the space is required.
+     *
+     * @param selector
+     *          true if the token is part of a selector or at-rule prelude, where the spaces before <code>:</code> are
+     *          significant (ex: <code>a :hover</code>).
+     * @param atRule
+     *          true if the token is part of an at-rule prelude, where the spaces before <code>(</code> are significant
+     *          (ex: <code>@media screen and (max-width:100px)</code>).
+     */
+    private void append(final StringBuilder out, final String text, final boolean selector, final boolean atRule) {
+      if (pendingSpace && out.length() > 0 && NO_SPACE_AFTER.indexOf(out.charAt(out.length() - 1)) < 0) {
+        final char first = text.charAt(0);
+        if (NO_SPACE_BEFORE.indexOf(first) < 0 || (first == ':' && selector) || (first == '(' && atRule)) {
+          out.append(' ');
+        }
+      }
+      pendingSpace = false;
+      out.append(text);
+    }
+
+    /**
+     * Removes the units of zero values and the leading zeros of decimal numbers, when the number begins a value or
+     * follows a whitespace. The number is the last text appended to the provided value.
+     */
+    private void compressNumber(final StringBuilder value, final String number) {
+      final int start = value.length() - number.length();
+      if (start > 0 && value.charAt(start - 1) != ' ') {
+        return;
+      }
+      for (final String zero : ZERO_UNITS) {
+        if (number.startsWith(zero)) {
+          value.delete(start + 1, start + zero.length());
+          break;
+        }
+      }
+      int zeros = 0;
+      while (start + zeros < value.length() && value.charAt(start + zeros) == '0') {
+        zeros++;
+      }
+      if (zeros > 0 && start + zeros + 1 < value.length() && value.charAt(start + zeros) == '.'
+          && Character.isDigit(value.charAt(start + zeros + 1))) {
+        value.delete(start, start + zeros);
+      }
+    }
+
+    private String compressValue(final String property, final String value) {
+      String result = value;
+      for (final String zero : ZERO_VALUES) {
+        if (zero.equals(result)) {
+          result = "0";
+          break;
+        }
+      }
+      if ("background-position".equals(property) && "0".equals(result)) {
+        result = "0 0";
+      }
+      if (result.indexOf("rgb") >= 0) {
+        result = compressRgb(result);
+      }
+      if (result.indexOf('#') >= 0) {
+        result = compressHexColors(result);
+      }
+      if ("border".equals(property) || "margin".equals(property)) {
+        result = compressDimensions(result);
+      }
+      return result;
+    }
+
+    /**
+     * Replaces <code>rgb(51,102,153)</code> with <code>#336699</code>.
+     */
+    private String compressRgb(final String value) {
+      final StringBuilder sb = new StringBuilder(value.length());
+      int i = 0;
+      while (i < value.length()) {
+        final char c = value.charAt(i);
+        if (c == '"' || c == '\'') {
+          final int end = skipString(value, i);
+          sb.append(value, i, end);
+          i = end;
+          continue;
+        }
+        if (value.startsWith("rgb(", i)) {
+          final int end = value.indexOf(')', i);
+          final String hex = end < 0 ? null : toHex(value.substring(i + 4, end));
+          if (hex != null) {
+            sb.append('#').append(hex);
+            i = end + 1;
+            continue;
+          }
+        }
+        sb.append(c);
+        i++;
+      }
+      return sb.toString();
+    }
+
+    /**
+     * @return the hex representation of comma separated rgb components or null if the components are not valid.
+     */
+    private String toHex(final String components) {
+      final String[] parts = components.split(",");
+      if (parts.length != 3) {
+        return null;
+      }
+      final StringBuilder hex = new StringBuilder(6);
+      for (final String part : parts) {
+        if (part.length() == 0 || part.length() > 3) {
+          return null;
+        }
+        for (int i = 0; i < part.length(); i++) {
+          if (!Character.isDigit(part.charAt(i))) {
+            return null;
+          }
+        }
+        final int component = Integer.parseInt(part);
+        if (component > 255) {
+          return null;
+        }
+        if (component < 16) {
+          hex.append('0');
+        }
+        hex.append(Integer.toHexString(component));
+      }
+      return hex.toString();
+    }
+
+    /**
+     * Replaces <code>#AABBCC</code> with <code>#ABC</code> and the colors having a shorter name with their name.
+     */
+    private String compressHexColors(final String value) {
+      final StringBuilder sb = new StringBuilder(value.length());
+      int i = 0;
+      while (i < value.length()) {
+        final char c = value.charAt(i);
+        if (c == '"' || c == '\'') {
+          final int end = skipString(value, i);
+          sb.append(value, i, end);
+          i = end;
+          continue;
+        }
+        if (c == '#' && isHexColor(value, i + 1) && !followsEquals(sb)) {
+          final String hex = value.substring(i + 1, i + 7);
+          final String name = COLOR_NAMES.get(hex.toLowerCase());
+          if (name != null) {
+            sb.append(name);
+          } else if (hex.charAt(0) == hex.charAt(1) && hex.charAt(2) == hex.charAt(3)
+              && hex.charAt(4) == hex.charAt(5)) {
+            sb.append('#').append(hex.charAt(0)).append(hex.charAt(2)).append(hex.charAt(4));
+          } else {
+            sb.append('#').append(hex);
+          }
+          i += 7;
+          continue;
+        }
+        sb.append(c);
+        i++;
+      }
+      return sb.toString();
+    }
+
+    /**
+     * @return true if exactly six hex digits are found at provided index.
+     */
+    private boolean isHexColor(final String value, final int index) {
+      if (index + 6 > value.length()) {
+        return false;
+      }
+      for (int i = index; i < index + 6; i++) {
+        if (Character.digit(value.charAt(i), 16) < 0) {
+          return false;
+        }
+      }
+      return index + 6 == value.length() || !Character.isLetterOrDigit(value.charAt(index + 6));
+    }
+
+    /**
+     * @return true if the last non whitespace character is <code>=</code> (ex: IE filters), in which case the color
+     *         must be left untouched.
+     */
+    private boolean followsEquals(final StringBuilder sb) {
+      int i = sb.length() - 1;
+      while (i >= 0 && sb.charAt(i) == ' ') {
+        i--;
+      }
+      return i >= 0 && sb.charAt(i) == '=';
+    }
+
+    /**
+     * Replaces four identical dimensions (ex: <code>1px 1px 1px 1px</code>) with a single one.
+     */
+    private String compressDimensions(final String value) {
+      final String[] parts = value.split(" ");
+      if (parts.length != 4 || !isDimension(parts[0])) {
+        return value;
+      }
+      for (int i = 1; i < parts.length; i++) {
+        if (!parts[0].equals(parts[i])) {
+          return value;
+        }
+      }
+      return parts[0];
+    }
+
+    private boolean isDimension(final String part) {
+      int i = 0;
+      while (i < part.length() && Character.isDigit(part.charAt(i))) {
+        i++;
+      }
+      if (i == 0) {
+        return false;
+      }
+      while (i < part.length() && Character.isLetter(part.charAt(i))) {
+        i++;
+      }
+      return i == part.length();
+    }
+
+    private int skipString(final String value, final int index) {
+      final char quote = value.charAt(index);
+      int i = index + 1;
+      while (i < value.length()) {
+        final char c = value.charAt(i++);
+        if (c == '\\') {
+          i++;
+        } else if (c == quote) {
+          return i;
+        }
+      }
+      return value.length();
+    }
+
+    /**
+     * Comments starting with <code>/*!</code> are preserved, as well as the comments used by the IE Mac hack.
+     */
+    private boolean isPreservedComment() {
+      final String comment = tokenizer.getText();
+      if (insideIeMacHack) {
+        insideIeMacHack = false;
+        return true;
+      }
+      if (comment.endsWith("\\*/")) {
+        insideIeMacHack = true;
+        return true;
+      }
+      return comment.startsWith("/*!");
+    }
+  }
+}
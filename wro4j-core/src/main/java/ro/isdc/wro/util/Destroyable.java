@@ -0,0 +1,19 @@
+/*
+ * Copyright (C) 2012.
+ * All rights reserved.
+ */
+package ro.isdc.wro.util;
+
+/**
+ * Implemented by the objects holding resources which must be released when they are taken out of service (ex: a
+ * processor reusing a pool of engines). The processors implementing this interface are destroyed along with the
+ * {@link ro.isdc.wro.manager.WroManager}.
+ *
+ * @since 1.4.7
+ */
+public interface Destroyable {
+  /**
+   * Releases the held resources. The object cannot be used after this method is invoked.
+   */
+  void destroy();
+}
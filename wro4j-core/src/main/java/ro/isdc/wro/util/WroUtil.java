@@ -218,6 +218,32 @@ public final class WroUtil {
     return false;
   }
 
+  /**
+   * Normalizes the new lines of a multi-line string the same way {@link #toJSMultiLineString(String)} does, without
+   * creating a javascript literal: carriage returns and trailing new lines are removed and a new line is appended to a
+   * single line string. Useful when the string is passed to a javascript engine as a variable.
+   *
+   * @param data
+   *          a string containing new lines.
+   * @return the normalized string.
+   */
+  public static String toMultiLineString(final String data) {
+    final String[] lines = data.split("\n");
+    final StringBuilder result = new StringBuilder(data.length() + 1);
+    for (int i = 0; i < lines.length; i++) {
+      final String line = lines[i];
+      result.append(line.indexOf('\r') < 0 ? line : line.replace("\r", ""));
+      // this is used to force a single line to have at least one new line (otherwise cssLint fails).
+      if (lines.length == 1) {
+        result.append('\n');
+      }
+      if (i < lines.length - 1) {
+        result.append('\n');
+      }
+    }
+    return result.toString();
+  }
+
   /**
    * Transforms a java multi-line string into javascript multi-line string. This technique was found at {@link http
    * ://stackoverflow.com/questions/805107/multiline-strings-in-javascript/}
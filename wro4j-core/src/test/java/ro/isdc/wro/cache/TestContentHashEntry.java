@@ -11,6 +11,7 @@ import org.junit.Test;
 
 import ro.isdc.wro.config.Context;
 import ro.isdc.wro.config.jmx.WroConfiguration;
+import ro.isdc.wro.model.resource.ResourceType;
 
 /**
  * @author Alex Objelean
@@ -57,6 +58,23 @@ public class TestContentHashEntry {
     Assert.assertNotNull(entry.getGzippedContent());
   }
 
+  @Test
+  public void shouldComputeHeaderValuesWhenCreated() {
+    final ContentHashEntry entry = ContentHashEntry.valueOf(RAW_CONTENT, "hash", ResourceType.CSS);
+    Assert.assertEquals("\"hash\"", entry.getEtag());
+    Assert.assertEquals("text/css; charset=UTF-8", entry.getContentType());
+    Assert.assertTrue(entry.getLastModified() > 0);
+  }
+
+  @Test
+  public void shouldComputeContentLengthUsingConfiguredEncoding()
+      throws Exception {
+    final String content = "\u0103\u00ee\u0219";
+    final ContentHashEntry entry = ContentHashEntry.valueOf(content, "hash");
+    Assert.assertEquals(content.getBytes("UTF-8").length, entry.getRawBytes().length);
+    Assert.assertNull(entry.getContentType());
+  }
+
   @After
   public void tearDown() {
     Context.unset();
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.cache;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.model.resource.ResourceType;
+
+
+public class TestFingerprintIndex {
+  private static final CacheEntry KEY = new CacheEntry("g1", ResourceType.JS, true);
+  private FingerprintIndex index;
+  private ContentHashEntry value;
+
+  @Before
+  public void setUp() {
+    Context.set(Context.standaloneContext());
+    index = new FingerprintIndex();
+    value = ContentHashEntry.valueOf("content", "hash", ResourceType.JS);
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void cannotRememberNullKey() {
+    index.remember(null, value);
+  }
+
+  @Test
+  public void shouldNotMatchUnknownKey() {
+    Assert.assertFalse(index.isNotModified(KEY, "\"hash\"", -1));
+  }
+
+  @Test
+  public void shouldMatchRememberedEtag() {
+    index.remember(KEY, value);
+    Assert.assertTrue(index.isNotModified(KEY, "\"hash\"", -1));
+    Assert.assertTrue(index.isNotModified(KEY, "W/\"hash\"", -1));
+    Assert.assertTrue(index.isNotModified(KEY, "\"other\", \"hash\"", -1));
+    Assert.assertFalse(index.isNotModified(KEY, "\"other\"", -1));
+  }
+
+  @Test
+  public void shouldIgnoreIfModifiedSinceWhenEtagIsProvided() {
+    index.remember(KEY, value);
+    Assert.assertFalse(index.isNotModified(KEY, "\"other\"", System.currentTimeMillis() + 1000));
+  }
+
+  @Test
+  public void shouldMatchIfModifiedSince() {
+    index.remember(KEY, value);
+    Assert.assertTrue(index.isNotModified(KEY, null, value.getLastModified()));
+    Assert.assertFalse(index.isNotModified(KEY, null, value.getLastModified() - 1000));
+    Assert.assertFalse(index.isNotModified(KEY, null, -1));
+  }
+
+  @Test
+  public void shouldForgetFingerprintsAfterClear() {
+    index.remember(KEY, value);
+    index.clear();
+    Assert.assertFalse(index.isNotModified(KEY, "\"hash\"", -1));
+  }
+
+  @Test
+  public void shouldNotUseStaleFingerprintUntilConfirmed() {
+    index.remember(KEY, value);
+    index.markStale();
+    Assert.assertNull(index.getFingerprint(KEY));
+    Assert.assertFalse(index.isNotModified(KEY, "\"hash\"", -1));
+    // the same content is loaded again
+    index.remember(KEY, ContentHashEntry.valueOf("content", "hash", ResourceType.JS));
+    Assert.assertTrue(index.isNotModified(KEY, "\"hash\"", -1));
+  }
+
+  @Test
+  public void shouldForgetInvalidatedFingerprint() {
+    index.remember(KEY, value);
+    index.invalidate(KEY);
+    Assert.assertNull(index.getFingerprint(KEY));
+    index.markStale();
+    Assert.assertNull(index.getFingerprint(KEY));
+  }
+
+  @After
+  public void tearDown() {
+    Context.unset();
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.cache;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+
+/**
+ * Test the bounds of {@link ProxyResourceCache}.
+ */
+public class TestProxyResourceCache {
+  @Test
+  public void shouldEvictLeastRecentlyUsedResourceWhenTooManyEntries() {
+    final ProxyResourceCache cache = new ProxyResourceCache(2, 100);
+    cache.put("a", "a".getBytes(), null, "1");
+    cache.put("b", "b".getBytes(), null, "2");
+    // use "a", thus "b" becomes the least recently used
+    cache.get("a");
+    cache.put("c", "c".getBytes(), null, "3");
+    Assert.assertEquals(2, cache.size());
+    Assert.assertNotNull(cache.get("a"));
+    Assert.assertNull(cache.get("b"));
+    Assert.assertNotNull(cache.get("c"));
+  }
+
+  @Test
+  public void shouldEvictResourcesWhenTooManyBytes() {
+    final ProxyResourceCache cache = new ProxyResourceCache(10, 10);
+    cache.put("a", "12345".getBytes(), null, "1");
+    cache.put("b", "12345".getBytes(), null, "2");
+    cache.put("c", "123".getBytes(), null, "3");
+    Assert.assertNull(cache.get("a"));
+    Assert.assertNotNull(cache.get("b"));
+    Assert.assertNotNull(cache.get("c"));
+  }
+
+  @Test
+  public void shouldNotCacheResourceLargerThanLimit() {
+    final ProxyResourceCache cache = new ProxyResourceCache(10, 4);
+    Assert.assertNotNull(cache.put("a", "12345".getBytes(), null, "1"));
+    Assert.assertNull(cache.get("a"));
+  }
+
+  @Test
+  public void shouldReplaceResourceWithSameUri() {
+    final ProxyResourceCache cache = new ProxyResourceCache(10, 10);
+    cache.put("a", "12345".getBytes(), null, "1");
+    cache.put("a", "123456".getBytes(), null, "2");
+    cache.put("b", "1234".getBytes(), null, "3");
+    Assert.assertEquals(2, cache.size());
+    Assert.assertEquals("123456", new String(cache.get("a").getContent()));
+  }
+}
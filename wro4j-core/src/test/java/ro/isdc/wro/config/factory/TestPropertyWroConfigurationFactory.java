@@ -50,6 +50,7 @@ public class TestPropertyWroConfigurationFactory {
     Assert.assertEquals(false, config.isParallelPreprocessing());
     Assert.assertEquals(WroConfiguration.DEFAULT_CONNECTION_TIMEOUT, config.getConnectionTimeout());
     Assert.assertEquals(WroConfiguration.DEFAULT_ENCODING, config.getEncoding());
+    Assert.assertNull(config.getScriptEngine());
     Assert.assertEquals(WroConfiguration.DEFAULT_CONNECTION_TIMEOUT, config.getConnectionTimeout());
   }
 
@@ -76,6 +77,7 @@ public class TestPropertyWroConfigurationFactory {
     props.setProperty(ConfigConstants.ignoreEmptyGroup.name(), "false");
     props.setProperty(ConfigConstants.ignoreFailingProcessor.name(), "true");
     props.setProperty(ConfigConstants.connectionTimeout.name(), "5000");
+    props.setProperty(ConfigConstants.scriptEngine.name(), "nashorn");
     
     factory = new PropertyWroConfigurationFactory(props);
 
@@ -90,6 +92,7 @@ public class TestPropertyWroConfigurationFactory {
     Assert.assertEquals(false, config.isIgnoreEmptyGroup());
     Assert.assertEquals(true, config.isIgnoreFailingProcessor());
     Assert.assertEquals(5000, config.getConnectionTimeout());
+    Assert.assertEquals("nashorn", config.getScriptEngine());
   }
 
 
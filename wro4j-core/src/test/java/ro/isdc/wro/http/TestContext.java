@@ -4,11 +4,16 @@
 package ro.isdc.wro.http;
 
 import java.util.Enumeration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.servlet.FilterConfig;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import junit.framework.Assert;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -16,6 +21,8 @@ import org.mockito.Mockito;
 
 import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.config.Context;
+import ro.isdc.wro.config.ContextPropagatingCallable;
+import ro.isdc.wro.config.jmx.WroConfiguration;
 
 
 /**
@@ -61,6 +68,121 @@ public class TestContext {
   }
 
 
+  @Test
+  public void shouldAccessContextAfterSet() {
+    final Context context = Context.standaloneContext();
+    final WroConfiguration config = new WroConfiguration();
+    Context.set(context, config);
+    Assert.assertTrue(Context.isContextSet());
+    Assert.assertSame(context, Context.get());
+    Assert.assertSame(config, Context.get().getConfig());
+  }
+
+  @Test
+  public void shouldNotAccessContextAfterUnset() {
+    Context.set(Context.standaloneContext());
+    Context.unset();
+    Assert.assertFalse(Context.isContextSet());
+  }
+
+  @Test
+  public void shouldGenerateDifferentCorrelationIdForEachRequestCycle() {
+    Context.set(Context.standaloneContext());
+    final String firstId = Context.getCorrelationId();
+    Context.set(Context.standaloneContext());
+    Assert.assertNotNull(firstId);
+    Assert.assertFalse(firstId.equals(Context.getCorrelationId()));
+  }
+
+  @Test
+  public void shouldPropagateContextToWorkerThread()
+      throws Exception {
+    final Context context = Context.standaloneContext();
+    Context.set(context);
+    final String correlationId = Context.getCorrelationId();
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      final Context propagated = executor.submit(new ContextPropagatingCallable<Context>(new Callable<Context>() {
+        public Context call()
+            throws Exception {
+          Assert.assertEquals(correlationId, Context.getCorrelationId());
+          return Context.get();
+        }
+      })).get();
+      Assert.assertSame(context, propagated);
+      // the worker thread does not keep the context after the call
+      final boolean isSetAfterCall = executor.submit(new Callable<Boolean>() {
+        public Boolean call()
+            throws Exception {
+          return Context.isContextSet();
+        }
+      }).get();
+      Assert.assertFalse(isSetAfterCall);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void shouldRestorePreviousContextAfterPropagatedCall()
+      throws Exception {
+    final Context creatorContext = Context.standaloneContext();
+    Context.set(creatorContext);
+    final ContextPropagatingCallable<Context> callable = new ContextPropagatingCallable<Context>(
+        new Callable<Context>() {
+          public Context call()
+              throws Exception {
+            return Context.get();
+          }
+        });
+    final Context previous = Context.standaloneContext();
+    Context.set(previous);
+    Assert.assertSame(creatorContext, callable.call());
+    Assert.assertSame(previous, Context.get());
+  }
+
+  @SuppressWarnings("deprecation")
+  @Test
+  public void shouldAccessContextByCorrelationId()
+      throws Exception {
+    final Context context = Context.standaloneContext();
+    Context.set(context);
+    final String correlationId = Context.getCorrelationId();
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      final Context propagated = executor.submit(new Callable<Context>() {
+        public Context call()
+            throws Exception {
+          Context.setCorrelationId(correlationId);
+          try {
+            return Context.get();
+          } finally {
+            Context.unsetCorrelationId();
+          }
+        }
+      }).get();
+      Assert.assertSame(context, propagated);
+      Assert.assertSame(context, Context.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void shouldKeepContextWhenCallableIsExecutedByCreatorThread()
+      throws Exception {
+    final Context context = Context.standaloneContext();
+    Context.set(context);
+    new ContextPropagatingCallable<Void>(new Callable<Void>() {
+      public Void call()
+          throws Exception {
+        return null;
+      }
+    }).call();
+    Assert.assertSame(context, Context.get());
+  }
+
+
   @After
   public void tearDown() {
     Context.unset();
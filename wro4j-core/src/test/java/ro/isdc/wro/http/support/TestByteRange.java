@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2012.
+ * All rights reserved.
+ */
+package ro.isdc.wro.http.support;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+
+public class TestByteRange {
+  private static final int LENGTH = 100;
+
+  @Test
+  public void shouldIgnoreMissingOrInvalidHeader() {
+    Assert.assertNull(ByteRange.parse(null, LENGTH));
+    Assert.assertNull(ByteRange.parse("", LENGTH));
+    Assert.assertNull(ByteRange.parse("items=0-10", LENGTH));
+    Assert.assertNull(ByteRange.parse("bytes=abc", LENGTH));
+    Assert.assertNull(ByteRange.parse("bytes=a-b", LENGTH));
+    Assert.assertNull(ByteRange.parse("bytes=10-5", LENGTH));
+    Assert.assertNull(ByteRange.parse("bytes=-", LENGTH));
+  }
+
+  @Test
+  public void shouldIgnoreMultipleRanges() {
+    Assert.assertNull(ByteRange.parse("bytes=0-10,20-30", LENGTH));
+  }
+
+  @Test
+  public void shouldParseClosedRange() {
+    final ByteRange range = ByteRange.parse("bytes=10-19", LENGTH);
+    Assert.assertTrue(range.isSatisfiable());
+    Assert.assertEquals(10, range.getStart());
+    Assert.assertEquals(10, range.getSize());
+    Assert.assertEquals("bytes 10-19/100", range.toContentRange());
+  }
+
+  @Test
+  public void shouldLimitRangeToContentLength() {
+    final ByteRange range = ByteRange.parse("bytes=90-200", LENGTH);
+    Assert.assertEquals(10, range.getSize());
+    Assert.assertEquals("bytes 90-99/100", range.toContentRange());
+  }
+
+  @Test
+  public void shouldParseOpenRange() {
+    final ByteRange range = ByteRange.parse("bytes=95-", LENGTH);
+    Assert.assertEquals(95, range.getStart());
+    Assert.assertEquals(5, range.getSize());
+  }
+
+  @Test
+  public void shouldParseSuffixRange() {
+    final ByteRange range = ByteRange.parse("bytes=-30", LENGTH);
+    Assert.assertEquals(70, range.getStart());
+    Assert.assertEquals(30, range.getSize());
+    Assert.assertEquals(LENGTH, ByteRange.parse("bytes=-300", LENGTH).getSize());
+  }
+
+  @Test
+  public void shouldDetectUnsatisfiableRange() {
+    final ByteRange range = ByteRange.parse("bytes=100-", LENGTH);
+    Assert.assertFalse(range.isSatisfiable());
+    Assert.assertEquals("bytes */100", range.toContentRange());
+  }
+}
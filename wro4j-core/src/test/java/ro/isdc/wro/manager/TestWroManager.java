@@ -13,6 +13,9 @@ import java.io.Reader;
 import java.io.Writer;
 import java.net.URL;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.servlet.FilterConfig;
 import javax.servlet.http.HttpServletRequest;
@@ -20,10 +23,12 @@ import javax.servlet.http.HttpServletResponse;
 
 import junit.framework.Assert;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.output.WriterOutputStream;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
@@ -34,6 +39,8 @@ import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.cache.CacheEntry;
 import ro.isdc.wro.cache.CacheStrategy;
 import ro.isdc.wro.cache.ContentHashEntry;
+import ro.isdc.wro.cache.FingerprintIndex.Fingerprint;
+import ro.isdc.wro.cache.SpriteCache;
 import ro.isdc.wro.config.Context;
 import ro.isdc.wro.config.jmx.WroConfiguration;
 import ro.isdc.wro.http.support.DelegatingServletOutputStream;
@@ -49,13 +56,22 @@ import ro.isdc.wro.model.factory.XmlModelFactory;
 import ro.isdc.wro.model.group.DefaultGroupExtractor;
 import ro.isdc.wro.model.group.Group;
 import ro.isdc.wro.model.group.GroupExtractor;
+import ro.isdc.wro.model.group.Inject;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.locator.UriLocator;
+import ro.isdc.wro.model.resource.locator.factory.SimpleUriLocatorFactory;
+import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.factory.SimpleProcessorsFactory;
+import ro.isdc.wro.model.resource.processor.impl.css.CssSpritePreProcessor;
 import ro.isdc.wro.model.resource.processor.impl.css.CssUrlRewritingProcessor;
 import ro.isdc.wro.model.resource.support.hash.CRC32HashStrategy;
+import ro.isdc.wro.model.resource.support.hash.HashStrategy;
 import ro.isdc.wro.model.resource.support.hash.MD5HashStrategy;
+import ro.isdc.wro.model.resource.support.hash.SHA1HashStrategy;
 import ro.isdc.wro.util.AbstractDecorator;
+import ro.isdc.wro.util.Destroyable;
 import ro.isdc.wro.util.WroTestUtils;
 import ro.isdc.wro.util.WroUtil;
 import ro.isdc.wro.util.io.UnclosableBufferedInputStream;
@@ -426,6 +442,213 @@ public class TestWroManager {
     processProxyWithResourceId("test");
   }
   
+  @Test
+  public void shouldServeCachedProxyResourceWithValidators()
+      throws Exception {
+    final UriLocator locator = Mockito.mock(UriLocator.class);
+    Mockito.when(locator.accept(Mockito.anyString())).thenReturn(true);
+    Mockito.when(locator.locate(Mockito.anyString())).thenAnswer(new Answer<InputStream>() {
+      public InputStream answer(final InvocationOnMock invocation)
+          throws Throwable {
+        return new ByteArrayInputStream("image".getBytes());
+      }
+    });
+    final BaseWroManagerFactory factory = new BaseWroManagerFactory().setModelFactory(getValidModelFactory());
+    factory.setProcessorsFactory(new SimpleProcessorsFactory());
+    factory.setUriLocatorFactory(new SimpleUriLocatorFactory().addUriLocator(locator));
+    final WroManager manager = factory.create();
+    final WroConfiguration config = newConfigWithUpdatePeriodValue(0);
+    config.setDebug(false);
+    
+    final HttpServletRequest request = newProxyRequest("/img/image.png");
+    final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+    final ByteArrayOutputStream content = new ByteArrayOutputStream();
+    Mockito.when(response.getOutputStream()).thenReturn(new DelegatingServletOutputStream(content));
+    Context.set(Context.webContext(request, response, Mockito.mock(FilterConfig.class)), config);
+    manager.process();
+    
+    Assert.assertEquals("image", content.toString());
+    final ArgumentCaptor<String> etag = ArgumentCaptor.forClass(String.class);
+    Mockito.verify(response).setHeader(Mockito.eq(HttpHeader.ETAG.toString()), etag.capture());
+    Mockito.verify(response).setContentType("image/png");
+    Mockito.verify(response).setContentLength(5);
+    
+    final HttpServletRequest conditionalRequest = newProxyRequest("/img/image.png");
+    Mockito.when(conditionalRequest.getHeader(HttpHeader.IF_NONE_MATCH.toString())).thenReturn(etag.getValue());
+    final HttpServletResponse conditionalResponse = Mockito.mock(HttpServletResponse.class);
+    Context.set(Context.webContext(conditionalRequest, conditionalResponse, Mockito.mock(FilterConfig.class)), config);
+    manager.process();
+    
+    Mockito.verify(conditionalResponse).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+    Mockito.verify(conditionalResponse, Mockito.never()).getOutputStream();
+    // the second request is served from cache
+    Mockito.verify(locator, Mockito.times(1)).locate(Mockito.anyString());
+  }
+  
+  @Test
+  public void shouldServeChangedProxyResourceAfterCacheReload()
+      throws Exception {
+    final AtomicReference<String> image = new AtomicReference<String>("image1");
+    final UriLocator locator = Mockito.mock(UriLocator.class);
+    Mockito.when(locator.accept(Mockito.anyString())).thenReturn(true);
+    Mockito.when(locator.locate(Mockito.anyString())).thenAnswer(new Answer<InputStream>() {
+      public InputStream answer(final InvocationOnMock invocation)
+          throws Throwable {
+        return new ByteArrayInputStream(image.get().getBytes());
+      }
+    });
+    final BaseWroManagerFactory factory = new BaseWroManagerFactory().setModelFactory(getValidModelFactory());
+    factory.setProcessorsFactory(new SimpleProcessorsFactory());
+    factory.setUriLocatorFactory(new SimpleUriLocatorFactory().addUriLocator(locator));
+    final WroManager manager = factory.create();
+    final WroConfiguration config = newConfigWithUpdatePeriodValue(0);
+    config.setDebug(false);
+    
+    Assert.assertEquals("image1", serveProxyResource(manager, config));
+    image.set("image2");
+    Assert.assertEquals("image1", serveProxyResource(manager, config));
+    new ReloadCacheRunnable(manager).run();
+    Assert.assertEquals("image2", serveProxyResource(manager, config));
+  }
+  
+  @Test
+  public void shouldLocateAgainProxyResourceRequestedWithNewFingerprint()
+      throws Exception {
+    final AtomicReference<String> image = new AtomicReference<String>("image1");
+    final UriLocator locator = Mockito.mock(UriLocator.class);
+    Mockito.when(locator.accept(Mockito.anyString())).thenReturn(true);
+    Mockito.when(locator.locate(Mockito.anyString())).thenAnswer(new Answer<InputStream>() {
+      public InputStream answer(final InvocationOnMock invocation)
+          throws Throwable {
+        return new ByteArrayInputStream(image.get().getBytes());
+      }
+    });
+    final BaseWroManagerFactory factory = new BaseWroManagerFactory().setModelFactory(getValidModelFactory());
+    factory.setProcessorsFactory(new SimpleProcessorsFactory());
+    factory.setUriLocatorFactory(new SimpleUriLocatorFactory().addUriLocator(locator));
+    final WroManager manager = factory.create();
+    final WroConfiguration config = newConfigWithUpdatePeriodValue(0);
+    config.setDebug(false);
+    final HashStrategy hashStrategy = new SHA1HashStrategy();
+    
+    Assert.assertEquals("image1", serveProxyResource(manager, config,
+        hashStrategy.getHash(new ByteArrayInputStream("image1".getBytes()))));
+    image.set("image2");
+    // the stylesheet refers the new version of the image
+    final String newHash = hashStrategy.getHash(new ByteArrayInputStream("image2".getBytes()));
+    Assert.assertEquals("image2", serveProxyResource(manager, config, newHash));
+    Mockito.verify(locator, Mockito.times(2)).locate(Mockito.anyString());
+  }
+  
+  private String serveProxyResource(final WroManager manager, final WroConfiguration config)
+      throws Exception {
+    return serveProxyResource(manager, config, null);
+  }
+  
+  private String serveProxyResource(final WroManager manager, final WroConfiguration config, final String hash)
+      throws Exception {
+    final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+    final ByteArrayOutputStream content = new ByteArrayOutputStream();
+    Mockito.when(response.getOutputStream()).thenReturn(new DelegatingServletOutputStream(content));
+    final HttpServletRequest request = newProxyRequest("/img/image.png");
+    Mockito.when(request.getParameter(CssUrlRewritingProcessor.PARAM_RESOURCE_HASH)).thenReturn(hash);
+    Context.set(Context.webContext(request, response, Mockito.mock(FilterConfig.class)), config);
+    manager.process();
+    return content.toString();
+  }
+  
+  @Test
+  public void shouldServeFingerprintedProxyResourceAsImmutable()
+      throws Exception {
+    final HttpServletResponse response = serveFingerprintedProxyResource(new SHA1HashStrategy().getHash(
+        new ByteArrayInputStream("image".getBytes())));
+    Mockito.verify(response).setHeader(HttpHeader.CACHE_CONTROL.toString(), "public, max-age=31536000, immutable");
+    Mockito.verify(response).setDateHeader(Mockito.eq(HttpHeader.EXPIRES.toString()), Mockito.anyLong());
+  }
+  
+  @Test
+  public void shouldRevalidateProxyResourceWithOutdatedFingerprint()
+      throws Exception {
+    final HttpServletResponse response = serveFingerprintedProxyResource("outdated");
+    Mockito.verify(response).setHeader(HttpHeader.CACHE_CONTROL.toString(), "no-cache");
+  }
+  
+  @Test
+  public void shouldRespondNotFoundForUnknownSprite()
+      throws Exception {
+    final BaseWroManagerFactory factory = new BaseWroManagerFactory().setModelFactory(getValidModelFactory());
+    factory.setProcessorsFactory(new SimpleProcessorsFactory());
+    final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+    Context.set(Context.webContext(newProxyRequest("sprite:unknown.png"), response, Mockito.mock(FilterConfig.class)),
+        newConfigWithUpdatePeriodValue(0));
+    factory.create().process();
+    Mockito.verify(response).sendError(HttpServletResponse.SC_NOT_FOUND);
+    Mockito.verify(response, Mockito.never()).getOutputStream();
+  }
+  
+  @Test
+  public void shouldRegenerateSpriteMissingFromCache()
+      throws Exception {
+    final CssSpritePreProcessor spriteProcessor = new CssSpritePreProcessor() {
+      @Inject
+      private SpriteCache spriteCache;
+      
+      @Override
+      public void process(final Resource resource, final Reader reader, final Writer writer)
+          throws IOException {
+        spriteCache.put("sprite".getBytes(), "1a2b3c");
+        IOUtils.copy(reader, writer);
+      }
+    };
+    final UriLocator locator = Mockito.mock(UriLocator.class);
+    Mockito.when(locator.accept(Mockito.anyString())).thenReturn(true);
+    Mockito.when(locator.locate(Mockito.anyString())).thenReturn(new ByteArrayInputStream(".a {}".getBytes()));
+    final WroModel model = new WroModel().addGroup(new Group("g1").addResource(Resource.create("/a.css",
+        ResourceType.CSS)));
+    final BaseWroManagerFactory factory = new BaseWroManagerFactory().setModelFactory(WroUtil.factoryFor(model));
+    factory.setProcessorsFactory(new SimpleProcessorsFactory().addPreProcessor(spriteProcessor));
+    factory.setUriLocatorFactory(new SimpleUriLocatorFactory().addUriLocator(locator));
+    final WroManager manager = factory.create();
+    
+    final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+    final ByteArrayOutputStream content = new ByteArrayOutputStream();
+    Mockito.when(response.getOutputStream()).thenReturn(new DelegatingServletOutputStream(content));
+    Context.set(Context.webContext(newProxyRequest("sprite:1a2b3c.png"), response, Mockito.mock(FilterConfig.class)),
+        newConfigWithUpdatePeriodValue(0));
+    manager.process();
+    
+    Assert.assertEquals("sprite", content.toString());
+    Mockito.verify(response, Mockito.never()).sendError(Mockito.anyInt());
+  }
+  
+  private HttpServletResponse serveFingerprintedProxyResource(final String hash)
+      throws Exception {
+    final UriLocator locator = Mockito.mock(UriLocator.class);
+    Mockito.when(locator.accept(Mockito.anyString())).thenReturn(true);
+    Mockito.when(locator.locate(Mockito.anyString())).thenReturn(new ByteArrayInputStream("image".getBytes()));
+    final BaseWroManagerFactory factory = new BaseWroManagerFactory().setModelFactory(getValidModelFactory());
+    factory.setProcessorsFactory(new SimpleProcessorsFactory());
+    factory.setUriLocatorFactory(new SimpleUriLocatorFactory().addUriLocator(locator));
+    final WroConfiguration config = newConfigWithUpdatePeriodValue(0);
+    config.setDebug(false);
+    
+    final HttpServletRequest request = newProxyRequest("/img/image.png");
+    Mockito.when(request.getParameter(CssUrlRewritingProcessor.PARAM_RESOURCE_HASH)).thenReturn(hash);
+    final HttpServletResponse response = Mockito.mock(HttpServletResponse.class, Mockito.RETURNS_DEEP_STUBS);
+    Context.set(Context.webContext(request, response, Mockito.mock(FilterConfig.class)), config);
+    factory.create().process();
+    return response;
+  }
+  
+  private HttpServletRequest newProxyRequest(final String resourceId) {
+    final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+    Mockito.when(request.getParameter(CssUrlRewritingProcessor.PARAM_RESOURCE_ID)).thenReturn(resourceId);
+    Mockito.when(request.getRequestURI()).thenReturn(
+        CssUrlRewritingProcessor.PATH_RESOURCES + "?" + CssUrlRewritingProcessor.PARAM_RESOURCE_ID + "=" + resourceId);
+    Mockito.when(request.getDateHeader(Mockito.anyString())).thenReturn(-1L);
+    return request;
+  }
+  
   private void processProxyWithResourceId(final String resourceId)
       throws IOException {
     final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
@@ -494,6 +717,256 @@ public class TestWroManager {
     Assert.assertNull(cacheStrategy.get(new CacheEntry("g3", ResourceType.CSS, true)));
   }
   
+  @Test
+  public void shouldAnswerConditionalRequestWithoutLoadingCache()
+      throws IOException {
+    final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+    Mockito.when(request.getRequestURI()).thenReturn("/app/g3.css");
+    final WroConfiguration config = newConfigWithUpdatePeriodValue(0);
+    config.setDebug(false);
+    config.setDisableCache(false);
+    Context.set(Context.webContext(request, Mockito.mock(HttpServletResponse.class, Mockito.RETURNS_DEEP_STUBS),
+        Mockito.mock(FilterConfig.class)), config);
+    
+    final WroManager wroManager = managerFactory.create();
+    wroManager.process();
+    final CacheEntry key = new CacheEntry("g3", ResourceType.CSS, true);
+    final String etag = wroManager.getCacheStrategy().get(key).getEtag();
+    // use original decorated object because the decorated one trigger the processing for each cache lookup.
+    final CacheStrategy<CacheEntry, ContentHashEntry> cacheStrategy = AbstractDecorator.getOriginalDecoratedObject(wroManager.getCacheStrategy());
+    // clear only the cache to check that it is not loaded
+    cacheStrategy.clear();
+    
+    Mockito.when(request.getHeader(HttpHeader.IF_NONE_MATCH.toString())).thenReturn("W/" + etag);
+    final HttpServletResponse response = Mockito.mock(HttpServletResponse.class, Mockito.RETURNS_DEEP_STUBS);
+    Context.set(Context.webContext(request, response, Mockito.mock(FilterConfig.class)), config);
+    wroManager.process();
+    
+    Mockito.verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+    Mockito.verify(response).setHeader(HttpHeader.ETAG.toString(), etag);
+    Mockito.verify(response, Mockito.never()).getOutputStream();
+    Assert.assertNull(cacheStrategy.get(key));
+  }
+  
+  @Test
+  public void shouldConfirmFingerprintOfUnchangedContentWhenCacheIsReloaded()
+      throws IOException {
+    final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+    Mockito.when(request.getRequestURI()).thenReturn("/app/g3.css");
+    final WroConfiguration config = newConfigWithUpdatePeriodValue(0);
+    config.setDebug(false);
+    Context.set(Context.webContext(request, Mockito.mock(HttpServletResponse.class, Mockito.RETURNS_DEEP_STUBS),
+        Mockito.mock(FilterConfig.class)), config);
+    
+    final WroManager wroManager = managerFactory.create();
+    wroManager.process();
+    final CacheEntry key = new CacheEntry("g3", ResourceType.CSS, true);
+    final Fingerprint fingerprint = wroManager.getFingerprintIndex().getFingerprint(key);
+    Assert.assertNotNull(fingerprint);
+    new ReloadCacheRunnable(wroManager).run();
+    // the stale fingerprint is not used until the content is loaded again
+    Assert.assertNull(wroManager.getFingerprintIndex().getFingerprint(key));
+    wroManager.process();
+    final Fingerprint confirmed = wroManager.getFingerprintIndex().getFingerprint(key);
+    Assert.assertEquals(fingerprint.getEtag(), confirmed.getEtag());
+    Assert.assertEquals(fingerprint.getLastModified(), confirmed.getLastModified());
+  }
+  
+  @Test
+  public void shouldKeepLastModifiedOfUnchangedContentWhenCacheIsReloaded()
+      throws Exception {
+    final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+    Mockito.when(request.getRequestURI()).thenReturn("/app/g3.css");
+    final WroConfiguration config = newConfigWithUpdatePeriodValue(0);
+    config.setDebug(false);
+    Context.set(Context.webContext(request, Mockito.mock(HttpServletResponse.class, Mockito.RETURNS_DEEP_STUBS),
+        Mockito.mock(FilterConfig.class)), config);
+
+    final WroManager wroManager = managerFactory.create();
+    final CacheEntry key = new CacheEntry("g3", ResourceType.CSS, true);
+    final ContentHashEntry entry = wroManager.getCacheStrategy().get(key);
+    Thread.sleep(5);
+    new ReloadCacheRunnable(wroManager).run();
+    final ContentHashEntry reloaded = wroManager.getCacheStrategy().get(key);
+    Assert.assertNotSame(entry, reloaded);
+    Assert.assertEquals(entry.getHash(), reloaded.getHash());
+    Assert.assertEquals(entry.getLastModified(), reloaded.getLastModified());
+  }
+
+  @Test
+  public void shouldAnswerIfModifiedSinceRequestWithNotModified()
+      throws IOException {
+    final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+    Mockito.when(request.getRequestURI()).thenReturn("/app/g3.css");
+    final WroConfiguration config = newConfigWithUpdatePeriodValue(0);
+    config.setDebug(false);
+    Context.set(Context.webContext(request, Mockito.mock(HttpServletResponse.class, Mockito.RETURNS_DEEP_STUBS),
+        Mockito.mock(FilterConfig.class)), config);
+    final WroManager wroManager = managerFactory.create();
+    wroManager.process();
+    
+    Mockito.when(request.getDateHeader(HttpHeader.IF_MODIFIED_SINCE.toString())).thenReturn(
+        System.currentTimeMillis() + 1000);
+    final HttpServletResponse response = Mockito.mock(HttpServletResponse.class, Mockito.RETURNS_DEEP_STUBS);
+    Context.set(Context.webContext(request, response, Mockito.mock(FilterConfig.class)), config);
+    wroManager.process();
+    Mockito.verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+  }
+  
+  @Test
+  public void shouldServeSingleRangeOfBundle()
+      throws IOException {
+    final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+    Mockito.when(request.getRequestURI()).thenReturn("/app/g3.css");
+    final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+    final ByteArrayOutputStream fullContent = new ByteArrayOutputStream();
+    Mockito.when(response.getOutputStream()).thenReturn(new DelegatingServletOutputStream(fullContent));
+    Context.set(Context.webContext(request, response, Mockito.mock(FilterConfig.class)),
+        newConfigWithUpdatePeriodValue(0));
+    final WroManager wroManager = managerFactory.create();
+    wroManager.process();
+    
+    Mockito.when(request.getHeader(HttpHeader.RANGE.toString())).thenReturn("bytes=1-3");
+    final HttpServletResponse rangeResponse = Mockito.mock(HttpServletResponse.class);
+    final ByteArrayOutputStream rangeContent = new ByteArrayOutputStream();
+    Mockito.when(rangeResponse.getOutputStream()).thenReturn(new DelegatingServletOutputStream(rangeContent));
+    Context.set(Context.webContext(request, rangeResponse, Mockito.mock(FilterConfig.class)),
+        newConfigWithUpdatePeriodValue(0));
+    wroManager.process();
+    
+    final byte[] expected = new byte[3];
+    System.arraycopy(fullContent.toByteArray(), 1, expected, 0, 3);
+    Assert.assertTrue(Arrays.equals(expected, rangeContent.toByteArray()));
+    Mockito.verify(rangeResponse).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+    Mockito.verify(rangeResponse).setHeader(HttpHeader.CONTENT_RANGE.toString(),
+        "bytes 1-3/" + fullContent.toByteArray().length);
+    Mockito.verify(rangeResponse).setContentLength(3);
+  }
+  
+  @Test
+  public void shouldServeEntireBundleWhenIfRangeDoesNotMatch()
+      throws IOException {
+    final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+    Mockito.when(request.getRequestURI()).thenReturn("/app/g3.css");
+    Mockito.when(request.getHeader(HttpHeader.RANGE.toString())).thenReturn("bytes=2-5");
+    Mockito.when(request.getHeader(HttpHeader.IF_RANGE.toString())).thenReturn("\"outdated\"");
+    final HttpServletResponse response = Mockito.mock(HttpServletResponse.class, Mockito.RETURNS_DEEP_STUBS);
+    Context.set(Context.webContext(request, response, Mockito.mock(FilterConfig.class)),
+        newConfigWithUpdatePeriodValue(0));
+    managerFactory.create().process();
+    Mockito.verify(response, Mockito.never()).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+  }
+  
+  @Test
+  public void shouldServeHeadRequestWithoutContent()
+      throws IOException {
+    final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+    Mockito.when(request.getRequestURI()).thenReturn("/app/g3.css");
+    Mockito.when(request.getMethod()).thenReturn("HEAD");
+    final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+    Context.set(Context.webContext(request, response, Mockito.mock(FilterConfig.class)),
+        newConfigWithUpdatePeriodValue(0));
+    managerFactory.create().process();
+    Mockito.verify(response).setHeader(Mockito.eq(HttpHeader.ETAG.toString()), Mockito.anyString());
+    Mockito.verify(response).setContentLength(Mockito.anyInt());
+    Mockito.verify(response, Mockito.never()).getOutputStream();
+  }
+  
+  @Test
+  public void shouldServeHeadRequestWithLengthOfServedContent()
+      throws IOException {
+    final WroConfiguration config = newConfigWithUpdatePeriodValue(0);
+    final WroManager manager = managerFactory.create();
+    
+    final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+    Mockito.when(request.getRequestURI()).thenReturn("/app/g3.css");
+    Mockito.when(request.getHeaderNames()).thenAnswer(new Answer<Object>() {
+      public Object answer(final InvocationOnMock invocation) {
+        return Collections.enumeration(Arrays.asList("Accept-Encoding"));
+      }
+    });
+    Mockito.when(request.getHeader("Accept-Encoding")).thenReturn("gzip");
+    final HttpServletResponse getResponse = Mockito.mock(HttpServletResponse.class);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Mockito.when(getResponse.getOutputStream()).thenReturn(new DelegatingServletOutputStream(out));
+    Context.set(Context.webContext(request, getResponse, Mockito.mock(FilterConfig.class)), config);
+    manager.process();
+    
+    Mockito.when(request.getMethod()).thenReturn("HEAD");
+    final HttpServletResponse headResponse = Mockito.mock(HttpServletResponse.class);
+    Context.set(Context.webContext(request, headResponse, Mockito.mock(FilterConfig.class)), config);
+    manager.process();
+    Mockito.verify(headResponse).setHeader(HttpHeader.CONTENT_ENCODING.toString(), "gzip");
+    Mockito.verify(headResponse).setContentLength(out.size());
+  }
+  
+  @Test
+  public void shouldServeSourceMapOfJsGroup()
+      throws IOException {
+    final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+    Mockito.when(request.getRequestURI()).thenReturn("/app/chinese.js");
+    Mockito.when(request.getQueryString()).thenReturn("minimize=false");
+    final WroConfiguration config = newConfigWithUpdatePeriodValue(0);
+    config.setGenerateSourceMaps(true);
+    final HttpServletResponse response = Mockito.mock(HttpServletResponse.class, Mockito.RETURNS_DEEP_STUBS);
+    Context.set(Context.webContext(request, response, Mockito.mock(FilterConfig.class)), config);
+    final WroManager wroManager = managerFactory.create();
+    wroManager.process();
+    final String sourceMapUrl = "/app/chinese.js?minimize=false&" + WroManager.PARAM_SOURCE_MAP + "=true";
+    Mockito.verify(response).setHeader(HttpHeader.SOURCE_MAP.toString(), sourceMapUrl);
+    Mockito.verify(response).setHeader(HttpHeader.X_SOURCE_MAP.toString(), sourceMapUrl);
+
+    Mockito.when(request.getParameter(WroManager.PARAM_SOURCE_MAP)).thenReturn("true");
+    final HttpServletResponse sourceMapResponse = Mockito.mock(HttpServletResponse.class);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Mockito.when(sourceMapResponse.getOutputStream()).thenReturn(new DelegatingServletOutputStream(out));
+    Context.set(Context.webContext(request, sourceMapResponse, Mockito.mock(FilterConfig.class)), config);
+    wroManager.process();
+    Mockito.verify(sourceMapResponse).setContentType("application/json; charset=" + config.getEncoding());
+    final String sourceMap = new String(out.toByteArray(), config.getEncoding());
+    Assert.assertTrue(sourceMap.startsWith("{\"version\":3,\"file\":\"chinese.js\","));
+    Assert.assertTrue(sourceMap.contains("\"sources\":[\"classpath:ro/isdc/wro/manager/chinese.js\"]"));
+  }
+
+  @Test
+  public void shouldSendNotFoundWhenSourceMapIsNotGenerated()
+      throws IOException {
+    final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+    Mockito.when(request.getRequestURI()).thenReturn("/app/chinese.js");
+    Mockito.when(request.getParameter(WroManager.PARAM_SOURCE_MAP)).thenReturn("true");
+    final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+    Context.set(Context.webContext(request, response, Mockito.mock(FilterConfig.class)),
+        newConfigWithUpdatePeriodValue(0));
+    managerFactory.create().process();
+    Mockito.verify(response).sendError(HttpServletResponse.SC_NOT_FOUND);
+    Mockito.verify(response, Mockito.never()).setHeader(Mockito.eq(HttpHeader.SOURCE_MAP.toString()),
+        Mockito.anyString());
+  }
+
+  @Test
+  public void shouldDestroyProcessorsOnceWhenManagerIsDestroyed() {
+    final AtomicInteger destroyCount = new AtomicInteger();
+    class DestroyableProcessor
+        implements ResourcePreProcessor, ResourcePostProcessor, Destroyable {
+      public void process(final Resource resource, final Reader reader, final Writer writer)
+          throws IOException {
+        IOUtils.copy(reader, writer);
+      }
+      public void process(final Reader reader, final Writer writer)
+          throws IOException {
+        IOUtils.copy(reader, writer);
+      }
+      public void destroy() {
+        destroyCount.incrementAndGet();
+      }
+    }
+    final DestroyableProcessor processor = new DestroyableProcessor();
+    final BaseWroManagerFactory factory = new BaseWroManagerFactory().setModelFactory(getValidModelFactory());
+    factory.setProcessorsFactory(new SimpleProcessorsFactory().addPreProcessor(processor).addPostProcessor(processor));
+    factory.create().destroy();
+    Assert.assertEquals(1, destroyCount.get());
+  }
+
   @After
   public void tearDown() {
     managerFactory.destroy();
@@ -49,6 +49,18 @@ public class TestLifecycleCallbackRegistry {
     registry.registerCallback(null);
   }
 
+  @Test
+  public void shouldNotifyCacheClearedOnlyToCallbacksImplementingTheOptionalInterface() {
+    final LifecycleCallback callback = Mockito.mock(LifecycleCallback.class);
+    final LifecycleCallbackSupport cacheAwareCallback = Mockito.spy(new LifecycleCallbackSupport());
+    registry.registerCallback(callback);
+    registry.registerCallback(cacheAwareCallback);
+
+    registry.onCacheCleared();
+    Mockito.verify(cacheAwareCallback).onCacheCleared();
+    Mockito.verifyZeroInteractions(callback);
+  }
+
   @Test
   public void shouldInvokeRegisteredCallbacks() {
     final LifecycleCallback callback = Mockito.mock(LifecycleCallback.class);
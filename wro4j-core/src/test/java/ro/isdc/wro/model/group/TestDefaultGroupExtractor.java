@@ -109,6 +109,34 @@ public class TestDefaultGroupExtractor {
     Assert.assertEquals(ResourceType.CSS, groupExtractor.getResourceType(request));
   }
   
+  @Test
+  public void shouldExtractGroupWhenJsessionIDContainsDots() {
+    final HttpServletRequest request = mockRequestForUri("/contextPath/wro/my.js;jsessionid=blah.blah");
+    Assert.assertEquals("my", groupExtractor.getGroupName(request));
+    Assert.assertEquals(ResourceType.JS, groupExtractor.getResourceType(request));
+  }
+
+  @Test
+  public void shouldIgnoreExtensionCase() {
+    final HttpServletRequest request = mockRequestForUri("/contextPath/wro/all.CSS");
+    Assert.assertEquals("all", groupExtractor.getGroupName(request));
+    Assert.assertEquals(ResourceType.CSS, groupExtractor.getResourceType(request));
+  }
+
+  @Test
+  public void shouldNotExtractResourceTypeFromFolderName() {
+    final HttpServletRequest request = mockRequestForUri("/contextPath/wro.js/all");
+    Assert.assertEquals("all", groupExtractor.getGroupName(request));
+    Assert.assertEquals(null, groupExtractor.getResourceType(request));
+  }
+
+  @Test
+  public void shouldNotExtractGroupNameFromFolderUri() {
+    final HttpServletRequest request = mockRequestForUri("/contextPath/wro/");
+    Assert.assertEquals(null, groupExtractor.getGroupName(request));
+    Assert.assertEquals(null, groupExtractor.getResourceType(request));
+  }
+
   @Test
   public void testWithInvalidUriType() {
     final HttpServletRequest request = mockRequestForUri("all.someInvalidType");
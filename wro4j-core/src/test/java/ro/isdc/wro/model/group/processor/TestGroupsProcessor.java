@@ -8,13 +8,17 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
 
 import junit.framework.Assert;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.Mockito;
 
 import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.cache.CacheEntry;
@@ -27,13 +31,19 @@ import ro.isdc.wro.model.factory.WroModelFactory;
 import ro.isdc.wro.model.group.Group;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.SupportedResourceType;
 import ro.isdc.wro.model.resource.locator.UriLocator;
 import ro.isdc.wro.model.resource.locator.factory.SimpleUriLocatorFactory;
 import ro.isdc.wro.model.resource.locator.factory.UriLocatorFactory;
+import ro.isdc.wro.model.resource.processor.GroupAware;
+import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
 import ro.isdc.wro.model.resource.processor.decorator.ProcessorDecorator;
 import ro.isdc.wro.model.resource.processor.factory.ProcessorsFactory;
 import ro.isdc.wro.model.resource.processor.factory.SimpleProcessorsFactory;
+import ro.isdc.wro.model.resource.processor.impl.js.JSMinProcessor;
+import ro.isdc.wro.model.resource.processor.support.MappedContent;
+import ro.isdc.wro.model.resource.processor.support.SourceMap;
 import ro.isdc.wro.util.WroTestUtils;
 
 
@@ -89,13 +99,11 @@ public class TestGroupsProcessor {
     victim.process(key);
   }
   
-  @Test
-  public void shouldLeaveContentUnchangedWhenAProcessorFails() {
-    final CacheEntry key = new CacheEntry(groupName, ResourceType.JS, true);
-    final Group group = new Group(groupName).addResource(Resource.create("1.js")).addResource(Resource.create("2.js"));
-    final WroModelFactory modelFactory = WroTestUtils.simpleModelFactory(new WroModel().addGroup(group));
-    // the locator which returns the name of the resource as its content
-    final UriLocatorFactory locatorFactory = new SimpleUriLocatorFactory().addUriLocator(new UriLocator() {
+  /**
+   * @return the locator which returns the name of the resource as its content.
+   */
+  private UriLocatorFactory createLocatorFactory() {
+    return new SimpleUriLocatorFactory().addUriLocator(new UriLocator() {
       public boolean accept(final String uri) {
         return true;
       }
@@ -104,6 +112,14 @@ public class TestGroupsProcessor {
         return new ByteArrayInputStream(uri.getBytes());
       }
     });
+  }
+
+  @Test
+  public void shouldLeaveContentUnchangedWhenAProcessorFails() {
+    final CacheEntry key = new CacheEntry(groupName, ResourceType.JS, true);
+    final Group group = new Group(groupName).addResource(Resource.create("1.js")).addResource(Resource.create("2.js"));
+    final WroModelFactory modelFactory = WroTestUtils.simpleModelFactory(new WroModel().addGroup(group));
+    final UriLocatorFactory locatorFactory = createLocatorFactory();
     
     final ResourcePreProcessor failingPreProcessor = new ResourcePreProcessor() {
       public void process(final Resource resource, final Reader reader, final Writer writer)
@@ -124,4 +140,171 @@ public class TestGroupsProcessor {
     final String actual = victim.process(key);
     Assert.assertEquals("1.js2.js", actual);
   }
+
+  @Test
+  public void shouldApplyMinimizeAwarePostProcessorsOnEachResourceWhenParallelPostprocessingEnabled() {
+    final String[] mergedContent = new String[1];
+    final ResourcePostProcessor bundleProcessor = new ResourcePostProcessor() {
+      public void process(final Reader reader, final Writer writer)
+          throws IOException {
+        mergedContent[0] = IOUtils.toString(reader);
+        writer.write(mergedContent[0]);
+      }
+    };
+    final WroConfiguration config = new WroConfiguration();
+    config.setParallelPostprocessing(true);
+    initVictimWithPostProcessors(config, new JSMinProcessor(), bundleProcessor);
+
+    Assert.assertEquals("\nvar a=1;\nvar b=2;", victim.process(new CacheEntry(groupName, ResourceType.JS, true)));
+    Assert.assertEquals("\nvar a=1;\nvar b=2;", mergedContent[0]);
+  }
+
+  @Test
+  public void shouldApplyPostProcessorsOnMergedContentByDefault() {
+    initVictimWithPostProcessors(new WroConfiguration(), new JSMinProcessor());
+    // the line comment of the first script hides the second script after merge
+    Assert.assertEquals("\nvar a=1", victim.process(new CacheEntry(groupName, ResourceType.JS, true)));
+  }
+
+  @Test
+  public void shouldNotApplyOnEachResourceThePostProcessorsFollowingABundleProcessor() {
+    final ResourcePostProcessor bundleProcessor = new ResourcePostProcessor() {
+      public void process(final Reader reader, final Writer writer)
+          throws IOException {
+        writer.write("/*bundle*/" + IOUtils.toString(reader));
+      }
+    };
+    final WroConfiguration config = new WroConfiguration();
+    config.setParallelPostprocessing(true);
+    initVictimWithPostProcessors(config, bundleProcessor, new JSMinProcessor());
+    Assert.assertEquals("\nvar a=1", victim.process(new CacheEntry(groupName, ResourceType.JS, true)));
+  }
+
+  /**
+   * A minimizer which doesn't declare that it can process each resource separately.
+   */
+  @Minimize
+  @SupportedResourceType(ResourceType.JS)
+  private static class BundleMinimizer
+      implements ResourcePostProcessor {
+    private String content;
+
+    public void process(final Reader reader, final Writer writer)
+        throws IOException {
+      content = IOUtils.toString(reader);
+      writer.write(content);
+    }
+  }
+
+  @Test
+  public void shouldApplyOnMergedContentTheMinimizersWhichAreNotResourceIndependent() {
+    final BundleMinimizer minimizer = new BundleMinimizer();
+    final WroConfiguration config = new WroConfiguration();
+    config.setParallelPostprocessing(true);
+    initVictimWithPostProcessors(config, minimizer);
+    victim.process(new CacheEntry(groupName, ResourceType.JS, true));
+    Assert.assertEquals("var a = 1 // firstvar b = 2", minimizer.content);
+  }
+
+  /**
+   * A minimizer processing the resources of the group as separate inputs.
+   */
+  @Minimize
+  @SupportedResourceType(ResourceType.JS)
+  private static class GroupMinimizer
+      implements ResourcePostProcessor, GroupAware {
+    private String content;
+    private List<String> inputs;
+
+    public void process(final Reader reader, final Writer writer)
+        throws IOException {
+      content = IOUtils.toString(reader);
+      writer.write(content);
+    }
+
+    public void processGroup(final List<Resource> resources, final List<String> contents, final Writer writer)
+        throws IOException {
+      Assert.assertEquals(contents.size(), resources.size());
+      inputs = contents;
+      writer.write(StringUtils.join(contents, "\n"));
+    }
+  }
+
+  @Test
+  public void shouldApplyGroupAwarePostProcessorOnTheResourcesOfTheGroup() {
+    final GroupMinimizer minimizer = new GroupMinimizer();
+    initVictimWithPostProcessors(new WroConfiguration(), minimizer);
+    Assert.assertEquals("var a = 1 // first\nvar b = 2", victim.process(new CacheEntry(groupName, ResourceType.JS,
+        true)));
+    Assert.assertEquals(Arrays.asList("var a = 1 // first", "var b = 2"), minimizer.inputs);
+    Assert.assertNull(minimizer.content);
+  }
+
+  @Test
+  public void shouldNotApplyGroupAwarePostProcessorOnTheResourcesWhenSourceMapsAreGenerated() {
+    final GroupMinimizer minimizer = new GroupMinimizer();
+    final WroConfiguration config = new WroConfiguration();
+    config.setGenerateSourceMaps(true);
+    initVictimWithPostProcessors(config, minimizer);
+    victim.process(new CacheEntry(groupName, ResourceType.JS, true));
+    Assert.assertNull(minimizer.inputs);
+    Assert.assertEquals("var a = 1 // firstvar b = 2", minimizer.content);
+  }
+
+  @Test
+  public void shouldMapPostProcessedGroupToResources() {
+    final WroConfiguration config = new WroConfiguration();
+    config.setParallelPostprocessing(true);
+    config.setGenerateSourceMaps(true);
+    initVictimWithPostProcessors(config, new JSMinProcessor());
+
+    final MappedContent result = victim.processWithSourceMap(new CacheEntry(groupName, ResourceType.JS, true));
+    Assert.assertEquals("\nvar a=1;\nvar b=2;", result.getContent());
+    final SourceMap sourceMap = result.getSourceMap();
+    Assert.assertEquals(Arrays.asList("var a = 1 // first", "var b = 2"), sourceMap.getSources());
+    Assert.assertEquals("[0, 0, 4]", Arrays.toString(sourceMap.getOriginalPosition(1, 4)));
+    Assert.assertEquals("[1, 0, 4]", Arrays.toString(sourceMap.getOriginalPosition(2, 4)));
+    Assert.assertEquals("[1, 0, 8]", Arrays.toString(sourceMap.getOriginalPosition(2, 6)));
+  }
+
+  @Test
+  public void shouldNotMapGroupChangedByProcessorWhichIsNotSourceMapAware() {
+    final ResourcePostProcessor bundleProcessor = new ResourcePostProcessor() {
+      public void process(final Reader reader, final Writer writer)
+          throws IOException {
+        writer.write("/*bundle*/" + IOUtils.toString(reader));
+      }
+    };
+    final WroConfiguration config = new WroConfiguration();
+    config.setGenerateSourceMaps(true);
+    initVictimWithPostProcessors(config, new JSMinProcessor(), bundleProcessor);
+    Assert.assertNull(victim.processWithSourceMap(new CacheEntry(groupName, ResourceType.JS, true)).getSourceMap());
+  }
+
+  @Test
+  public void shouldNotMapGroupByDefault()
+      throws IOException {
+    final JSMinProcessor processor = Mockito.spy(new JSMinProcessor());
+    initVictimWithPostProcessors(new WroConfiguration(), processor);
+    Assert.assertNull(victim.processWithSourceMap(new CacheEntry(groupName, ResourceType.JS, true)).getSourceMap());
+    // the mappings are not computed when not needed
+    Mockito.verify(processor, Mockito.never()).processWithSourceMap(Mockito.any(Resource.class),
+        Mockito.any(Reader.class), Mockito.any(Writer.class));
+  }
+
+  /**
+   * Uses a group of two scripts, each missing the trailing semicolon.
+   */
+  private void initVictimWithPostProcessors(final WroConfiguration config, final ResourcePostProcessor... processors) {
+    final Group group = new Group(groupName).addResource(Resource.create("var a = 1 // first", ResourceType.JS)).addResource(
+        Resource.create("var b = 2", ResourceType.JS));
+    final SimpleProcessorsFactory processorsFactory = new SimpleProcessorsFactory();
+    for (final ResourcePostProcessor processor : processors) {
+      processorsFactory.addPostProcessor(processor);
+    }
+    final BaseWroManagerFactory managerFactory = new BaseWroManagerFactory().setModelFactory(
+        WroTestUtils.simpleModelFactory(new WroModel().addGroup(group))).setUriLocatorFactory(createLocatorFactory());
+    managerFactory.setProcessorsFactory(processorsFactory);
+    initVictim(config, managerFactory);
+  }
 }
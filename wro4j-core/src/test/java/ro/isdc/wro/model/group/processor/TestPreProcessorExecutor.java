@@ -42,6 +42,8 @@ import ro.isdc.wro.model.resource.locator.factory.UriLocatorFactory;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
 import ro.isdc.wro.model.resource.processor.decorator.CopyrightKeeperProcessorDecorator;
 import ro.isdc.wro.model.resource.processor.factory.SimpleProcessorsFactory;
+import ro.isdc.wro.model.resource.processor.impl.css.ConformColorsCssProcessor;
+import ro.isdc.wro.model.resource.processor.impl.css.CssVariablesProcessor;
 import ro.isdc.wro.model.resource.processor.impl.js.JSMinProcessor;
 import ro.isdc.wro.util.StopWatch;
 
@@ -302,6 +304,40 @@ public class TestPreProcessorExecutor {
     executor.processAndMerge(resources, true);
   }
   
+  @Test
+  public void shouldProduceSameResultWhenCssProcessorsAreFused()
+      throws Exception {
+    final String css = "@variables {mainColor: red;}\n.a {color: var(mainColor); background: #FFF}";
+    final List<Resource> resources = new ArrayList<Resource>();
+    resources.add(Resource.create("/style.css", ResourceType.CSS));
+
+    initCssExecutor(css);
+    final String result = executor.processAndMerge(resources, true);
+    Context.get().getConfig().setFuseCssProcessors(true);
+    initCssExecutor(css);
+    Assert.assertEquals(result, executor.processAndMerge(resources, true));
+    Assert.assertEquals("\n.a {color: #ff0000; background: #ffffff}", result);
+  }
+
+  private void initCssExecutor(final String css) {
+    final UriLocator locator = new UriLocator() {
+      public boolean accept(final String uri) {
+        return true;
+      }
+
+      public InputStream locate(final String uri)
+          throws IOException {
+        return new ByteArrayInputStream(css.getBytes());
+      }
+    };
+    final BaseWroManagerFactory managerFactory = new BaseWroManagerFactory();
+    managerFactory.setUriLocatorFactory(new SimpleUriLocatorFactory().addUriLocator(locator));
+    managerFactory.setProcessorsFactory(new SimpleProcessorsFactory().addPreProcessor(new CssVariablesProcessor())
+        .addPreProcessor(new ConformColorsCssProcessor()));
+    executor = new PreProcessorExecutor();
+    InjectorBuilder.create(managerFactory).build().inject(executor);
+  }
+
   @After
   public void tearDown() {
     Context.unset();
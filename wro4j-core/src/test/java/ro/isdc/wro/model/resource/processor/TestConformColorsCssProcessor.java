@@ -11,6 +11,7 @@ import org.junit.Test;
 
 import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.processor.impl.css.ConformColorsCssProcessor;
+import ro.isdc.wro.model.resource.processor.support.css.CssTokenStreamProcessor;
 import ro.isdc.wro.util.WroTestUtils;
 
 
@@ -39,6 +40,17 @@ public class TestConformColorsCssProcessor {
   }
   
 
+  @Test
+  public void shouldProduceSameResultWhenVisitingTokenStream()
+      throws Exception {
+    final URL url = getClass().getResource("conformColors");
+
+    final File testFolder = new File(url.getFile(), "test");
+    final File expectedFolder = new File(url.getFile(), "expected");
+    WroTestUtils.compareFromDifferentFoldersByExtension(testFolder, expectedFolder, "css",
+        new CssTokenStreamProcessor((ConformColorsCssProcessor) processor));
+  }
+
   @Test
   public void shouldSupportCorrectResourceTypes() {
     WroTestUtils.assertProcessorSupportResourceTypes(processor, ResourceType.CSS);
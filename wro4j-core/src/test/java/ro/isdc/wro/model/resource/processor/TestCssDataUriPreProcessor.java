@@ -6,8 +6,12 @@ package ro.isdc.wro.model.resource.processor;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.net.URL;
 
+import junit.framework.Assert;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -16,6 +20,7 @@ import ro.isdc.wro.config.Context;
 import ro.isdc.wro.manager.factory.BaseWroManagerFactory;
 import ro.isdc.wro.model.group.processor.Injector;
 import ro.isdc.wro.model.group.processor.InjectorBuilder;
+import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.locator.ClasspathUriLocator;
 import ro.isdc.wro.model.resource.locator.ServletContextUriLocator;
@@ -25,6 +30,7 @@ import ro.isdc.wro.model.resource.locator.factory.UriLocatorFactory;
 import ro.isdc.wro.model.resource.processor.factory.SimpleProcessorsFactory;
 import ro.isdc.wro.model.resource.processor.impl.css.CssDataUriPreProcessor;
 import ro.isdc.wro.model.resource.processor.support.DataUriGenerator;
+import ro.isdc.wro.model.resource.processor.support.css.CssTokenStreamProcessor;
 import ro.isdc.wro.util.WroTestUtils;
 
 
@@ -110,6 +116,17 @@ public class TestCssDataUriPreProcessor {
     WroTestUtils.compareFromDifferentFoldersByExtension(testFolder, expectedFolder, "css", processor);
   }
   
+  @Test
+  public void shouldProduceSameResultWhenVisitingTokenStream()
+      throws Exception {
+    final URL url = getClass().getResource("dataUri");
+
+    final File testFolder = new File(url.getFile(), "test");
+    final File expectedFolder = new File(url.getFile(), "expected");
+    WroTestUtils.compareFromDifferentFoldersByExtension(testFolder, expectedFolder, "css",
+        new CssTokenStreamProcessor((CssDataUriPreProcessor) processor));
+  }
+
   @Test
   public void shouldTransformLargeResources()
       throws Exception {
@@ -127,4 +144,51 @@ public class TestCssDataUriPreProcessor {
   public void shouldSupportOnlyCssResources() {
     WroTestUtils.assertProcessorSupportResourceTypes(processor, ResourceType.CSS);
   }
+
+  @Test
+  public void shouldEncodeSameImageOnlyOnce()
+      throws Exception {
+    final DataUriGenerator generator = Mockito.spy(new DataUriGenerator());
+    final CssDataUriPreProcessor processor = new CssDataUriPreProcessor() {
+      @Override
+      protected DataUriGenerator getDataUriGenerator() {
+        return generator;
+      }
+    };
+    initProcessor(processor);
+    final String css = ".a {background: url(/img/image.png);}";
+    final String first = process(processor, "/css/first.css", css);
+    final String second = process(processor, "/css/second.css", css);
+    Assert.assertEquals(first, second);
+    Assert.assertTrue(first.contains("data:image/png;base64,"));
+    Mockito.verify(generator, Mockito.times(1)).generateDataURI(Mockito.any(InputStream.class), Mockito.anyString());
+  }
+
+  @Test
+  public void shouldNotEncodeImagesExceedingSizeLimit()
+      throws Exception {
+    final DataUriGenerator generator = Mockito.spy(new DataUriGenerator());
+    final CssDataUriPreProcessor processor = new CssDataUriPreProcessor() {
+      @Override
+      protected DataUriGenerator getDataUriGenerator() {
+        return generator;
+      }
+
+      @Override
+      protected boolean isSizeAccepted(final long dataUriLength) {
+        return dataUriLength < 100;
+      }
+    };
+    initProcessor(processor);
+    final String css = ".a {background: url(/img/image.png);}";
+    Assert.assertEquals(css, process(processor, "/css/style.css", css));
+    Mockito.verify(generator, Mockito.never()).generateDataURI(Mockito.any(InputStream.class), Mockito.anyString());
+  }
+
+  private String process(final ResourcePreProcessor processor, final String uri, final String css)
+      throws Exception {
+    final StringWriter writer = new StringWriter();
+    processor.process(Resource.create(uri, ResourceType.CSS), new StringReader(css), writer);
+    return writer.toString();
+  }
 }
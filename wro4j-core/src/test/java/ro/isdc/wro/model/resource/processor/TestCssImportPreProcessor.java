@@ -18,6 +18,7 @@ import ro.isdc.wro.config.jmx.WroConfiguration;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.processor.impl.css.CssImportPreProcessor;
+import ro.isdc.wro.model.resource.processor.support.css.CssTokenStreamProcessor;
 import ro.isdc.wro.util.WroTestUtils;
 
 
@@ -50,6 +51,17 @@ public class TestCssImportPreProcessor {
   }
   
 
+  @Test
+  public void shouldProduceSameResultWhenVisitingTokenStream()
+      throws Exception {
+    final URL url = getClass().getResource("cssImport");
+
+    final File testFolder = new File(url.getFile(), "test");
+    final File expectedFolder = new File(url.getFile(), "expected");
+    WroTestUtils.compareFromDifferentFoldersByExtension(testFolder, expectedFolder, "css",
+        new CssTokenStreamProcessor((CssImportPreProcessor) processor));
+  }
+
   @Test
   public void shouldSupportCorrectResourceTypes() {
     WroTestUtils.assertProcessorSupportResourceTypes(processor, ResourceType.CSS);
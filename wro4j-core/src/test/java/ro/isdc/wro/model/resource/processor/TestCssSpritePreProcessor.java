@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.imageio.ImageIO;
+
+import junit.framework.Assert;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.manager.factory.BaseWroManagerFactory;
+import ro.isdc.wro.model.group.processor.Injector;
+import ro.isdc.wro.model.group.processor.InjectorBuilder;
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.locator.SpriteUriLocator;
+import ro.isdc.wro.model.resource.locator.UriLocator;
+import ro.isdc.wro.model.resource.locator.factory.SimpleUriLocatorFactory;
+import ro.isdc.wro.model.resource.processor.impl.css.CssSpritePreProcessor;
+
+
+/**
+ * Test for {@link CssSpritePreProcessor} class.
+ */
+public class TestCssSpritePreProcessor {
+  private static final String PREFIX = "[WRO-PREFIX]?id=";
+  private static final Pattern SPRITE_URL = Pattern.compile("url\\(\\Q" + PREFIX + "\\E(sprite:[^)]+)\\)");
+  private CssSpritePreProcessor processor;
+  private UriLocator locator;
+  private SpriteUriLocator spriteLocator;
+
+  @Before
+  public void setUp()
+      throws Exception {
+    Context.set(Context.standaloneContext());
+    locator = Mockito.mock(UriLocator.class);
+    Mockito.when(locator.accept(Mockito.anyString())).thenReturn(true);
+    Mockito.when(locator.locate(Mockito.anyString())).thenAnswer(new Answer<InputStream>() {
+      public InputStream answer(final InvocationOnMock invocation)
+          throws Throwable {
+        final String uri = (String) invocation.getArguments()[0];
+        if (uri.contains("large")) {
+          return createImage(100, 100, Color.GREEN);
+        }
+        return uri.contains("red") ? createImage(16, 16, Color.RED) : createImage(16, 8, Color.BLUE);
+      }
+    });
+    processor = new CssSpritePreProcessor() {
+      @Override
+      protected String getUrlPrefix() {
+        return PREFIX;
+      }
+    };
+    final BaseWroManagerFactory factory = new BaseWroManagerFactory();
+    factory.setUriLocatorFactory(new SimpleUriLocatorFactory().addUriLocator(locator));
+    final Injector injector = InjectorBuilder.create(factory).build();
+    injector.inject(processor);
+    spriteLocator = new SpriteUriLocator();
+    injector.inject(spriteLocator);
+  }
+
+  private InputStream createImage(final int width, final int height, final Color color)
+      throws IOException {
+    final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    for (int x = 0; x < width; x++) {
+      for (int y = 0; y < height; y++) {
+        image.setRGB(x, y, color.getRGB());
+      }
+    }
+    final ByteArrayOutputStream os = new ByteArrayOutputStream();
+    ImageIO.write(image, "png", os);
+    return new ByteArrayInputStream(os.toByteArray());
+  }
+
+  private String process(final String css)
+      throws IOException {
+    final StringWriter writer = new StringWriter();
+    processor.process(Resource.create("/css/style.css", ResourceType.CSS), new StringReader(css), writer);
+    return writer.toString();
+  }
+
+  @Test
+  public void shouldPackSmallImagesIntoSprite()
+      throws Exception {
+    final String result = process(".a {background: url(../img/red.png) no-repeat;}\n"
+        + ".b {background: url('/img/blue.png') no-repeat}\n" + ".c {background: url(../img/red.png) no-repeat;}");
+    final Matcher matcher = SPRITE_URL.matcher(result);
+    Assert.assertTrue(matcher.find());
+    final String spriteUri = matcher.group(1);
+    Assert.assertEquals(".a {background: url(" + PREFIX + spriteUri + ") no-repeat 0 0;}\n" + ".b {background: url("
+        + PREFIX + spriteUri + ") no-repeat 0 -18px}\n" + ".c {background: url(" + PREFIX + spriteUri
+        + ") no-repeat 0 0;}", result);
+    Mockito.verify(locator, Mockito.times(1)).locate("/img/red.png");
+
+    final BufferedImage sprite = ImageIO.read(spriteLocator.locate(spriteUri));
+    Assert.assertEquals(16, sprite.getWidth());
+    Assert.assertEquals(26, sprite.getHeight());
+    Assert.assertEquals(Color.RED.getRGB(), sprite.getRGB(0, 0));
+    Assert.assertEquals(0, sprite.getRGB(0, 17));
+    Assert.assertEquals(Color.BLUE.getRGB(), sprite.getRGB(0, 18));
+  }
+
+  @Test
+  public void shouldReuseSpriteForSameImages()
+      throws Exception {
+    final String css = ".a {background: url(red.png) no-repeat;}\n.b {background: url(blue.png) no-repeat;}";
+    Assert.assertEquals(process(css), process(css));
+  }
+
+  @Test
+  public void shouldNotChangeIneligibleDeclarations()
+      throws Exception {
+    final String css = ".a {background: url(red.png) no-repeat; background-position: 5px 5px;}\n"
+        + ".b {background: url(blue.png) repeat-x;}\n" + ".c {background: url(large.png) no-repeat;}\n"
+        + ".d {background-image: url(red.png);}\n" + ".e {background: url(http://www.site.com/blue.png) no-repeat;}\n"
+        + ".f {background: url(red.jpg) no-repeat;}\n" + ".g {background: url(blue.png) no-repeat;}";
+    Assert.assertEquals(css, process(css));
+  }
+
+  @Test
+  public void shouldNotCreateSpriteWithoutRequest()
+      throws Exception {
+    processor = new CssSpritePreProcessor();
+    final String css = ".a {background: url(red.png) no-repeat;}\n.b {background: url(blue.png) no-repeat;}";
+    Assert.assertEquals(css, process(css));
+  }
+
+  @Test(expected = IOException.class)
+  public void cannotLocateUnknownSprite()
+      throws Exception {
+    spriteLocator.locate(SpriteUriLocator.PREFIX + "unknown.png");
+  }
+
+  @Test(expected = IOException.class)
+  public void shouldNotLocateSpriteOfAnotherManager()
+      throws Exception {
+    final String result = process(".a {background: url(red.png) no-repeat;}\n.b {background: url(blue.png) no-repeat;}");
+    final Matcher matcher = SPRITE_URL.matcher(result);
+    Assert.assertTrue(matcher.find());
+    final SpriteUriLocator otherLocator = new SpriteUriLocator();
+    InjectorBuilder.create(new BaseWroManagerFactory()).build().inject(otherLocator);
+    otherLocator.locate(matcher.group(1));
+  }
+}
@@ -6,8 +6,11 @@ package ro.isdc.wro.model.resource.processor;
 import java.io.File;
 import java.io.IOException;
 import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.net.URL;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import junit.framework.Assert;
 
@@ -18,7 +21,10 @@ import org.mockito.Mockito;
 import ro.isdc.wro.config.Context;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.processor.impl.css.AbstractCssUrlRewritingProcessor;
 import ro.isdc.wro.model.resource.processor.impl.css.CssUrlRewritingProcessor;
+import ro.isdc.wro.model.resource.processor.support.css.CssTokenStreamProcessor;
+import ro.isdc.wro.model.resource.support.hash.SHA1HashStrategy;
 import ro.isdc.wro.util.WroTestUtils;
 
 
@@ -46,6 +52,35 @@ public class TestCssUrlRewritingProcessor {
     WroTestUtils.createInjector().inject(processor);
   }
 
+  @Test
+  public void shouldCompleteProcessingWhenWritingFails() {
+    final AtomicInteger completed = new AtomicInteger();
+    final AbstractCssUrlRewritingProcessor failingProcessor = new AbstractCssUrlRewritingProcessor() {
+      @Override
+      protected String replaceImageUrl(final String cssUri, final String imageUrl) {
+        return imageUrl;
+      }
+
+      @Override
+      protected void onProcessCompleted() {
+        completed.incrementAndGet();
+      }
+    };
+    final Writer writer = new StringWriter() {
+      @Override
+      public void write(final String str) {
+        throw new IllegalStateException("BOOM!");
+      }
+    };
+    try {
+      failingProcessor.process(Resource.create("/static/style.css", ResourceType.CSS), new StringReader(
+          "a {background: url(img.png);}"), writer);
+      Assert.fail("Should have failed");
+    } catch (final Exception e) {
+      Assert.assertEquals(1, completed.get());
+    }
+  }
+
   @Test
   public void testFromFolder()
       throws Exception {
@@ -90,6 +125,21 @@ public class TestCssUrlRewritingProcessor {
   }
 
 
+  @Test
+  public void shouldAddFingerprintToProxyResourceUrl()
+    throws IOException {
+    Context.get().getConfig().setFingerprintProxyResources(true);
+    final String imageUri = "classpath:ro/isdc/wro/model/resource/processor/dataUri/test/btn_icons.png";
+    final String hash = new SHA1HashStrategy().getHash(getClass().getResourceAsStream("dataUri/test/btn_icons.png"));
+    final StringWriter writer = new StringWriter();
+    processor.process(createMockResource("classpath:ro/isdc/wro/model/resource/processor/style.css"),
+      new StringReader(".a {background: url(dataUri/test/btn_icons.png);}"), writer);
+    Assert.assertEquals(".a {background: url([WRO-PREFIX]?id=" + imageUri + "&hash=" + hash + ");}",
+      writer.toString());
+    Assert.assertTrue(processor.isUriAllowed(imageUri));
+  }
+
+
   /**
    * @param resourceUri the resource should return.
    * @return mocked {@link Resource} object.
@@ -171,6 +221,17 @@ public class TestCssUrlRewritingProcessor {
     Assert.assertTrue(processor.isUriAllowed("classpath:folder/img.gif"));
   }
   
+  @Test
+  public void shouldProduceSameResultWhenVisitingTokenStream()
+      throws Exception {
+    final URL url = getClass().getResource("cssUrlRewriting");
+
+    final File testFolder = new File(url.getFile(), "test");
+    final File expectedFolder = new File(url.getFile(), "expected");
+    WroTestUtils.compareFromDifferentFoldersByExtension(testFolder, expectedFolder, "css",
+        new CssTokenStreamProcessor(processor));
+  }
+
   @Test
   public void shouldSupportOnlyCssResources() {
     WroTestUtils.assertProcessorSupportResourceTypes(processor, ResourceType.CSS);
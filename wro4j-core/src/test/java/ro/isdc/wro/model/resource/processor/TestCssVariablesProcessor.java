@@ -10,6 +10,7 @@ import org.junit.Test;
 
 import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.processor.impl.css.CssVariablesProcessor;
+import ro.isdc.wro.model.resource.processor.support.css.CssTokenStreamProcessor;
 import ro.isdc.wro.util.WroTestUtils;
 
 
@@ -32,6 +33,17 @@ public class TestCssVariablesProcessor {
     WroTestUtils.compareFromDifferentFoldersByExtension(testFolder, expectedFolder, "css", processor);
   }
 
+  @Test
+  public void shouldProduceSameResultWhenVisitingTokenStream()
+      throws Exception {
+    final URL url = getClass().getResource("cssvariables");
+
+    final File testFolder = new File(url.getFile(), "test");
+    final File expectedFolder = new File(url.getFile(), "expected");
+    WroTestUtils.compareFromDifferentFoldersByExtension(testFolder, expectedFolder, "css",
+        new CssTokenStreamProcessor((CssVariablesProcessor) processor));
+  }
+
   @Test
   public void shouldSupportCorrectResourceTypes() {
     WroTestUtils.assertProcessorSupportResourceTypes(processor, ResourceType.CSS);
@@ -4,16 +4,27 @@
 package ro.isdc.wro.model.resource.processor;
 
 import java.io.File;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
 import java.net.URL;
 
+import junit.framework.Assert;
+
+import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 
 import ro.isdc.wro.config.Context;
+import ro.isdc.wro.manager.factory.BaseWroManagerFactory;
+import ro.isdc.wro.model.WroModel;
+import ro.isdc.wro.model.group.Group;
+import ro.isdc.wro.model.group.processor.InjectorBuilder;
 import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.processor.impl.css.CssDataUriPreProcessor;
 import ro.isdc.wro.model.resource.processor.impl.css.DuplicatesAwareCssDataUriPreProcessor;
+import ro.isdc.wro.model.resource.processor.support.css.CssImageRegistry;
 import ro.isdc.wro.util.WroTestUtils;
 import ro.isdc.wro.util.WroUtil;
 
@@ -25,6 +36,7 @@ import ro.isdc.wro.util.WroUtil;
  * @created Created on Mat 09, 2010
  */
 public class TestDuplicateAwareCssDataUriPreProcessor {
+  private static final String TEST_PATH = "classpath:ro/isdc/wro/model/resource/processor/duplicateAwareDataUri/test/";
   private ResourcePreProcessor processor;
 
 
@@ -60,4 +72,80 @@ public class TestDuplicateAwareCssDataUriPreProcessor {
     Mockito.when(resource.getUri()).thenReturn(resourceUri);
     return resource;
   }
+
+  @Test
+  public void shouldNotReplaceImagesReferredByOtherGroups()
+    throws Exception {
+    final DuplicatesAwareCssDataUriPreProcessor processor = createProcessor(new WroModel().addGroup(
+      createGroup("g1", "testNoDuplicates.css")).addGroup(createGroup("g2", "testDuplicate.css")));
+    final String css = "testNoDuplicates.css";
+    Assert.assertEquals(read(css), process(processor, css));
+
+    final CssImageRegistry registry = processor.getImageRegistry();
+    Assert.assertEquals(3, registry.getReferenceCount(TEST_PATH + "image1.png"));
+    Assert.assertEquals(2, registry.getReferenceCount(TEST_PATH + "image2.png"));
+    Assert.assertEquals(2, registry.getGroupNames(TEST_PATH + "image1.png").size());
+    Assert.assertEquals(2, registry.getImageUris().size());
+  }
+
+  @Test
+  public void shouldReplaceImagesReferredOnceInModel()
+    throws Exception {
+    final DuplicatesAwareCssDataUriPreProcessor processor = createProcessor(new WroModel().addGroup(
+      createGroup("g1", "testNoDuplicates.css")));
+    final String result = process(processor, "testNoDuplicates.css");
+    Assert.assertFalse(result.contains("image1.png"));
+    Assert.assertFalse(result.contains("image2.png"));
+    Assert.assertFalse(processor.getImageRegistry().isShared(TEST_PATH + "image1.png"));
+  }
+
+  @Test
+  public void shouldScanModelOnlyOnceUntilCacheIsCleared()
+    throws Exception {
+    final BaseWroManagerFactory factory = createManagerFactory(new WroModel().addGroup(createGroup("g1",
+      "testNoDuplicates.css")));
+    final DuplicatesAwareCssDataUriPreProcessor processor = new DuplicatesAwareCssDataUriPreProcessor();
+    InjectorBuilder.create(factory).build().inject(processor);
+    final CssImageRegistry registry = processor.getImageRegistry();
+    process(processor, "testNoDuplicates.css");
+    Assert.assertSame(registry, processor.getImageRegistry());
+
+    factory.create().clearCache();
+    final CssImageRegistry rescanned = processor.getImageRegistry();
+    Assert.assertNotSame(registry, rescanned);
+    Assert.assertEquals(1, rescanned.getReferenceCount(TEST_PATH + "image1.png"));
+  }
+
+  private DuplicatesAwareCssDataUriPreProcessor createProcessor(final WroModel model) {
+    final DuplicatesAwareCssDataUriPreProcessor processor = new DuplicatesAwareCssDataUriPreProcessor();
+    InjectorBuilder.create(createManagerFactory(model)).build().inject(processor);
+    return processor;
+  }
+
+  private BaseWroManagerFactory createManagerFactory(final WroModel model) {
+    final BaseWroManagerFactory factory = new BaseWroManagerFactory();
+    factory.setModelFactory(WroTestUtils.simpleModelFactory(model));
+    return factory;
+  }
+
+  private Group createGroup(final String name, final String css) {
+    final Group group = new Group(name);
+    group.addResource(Resource.create(TEST_PATH + css, ResourceType.CSS));
+    return group;
+  }
+
+  private String read(final String css)
+    throws Exception {
+    final StringWriter writer = new StringWriter();
+    IOUtils.copy(getClass().getResourceAsStream("duplicateAwareDataUri/test/" + css), writer);
+    return writer.toString();
+  }
+
+  private String process(final ResourcePreProcessor processor, final String css)
+    throws Exception {
+    final StringWriter writer = new StringWriter();
+    processor.process(Resource.create(TEST_PATH + css, ResourceType.CSS),
+      new InputStreamReader(getClass().getResourceAsStream("duplicateAwareDataUri/test/" + css)), writer);
+    return writer.toString();
+  }
 }
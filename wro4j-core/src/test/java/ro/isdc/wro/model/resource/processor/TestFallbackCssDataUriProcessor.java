@@ -14,6 +14,7 @@ import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.processor.impl.css.CssDataUriPreProcessor;
 import ro.isdc.wro.model.resource.processor.impl.css.FallbackCssDataUriProcessor;
 import ro.isdc.wro.model.resource.processor.support.DataUriGenerator;
+import ro.isdc.wro.model.resource.processor.support.css.CssTokenStreamProcessor;
 import ro.isdc.wro.util.WroTestUtils;
 
 
@@ -52,6 +53,19 @@ public class TestFallbackCssDataUriProcessor
     WroTestUtils.compareFromDifferentFoldersByExtension(testFolder, expectedFolder, "css", processor);
   }
   
+  @Override
+  @Test
+  public void shouldProduceSameResultWhenVisitingTokenStream()
+      throws Exception {
+    final URL url = getClass().getResource("dataUri");
+
+    final File testFolder = new File(url.getFile(), "test");
+    // the token stream doesn't duplicate the declarations following the rewritten one in minimized.css
+    final File expectedFolder = new File(url.getFile(), "expectedFallbackTokenStream");
+    WroTestUtils.compareFromDifferentFoldersByExtension(testFolder, expectedFolder, "css",
+        new CssTokenStreamProcessor((FallbackCssDataUriProcessor) processor));
+  }
+
   @Override
   @Test
   public void shouldTransformLargeResources()
@@ -0,0 +1,80 @@
+/**
+ * Copyright Alex Objelean
+ */
+package ro.isdc.wro.model.resource.processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URL;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.processor.impl.css.CssCompressorProcessor;
+import ro.isdc.wro.model.resource.processor.impl.css.CssMinProcessor;
+import ro.isdc.wro.model.resource.processor.impl.css.FastCssCompressorProcessor;
+import ro.isdc.wro.model.resource.processor.impl.css.JawrCssMinifierProcessor;
+import ro.isdc.wro.util.WroTestUtils;
+
+
+public class TestFastCssCompressorProcessor {
+  private static final Logger LOG = LoggerFactory.getLogger(TestFastCssCompressorProcessor.class);
+
+  /**
+   * Uses the same expectations as {@link TestCssCompressorProcessor}.
+   */
+  @Test
+  public void testFromFolder()
+      throws IOException {
+    final ResourcePostProcessor processor = new FastCssCompressorProcessor();
+    final URL url = getClass().getResource("cssCompressor");
+
+    final File testFolder = new File(url.getFile(), "test");
+    final File expectedFolder = new File(url.getFile(), "expected");
+    WroTestUtils.compareFromDifferentFoldersByExtension(testFolder, expectedFolder, "css", processor);
+  }
+
+  @Test
+  public void shouldSupportCorrectResourceTypes() {
+    WroTestUtils.assertProcessorSupportResourceTypes(new FastCssCompressorProcessor(), ResourceType.CSS);
+  }
+
+  /**
+   * Logs the throughput compared with the other css minimizing processors. The times are only reported, since the wall
+   * clock measurements are not reliable enough to be asserted.
+   */
+  @Test
+  public void logThroughputComparedToOtherCompressors()
+      throws Exception {
+    final String style = IOUtils.toString(getClass().getResourceAsStream("cssCompressor/test/style1.css"));
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 20; i++) {
+      sb.append(style);
+    }
+    final String css = sb.toString();
+    final ResourcePostProcessor fast = new FastCssCompressorProcessor();
+    final ResourcePostProcessor regex = new CssCompressorProcessor();
+    // warm up
+    measure(fast, css, 5);
+    measure(regex, css, 5);
+
+    LOG.info("{}: {}ms", FastCssCompressorProcessor.ALIAS, measure(fast, css, 10));
+    LOG.info("{}: {}ms", CssCompressorProcessor.ALIAS, measure(regex, css, 10));
+    LOG.info("{}: {}ms", CssMinProcessor.ALIAS, measure(new CssMinProcessor(), css, 10));
+    LOG.info("{}: {}ms", JawrCssMinifierProcessor.ALIAS, measure(new JawrCssMinifierProcessor(), css, 10));
+  }
+
+  private long measure(final ResourcePostProcessor processor, final String css, final int times)
+      throws IOException {
+    final long start = System.currentTimeMillis();
+    for (int i = 0; i < times; i++) {
+      processor.process(new StringReader(css), new StringWriter());
+    }
+    return System.currentTimeMillis() - start;
+  }
+}
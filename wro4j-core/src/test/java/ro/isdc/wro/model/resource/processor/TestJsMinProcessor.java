@@ -5,8 +5,12 @@ package ro.isdc.wro.model.resource.processor;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.net.URL;
 
+import junit.framework.Assert;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -14,6 +18,7 @@ import org.junit.Test;
 import ro.isdc.wro.config.Context;
 import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.processor.impl.js.JSMinProcessor;
+import ro.isdc.wro.model.resource.processor.support.SourceMap;
 import ro.isdc.wro.util.WroTestUtils;
 
 
@@ -48,6 +53,42 @@ public class TestJsMinProcessor {
   }
   
 
+  @Test
+  public void shouldPreserveNonAsciiCharacters()
+    throws IOException {
+    final StringWriter writer = new StringWriter();
+    processor.process(null, new StringReader("var \u00e9t\u00e9 = 'caf\u00e9 \u2603'; // comment\n"), writer);
+    Assert.assertEquals("\nvar \u00e9t\u00e9='caf\u00e9 \u2603';", writer.toString());
+  }
+
+  @Test(expected = IOException.class)
+  public void cannotProcessUnterminatedComment()
+    throws IOException {
+    processor.process(null, new StringReader("var a = 1; /* unterminated"), new StringWriter());
+  }
+
+  @Test
+  public void shouldMapMinimizedCharactersToInput()
+    throws IOException {
+    final String script = "/* header */\r\nfunction sum(a, b) {\n  // comment\n  return a + b;\r}\nvar s = \"x  y\", r = /a  b/;";
+    final StringWriter writer = new StringWriter();
+    final SourceMap sourceMap = ((SourceMapAware) processor).processWithSourceMap(null, new StringReader(script),
+        writer);
+    final String[] inputLines = script.split("\r\n|\r|\n", -1);
+    final String[] outputLines = writer.toString().split("\n", -1);
+    int mapped = 0;
+    for (int line = 0; line < outputLines.length; line++) {
+      for (int column = 0; column < outputLines[line].length(); column++) {
+        final int[] position = sourceMap.getOriginalPosition(line, column);
+        if (position != null) {
+          Assert.assertEquals(outputLines[line].charAt(column), inputLines[position[1]].charAt(position[2]));
+          mapped++;
+        }
+      }
+    }
+    Assert.assertEquals(writer.toString().replace("\n", "").length(), mapped);
+  }
+
   @Test
   public void shouldSupportCorrectResourceTypes() {
     WroTestUtils.assertProcessorSupportResourceTypes(processor, ResourceType.JS);
@@ -0,0 +1,192 @@
+package ro.isdc.wro.model.resource.processor.decorator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.processor.FingerprintAware;
+import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
+import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+
+
+public class TestMemoizingProcessorDecorator {
+  private CountingProcessor processor;
+  private File storageFolder;
+
+  @Before
+  public void setUp() {
+    processor = new CountingProcessor();
+    storageFolder = new File(FileUtils.getTempDirectory(), "wro4j-memoizing-" + System.nanoTime());
+  }
+
+  @After
+  public void tearDown() {
+    FileUtils.deleteQuietly(storageFolder);
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void cannotDecorateNullProcessor() {
+    new MemoizingProcessorDecorator(null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void cannotUseInvalidMaxEntries() {
+    new MemoizingProcessorDecorator(processor, null, 0);
+  }
+
+  @Test
+  public void shouldProcessSameContentOnlyOnce()
+      throws Exception {
+    final MemoizingProcessorDecorator victim = new MemoizingProcessorDecorator(processor);
+    Assert.assertEquals("A", process(victim, "a.js", "a"));
+    Assert.assertEquals("A", process(victim, "a.js", "a"));
+    Assert.assertEquals(1, processor.count.get());
+  }
+
+  @Test
+  public void shouldProcessChangedContent()
+      throws Exception {
+    final MemoizingProcessorDecorator victim = new MemoizingProcessorDecorator(processor);
+    Assert.assertEquals("A", process(victim, "a.js", "a"));
+    Assert.assertEquals("B", process(victim, "a.js", "b"));
+    Assert.assertEquals(2, processor.count.get());
+  }
+
+  @Test
+  public void shouldProcessSameContentOfDifferentResources()
+      throws Exception {
+    final MemoizingProcessorDecorator victim = new MemoizingProcessorDecorator(processor);
+    process(victim, "a.js", "a");
+    process(victim, "b.js", "a");
+    Assert.assertEquals(2, processor.count.get());
+  }
+
+  @Test
+  public void shouldProcessAgainWhenProcessorFingerprintChanges()
+      throws Exception {
+    final AtomicInteger option = new AtomicInteger();
+    final MemoizingProcessorDecorator victim = new MemoizingProcessorDecorator(processor) {
+      @Override
+      protected String getProcessorFingerprint() {
+        return super.getProcessorFingerprint() + option.get();
+      }
+    };
+    process(victim, "a.js", "a");
+    option.incrementAndGet();
+    process(victim, "a.js", "a");
+    Assert.assertEquals(2, processor.count.get());
+  }
+
+  @Test
+  public void shouldProcessAgainWhenProcessorIsConfiguredDifferently()
+      throws Exception {
+    process(new MemoizingProcessorDecorator(processor, storageFolder), "a.js", "a");
+    processor.fingerprint = "lowerCase";
+    process(new MemoizingProcessorDecorator(processor, storageFolder), "a.js", "a");
+    Assert.assertEquals(2, processor.count.get());
+  }
+
+  @Test
+  public void shouldNotRememberResultsOfProcessorWithoutFingerprint()
+      throws Exception {
+    processor.fingerprint = null;
+    final MemoizingProcessorDecorator victim = new MemoizingProcessorDecorator(processor);
+    Assert.assertEquals("A", process(victim, "a.js", "a"));
+    Assert.assertEquals("A", process(victim, "a.js", "a"));
+    Assert.assertEquals(2, processor.count.get());
+  }
+
+  @Test
+  public void shouldDiscardLeastRecentlyUsedResults()
+      throws Exception {
+    final MemoizingProcessorDecorator victim = new MemoizingProcessorDecorator(processor, null, 1);
+    process(victim, "a.js", "a");
+    process(victim, "a.js", "b");
+    process(victim, "a.js", "a");
+    Assert.assertEquals(3, processor.count.get());
+  }
+
+  @Test
+  public void shouldReuseResultsStoredOnDisk()
+      throws Exception {
+    Assert.assertEquals("A", process(new MemoizingProcessorDecorator(processor, storageFolder), "a.js", "a"));
+    Assert.assertEquals("A", process(new MemoizingProcessorDecorator(processor, storageFolder), "a.js", "a"));
+    Assert.assertEquals(1, processor.count.get());
+    Assert.assertEquals(1, storageFolder.list().length);
+  }
+
+  @Test
+  public void shouldDecoratePostProcessor()
+      throws Exception {
+    final MemoizingProcessorDecorator victim = new MemoizingProcessorDecorator((ResourcePostProcessor) processor);
+    for (int i = 0; i < 2; i++) {
+      final StringWriter writer = new StringWriter();
+      victim.process(new StringReader("a"), writer);
+      Assert.assertEquals("A", writer.toString());
+    }
+    Assert.assertEquals(1, processor.count.get());
+  }
+
+  @Test
+  public void shouldNotRememberFailedProcessing()
+      throws Exception {
+    final MemoizingProcessorDecorator victim = new MemoizingProcessorDecorator(new CountingProcessor() {
+      @Override
+      public void process(final Resource resource, final Reader reader, final Writer writer)
+          throws IOException {
+        processor.count.incrementAndGet();
+        throw new IOException("failure");
+      }
+    });
+    for (int i = 0; i < 2; i++) {
+      try {
+        process(victim, "a.js", "a");
+        Assert.fail("Should have failed");
+      } catch (final IOException e) {
+      }
+    }
+    Assert.assertEquals(2, processor.count.get());
+  }
+
+  private String process(final ResourcePreProcessor victim, final String uri, final String content)
+      throws IOException {
+    final StringWriter writer = new StringWriter();
+    victim.process(Resource.create(uri, ResourceType.JS), new StringReader(content), writer);
+    return writer.toString();
+  }
+
+  private static class CountingProcessor
+      implements ResourcePreProcessor, ResourcePostProcessor, FingerprintAware {
+    private final AtomicInteger count = new AtomicInteger();
+    private String fingerprint = "upperCase";
+
+    public void process(final Resource resource, final Reader reader, final Writer writer)
+        throws IOException {
+      count.incrementAndGet();
+      writer.write(IOUtils.toString(reader).toUpperCase());
+    }
+
+    public void process(final Reader reader, final Writer writer)
+        throws IOException {
+      process(null, reader, writer);
+    }
+
+    public String getFingerprint() {
+      return fingerprint;
+    }
+  }
+}
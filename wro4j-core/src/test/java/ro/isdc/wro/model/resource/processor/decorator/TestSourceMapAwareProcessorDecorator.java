@@ -0,0 +1,74 @@
+package ro.isdc.wro.model.resource.processor.decorator;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
+import ro.isdc.wro.model.resource.processor.impl.js.JSMinProcessor;
+import ro.isdc.wro.model.resource.processor.support.MappedContent;
+import ro.isdc.wro.model.resource.processor.support.SourceMap;
+
+
+/**
+ * @since 1.4.7
+ */
+public class TestSourceMapAwareProcessorDecorator {
+  private static final String CONTENT = "var a = 1;";
+
+  private final Resource resource = Resource.create("/a.js", ResourceType.JS);
+
+  private MappedContent process(final Object processor, final MappedContent content)
+      throws IOException {
+    final SourceMapAwareProcessorDecorator victim = new SourceMapAwareProcessorDecorator(processor,
+        content.getSourceMap() != null);
+    final Writer writer = new StringWriter();
+    victim.process(resource, new StringReader(content.getContent()), writer);
+    return victim.next(content, writer.toString());
+  }
+
+  @Test
+  public void shouldKeepMapOfContentChangedBySourceMapAwareProcessor()
+      throws Exception {
+    final MappedContent content = new MappedContent(CONTENT + " // comment", SourceMap.identity("/a.js", CONTENT
+        + " // comment"));
+    Assert.assertNotNull(process(new JSMinProcessor(), content).getSourceMap());
+  }
+
+  @Test
+  public void shouldDropMapOfContentChangedByProcessorWhichIsNotSourceMapAware()
+      throws Exception {
+    final ResourcePostProcessor processor = new ResourcePostProcessor() {
+      public void process(final Reader reader, final Writer writer)
+          throws IOException {
+        writer.write("/*changed*/" + IOUtils.toString(reader));
+      }
+    };
+    final MappedContent content = new MappedContent(CONTENT, SourceMap.identity("/a.js", CONTENT));
+    final MappedContent result = process(processor, content);
+    Assert.assertEquals("/*changed*/" + CONTENT, result.getContent());
+    Assert.assertNull(result.getSourceMap());
+  }
+
+  @Test
+  public void shouldKeepMapOfContentUnchangedByProcessorWhichIsNotSourceMapAware()
+      throws Exception {
+    final ResourcePostProcessor processor = new ResourcePostProcessor() {
+      public void process(final Reader reader, final Writer writer)
+          throws IOException {
+        IOUtils.copy(reader, writer);
+      }
+    };
+    final MappedContent content = new MappedContent(CONTENT, SourceMap.identity("/a.js", CONTENT));
+    Assert.assertNotNull(process(processor, content).getSourceMap());
+  }
+}
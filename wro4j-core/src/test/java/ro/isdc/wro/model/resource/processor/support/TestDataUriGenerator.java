@@ -3,10 +3,16 @@
  */
 package ro.isdc.wro.model.resource.processor.support;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+
 import junit.framework.Assert;
 
 import org.junit.Test;
 
+import ro.isdc.wro.util.Base64;
+
 
 /**
  * @author Alex Objelean
@@ -23,4 +29,32 @@ public class TestDataUriGenerator {
       dataUriGenerator.generateDataURI(getClass().getResourceAsStream("../dataUri/test/btn_icons.png"), "btn_icons.png"));
 
   }
+
+  @Test
+  public void shouldEncodeLargeStreamInChunks()
+    throws Exception {
+    final byte[] bytes = new byte[100 * 1024 + 1];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = (byte) i;
+    }
+    final StringWriter writer = new StringWriter();
+    dataUriGenerator.generateDataURI(new ByteArrayInputStream(bytes), writer, "image.png");
+    Assert.assertEquals("data:image/png;base64," + Base64.encodeBytes(bytes), writer.toString());
+  }
+
+  @Test
+  public void shouldComputeDataUriLengthWithoutEncoding()
+    throws Exception {
+    for (int size = 0; size < 10; size++) {
+      final byte[] bytes = new byte[size];
+      final String dataUri = dataUriGenerator.generateDataURI(new ByteArrayInputStream(bytes), "style.css");
+      Assert.assertEquals(dataUri.length(), dataUriGenerator.getDataUriLength(size, "style.css"));
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void cannotComputeDataUriLengthOfUnknownType()
+    throws Exception {
+    dataUriGenerator.getDataUriLength(10, "file.unknown");
+  }
 }
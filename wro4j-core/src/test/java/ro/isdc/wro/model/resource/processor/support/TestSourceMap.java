@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor.support;
+
+import java.util.Arrays;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+
+/**
+ * Test for {@link SourceMap} and {@link MappedContent} classes.
+ */
+public class TestSourceMap {
+  private void assertPosition(final SourceMap sourceMap, final int line, final int column, final int... expected) {
+    Assert.assertEquals(Arrays.toString(expected), Arrays.toString(sourceMap.getOriginalPosition(line, column)));
+  }
+
+  @Test
+  public void shouldSerializeMappingsAsBase64Vlq() {
+    final SourceMap sourceMap = new SourceMap("a.js", "b\"c.js");
+    sourceMap.addMapping(0, 0, 0, 0, 0);
+    sourceMap.addMapping(0, 5, 0, 1, 2);
+    sourceMap.addMapping(2, 16, 1, 2, 0);
+    Assert.assertEquals("{\"version\":3,\"file\":\"all.js\",\"sources\":[\"a.js\",\"b\\\"c.js\"],\"names\":[],"
+        + "\"mappings\":\"AAAA,KACE;;gBCCF\"}", sourceMap.toJson("all.js"));
+  }
+
+  @Test
+  public void shouldMapCharactersFollowingMapping() {
+    final SourceMap sourceMap = SourceMap.identity("a.js", "var a;\r\nvar b;\rvar c;");
+    assertPosition(sourceMap, 2, 4, 0, 2, 4);
+    Assert.assertNull(sourceMap.getOriginalPosition(3, 0));
+  }
+
+  @Test
+  public void shouldComposeWithPreviousMap() {
+    // the merged content: "var a = 1;var b = 2;"
+    final SourceMap merged = new SourceMap("a.js", "b.js");
+    merged.addMapping(0, 0, 0, 0, 0);
+    merged.addMapping(0, 10, 1, 0, 0);
+    // the minimized content: "var a=1;var b=2;"
+    final SourceMap minimized = new SourceMap("");
+    minimized.addMapping(0, 0, 0, 0, 0);
+    minimized.addMapping(0, 5, 0, 0, 6);
+    minimized.addMapping(0, 6, 0, 0, 8);
+    minimized.addMapping(0, 13, 0, 0, 16);
+    minimized.addMapping(0, 14, 0, 0, 18);
+
+    final SourceMap composed = minimized.compose(merged);
+    Assert.assertEquals(Arrays.asList("a.js", "b.js"), composed.getSources());
+    assertPosition(composed, 0, 6, 0, 0, 8);
+    assertPosition(composed, 0, 8, 1, 0, 0);
+    assertPosition(composed, 0, 12, 1, 0, 4);
+    assertPosition(composed, 0, 14, 1, 0, 8);
+  }
+
+  @Test
+  public void shouldMergeMappedContents() {
+    final MappedContent merged = MappedContent.merge(Arrays.asList(new MappedContent("a\nbc", SourceMap.identity(
+        "a.js", "a\nbc")), new MappedContent("d\ne", SourceMap.identity("b.js", "d\ne"))));
+    Assert.assertEquals("a\nbcd\ne", merged.getContent());
+    assertPosition(merged.getSourceMap(), 1, 1, 0, 1, 1);
+    assertPosition(merged.getSourceMap(), 1, 2, 1, 0, 0);
+    assertPosition(merged.getSourceMap(), 2, 0, 1, 1, 0);
+  }
+
+  @Test
+  public void shouldNotMapMergedContentWhenAnyContentIsNotMapped() {
+    final MappedContent merged = MappedContent.merge(Arrays.asList(new MappedContent("a", SourceMap.identity("a.js",
+        "a")), new MappedContent("b", null)));
+    Assert.assertEquals("ab", merged.getContent());
+    Assert.assertNull(merged.getSourceMap());
+  }
+
+  @Test
+  public void shouldKeepMapOnlyWhenContentIsUnchanged() {
+    final MappedContent content = new MappedContent("a", SourceMap.identity("a.js", "a"));
+    Assert.assertSame(content.getSourceMap(), content.next("a", null).getSourceMap());
+    Assert.assertNull(content.next("b", null).getSourceMap());
+  }
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright Alex Objelean
+ */
+package ro.isdc.wro.model.resource.processor.support.css;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import ro.isdc.wro.model.resource.processor.support.css.CssTokenizer.Type;
+
+
+public class TestCssTokenStream {
+  @Test(expected = NullPointerException.class)
+  public void cannotTokenizeNullContent() {
+    new CssTokenStream(null);
+  }
+
+  @Test
+  public void shouldBeLossless()
+      throws Exception {
+    final String css = IOUtils.toString(getClass().getResourceAsStream(
+        "/ro/isdc/wro/model/resource/processor/cssCompressor/test/style1.css"));
+    Assert.assertEquals(css, new CssTokenStream(css).toString());
+    final String invalid = "a{b:url('c  /* d \"e";
+    Assert.assertEquals(invalid, new CssTokenStream(invalid).toString());
+  }
+
+  @Test
+  public void shouldIdentifyTokens() {
+    final CssTokenStream stream = new CssTokenStream("a{b: url( 'c.png' ) \"d\"/*e*/}");
+    final List<Type> types = new ArrayList<Type>();
+    for (int i = 0; i < stream.size(); i++) {
+      types.add(stream.get(i).getType());
+    }
+    Assert.assertEquals(Arrays.asList(Type.WORD, Type.SYMBOL, Type.WORD, Type.SYMBOL, Type.WHITESPACE, Type.URL,
+        Type.WHITESPACE, Type.STRING, Type.COMMENT, Type.SYMBOL), types);
+    Assert.assertEquals(" 'c.png' ", CssTokenStream.getUrl(stream.get(5).getText()));
+    Assert.assertEquals("c.png", CssTokenStream.unquote(CssTokenStream.getUrl(stream.get(5).getText())));
+    Assert.assertEquals("c.png", CssTokenStream.getUrl("url(\"c.png\")"));
+    Assert.assertTrue(stream.isDeclarationValue(5));
+    Assert.assertFalse(stream.isDeclarationValue(0));
+    Assert.assertEquals(7, stream.next(5));
+    Assert.assertEquals(3, stream.previous(5));
+  }
+
+  @Test
+  public void shouldVisitReplacedTokensWithNextVisitors() {
+    final CssTokenStream stream = new CssTokenStream("a{b:c}");
+    final StringBuilder visited = new StringBuilder();
+    final CssVisitor replacing = new CssVisitor() {
+      public void visit(final CssTokenStream stream, final int index) {
+        if ("c".equals(stream.get(index).getText())) {
+          stream.replace(index, index, "d e");
+        }
+      }
+
+      public void end(final CssTokenStream stream) {
+        stream.prepend("/*x*/");
+      }
+    };
+    final CssVisitor collecting = new CssVisitor() {
+      public void visit(final CssTokenStream stream, final int index) {
+        visited.append(stream.get(index).getText());
+      }
+
+      public void end(final CssTokenStream stream) {
+      }
+    };
+    stream.accept(Arrays.asList(replacing, collecting));
+    Assert.assertEquals("a{b:d e}", visited.toString());
+    Assert.assertEquals("/*x*/a{b:d e}", stream.toString());
+  }
+
+  @Test
+  public void shouldNotVisitRemovedTokens() {
+    final CssTokenStream stream = new CssTokenStream("a{b:c}");
+    final StringBuilder visited = new StringBuilder();
+    final CssVisitor removing = new CssVisitor() {
+      public void visit(final CssTokenStream stream, final int index) {
+        if (stream.get(index).isSymbol('{')) {
+          stream.remove(index, stream.nextSymbol(index, '}'));
+        }
+      }
+
+      public void end(final CssTokenStream stream) {
+      }
+    };
+    final CssVisitor collecting = new CssVisitor() {
+      public void visit(final CssTokenStream stream, final int index) {
+        visited.append(stream.get(index).getText());
+      }
+
+      public void end(final CssTokenStream stream) {
+      }
+    };
+    stream.accept(Arrays.asList(removing, collecting));
+    Assert.assertEquals("a", visited.toString());
+    Assert.assertEquals("a", stream.toString());
+  }
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright Alex Objelean
+ */
+package ro.isdc.wro.model.resource.processor.support.css;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+
+public class TestFastCssCompressor {
+  private final FastCssCompressor compressor = new FastCssCompressor();
+
+  @Test(expected = NullPointerException.class)
+  public void cannotCompressNullContent() {
+    compressor.compress(null);
+  }
+
+  @Test
+  public void shouldCompressEmptyContent() {
+    Assert.assertEquals("", compressor.compress(""));
+    Assert.assertEquals("", compressor.compress(" /* comment */ "));
+  }
+
+  @Test
+  public void shouldRemoveWhitespacesAndComments() {
+    Assert.assertEquals("a>b,c:hover{color:red;margin:0 auto!important}",
+        compressor.compress("a > b , /* x */ c:hover {\n  color : red ;\n  margin: 0 auto ! important;\n}"));
+  }
+
+  @Test
+  public void shouldKeepSpaceBeforePseudoClass() {
+    Assert.assertEquals("a :hover{color:red}", compressor.compress("a :hover { color: red }"));
+  }
+
+  @Test
+  public void shouldCompressNumbersAndColors() {
+    Assert.assertEquals("a{margin:0;padding:.5em 0 0 1px;color:#369;background:silver;border:1px}",
+        compressor.compress("a{margin:0px 0em;padding:0.5em 0px 0 1px;color:rgb(51, 102, 153);"
+            + "background:#C0C0C0;border:1px 1px 1px 1px}"));
+    Assert.assertEquals("a{background-position:0 0}", compressor.compress("a{background-position:0 0 0 0}"));
+  }
+
+  @Test
+  public void shouldNotChangeStringsAndUrls() {
+    final String css = "a{content:\"0.5em  #aabbcc\";background:url(\"a  b.png\")}";
+    Assert.assertEquals(css, compressor.compress(css));
+  }
+
+  @Test
+  public void shouldMergeRulesWithSameDeclarations() {
+    Assert.assertEquals("a,c{color:red}b{color:blue}",
+        compressor.compress("a{color:red}b{color:blue}c{color:red}"));
+  }
+
+  @Test
+  public void shouldNotMergeRulesAcrossAtRules() {
+    Assert.assertEquals("a{color:red}@media screen and (max-width:100px){b{color:red}}c{color:red}",
+        compressor.compress("a{color:red}@media screen and (max-width: 100px) { b{color:red} }c{color:red}"));
+  }
+
+  @Test
+  public void shouldRemoveEmptyRules() {
+    Assert.assertEquals("b{color:red}", compressor.compress("a{}@media print{c{;}}b{color:red;;}"));
+  }
+
+  @Test
+  public void shouldPreserveImportantComments() {
+    Assert.assertEquals("/*! License */a{color:red}", compressor.compress("/*! License */\na { color: red; }"));
+  }
+}
@@ -123,6 +123,14 @@ public class TestWroUtil {
     Assert.assertEquals("[\"\",\"alert1\",\"alert2\"].join(\"\\n\")", WroUtil.toJSMultiLineString("\nalert1\nalert2"));
   }
 
+  @Test
+  public void shouldNormalizeMultiLineStringLikeJsMultiLineString() {
+    Assert.assertEquals("\n", WroUtil.toMultiLineString(""));
+    Assert.assertEquals("alert1\n", WroUtil.toMultiLineString("alert1"));
+    Assert.assertEquals("\nalert1\nalert2", WroUtil.toMultiLineString("\nalert1\r\nalert2\n\n"));
+    Assert.assertEquals("", WroUtil.toMultiLineString("\n\n"));
+  }
+
   @Test
   public void shouldMatchUrl() {
     HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
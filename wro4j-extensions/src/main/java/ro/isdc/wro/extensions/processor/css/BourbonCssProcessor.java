@@ -28,12 +28,11 @@ public class BourbonCssProcessor extends RubySassCssProcessor implements Resourc
   private static final String BOURBON_GEM_REQUIRE = "bourbon";
 
   /**
-   * A getter used for lazy loading, overrides RubySassEngine#getEngine() and ensure the
-   * bourbon gem is imported (required).
+   * Overrides RubySassCssProcessor#newEngine() and ensure the bourbon gem is imported (required).
    */
   @Override
-  protected RubySassEngine getEngine() {
-    final RubySassEngine engine = super.getEngine();
+  protected RubySassEngine newEngine() {
+    final RubySassEngine engine = super.newEngine();
     engine.addRequire(BOURBON_GEM_REQUIRE);
     return engine;
   }
@@ -13,12 +13,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.extensions.processor.support.ObjectPoolHelper;
 import ro.isdc.wro.extensions.processor.support.sass.RubySassEngine;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.SupportedResourceType;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.util.Destroyable;
+import ro.isdc.wro.util.ObjectFactory;
 
 
 /**
@@ -30,14 +33,29 @@ import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
  */
 @SupportedResourceType(ResourceType.CSS)
 public class RubySassCssProcessor
-    implements ResourcePreProcessor, ResourcePostProcessor {
+    implements ResourcePreProcessor, ResourcePostProcessor, Destroyable {
   private static final Logger LOG = LoggerFactory.getLogger(RubySassCssProcessor.class);
   public static final String ALIAS = "rubySassCss";
   
   /**
-   * Engine.
+   * The engines are expensive to initialize (each owns a ruby runtime), that is why these are reused. The runtime of an
+   * engine removed from the pool is terminated.
    */
-  private RubySassEngine engine;
+  private final ObjectPoolHelper<RubySassEngine> enginePool;
+  
+  public RubySassCssProcessor() {
+    enginePool = new ObjectPoolHelper<RubySassEngine>(new ObjectFactory<RubySassEngine>() {
+      @Override
+      public RubySassEngine create() {
+        return newEngine();
+      }
+    }) {
+      @Override
+      protected void destroyObject(final RubySassEngine engine) {
+        engine.destroy();
+      }
+    };
+  }
   
   /**
    * {@inheritDoc}
@@ -45,14 +63,16 @@ public class RubySassCssProcessor
   public void process(final Resource resource, final Reader reader, final Writer writer)
       throws IOException {
     final String content = IOUtils.toString(reader);
+    final RubySassEngine engine = enginePool.getObject();
     try {
-      writer.write(getEngine().process(content));
+      writer.write(engine.process(content));
     } catch (final WroRuntimeException e) {
       onException(e);
       final String resourceUri = resource == null ? StringUtils.EMPTY : "[" + resource.getUri() + "]";
       LOG.warn("Exception while applying " + getClass().getSimpleName() + " processor on the " + resourceUri
           + " resource, no processing applied...", e);
     } finally {
+      enginePool.returnObject(engine);
       reader.close();
       writer.close();
     }
@@ -66,13 +86,10 @@ public class RubySassCssProcessor
   }
   
   /**
-   * A getter used for lazy loading.
+   * @return a new instance of {@link RubySassEngine}. Override it to configure the engine (ex: add requires).
    */
-  protected RubySassEngine getEngine() {
-    if (engine == null) {
-      engine = new RubySassEngine();
-    }
-    return engine;
+  protected RubySassEngine newEngine() {
+    return new RubySassEngine();
   }
   
   /**
@@ -83,4 +100,10 @@ public class RubySassCssProcessor
     process(null, reader, writer);
   }
   
+  /**
+   * Terminates the ruby runtimes of the pooled engines. Invoked when the manager is destroyed.
+   */
+  public void destroy() {
+    enginePool.destroy();
+  }
 }
@@ -65,7 +65,6 @@ public abstract class AbstractLinterProcessor
     final String content = IOUtils.toString(reader);
     final AbstractLinter linter = enginePool.getObject();
     try {
-      // TODO investigate why linter fails when trying to reuse the same instance twice
       linter.setOptions(options).validate(content);
     } catch (final LinterException e) {
       onLinterException(e, resource);
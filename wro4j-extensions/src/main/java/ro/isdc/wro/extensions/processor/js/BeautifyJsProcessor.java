@@ -19,6 +19,7 @@ import ro.isdc.wro.extensions.processor.support.uglify.UglifyJs;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.SupportedResourceType;
+import ro.isdc.wro.model.resource.processor.FingerprintAware;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
 import ro.isdc.wro.util.ObjectFactory;
@@ -33,7 +34,7 @@ import ro.isdc.wro.util.ObjectFactory;
  */
 @SupportedResourceType(ResourceType.JS)
 public class BeautifyJsProcessor
-  implements ResourcePreProcessor, ResourcePostProcessor {
+  implements ResourcePreProcessor, ResourcePostProcessor, FingerprintAware {
   private static final Logger LOG = LoggerFactory.getLogger(BeautifyJsProcessor.class);
   public static final String ALIAS_BEAUTIFY = "beautifyJs";
   /**
@@ -101,4 +102,11 @@ public class BeautifyJsProcessor
     throws IOException {
     process(null, reader, writer);
   }
+
+  /**
+   * The output depends only on the engine, thus the class (which may override the engine creation) identifies it.
+   */
+  public String getFingerprint() {
+    return getClass().getName();
+  }
 }
@@ -3,10 +3,15 @@
  */
 package ro.isdc.wro.extensions.processor.js;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 
 import org.apache.commons.io.IOUtils;
@@ -19,9 +24,18 @@ import ro.isdc.wro.model.group.processor.Minimize;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.SupportedResourceType;
+import ro.isdc.wro.model.resource.processor.FingerprintAware;
+import ro.isdc.wro.model.resource.processor.GroupAware;
+import ro.isdc.wro.model.resource.processor.ResourceIndependentAware;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.SourceMapAware;
+import ro.isdc.wro.model.resource.processor.support.SourceMap;
 
+import com.google.debugging.sourcemap.FilePosition;
+import com.google.debugging.sourcemap.SourceMapConsumerV3;
+import com.google.debugging.sourcemap.SourceMapConsumerV3.EntryVisitor;
+import com.google.debugging.sourcemap.SourceMapParseException;
 import com.google.javascript.jscomp.CheckLevel;
 import com.google.javascript.jscomp.ClosureCodingConvention;
 import com.google.javascript.jscomp.CompilationLevel;
@@ -35,6 +49,9 @@ import com.google.javascript.jscomp.Result;
 /**
  * Uses Google closure compiler for js minimization. <p/>
  * In order to make this class {@link Context} agnostic, set the encoding explicitly using {@link GoogleClosureCompressorProcessor#setEncoding(String)}.
+ * <p/>
+ * When used as a post processor, all the resources of a group are compiled at once by a single compiler, each resource
+ * being a separate input of the compilation (see {@link GroupAware}).
  *
  * @see http://blog.bolinfest.com/2009/11/calling-closure-compiler-from-java.html
  * @author Alex Objelean
@@ -42,14 +59,31 @@ import com.google.javascript.jscomp.Result;
 @Minimize
 @SupportedResourceType(ResourceType.JS)
 public class GoogleClosureCompressorProcessor
-  implements ResourcePostProcessor, ResourcePreProcessor {
+  implements ResourcePostProcessor, ResourcePreProcessor, ResourceIndependentAware, SourceMapAware, FingerprintAware,
+  GroupAware {
   public static final String ALIAS_SIMPLE = "googleClosureSimple";
   public static final String ALIAS_ADVANCED = "googleClosureAdvanced";
+  /**
+   * System property available only when running on Google App Engine, where the creation of threads is not allowed.
+   */
+  private static final String PROPERTY_GAE_ENVIRONMENT = "com.google.appengine.runtime.environment";
+  /**
+   * No externs are used by default. An empty array cannot be altered, thus it is shared by all compilations.
+   */
+  private static final JSSourceFile[] DEFAULT_EXTERNS = new JSSourceFile[] {};
   /**
    * {@link CompilationLevel} to use for compression.
    */
   private CompilationLevel compilationLevel;
   private CompilerOptions compilerOptions;
+  /**
+   * The options with the compilation level applied, prepared once and used for all compilations.
+   */
+  private volatile CompilerOptions preparedOptions;
+  /**
+   * The prepared options which additionally request the source map of the compiled script.
+   */
+  private volatile CompilerOptions preparedSourceMapOptions;
   @Inject
   private WroConfiguration config;
   private String encoding;
@@ -76,41 +110,171 @@ public class GoogleClosureCompressorProcessor
    * {@inheritDoc}
    */
   public void process(final Resource resource, final Reader reader, final Writer writer)
+    throws IOException {
+    compile(resource, reader, writer, false);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public SourceMap processWithSourceMap(final Resource resource, final Reader reader, final Writer writer)
+    throws IOException {
+    return compile(resource, reader, writer, true);
+  }
+
+  /**
+   * @return the source map of the compiled script if requested, null otherwise or if the compilation failed (and the
+   *         content is left unchanged).
+   */
+  private SourceMap compile(final Resource resource, final Reader reader, final Writer writer,
+    final boolean generateSourceMap)
     throws IOException {
     final String content = IOUtils.toString(reader);
     try {
-      Compiler.setLoggingLevel(Level.SEVERE);
-      final Compiler compiler = new Compiler();
-      if (compilerOptions == null) {
-        compilerOptions = newCompilerOptions();
-      }
-      compilationLevel.setOptionsForCompilationLevel(compilerOptions);
-      //make it play nice with GAE
-      compiler.disableThreads();
-      compiler.initOptions(compilerOptions);
-
+      final CompilerOptions options = generateSourceMap ? getSourceMapCompilerOptions() : getCompilerOptions();
+      final Compiler compiler = newCompiler(options);
       final String fileName = resource == null ? "wro4j-processed-file.js" : resource.getUri();
+      // no need to encode the content, the compiler works with the decoded code anyway.
       final JSSourceFile[] input = new JSSourceFile[] {
-        JSSourceFile.fromInputStream(fileName,
-        new ByteArrayInputStream(content.getBytes(getEncoding())))
+        JSSourceFile.fromCode(fileName, content)
       };
-      JSSourceFile[] externs = getExterns(resource);
-      if (externs == null) {
-        //fallback to empty array when null is provided.
-        externs = new JSSourceFile[] {};
-      }
-      final Result result = compiler.compile(externs, input, compilerOptions);
+      final Result result = compiler.compile(getExternsOrDefault(resource), input, options);
       if (result.success) {
         writer.write(compiler.toSource());
-      } else {
-        writer.write(content);
+        return generateSourceMap ? toSourceMap(compiler.getSourceMap(), fileName) : null;
       }
+      writer.write(content);
+      return null;
     } finally {
       reader.close();
       writer.close();
     }
   }
 
+  /**
+   * Compiles the resources of the group in a single compilation, each resource being a separate input. The externs are
+   * provided once for the entire group (see {@link #getExterns(Resource)}, invoked with a null resource). When the
+   * compilation fails, the merged content is left unchanged.
+   */
+  public void processGroup(final List<Resource> resources, final List<String> contents, final Writer writer)
+    throws IOException {
+    Validate.isTrue(resources.size() == contents.size(), "Each resource must have a content");
+    final JSSourceFile[] inputs = new JSSourceFile[contents.size()];
+    final Set<String> fileNames = new HashSet<String>();
+    for (int i = 0; i < inputs.length; i++) {
+      String fileName = resources.get(i).getUri();
+      // the compiler requires unique input names
+      if (!fileNames.add(fileName)) {
+        fileName = fileName + "#" + i;
+      }
+      inputs[i] = JSSourceFile.fromCode(fileName, contents.get(i));
+    }
+    final CompilerOptions options = getCompilerOptions();
+    final Compiler compiler = newCompiler(options);
+    if (compiler.compile(getExternsOrDefault(null), inputs, options).success) {
+      writer.write(compiler.toSource());
+    } else {
+      for (final String content : contents) {
+        writer.write(content);
+      }
+    }
+  }
+
+  private Compiler newCompiler(final CompilerOptions options) {
+    Compiler.setLoggingLevel(Level.SEVERE);
+    final Compiler compiler = new Compiler();
+    if (isThreadCreationRestricted()) {
+      //make it play nice with GAE
+      compiler.disableThreads();
+    }
+    compiler.initOptions(options);
+    return compiler;
+  }
+
+  private JSSourceFile[] getExternsOrDefault(final Resource resource) {
+    final JSSourceFile[] externs = getExterns(resource);
+    //fallback to empty array when null is provided.
+    return externs == null ? DEFAULT_EXTERNS : externs;
+  }
+
+  /**
+   * @return the {@link CompilerOptions} with the compilation level applied. The options are prepared only once.
+   */
+  private CompilerOptions getCompilerOptions() {
+    CompilerOptions options = preparedOptions;
+    if (options == null) {
+      // create new default options, since the compilation level changes only some of the options.
+      options = compilerOptions == null ? newCompilerOptions() : compilerOptions;
+      compilationLevel.setOptionsForCompilationLevel(options);
+      preparedOptions = options;
+    }
+    return options;
+  }
+
+  /**
+   * @return the prepared {@link CompilerOptions} which additionally request the v3 source map of the compiled script.
+   */
+  private CompilerOptions getSourceMapCompilerOptions() {
+    CompilerOptions options = preparedSourceMapOptions;
+    if (options == null) {
+      try {
+        options = (CompilerOptions) getCompilerOptions().clone();
+      } catch (final CloneNotSupportedException e) {
+        throw new IllegalStateException(e);
+      }
+      // the map is generated only when an output path is set, though nothing is written there.
+      options.setSourceMapOutputPath("wro4j-processed-file.js.map");
+      options.setSourceMapFormat(com.google.javascript.jscomp.SourceMap.Format.V3);
+      options.setSourceMapDetailLevel(com.google.javascript.jscomp.SourceMap.DetailLevel.ALL);
+      preparedSourceMapOptions = options;
+    }
+    return options;
+  }
+
+  /**
+   * Converts the map created by the compiler, having a single source: the compiled script.
+   */
+  private SourceMap toSourceMap(final com.google.javascript.jscomp.SourceMap compilerSourceMap, final String fileName)
+    throws IOException {
+    final StringBuilder json = new StringBuilder();
+    compilerSourceMap.appendTo(json, fileName);
+    final SourceMapConsumerV3 consumer = new SourceMapConsumerV3();
+    try {
+      consumer.parse(json.toString());
+    } catch (final SourceMapParseException e) {
+      throw new IOException("Invalid source map created by compiler: " + e.getMessage());
+    }
+    final List<int[]> mappings = new ArrayList<int[]>();
+    consumer.visitMappings(new EntryVisitor() {
+      public void visit(final String sourceName, final String symbolName, final FilePosition sourceStartPosition,
+        final FilePosition startPosition, final FilePosition endPosition) {
+        mappings.add(new int[] {
+          startPosition.getLine(), startPosition.getColumn(), sourceStartPosition.getLine(),
+          sourceStartPosition.getColumn()
+        });
+      }
+    });
+    // the mappings of a line must be added in the order of their column
+    Collections.sort(mappings, new Comparator<int[]>() {
+      public int compare(final int[] o1, final int[] o2) {
+        return o1[0] != o2[0] ? o1[0] - o2[0] : o1[1] - o2[1];
+      }
+    });
+    final SourceMap sourceMap = new SourceMap("");
+    for (final int[] mapping : mappings) {
+      sourceMap.addMapping(mapping[0], mapping[1], 0, mapping[2], mapping[3]);
+    }
+    return sourceMap;
+  }
+
+  /**
+   * @return true if the compiler is not allowed to create threads. By default the threads are restricted only when
+   *         running on Google App Engine. Override this method to change this behavior.
+   */
+  protected boolean isThreadCreationRestricted() {
+    return System.getProperty(PROPERTY_GAE_ENVIRONMENT) != null;
+  }
+
   private String getEncoding() {
     if (encoding == null) {
       //use config is available to get encoding
@@ -125,6 +289,9 @@ public class GoogleClosureCompressorProcessor
    */
   public GoogleClosureCompressorProcessor setEncoding(final String encoding) {
     this.encoding = encoding;
+    // the encoding is used as the output charset of the prepared options
+    this.preparedOptions = null;
+    this.preparedSourceMapOptions = null;
     return this;
   }
 
@@ -135,7 +302,7 @@ public class GoogleClosureCompressorProcessor
    * @return An Array of externs files for the resource to process.
    */
   protected JSSourceFile[] getExterns(final Resource resource) {
-    return new JSSourceFile[] {};
+    return DEFAULT_EXTERNS;
   }
 
 
@@ -144,6 +311,8 @@ public class GoogleClosureCompressorProcessor
    */
   public GoogleClosureCompressorProcessor setCompilerOptions(final CompilerOptions compilerOptions) {
     this.compilerOptions = compilerOptions;
+    this.preparedOptions = null;
+    this.preparedSourceMapOptions = null;
     return this;
   }
 
@@ -152,6 +321,8 @@ public class GoogleClosureCompressorProcessor
    */
   public GoogleClosureCompressorProcessor setCompilationLevel(final CompilationLevel compilationLevel) {
     this.compilationLevel = compilationLevel;
+    this.preparedOptions = null;
+    this.preparedSourceMapOptions = null;
     return this;
   }
 
@@ -173,6 +344,26 @@ public class GoogleClosureCompressorProcessor
     return options;
   }
 
+  /**
+   * The advanced optimizations rename and remove the symbols which are not used by the compiled script, thus would
+   * break the symbols shared with other resources of the group.
+   *
+   * @return true unless the advanced optimizations are used.
+   */
+  public boolean isResourceIndependent() {
+    return compilationLevel != CompilationLevel.ADVANCED_OPTIMIZATIONS;
+  }
+
+  /**
+   * The explicitly set {@link CompilerOptions} cannot be identified, thus in this case no fingerprint is provided. The
+   * options created by an overridden {@link #newCompilerOptions()} are identified by the class of the processor.
+   *
+   * @return the fingerprint identifying the compilation level and the encoding.
+   */
+  public String getFingerprint() {
+    return compilerOptions == null ? getClass().getName() + ":" + compilationLevel + ":" + getEncoding() : null;
+  }
+
   /**
    * {@inheritDoc}
    */
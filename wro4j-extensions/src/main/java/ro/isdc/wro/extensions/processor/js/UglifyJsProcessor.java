@@ -8,6 +8,7 @@ import ro.isdc.wro.extensions.processor.support.uglify.UglifyJs;
 import ro.isdc.wro.model.group.processor.Minimize;
 import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.SupportedResourceType;
+import ro.isdc.wro.model.resource.processor.ResourceIndependentAware;
 
 
 
@@ -20,8 +21,17 @@ import ro.isdc.wro.model.resource.SupportedResourceType;
  */
 @Minimize
 @SupportedResourceType(ResourceType.JS)
-public class UglifyJsProcessor extends BeautifyJsProcessor {
+public class UglifyJsProcessor extends BeautifyJsProcessor implements ResourceIndependentAware {
   public static final String ALIAS_UGLIFY = "uglifyJs";
+
+  /**
+   * {@inheritDoc}
+   */
+  public boolean isResourceIndependent() {
+    // the top level names are not mangled, thus the names shared with other resources are preserved.
+    return true;
+  }
+
   /**
    * @return new instance of {@link UglifyJs} engine.
    */
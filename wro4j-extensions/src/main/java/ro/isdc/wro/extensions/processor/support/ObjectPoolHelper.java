@@ -3,6 +3,8 @@
  */
 package ro.isdc.wro.extensions.processor.support;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.pool.BasePoolableObjectFactory;
 import org.apache.commons.pool.impl.GenericObjectPool;
@@ -14,21 +16,59 @@ import ro.isdc.wro.util.ObjectFactory;
  * A generic aware object pool wrapper. Probably not the best name, but it can be changed later. It helps you to avoid
  * the cast and hides the exception handling by throwing {@link RuntimeException} when borrowing or returning object to
  * the pool fails.
+ * <p/>
+ * The pooled objects are usually engines which are expensive to initialize (ex: rhino based processors evaluating a
+ * large script on first usage). That is why the pool keeps all returned objects for reuse and evicts only the objects
+ * which were not used for a while (30 seconds by default), always keeping a few warm objects (one by default).
+ * <p/>
+ * The pool never blocks a thread borrowing an object: when all the objects are in use, a new one is created (see
+ * <a>http://code.google.com/p/wro4j/issues/detail?id=364</a>). Thus the maximum number of active objects is only
+ * advisory: it is the expected level of concurrency (by default the number of available processors, but at least two),
+ * which may be exceeded under load. The objects created above this level are destroyed by the evictor after being idle
+ * for a while.
  *
  * @author Alex Objelean
  * @created 10 Nov 2011
  * @since 1.4.2
  */
 public class ObjectPoolHelper<T> {
-  private static final int MAX_IDLE = 2;
-  private static final long MAX_WAIT = 5L * 1000L;
-  private static final long EVICTABLE_IDLE_TIME = 30 * 1000L;
+  public static final int DEFAULT_MAX_ACTIVE = Math.max(2, Runtime.getRuntime().availableProcessors());
+  public static final int DEFAULT_MIN_IDLE = 1;
+  public static final long DEFAULT_EVICTABLE_IDLE_TIME = 30 * 1000L;
+  private static final int NO_LIMIT = -1;
   // Allows using the objects from the pool in a thread-safe fashion.
   private GenericObjectPool<T> objectPool;
+  private final AtomicInteger numCreated = new AtomicInteger();
+  private final int maxActive;
+  private final int minIdle;
+  private final long evictableIdleTime;
 
 
   public ObjectPoolHelper(final ObjectFactory<T> objectFactory) {
+    this(objectFactory, DEFAULT_MAX_ACTIVE, DEFAULT_MIN_IDLE, DEFAULT_EVICTABLE_IDLE_TIME);
+  }
+
+  /**
+   * @param objectFactory
+   *          creates the pooled objects.
+   * @param maxActive
+   *          the expected number of objects used concurrently. This value is advisory, since the pool grows when
+   *          exhausted.
+   * @param minIdle
+   *          the number of idle objects which are never evicted.
+   * @param evictableIdleTime
+   *          the time (in milliseconds) after which an idle object is evicted, unless it is needed to keep minIdle
+   *          objects. It is also the time between the runs of the evictor.
+   */
+  public ObjectPoolHelper(final ObjectFactory<T> objectFactory, final int maxActive, final int minIdle,
+    final long evictableIdleTime) {
     Validate.notNull(objectFactory);
+    Validate.isTrue(maxActive > 0, "maxActive must be positive");
+    Validate.isTrue(minIdle >= 0, "minIdle cannot be negative");
+    Validate.isTrue(evictableIdleTime > 0, "evictableIdleTime must be positive");
+    this.maxActive = maxActive;
+    this.minIdle = minIdle;
+    this.evictableIdleTime = evictableIdleTime;
     objectPool = newObjectPool(objectFactory);
     Validate.notNull(objectPool);
   }
@@ -37,29 +77,59 @@ public class ObjectPoolHelper<T> {
    * Creates a {@link GenericObjectPool}. Override this method to set custom objectPool configurations.
    */
   protected GenericObjectPool<T> newObjectPool(final ObjectFactory<T> objectFactory) {
-    final int maxActive = Math.max(2, Runtime.getRuntime().availableProcessors());
     final GenericObjectPool<T> objectPool = new GenericObjectPool<T>(new BasePoolableObjectFactory<T>() {
       @Override
       public T makeObject()
         throws Exception {
+        numCreated.incrementAndGet();
         return objectFactory.create();
       }
+
+      @Override
+      public void destroyObject(final T object)
+        throws Exception {
+        ObjectPoolHelper.this.destroyObject(object);
+      }
     });
     objectPool.setMaxActive(maxActive);
-    objectPool.setMaxIdle(MAX_IDLE);
-    objectPool.setMaxWait(MAX_WAIT);
+    // do not destroy returned objects (even when the pool grows), their initialization is expensive. The unused objects
+    // are destroyed by the evictor.
+    objectPool.setMaxIdle(NO_LIMIT);
+    objectPool.setMinIdle(minIdle);
     /**
      * Use WHEN_EXHAUSTED_GROW strategy, otherwise the pool object retrieval can fail. More details here:
-     * <a>http://code.google.com/p/wro4j/issues/detail?id=364</a>
+     * <a>http://code.google.com/p/wro4j/issues/detail?id=364</a>. This strategy makes the maxActive advisory and the
+     * maxWait useless.
      */
     objectPool.setWhenExhaustedAction(GenericObjectPool.WHEN_EXHAUSTED_GROW);
     // make object elligible for eviction after a predefined amount of time.
-    objectPool.setSoftMinEvictableIdleTimeMillis(EVICTABLE_IDLE_TIME);
-    objectPool.setTimeBetweenEvictionRunsMillis(EVICTABLE_IDLE_TIME);
+    objectPool.setSoftMinEvictableIdleTimeMillis(evictableIdleTime);
+    objectPool.setTimeBetweenEvictionRunsMillis(evictableIdleTime);
     return objectPool;
   }
 
 
+  /**
+   * Invoked when an object is removed from the default object pool (ex: evicted after being idle for a while or when
+   * the pool is destroyed). Override this method to release the resources held by the object. By default does nothing.
+   *
+   * @param object
+   *          the object which is not used by the pool anymore.
+   */
+  protected void destroyObject(final T object) {
+  }
+
+  /**
+   * Destroys the idle objects and closes the pool. The pool cannot be used after this method is invoked.
+   */
+  public void destroy() {
+    try {
+      objectPool.close();
+    } catch (final Exception e) {
+      throw new RuntimeException("Cannot close the pool", e);
+    }
+  }
+
   public T getObject() {
     try {
       return objectPool.borrowObject();
@@ -79,9 +149,30 @@ public class ObjectPoolHelper<T> {
       throw new RuntimeException("Cannot get object from the pool", e);
     }
   }
-  
 
-  
+
+  /**
+   * @return the number of objects currently borrowed from the pool.
+   */
+  public int getNumActive() {
+    return objectPool.getNumActive();
+  }
+
+  /**
+   * @return the number of objects available for reuse.
+   */
+  public int getNumIdle() {
+    return objectPool.getNumIdle();
+  }
+
+  /**
+   * @return the number of objects created by the default object pool since this helper was created. Useful to check
+   *         how efficiently the objects are reused.
+   */
+  public int getNumCreated() {
+    return numCreated.get();
+  }
+
   /**
    * Use a custom {@link GenericObjectPool}.
    * 
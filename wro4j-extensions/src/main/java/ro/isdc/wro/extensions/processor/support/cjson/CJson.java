@@ -5,14 +5,13 @@ package ro.isdc.wro.extensions.processor.support.cjson;
 
 import java.io.InputStream;
 
-import org.mozilla.javascript.RhinoException;
-import org.mozilla.javascript.ScriptableObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
-import ro.isdc.wro.extensions.script.RhinoScriptBuilder;
-import ro.isdc.wro.extensions.script.RhinoUtils;
+import ro.isdc.wro.extensions.script.ScriptBuilder;
+import ro.isdc.wro.extensions.script.ScriptBuilderFactory;
+import ro.isdc.wro.extensions.script.ScriptEvaluationException;
 import ro.isdc.wro.util.StopWatch;
 import ro.isdc.wro.util.WroUtil;
 
@@ -25,21 +24,18 @@ import ro.isdc.wro.util.WroUtil;
  */
 public class CJson {
   private static final Logger LOG = LoggerFactory.getLogger(CJson.class);
-  private ScriptableObject scope;
+  private ScriptBuilder builder;
 
 
   /**
    * Initialize script builder for evaluation.
    */
-  private RhinoScriptBuilder initScriptBuilder() {
+  private ScriptBuilder initScriptBuilder() {
     try {
-      RhinoScriptBuilder builder = null;
-      if (scope == null) {
-        builder = RhinoScriptBuilder.newClientSideAwareChain().addJSON().evaluateChain(
+      if (builder == null) {
+        // the only browser global used by cjson is the window, where the CJSON object is registered.
+        builder = ScriptBuilderFactory.newChain().addJSON().evaluateChain("var window = this;", "window").evaluateChain(
           getScriptAsStream(), "cjson.js");
-        scope = builder.getScope();
-      } else {
-        builder = RhinoScriptBuilder.newChain(scope);
       }
       return builder;
     } catch (final Exception e) {
@@ -63,17 +59,18 @@ public class CJson {
   public String pack(final String data) {
     final StopWatch stopWatch = new StopWatch();
     stopWatch.start("initContext");
-    final RhinoScriptBuilder builder = initScriptBuilder();
+    final ScriptBuilder builder = initScriptBuilder();
     stopWatch.stop();
 
     stopWatch.start("cjson.pack");
     try {
-      final String execute = "CJSON.stringify(JSON.parse(" + WroUtil.toJSMultiLineString(data) + "));";
-      final Object result = builder.evaluate(execute, "pack");
+      builder.addBinding("cjsonData", WroUtil.toMultiLineString(data));
+      final Object result = builder.evaluate("CJSON.stringify(JSON.parse(cjsonData));", "pack");
       return String.valueOf(result);
-    } catch (final RhinoException e) {
-      throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e), e);
+    } catch (final ScriptEvaluationException e) {
+      throw new WroRuntimeException(e.getMessage(), e);
     } finally {
+      builder.removeBinding("cjsonData");
       stopWatch.stop();
       LOG.debug(stopWatch.prettyPrint());
     }
@@ -82,17 +79,18 @@ public class CJson {
   public String unpack(final String data) {
     final StopWatch stopWatch = new StopWatch();
     stopWatch.start("initContext");
-    final RhinoScriptBuilder builder = initScriptBuilder();
+    final ScriptBuilder builder = initScriptBuilder();
     stopWatch.stop();
 
     stopWatch.start("json.unpack");
     try {
-      final String execute = "JSON.stringify(CJSON.parse(" + WroUtil.toJSMultiLineString(data) + "));";
-      final Object result = builder.evaluate(execute, "unpack");
+      builder.addBinding("cjsonData", WroUtil.toMultiLineString(data));
+      final Object result = builder.evaluate("JSON.stringify(CJSON.parse(cjsonData));", "unpack");
       return String.valueOf(result);
-    } catch (final RhinoException e) {
-      throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e), e);
+    } catch (final ScriptEvaluationException e) {
+      throw new WroRuntimeException(e.getMessage(), e);
     } finally {
+      builder.removeBinding("cjsonData");
       stopWatch.stop();
       LOG.debug(stopWatch.prettyPrint());
     }
@@ -6,15 +6,14 @@ package ro.isdc.wro.extensions.processor.support.coffeescript;
 import java.io.IOException;
 import java.io.InputStream;
 
-import org.mozilla.javascript.RhinoException;
-import org.mozilla.javascript.ScriptableObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.extensions.processor.support.linter.LinterException;
-import ro.isdc.wro.extensions.script.RhinoScriptBuilder;
-import ro.isdc.wro.extensions.script.RhinoUtils;
+import ro.isdc.wro.extensions.script.ScriptBuilder;
+import ro.isdc.wro.extensions.script.ScriptBuilderFactory;
+import ro.isdc.wro.extensions.script.ScriptEvaluationException;
 import ro.isdc.wro.util.StopWatch;
 import ro.isdc.wro.util.WroUtil;
 
@@ -33,19 +32,15 @@ import ro.isdc.wro.util.WroUtil;
 public class CoffeeScript {
   private static final Logger LOG = LoggerFactory.getLogger(CoffeeScript.class);
   private String[] options;
-  private ScriptableObject scope;
+  private ScriptBuilder builder;
   private static final String DEFAULT_COFFE_SCRIPT = "coffee-script.min.js";
   /**
    * Initialize script builder for evaluation.
    */
-  private RhinoScriptBuilder initScriptBuilder() {
+  private ScriptBuilder initScriptBuilder() {
     try {
-      RhinoScriptBuilder builder = null;
-      if (scope == null) {
-        builder = RhinoScriptBuilder.newChain().evaluateChain(getCoffeeScriptAsStream(), DEFAULT_COFFE_SCRIPT);
-        scope = builder.getScope();
-      } else {
-        builder = RhinoScriptBuilder.newChain(scope);
+      if (builder == null) {
+        builder = ScriptBuilderFactory.newChain().evaluateChain(getCoffeeScriptAsStream(), DEFAULT_COFFE_SCRIPT);
       }
       return builder;
     } catch (final IOException ex) {
@@ -75,16 +70,19 @@ public class CoffeeScript {
     final StopWatch watch = new StopWatch();
     watch.start("init");
     try {
-      final RhinoScriptBuilder builder = initScriptBuilder();
+      final ScriptBuilder builder = initScriptBuilder();
       watch.stop();
       watch.start("compile");
-      final String compileScript = String.format("CoffeeScript.compile(%s, %s);", WroUtil.toJSMultiLineString(data),
-        buildOptions());
+      builder.addBinding("coffeeScriptSource", WroUtil.toMultiLineString(data));
+      final String compileScript = String.format("CoffeeScript.compile(coffeeScriptSource, %s);", buildOptions());
       final String result = (String)builder.evaluate(compileScript, "CoffeeScript.compile");
       return result;
-    } catch (final RhinoException e) {
-      throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e));
+    } catch (final ScriptEvaluationException e) {
+      throw new WroRuntimeException(e.getMessage(), e);
     } finally {
+      if (builder != null) {
+        builder.removeBinding("coffeeScriptSource");
+      }
       watch.stop();
       LOG.debug(watch.prettyPrint());
     }
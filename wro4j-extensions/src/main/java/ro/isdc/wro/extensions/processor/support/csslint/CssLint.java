@@ -10,15 +10,14 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.apache.commons.lang3.ArrayUtils;
-import org.mozilla.javascript.RhinoException;
-import org.mozilla.javascript.ScriptableObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.extensions.processor.support.linter.OptionsBuilder;
-import ro.isdc.wro.extensions.script.RhinoScriptBuilder;
-import ro.isdc.wro.extensions.script.RhinoUtils;
+import ro.isdc.wro.extensions.script.ScriptBuilder;
+import ro.isdc.wro.extensions.script.ScriptBuilderFactory;
+import ro.isdc.wro.extensions.script.ScriptEvaluationException;
 import ro.isdc.wro.util.StopWatch;
 import ro.isdc.wro.util.WroUtil;
 
@@ -45,19 +44,15 @@ public class CssLint {
    * Options to apply to js hint processing
    */
   private String[] options;
-  private ScriptableObject scope;
+  private ScriptBuilder builder;
 
   /**
    * Initialize script builder for evaluation.
    */
-  private RhinoScriptBuilder initScriptBuilder() {
+  private ScriptBuilder initScriptBuilder() {
     try {
-      RhinoScriptBuilder builder = null;
-      if (scope == null) {
-        builder = RhinoScriptBuilder.newChain().evaluateChain(getScriptAsStream(), DEFAULT_CSSLINT_JS);
-        scope = builder.getScope();
-      } else {
-        builder = RhinoScriptBuilder.newChain(scope);
+      if (builder == null) {
+        builder = ScriptBuilderFactory.newChain().evaluateChain(getScriptAsStream(), DEFAULT_CSSLINT_JS);
       }
       return builder;
     } catch (final IOException ex) {
@@ -85,11 +80,12 @@ public class CssLint {
     try {
       final StopWatch watch = new StopWatch();
       watch.start("init");
-      final RhinoScriptBuilder builder = initScriptBuilder();
+      final ScriptBuilder builder = initScriptBuilder();
       watch.stop();
       watch.start("cssLint");
       LOG.debug("options: {}", Arrays.toString(this.options));
-      final String script = buildCssLintScript(WroUtil.toJSMultiLineString(data), this.options);
+      builder.addBinding("cssLintSource", WroUtil.toMultiLineString(data));
+      final String script = buildCssLintScript("cssLintSource", this.options);
       LOG.debug("script: {}", script);
       builder.evaluate(script, "CSSLint.verify").toString();
       final boolean valid = Boolean.parseBoolean(builder.evaluate("result.length == 0", "checkNoErrors").toString());
@@ -104,8 +100,12 @@ public class CssLint {
       LOG.debug("isValid: {}", valid);
       watch.stop();
       LOG.debug(watch.prettyPrint());
-    } catch (final RhinoException e) {
-      throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e), e);
+    } catch (final ScriptEvaluationException e) {
+      throw new WroRuntimeException(e.getMessage(), e);
+    } finally {
+      if (builder != null) {
+        builder.removeBinding("cssLintSource");
+      }
     }
   }
 
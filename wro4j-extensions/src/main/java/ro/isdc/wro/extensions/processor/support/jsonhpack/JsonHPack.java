@@ -5,13 +5,13 @@ package ro.isdc.wro.extensions.processor.support.jsonhpack;
 
 import java.io.InputStream;
 
-import org.mozilla.javascript.RhinoException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
-import ro.isdc.wro.extensions.script.RhinoScriptBuilder;
-import ro.isdc.wro.extensions.script.RhinoUtils;
+import ro.isdc.wro.extensions.script.ScriptBuilder;
+import ro.isdc.wro.extensions.script.ScriptBuilderFactory;
+import ro.isdc.wro.extensions.script.ScriptEvaluationException;
 import ro.isdc.wro.util.StopWatch;
 import ro.isdc.wro.util.WroUtil;
 
@@ -25,14 +25,18 @@ import ro.isdc.wro.util.WroUtil;
 public class JsonHPack {
   private static final Logger LOG = LoggerFactory.getLogger(JsonHPack.class);
   private static final String DEFAULT_JS = "json.hpack.min.js";
+  private ScriptBuilder builder;
 
   /**
-   * Initialize script builder for evaluation.
+   * Initialize script builder for evaluation. The script doesn't use any browser global, so no client side environment
+   * is required.
    */
-  private RhinoScriptBuilder initScriptBuilder() {
+  private ScriptBuilder initScriptBuilder() {
     try {
-      return RhinoScriptBuilder.newClientSideAwareChain().addJSON().evaluateChain(
-        getScriptAsStream(), DEFAULT_JS);
+      if (builder == null) {
+        builder = ScriptBuilderFactory.newChain().addJSON().evaluateChain(getScriptAsStream(), DEFAULT_JS);
+      }
+      return builder;
     } catch (final Exception e) {
       LOG.error("Processing error:" + e.getMessage(), e);
       throw new WroRuntimeException("Processing error", e);
@@ -51,7 +55,7 @@ public class JsonHPack {
   public String unpack(final String rawData) {
     final StopWatch stopWatch = new StopWatch();
     stopWatch.start("initContext");
-    final RhinoScriptBuilder builder = initScriptBuilder();
+    final ScriptBuilder builder = initScriptBuilder();
     stopWatch.stop();
 
     stopWatch.start("json.hunpack");
@@ -63,8 +67,8 @@ public class JsonHPack {
     }
 
     try {
-      final String execute = "JSON.stringify(JSON.hunpack(eval(" + WroUtil.toJSMultiLineString(data) + ")));";
-      final Object result = builder.evaluate(execute, "unpack");
+      builder.addBinding("jsonData", WroUtil.toMultiLineString(data));
+      final Object result = builder.evaluate("JSON.stringify(JSON.hunpack(eval(jsonData)));", "unpack");
 
       String resultAsString = String.valueOf(result);
       if (!isEnclosedInDoubleArray) {
@@ -72,9 +76,10 @@ public class JsonHPack {
         resultAsString = removeEnclosedArray(resultAsString);
       }
       return resultAsString;
-    } catch (final RhinoException e) {
-      throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e), e);
+    } catch (final ScriptEvaluationException e) {
+      throw new WroRuntimeException(e.getMessage(), e);
     } finally {
+      builder.removeBinding("jsonData");
       stopWatch.stop();
       LOG.debug(stopWatch.prettyPrint());
     }
@@ -88,7 +93,7 @@ public class JsonHPack {
 
     final StopWatch stopWatch = new StopWatch();
     stopWatch.start("initContext");
-    final RhinoScriptBuilder builder = initScriptBuilder();
+    final ScriptBuilder builder = initScriptBuilder();
     stopWatch.stop();
 
     stopWatch.start("json.hpack");
@@ -100,17 +105,18 @@ public class JsonHPack {
     }
 
     try {
-      final String execute = "JSON.stringify(JSON.hpack(eval(" + WroUtil.toJSMultiLineString(data) + "), 4));";
-      final Object result = builder.evaluate(execute, "pack");
+      builder.addBinding("jsonData", WroUtil.toMultiLineString(data));
+      final Object result = builder.evaluate("JSON.stringify(JSON.hpack(eval(jsonData), 4));", "pack");
       String resultAsString = String.valueOf(result);
       if (!isEnclosedInArray) {
         //remove [] characters in which the json is enclosed
         resultAsString = removeEnclosedArray(resultAsString);
       }
       return resultAsString;
-    } catch (final RhinoException e) {
-      throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e), e);
+    } catch (final ScriptEvaluationException e) {
+      throw new WroRuntimeException(e.getMessage(), e);
     } finally {
+      builder.removeBinding("jsonData");
       stopWatch.stop();
       LOG.debug(stopWatch.prettyPrint());
     }
@@ -6,14 +6,15 @@ package ro.isdc.wro.extensions.processor.support.less;
 import java.io.IOException;
 import java.io.InputStream;
 
-import org.mozilla.javascript.RhinoException;
-import org.mozilla.javascript.ScriptableObject;
+import org.mozilla.javascript.EcmaError;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.extensions.script.RhinoScriptBuilder;
-import ro.isdc.wro.extensions.script.RhinoUtils;
+import ro.isdc.wro.extensions.script.ScriptBuilder;
+import ro.isdc.wro.extensions.script.ScriptBuilderFactory;
+import ro.isdc.wro.extensions.script.ScriptEvaluationException;
 import ro.isdc.wro.util.StopWatch;
 import ro.isdc.wro.util.WroUtil;
 
@@ -22,6 +23,10 @@ import ro.isdc.wro.util.WroUtil;
  * This class is not thread-safe.<br/>
  * The underlying implementation use the less.js version <code>1.3.0</code> project: {@link https
  * ://github.com/cloudhead/less.js}.
+ * <p/>
+ * The script is loaded with a minimal browser environment (see {@link #getEnvironmentAsStream()}). The complete client
+ * side environment is used only when the script cannot be loaded with the minimal one or when the processing fails
+ * because of a global missing from the minimal environment (a ReferenceError).
  * 
  * @author Alex Objelean
  * @since 1.3.0
@@ -34,22 +39,27 @@ public class LessCss {
   public static final String DEFAULT_LESS_JS = "less-1.3.0.min.js";
   private static final String SCRIPT_RUN = "run.js";
   private static final String SCRIPT_INIT = "init.js";
-  private ScriptableObject scope;
+  private static final String SCRIPT_ENV = "env.js";
+  private static final String REFERENCE_ERROR = "ReferenceError";
+  private ScriptBuilder builder;
+  /**
+   * True when the builder uses the complete client side environment.
+   */
+  private boolean clientSide;
 
   /**
    * Initialize script builder for evaluation.
    */
-  private RhinoScriptBuilder initScriptBuilder() {
+  private ScriptBuilder initScriptBuilder() {
     try {
-      RhinoScriptBuilder builder = null;
-      if (scope == null) {
-        final InputStream initStream = LessCss.class.getResourceAsStream(SCRIPT_INIT);
-        final InputStream runStream = getRunScriptAsStream();
-        builder = RhinoScriptBuilder.newClientSideAwareChain().evaluateChain(initStream, SCRIPT_INIT).evaluateChain(
-          getScriptAsStream(), DEFAULT_LESS_JS).evaluateChain(runStream, SCRIPT_RUN);
-        scope = builder.getScope();
-      } else {
-        builder = RhinoScriptBuilder.newChain(scope);
+      if (builder == null) {
+        try {
+          builder = evaluateLess(ScriptBuilderFactory.newChain().evaluateChain(getEnvironmentAsStream(), SCRIPT_ENV));
+        } catch (final RuntimeException e) {
+          LOG.debug("Cannot load less.js with the minimal environment, using the client side environment. Reason: {}",
+            e.getMessage());
+          useClientSideEnvironment();
+        }
       }
       return builder;
     } catch (final IOException ex) {
@@ -60,6 +70,28 @@ public class LessCss {
     }
   }
 
+  private void useClientSideEnvironment()
+      throws IOException {
+    builder = evaluateLess(RhinoScriptBuilder.newClientSideAwareChain());
+    clientSide = true;
+  }
+
+  private ScriptBuilder evaluateLess(final ScriptBuilder environment)
+      throws IOException {
+    final InputStream initStream = LessCss.class.getResourceAsStream(SCRIPT_INIT);
+    final InputStream runStream = getRunScriptAsStream();
+    return environment.evaluateChain(initStream, SCRIPT_INIT).evaluateChain(getScriptAsStream(), DEFAULT_LESS_JS)
+        .evaluateChain(runStream, SCRIPT_RUN);
+  }
+
+  /**
+   * @return the stream of the script defining the browser globals used by less.js while it is loaded. Override this
+   *         method when a different version of less.js requires additional globals.
+   */
+  protected InputStream getEnvironmentAsStream() {
+    return LessCss.class.getResourceAsStream(SCRIPT_ENV);
+  }
+
   /**
    * @return the stream of the script responsible for invoking the less transformation javascript code.
    */
@@ -80,21 +112,51 @@ public class LessCss {
    * @return processed css content.
    */
   public String less(final String data) {
+    try {
+      return lessIt(data);
+    } catch (final ScriptEvaluationException e) {
+      if (clientSide || !isReferenceError(e)) {
+        throw new WroRuntimeException(e.getMessage(), e);
+      }
+      LOG.debug("The minimal environment is not enough for processing, using the client side environment. Reason: {}",
+        e.getMessage());
+      try {
+        useClientSideEnvironment();
+        return lessIt(data);
+      } catch (final IOException ex) {
+        throw new IllegalStateException("Failed reading javascript less.js", ex);
+      } catch (final ScriptEvaluationException ex) {
+        throw new WroRuntimeException(ex.getMessage(), ex);
+      }
+    }
+  }
+
+  private String lessIt(final String data) {
     final StopWatch stopWatch = new StopWatch();
     stopWatch.start("initContext");
-    final RhinoScriptBuilder builder = initScriptBuilder();
+    final ScriptBuilder builder = initScriptBuilder();
     stopWatch.stop();
 
     stopWatch.start("lessify");
     try {
-      final String execute = "lessIt(" + WroUtil.toJSMultiLineString(data) + ");";
-      final Object result = builder.evaluate(execute, "lessIt");
+      builder.addBinding("lessSource", WroUtil.toMultiLineString(data));
+      final Object result = builder.evaluate("lessIt(lessSource);", "lessIt");
       return String.valueOf(result);
-    } catch (final RhinoException e) {
-      throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e));
     } finally {
+      builder.removeBinding("lessSource");
       stopWatch.stop();
       LOG.debug(stopWatch.prettyPrint());
     }
   }
+
+  /**
+   * @return true if the exception is caused by accessing a global which is not defined.
+   */
+  private boolean isReferenceError(final ScriptEvaluationException e) {
+    if (e.getCause() instanceof EcmaError) {
+      return REFERENCE_ERROR.equals(((EcmaError) e.getCause()).getName());
+    }
+    // the other engines describe the error type only in the message
+    return e.getMessage() != null && e.getMessage().contains(REFERENCE_ERROR);
+  }
 }
@@ -0,0 +1,22 @@
+/**
+ * Minimal browser environment required by less.js: only the globals accessed while the script is loaded are defined.
+ * Much cheaper than the complete env.rhino emulation, which is used only as a fallback.
+ */
+var window = this;
+var location = {
+  protocol: "",
+  host: "",
+  hostname: "",
+  port: "",
+  hash: "",
+  href: ""
+};
+var document = {
+  location: location,
+  getElementsByTagName: function(tagName) {
+    return [];
+  },
+  getElementById: function(id) {
+    return null;
+  }
+};
@@ -10,14 +10,14 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.apache.commons.lang3.ArrayUtils;
-import org.mozilla.javascript.RhinoException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.extensions.processor.support.csslint.CssLint;
-import ro.isdc.wro.extensions.script.RhinoScriptBuilder;
-import ro.isdc.wro.extensions.script.RhinoUtils;
+import ro.isdc.wro.extensions.script.ScriptBuilder;
+import ro.isdc.wro.extensions.script.ScriptBuilderFactory;
+import ro.isdc.wro.extensions.script.ScriptEvaluationException;
 import ro.isdc.wro.util.StopWatch;
 import ro.isdc.wro.util.WroUtil;
 
@@ -39,17 +39,20 @@ public abstract class AbstractLinter {
    * Options to apply to js hint processing
    */
   private String[] options;
+  /**
+   * The builder containing the evaluated linter script. The linter resets its state on each invocation, so the builder
+   * is reused for all validated scripts.
+   */
+  private ScriptBuilder builder;
 
   /**
    * Initialize script builder for evaluation.
    */
-  private RhinoScriptBuilder initScriptBuilder() {
+  private ScriptBuilder initScriptBuilder() {
     try {
-      RhinoScriptBuilder builder = null;
-      // reusing the scope doesn't work here. Get the following error: TypeError: Cannot find function create in object
-      // function Object() { [native code for Object.Object, arity=1] }
-      // TODO investigate why
-      builder = RhinoScriptBuilder.newChain().evaluateChain(getScriptAsStream(), "linter.js");
+      if (builder == null) {
+        builder = ScriptBuilderFactory.newChain().addJSON().evaluateChain(getScriptAsStream(), "linter.js");
+      }
       return builder;
     } catch (final IOException e) {
       throw new WroRuntimeException("Failed reading init script", e);
@@ -72,14 +75,15 @@ public abstract class AbstractLinter {
     try {
       final StopWatch watch = new StopWatch();
       watch.start("init");
-      final RhinoScriptBuilder builder = initScriptBuilder();
+      final ScriptBuilder builder = initScriptBuilder();
       watch.stop();
       watch.start("lint");
       LOG.debug("options: {}", Arrays.toString(this.options));
-      final String packIt = buildLinterScript(WroUtil.toJSMultiLineString(data), this.options);
+      builder.addBinding("linterSource", WroUtil.toMultiLineString(data));
+      final String packIt = buildLinterScript("linterSource", this.options);
       final boolean valid = Boolean.parseBoolean(builder.evaluate(packIt, "check").toString());
       if (!valid) {
-        final String json = builder.addJSON().evaluate(String.format("JSON.stringify(%s.errors)", getLinterName()),
+        final String json = builder.evaluate(String.format("JSON.stringify(%s.errors)", getLinterName()),
             "stringify errors").toString();
         LOG.debug("json {}", json);
         final Type type = new TypeToken<List<LinterError>>() {}.getType();
@@ -90,8 +94,12 @@ public abstract class AbstractLinter {
       LOG.debug("result: {}", valid);
       watch.stop();
       LOG.debug(watch.prettyPrint());
-    } catch (final RhinoException e) {
-      throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e), e);
+    } catch (final ScriptEvaluationException e) {
+      throw new WroRuntimeException(e.getMessage(), e);
+    } finally {
+      if (builder != null) {
+        builder.removeBinding("linterSource");
+      }
     }
   }
 
@@ -6,13 +6,13 @@ package ro.isdc.wro.extensions.processor.support.packer;
 import java.io.IOException;
 import java.io.InputStream;
 
-import org.mozilla.javascript.RhinoException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
-import ro.isdc.wro.extensions.script.RhinoScriptBuilder;
-import ro.isdc.wro.extensions.script.RhinoUtils;
+import ro.isdc.wro.extensions.script.ScriptBuilder;
+import ro.isdc.wro.extensions.script.ScriptBuilderFactory;
+import ro.isdc.wro.extensions.script.ScriptEvaluationException;
 import ro.isdc.wro.util.StopWatch;
 import ro.isdc.wro.util.WroUtil;
 
@@ -29,9 +29,9 @@ public class PackerJs {
   /**
    * Initialize script builder for evaluation.
    */
-  private RhinoScriptBuilder initScriptBuilder() {
+  private ScriptBuilder initScriptBuilder() {
     try {
-      return RhinoScriptBuilder.newChain().evaluateChain(getStreamForBase2(), "base2.min.js").evaluateChain(
+      return ScriptBuilderFactory.newChain().evaluateChain(getStreamForBase2(), "base2.min.js").evaluateChain(
         getStreamForPacker(), "packer.min.js");
     } catch (final IOException ex) {
       throw new IllegalStateException("Failed reading init script", ex);
@@ -62,25 +62,31 @@ public class PackerJs {
    */
   public String pack(final String data)
     throws IOException {
+    ScriptBuilder builder = null;
     try {
       final StopWatch watch = new StopWatch();
       watch.start("init");
-      final RhinoScriptBuilder builder = initScriptBuilder();
+      builder = initScriptBuilder();
       watch.stop();
       watch.start("pack");
 
-      final String packIt = buildPackScript(WroUtil.toJSMultiLineString(data));
+      builder.addBinding("packerSource", WroUtil.toMultiLineString(data));
+      final String packIt = buildPackScript("packerSource");
       final Object result = builder.evaluate(packIt, "packerIt");
       watch.stop();
       LOG.debug(watch.prettyPrint());
       return String.valueOf(result);
-    } catch (final RhinoException e) {
-      throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e), e);
+    } catch (final ScriptEvaluationException e) {
+      throw new WroRuntimeException(e.getMessage(), e);
+    } finally {
+      if (builder != null) {
+        builder.removeBinding("packerSource");
+      }
     }
   }
 
   /**
-   * @param data script to pack.
+   * @param data the javascript expression evaluated to the script to pack.
    * @return Script used to pack and return the packed result.
    */
   protected String buildPackScript(final String data) {
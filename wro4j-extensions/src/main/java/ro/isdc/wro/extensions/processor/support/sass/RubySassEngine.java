@@ -1,15 +1,13 @@
 package ro.isdc.wro.extensions.processor.support.sass;
 
-import java.io.PrintWriter;
-import java.io.StringWriter;
 import java.util.LinkedHashSet;
-
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
-import javax.script.ScriptException;
+import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.Validate;
+import org.jruby.embed.EmbedEvalUnit;
+import org.jruby.embed.LocalContextScope;
+import org.jruby.embed.LocalVariableBehavior;
+import org.jruby.embed.ScriptingContainer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,6 +17,9 @@ import ro.isdc.wro.util.StopWatch;
 
 /**
  * A Sass processor using ruby gems.
+ * <p/>
+ * Each engine owns a ruby runtime, which is created on first usage. The requires are loaded and the render script is
+ * parsed only once, the processed content is passed to the runtime as a variable. This class is not thread-safe.
  * 
  * @author Dmitry Erman
  * @created 12 Feb 2012
@@ -32,7 +33,19 @@ public class RubySassEngine {
   private static final String SASS_PLUGIN_REQUIRE = "sass/plugin";
   private static final String SASS_ENGINE_REQUIRE = "sass/engine";
   
-  private LinkedHashSet<String> requires;
+  /**
+   * The name of the global variable holding the content to process.
+   */
+  private static final String VARIABLE_SOURCE = "$wroSassSource";
+  private static final String RENDER_SCRIPT = "Sass::Engine.new(" + VARIABLE_SOURCE + ", {:syntax => :scss}).render";
+
+  private final LinkedHashSet<String> requires;
+  /**
+   * The requires already loaded by the runtime.
+   */
+  private final Set<String> loadedRequires = new LinkedHashSet<String>();
+  private ScriptingContainer container;
+  private EmbedEvalUnit renderUnit;
   
   public RubySassEngine() {
     requires = new LinkedHashSet<String>();
@@ -65,45 +78,58 @@ public class RubySassEngine {
     }
     try {
       final StopWatch stopWatch = new StopWatch();
-      stopWatch.start("process SCSS");
-      final ScriptEngine rubyEngine = new ScriptEngineManager().getEngineByName("jruby");
-      String result = rubyEngine.eval(buildUpdateScript(content)).toString();
+      stopWatch.start("init runtime");
+      final EmbedEvalUnit renderUnit = initRuntime();
       stopWatch.stop();
-      LOG.debug(stopWatch.prettyPrint());
-      return result;
-    } catch (final ScriptException e) {
+      stopWatch.start("process SCSS");
+      container.put(VARIABLE_SOURCE, content);
+      try {
+        return renderUnit.run().toString();
+      } finally {
+        // don't keep a reference to the processed content
+        container.remove(VARIABLE_SOURCE);
+        stopWatch.stop();
+        LOG.debug(stopWatch.prettyPrint());
+      }
+    } catch (final RuntimeException e) {
       throw new WroRuntimeException(e.getMessage(), e);
     }
   }
   
-  private String buildUpdateScript(final String content) {
-    Validate.notNull(content);
-    final StringWriter raw = new StringWriter();
-    final PrintWriter script = new PrintWriter(raw);
-    final StringBuilder sb = new StringBuilder();
-    sb.append(":syntax => :scss");
-    
-    for (String require : requires) {
-      script.println("  require '" + require + "'                                   ");
+  /**
+   * Terminates the ruby runtime, releasing its resources. The runtime is created again if the engine is used afterwards.
+   */
+  public void destroy() {
+    if (container != null) {
+      container.terminate();
+      container = null;
+      renderUnit = null;
+      loadedRequires.clear();
     }
-    // if (LOG.isDebugEnabled()) {
-    // debugRubyEnvironment(script);
-    // }
-    script.println("  source = '" + content.replace("'", "\"") + "'                 ");
-    script.println("  engine = Sass::Engine.new(source, {" + sb.toString() + "})    ");
-    script.println("  result = engine.render                                        ");
-    script.flush();
-    return raw.toString();
   }
-  
-  private void debugRubyEnvironment(PrintWriter script) {
-    script.println("  dir_contents = Dir.entries(Dir.pwd)    ");
-    script.println("  puts dir_contents   ");
-    script.println("  puts '--classpath--'   ");
-    script.println("  puts $:   ");
-    script.println("  puts '--classpath--'   ");
-    script.println(" puts '--working dir--'  ");
-    script.println("  puts Dir.pwd  ");
-    script.println(" puts '--working dir--'  ");
+
+  /**
+   * Creates the ruby runtime on first invocation and loads the requires not loaded yet.
+   * 
+   * @return the parsed script rendering the sass content.
+   */
+  private EmbedEvalUnit initRuntime() {
+    if (container == null) {
+      container = new ScriptingContainer(LocalContextScope.SINGLETHREAD, LocalVariableBehavior.TRANSIENT);
+    }
+    if (!loadedRequires.containsAll(requires)) {
+      final StringBuilder script = new StringBuilder();
+      for (final String require : requires) {
+        if (!loadedRequires.contains(require)) {
+          script.append("require '").append(require).append("'\n");
+        }
+      }
+      container.runScriptlet(script.toString());
+      loadedRequires.addAll(requires);
+    }
+    if (renderUnit == null) {
+      renderUnit = container.parse(RENDER_SCRIPT);
+    }
+    return renderUnit;
   }
 }
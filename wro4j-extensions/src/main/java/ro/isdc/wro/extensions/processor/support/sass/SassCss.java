@@ -6,14 +6,13 @@ package ro.isdc.wro.extensions.processor.support.sass;
 import java.io.IOException;
 import java.io.InputStream;
 
-import org.mozilla.javascript.RhinoException;
-import org.mozilla.javascript.ScriptableObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
-import ro.isdc.wro.extensions.script.RhinoScriptBuilder;
-import ro.isdc.wro.extensions.script.RhinoUtils;
+import ro.isdc.wro.extensions.script.ScriptBuilder;
+import ro.isdc.wro.extensions.script.ScriptBuilderFactory;
+import ro.isdc.wro.extensions.script.ScriptEvaluationException;
 import ro.isdc.wro.util.StopWatch;
 import ro.isdc.wro.util.WroUtil;
 
@@ -30,21 +29,17 @@ public class SassCss {
    * The name of the sass script to be used by default.
    */
   public static final String DEFAULT_SASS_JS = "sass-0.5.0.min.js";
-  private ScriptableObject scope;
+  private ScriptBuilder builder;
 
   /**
    * Initialize script builder for evaluation.
    */
-  private RhinoScriptBuilder initScriptBuilder() {
+  private ScriptBuilder initScriptBuilder() {
     try {
-      RhinoScriptBuilder builder = null;
-      if (scope == null) {
+      if (builder == null) {
         final String scriptInit = "var exports = {};";
-        builder = RhinoScriptBuilder.newChain().evaluateChain(scriptInit, "initSass").evaluateChain(
+        builder = ScriptBuilderFactory.newChain().evaluateChain(scriptInit, "initSass").evaluateChain(
           getScriptAsStream(), DEFAULT_SASS_JS);
-        scope = builder.getScope();
-      } else {
-        builder = RhinoScriptBuilder.newChain(scope);
       }
       return builder;
     } catch (final IOException ex) {
@@ -66,19 +61,20 @@ public class SassCss {
   public String process(final String data) {
     final StopWatch stopWatch = new StopWatch();
     stopWatch.start("initContext");
-    final RhinoScriptBuilder builder = initScriptBuilder();
+    final ScriptBuilder builder = initScriptBuilder();
     stopWatch.stop();
 
     stopWatch.start("sass rendering");
     try {
       // replace tabs with spaces, since the script doesn't handle well tabs (throws exception).
       // dataWithoutTabs = data;
-      final String execute = "exports.render(" + WroUtil.toJSMultiLineString(data) + ");";
-      final Object result = builder.evaluate(execute, "sassRender");
+      builder.addBinding("sassSource", WroUtil.toMultiLineString(data));
+      final Object result = builder.evaluate("exports.render(sassSource);", "sassRender");
       return String.valueOf(result);
-    } catch (final RhinoException e) {
-      throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e), e);
+    } catch (final ScriptEvaluationException e) {
+      throw new WroRuntimeException(e.getMessage(), e);
     } finally {
+      builder.removeBinding("sassSource");
       stopWatch.stop();
       LOG.debug(stopWatch.prettyPrint());
     }
@@ -4,9 +4,9 @@ import java.io.IOException;
 import java.io.InputStream;
 
 import org.apache.commons.lang3.StringUtils;
-import org.mozilla.javascript.ScriptableObject;
 
-import ro.isdc.wro.extensions.script.RhinoScriptBuilder;
+import ro.isdc.wro.extensions.script.ScriptBuilder;
+import ro.isdc.wro.extensions.script.ScriptBuilderFactory;
 import ro.isdc.wro.util.WroUtil;
 
 
@@ -18,7 +18,7 @@ import ro.isdc.wro.util.WroUtil;
  * @created 11 May 2012
  */
 public abstract class AbstractJsTemplateCompiler {
-  private ScriptableObject scope;
+  private ScriptBuilder builder;
   
   /**
    * Compiles the javascript template into plain javascript.
@@ -30,11 +30,15 @@ public abstract class AbstractJsTemplateCompiler {
    * @return the compiled javascript.
    */
   public String compile(final String content, final String optionalArgument) {
-    final RhinoScriptBuilder builder = initScriptBuilder();
+    final ScriptBuilder builder = initScriptBuilder();
     final String argStr = createArgStr(optionalArgument) + createArgStr(getArguments());
-    final String compileScript =
-      String.format("%s(%s%s);", getCompileCommand(), WroUtil.toJSMultiLineString(content), argStr);
-    return (String) builder.evaluate(compileScript, getCompileCommand());
+    builder.addBinding("templateSource", WroUtil.toMultiLineString(content));
+    try {
+      final String compileScript = String.format("%s(templateSource%s);", getCompileCommand(), argStr);
+      return (String) builder.evaluate(compileScript, getCompileCommand());
+    } finally {
+      builder.removeBinding("templateSource");
+    }
   }
 
   /**
@@ -58,14 +62,10 @@ public abstract class AbstractJsTemplateCompiler {
    */
   protected abstract InputStream getCompilerAsStream();
 
-  private RhinoScriptBuilder initScriptBuilder() {
+  private ScriptBuilder initScriptBuilder() {
     try {
-      RhinoScriptBuilder builder;
-      if (scope == null) {
-        builder = RhinoScriptBuilder.newChain().evaluateChain(getCompilerAsStream(), "templateCompiler.js");
-        scope = builder.getScope();
-      } else {
-        builder = RhinoScriptBuilder.newChain(scope);
+      if (builder == null) {
+        builder = ScriptBuilderFactory.newChain().evaluateChain(getCompilerAsStream(), "templateCompiler.js");
       }
       return builder;
     } catch (final IOException ex) {
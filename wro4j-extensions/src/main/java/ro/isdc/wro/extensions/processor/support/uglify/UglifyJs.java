@@ -10,14 +10,13 @@ import java.io.InputStream;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.Validate;
-import org.mozilla.javascript.RhinoException;
-import org.mozilla.javascript.ScriptableObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
-import ro.isdc.wro.extensions.script.RhinoScriptBuilder;
-import ro.isdc.wro.extensions.script.RhinoUtils;
+import ro.isdc.wro.extensions.script.ScriptBuilder;
+import ro.isdc.wro.extensions.script.ScriptBuilderFactory;
+import ro.isdc.wro.extensions.script.ScriptEvaluationException;
 import ro.isdc.wro.util.StopWatch;
 import ro.isdc.wro.util.WroUtil;
 
@@ -48,7 +47,7 @@ public class UglifyJs {
    * Comma delimited variable names to have uglify not mangle
    */
   private String reservedNames;
-  private ScriptableObject scope;
+  private ScriptBuilder builder;
   
   /**
    * The type of processing supported by UglifyJs library. This enum replaces ugly boolean constructor parameter.
@@ -114,16 +113,12 @@ public class UglifyJs {
   /**
    * Initialize script builder for evaluation.
    */
-  private RhinoScriptBuilder initScriptBuilder() {
+  private ScriptBuilder initScriptBuilder() {
     // TODO: Find a way to encapsulate this code
-    RhinoScriptBuilder builder = null;
     try {
-      if (scope == null) {
-        builder = RhinoScriptBuilder.newChain().addJSON().evaluateChain(UglifyJs.class.getResourceAsStream("init.js"),
+      if (builder == null) {
+        builder = ScriptBuilderFactory.newChain().addJSON().evaluateChain(UglifyJs.class.getResourceAsStream("init.js"),
             "initScript").evaluateChain(getScriptAsStream(), DEFAULT_UGLIFY_JS);
-        scope = builder.getScope();
-      } else {
-        builder = RhinoScriptBuilder.newChain(scope);
       }
       return builder;
     } catch (final Exception ex) {
@@ -148,22 +143,26 @@ public class UglifyJs {
     try {
       final StopWatch watch = new StopWatch();
       watch.start("init " + filename);
-      final RhinoScriptBuilder builder = initScriptBuilder();
+      final ScriptBuilder builder = initScriptBuilder();
       watch.stop();
-      final String originalCode = WroUtil.toJSMultiLineString(code);
       // TODO handle reservedNames
       final String optionsAsJson = createOptionsAsJson();
       Validate.notNull(optionsAsJson);
-      final String invokeScript = String.format(getInvokeScript(), originalCode, optionsAsJson);
+      builder.addBinding("uglifySource", WroUtil.toMultiLineString(code));
+      final String invokeScript = String.format(getInvokeScript(), "uglifySource", optionsAsJson);
       watch.start(uglify ? "uglify" : "beautify");
       final Object result = builder.evaluate(invokeScript.toString(), "uglifyIt");
       
       watch.stop();
       LOG.debug(watch.prettyPrint());
       return String.valueOf(result);
-    } catch (final RhinoException e) {
-      throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e), e);
-    } 
+    } catch (final ScriptEvaluationException e) {
+      throw new WroRuntimeException(e.getMessage(), e);
+    } finally {
+      if (builder != null) {
+        builder.removeBinding("uglifySource");
+      }
+    }
   }
   
   /**
@@ -0,0 +1,144 @@
+/**
+ * Copyright wro4j@2012
+ */
+package ro.isdc.wro.extensions.script;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.Validate;
+
+import ro.isdc.wro.WroRuntimeException;
+
+
+/**
+ * {@link ScriptBuilder} backed by a javascript engine available through the javax.script API (JSR-223), ex: nashorn or
+ * graal.js. Each builder uses its own engine instance, thus the evaluated scripts are isolated the same way as with
+ * {@link RhinoScriptBuilder}.
+ *
+ * @since 1.4.7
+ */
+public class Jsr223ScriptBuilder
+    implements ScriptBuilder {
+  private static final String SCRIPT_COMMONS = "commons.js";
+  private static final String SCRIPT_JSON = "json2.min.js";
+  /**
+   * Engine factories mapped by the name of the engine. The lookup of an engine by name is expensive (all the available
+   * engine factories are discovered and instantiated), so it is performed only once per engine name.
+   */
+  private static final Map<String, ScriptEngineFactory> FACTORIES = new ConcurrentHashMap<String, ScriptEngineFactory>();
+  private final ScriptEngine engine;
+
+  /**
+   * @param engineName
+   *          the name of the JSR-223 engine to use (ex: nashorn).
+   * @throws WroRuntimeException
+   *           if no engine with provided name is available.
+   */
+  public Jsr223ScriptBuilder(final String engineName) {
+    Validate.notNull(engineName);
+    engine = getFactory(engineName).getScriptEngine();
+    evaluateLibrary(SCRIPT_COMMONS);
+  }
+
+  private static ScriptEngineFactory getFactory(final String engineName) {
+    ScriptEngineFactory factory = FACTORIES.get(engineName);
+    if (factory == null) {
+      final ScriptEngine engine = new ScriptEngineManager().getEngineByName(engineName);
+      if (engine == null) {
+        throw new WroRuntimeException("No javascript engine available with name: " + engineName);
+      }
+      factory = engine.getFactory();
+      FACTORIES.put(engineName, factory);
+    }
+    return factory;
+  }
+
+  /**
+   * Evaluates a library script located in the same package as {@link RhinoScriptBuilder}.
+   */
+  private Jsr223ScriptBuilder evaluateLibrary(final String name) {
+    try {
+      return evaluateChain(RhinoScriptBuilder.class.getResourceAsStream(name), name);
+    } catch (final IOException e) {
+      throw new WroRuntimeException("Problem while evaluating " + name + " script.", e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public Jsr223ScriptBuilder addJSON() {
+    return evaluateLibrary(SCRIPT_JSON);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public Jsr223ScriptBuilder addBinding(final String name, final Object value) {
+    Validate.notNull(name);
+    engine.put(name, value);
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public Jsr223ScriptBuilder removeBinding(final String name) {
+    Validate.notNull(name);
+    engine.getBindings(ScriptContext.ENGINE_SCOPE).remove(name);
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public Jsr223ScriptBuilder evaluateChain(final InputStream stream, final String sourceName)
+      throws IOException {
+    Validate.notNull(stream);
+    try {
+      engine.put(ScriptEngine.FILENAME, sourceName);
+      engine.eval(new InputStreamReader(stream));
+      return this;
+    } catch (final ScriptException e) {
+      throw new ScriptEvaluationException(createExceptionMessage(e, sourceName), e);
+    } finally {
+      IOUtils.closeQuietly(stream);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public Jsr223ScriptBuilder evaluateChain(final String script, final String sourceName) {
+    evaluate(script, sourceName);
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public Object evaluate(final String script, final String sourceName) {
+    Validate.notNull(script);
+    try {
+      engine.put(ScriptEngine.FILENAME, sourceName);
+      return engine.eval(script);
+    } catch (final ScriptException e) {
+      throw new ScriptEvaluationException(createExceptionMessage(e, sourceName), e);
+    }
+  }
+
+  private String createExceptionMessage(final ScriptException e, final String sourceName) {
+    return String.format("Error while evaluating %s at line %s: %s", sourceName, e.getLineNumber(), e.getMessage());
+  }
+}
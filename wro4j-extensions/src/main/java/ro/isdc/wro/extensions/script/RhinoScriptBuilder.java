@@ -3,30 +3,63 @@
  */
 package ro.isdc.wro.extensions.script;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.Validate;
 import org.mozilla.javascript.Context;
-import org.mozilla.javascript.JavaScriptException;
 import org.mozilla.javascript.RhinoException;
+import org.mozilla.javascript.Script;
 import org.mozilla.javascript.ScriptableObject;
 import org.mozilla.javascript.tools.ToolErrorReporter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ro.isdc.wro.model.resource.support.hash.HashStrategy;
+import ro.isdc.wro.model.resource.support.hash.SHA1HashStrategy;
+
 
 /**
  * Used to evaluate javascript on the serverside using rhino javascript engine. Encapsulate and hides all implementation
  * details used by rhino to evaluate javascript on the serverside.
+ * <p/>
+ * The library scripts shipped with this class (commons.js, env.rhino.min.js, json2.min.js), as well as the scripts
+ * evaluated from a stream (usually libraries like less.js or jshint.js), are compiled only once and shared by all
+ * builders. Each builder has its own standard objects, because some of the evaluated scripts (ex:
+ * jslint, base2) extend the prototypes of the standard objects.
+ *
+ * @see ScriptBuilderFactory
  *
  * @author Alex Objelean
  */
-public class RhinoScriptBuilder {
+public class RhinoScriptBuilder
+    implements ScriptBuilder {
   private static final Logger LOG = LoggerFactory.getLogger(RhinoScriptBuilder.class);
+  /**
+   * Optimization level used for evaluation of scripts which are used only once. The interpreter is faster than the
+   * compilation of the script into bytecode in this case.
+   */
+  private static final int INTERPRETED_OPTIMIZATION_LEVEL = -1;
+  /**
+   * Optimization level used for compilation of library scripts, which are compiled once and executed many times.
+   */
+  private static final int COMPILED_OPTIMIZATION_LEVEL = 9;
+  private static final String SCRIPT_COMMONS = "commons.js";
+  private static final String SCRIPT_ENV = "env.rhino.min.js";
+  private static final String SCRIPT_JSON = "json2.min.js";
+  /**
+   * Compiled scripts mapped by their name (the libraries shipped with this class) or by their name and the hash of
+   * their content (the scripts evaluated from a stream). A compiled script is reusable across threads as long as it is
+   * executed in different scopes.
+   */
+  private static final Map<String, Script> SCRIPTS = new ConcurrentHashMap<String, Script>();
+  private static final HashStrategy HASH_STRATEGY = new SHA1HashStrategy();
   private final ScriptableObject scope;
 
 
@@ -44,7 +77,7 @@ public class RhinoScriptBuilder {
     initContext();
     return Context.getCurrentContext();
   }
-  
+
   /**
    * @return the context
    */
@@ -54,59 +87,160 @@ public class RhinoScriptBuilder {
 
 
   /**
-   * Initialize the context.
+   * Initialize the scope. A not null initialScope is reused as it is, since it was already initialized by another
+   * builder.
    */
   private ScriptableObject createContext(final ScriptableObject initialScope) {
-    Context context = getContext();
-    context.setOptimizationLevel(-1);
+    if (initialScope != null) {
+      return initialScope;
+    }
+    final Context context = getContext();
+    final ScriptableObject scope = context.initStandardObjects();
+    getLibrary(SCRIPT_COMMONS).exec(context, scope);
+    return scope;
+  }
+
+
+  /**
+   * Configures a newly entered context.
+   */
+  private static void configure(final Context context) {
+    context.setOptimizationLevel(INTERPRETED_OPTIMIZATION_LEVEL);
     // TODO redirect errors from System.err to LOG.error()
     context.setErrorReporter(new ToolErrorReporter(false));
     context.setLanguageVersion(Context.VERSION_1_8);
-    InputStream script = null;
-    final ScriptableObject scope = (ScriptableObject) context.initStandardObjects(initialScope);
+  }
+
+
+  /**
+   * @param name
+   *          of the library script located in the same package as this class.
+   * @return the compiled library script. The script is compiled only once.
+   */
+  private static Script getLibrary(final String name) {
+    Script script = SCRIPTS.get(name);
+    if (script == null) {
+      script = compile(readLibrary(name), name);
+      // concurrent compilation of the same library is harmless, the result is the same.
+      SCRIPTS.put(name, script);
+    }
+    return script;
+  }
+
+
+  private static String readLibrary(final String name) {
+    final InputStream stream = RhinoScriptBuilder.class.getResourceAsStream(name);
+    Validate.notNull(stream, "Library script not found: %s", name);
     try {
-      script = getClass().getResourceAsStream("commons.js");
-      context.evaluateReader(scope, new InputStreamReader(script), "commons.js", 1, null);
+      return IOUtils.toString(new InputStreamReader(stream));
     } catch (final IOException e) {
-      throw new RuntimeException("Problem while evaluationg commons script.", e);
+      throw new RuntimeException("Problem while compiling " + name + " script.", e);
     } finally {
-      IOUtils.closeQuietly(script);
+      IOUtils.closeQuietly(stream);
     }
-    return scope;
   }
 
+
   /**
-   * Add a client side environment to the script context (client-side aware).
-   *
-   * @return {@link RhinoScriptBuilder} used to chain evaluation of the scripts.
-   * @throws IOException
+   * @return the compiled script. The script is compiled only once for the same name and content.
    */
-  public RhinoScriptBuilder addClientSideEnvironment() {
+  private static Script getScript(final String source, final String sourceName)
+    throws IOException {
+    final String key = sourceName + "#" + HASH_STRATEGY.getHash(new ByteArrayInputStream(source.getBytes("UTF-8")));
+    Script script = SCRIPTS.get(key);
+    if (script == null) {
+      script = compile(source, sourceName);
+      SCRIPTS.put(key, script);
+    }
+    return script;
+  }
+
+
+  /**
+   * Compiles the script into bytecode. When the script is too large for bytecode generation (the size of a generated
+   * method is limited to 64K), the script is compiled for the interpreter.
+   */
+  private static Script compile(final String source, final String sourceName) {
+    final Context context = Context.enter();
+    final int optimizationLevel = context.getOptimizationLevel();
     try {
-      final String SCRIPT_ENV = "env.rhino.min.js";
-      final InputStream script = getClass().getResourceAsStream(SCRIPT_ENV);
-      evaluateChain(script, SCRIPT_ENV);
-      return this;
-    } catch (final IOException e) {
-      throw new RuntimeException("Couldn't initialize env.rhino script", e);
+      configure(context);
+      try {
+        context.setOptimizationLevel(COMPILED_OPTIMIZATION_LEVEL);
+        return context.compileString(source, sourceName, 1, null);
+      } catch (final RuntimeException e) {
+        LOG.debug("Cannot compile {} into bytecode, using interpreted mode. Reason: {}", sourceName, e.getMessage());
+        context.setOptimizationLevel(INTERPRETED_OPTIMIZATION_LEVEL);
+        return context.compileString(source, sourceName, 1, null);
+      }
+    } finally {
+      context.setOptimizationLevel(optimizationLevel);
+      Context.exit();
     }
   }
 
 
-  public RhinoScriptBuilder addJSON() {
+  /**
+   * Executes a precompiled library script in the scope of this builder.
+   */
+  private RhinoScriptBuilder evaluateLibrary(final String name) {
     try {
-      final String SCRIPT_ENV = "json2.min.js";
-      final InputStream script = getClass().getResourceAsStream(SCRIPT_ENV);
-      evaluateChain(script, SCRIPT_ENV);
+      getLibrary(name).exec(getContext(), scope);
       return this;
-    } catch (final IOException e) {
-      throw new RuntimeException("Couldn't initialize json2.min.js script", e);
+    } catch (final RhinoException e) {
+      LOG.error("Exception caught", e);
+      throw new ScriptEvaluationException(RhinoUtils.createExceptionMessage(e), e);
     }
   }
 
+  /**
+   * Add a client side environment to the script context (client-side aware).
+   *
+   * @return {@link RhinoScriptBuilder} used to chain evaluation of the scripts.
+   */
+  public RhinoScriptBuilder addClientSideEnvironment() {
+    return evaluateLibrary(SCRIPT_ENV);
+  }
+
+
+  public RhinoScriptBuilder addJSON() {
+    return evaluateLibrary(SCRIPT_JSON);
+  }
+
 
   /**
-   * Evaluates a script and return {@link RhinoScriptBuilder} for a chained script evaluation.
+   * Binds a value to a top-level variable of the scope. Prefer this method to building a script containing the value as
+   * a string literal: large values (ex: the content of a resource) don't have to be escaped, parsed and compiled.
+   *
+   * @param name the name of the variable.
+   * @param value the value of the variable. A {@link String} is visible as a javascript string.
+   * @return {@link RhinoScriptBuilder} chain with the variable defined.
+   */
+  public RhinoScriptBuilder addBinding(final String name, final Object value) {
+    Validate.notNull(name);
+    ScriptableObject.putProperty(scope, name, Context.javaToJS(value, scope));
+    return this;
+  }
+
+
+  /**
+   * Removes a variable bound by {@link #addBinding(String, Object)}, this way the scope doesn't keep a reference to the
+   * value.
+   *
+   * @param name the name of the variable.
+   * @return {@link RhinoScriptBuilder} chain without the variable.
+   */
+  public RhinoScriptBuilder removeBinding(final String name) {
+    Validate.notNull(name);
+    ScriptableObject.deleteProperty(scope, name);
+    return this;
+  }
+
+
+  /**
+   * Evaluates a script and return {@link RhinoScriptBuilder} for a chained script evaluation. The script is compiled
+   * only once for the same name and content, thus this method should be used for the scripts evaluated many times (ex:
+   * libraries).
    *
    * @param stream {@link InputStream} of the script to evaluate.
    * @param sourceName the name of the evaluated script.
@@ -117,14 +251,11 @@ public class RhinoScriptBuilder {
     throws IOException {
     Validate.notNull(stream);
     try {
-      getContext().evaluateReader(scope, new InputStreamReader(stream), sourceName, 1, null);
+      getScript(IOUtils.toString(new InputStreamReader(stream)), sourceName).exec(getContext(), scope);
       return this;
-    } catch (final RuntimeException e) {
+    } catch (final RhinoException e) {
       LOG.error("Exception caught", e);
-      if (e instanceof RhinoException) {
-        LOG.error("RhinoException: " + RhinoUtils.createExceptionMessage((RhinoException) e));
-      }
-      throw e;
+      throw new ScriptEvaluationException(RhinoUtils.createExceptionMessage(e), e);
     } finally {
       stream.close();
     }
@@ -135,7 +266,7 @@ public class RhinoScriptBuilder {
    */
   private void initContext() {
     if (Context.getCurrentContext() == null) {
-      Context.enter();
+      configure(Context.enter());
     }
   }
 
@@ -150,8 +281,12 @@ public class RhinoScriptBuilder {
    */
   public RhinoScriptBuilder evaluateChain(final String script, final String sourceName) {
     Validate.notNull(script);
-    getContext().evaluateString(scope, script, sourceName, 1, null);
-    return this;
+    try {
+      getContext().evaluateString(scope, script, sourceName, 1, null);
+      return this;
+    } catch (final RhinoException e) {
+      throw new ScriptEvaluationException(RhinoUtils.createExceptionMessage(e), e);
+    }
   }
 
 
@@ -187,9 +322,9 @@ public class RhinoScriptBuilder {
     // make sure we have a context associated with current thread
     try {
       return getContext().evaluateString(scope, script, sourceName, 1, null);
-    } catch (final JavaScriptException e) {
-      LOG.error("JavaScriptException occured: " + e.getMessage());
-      throw e;
+    } catch (final RhinoException e) {
+      LOG.error("RhinoException occured: " + e.getMessage());
+      throw new ScriptEvaluationException(RhinoUtils.createExceptionMessage(e), e);
     } finally {
       // Rhino throws an exception when trying to exit twice. Make sure we don't get any exception
       if (Context.getCurrentContext() != null) {
@@ -206,6 +341,11 @@ public class RhinoScriptBuilder {
   }
 
 
+  /**
+   * @param scope
+   *          a scope previously created by a {@link RhinoScriptBuilder}, usually containing already evaluated scripts.
+   * @return {@link RhinoScriptBuilder} evaluating scripts in the provided scope.
+   */
   public static RhinoScriptBuilder newChain(final ScriptableObject scope) {
     return new RhinoScriptBuilder(scope);
   }
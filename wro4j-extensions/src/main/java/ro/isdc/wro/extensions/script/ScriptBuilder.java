@@ -0,0 +1,91 @@
+/**
+ * Copyright wro4j@2012
+ */
+package ro.isdc.wro.extensions.script;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+
+/**
+ * Evaluates javascript on the serverside using a javascript engine. A builder keeps the state of the evaluated scripts,
+ * this way a library evaluated once can be invoked many times with different arguments. A builder is not thread-safe.
+ * <p/>
+ * Use {@link ScriptBuilderFactory#newChain()} to create a builder backed by the configured javascript engine. The script
+ * errors are reported as {@link ScriptEvaluationException}, regardless of the engine.
+ *
+ * @since 1.4.7
+ */
+public interface ScriptBuilder {
+  /**
+   * Evaluates the JSON library, making the JSON object available for the next evaluated scripts.
+   *
+   * @return {@link ScriptBuilder} used to chain evaluation of the scripts.
+   */
+  ScriptBuilder addJSON();
+
+  /**
+   * Binds a value to a top-level variable. Prefer this method to building a script containing the value as a string
+   * literal: large values (ex: the content of a resource) don't have to be escaped, parsed and compiled.
+   *
+   * @param name
+   *          the name of the variable.
+   * @param value
+   *          the value of the variable. A {@link String} is visible as a javascript string.
+   * @return {@link ScriptBuilder} chain with the variable defined.
+   */
+  ScriptBuilder addBinding(String name, Object value);
+
+  /**
+   * Removes a variable bound by {@link #addBinding(String, Object)}. Call it once the value is not needed anymore,
+   * otherwise the builder (which is usually pooled) keeps a reference to the value (ex: the content of a resource).
+   *
+   * @param name
+   *          the name of the variable.
+   * @return {@link ScriptBuilder} chain without the variable.
+   */
+  ScriptBuilder removeBinding(String name);
+
+  /**
+   * Evaluates a script and return {@link ScriptBuilder} for a chained script evaluation. The stream is closed after
+   * evaluation.
+   *
+   * @param stream
+   *          {@link InputStream} of the script to evaluate.
+   * @param sourceName
+   *          the name of the evaluated script.
+   * @return {@link ScriptBuilder} chain with required script evaluated.
+   * @throws IOException
+   *           if the script couldn't be retrieved.
+   * @throws ScriptEvaluationException
+   *           if the script cannot be evaluated.
+   */
+  ScriptBuilder evaluateChain(InputStream stream, String sourceName)
+      throws IOException;
+
+  /**
+   * Evaluates a script and return {@link ScriptBuilder} for a chained script evaluation.
+   *
+   * @param script
+   *          the string representation of the script to evaluate.
+   * @param sourceName
+   *          the name of the evaluated script.
+   * @return {@link ScriptBuilder} chain with required script evaluated.
+   * @throws ScriptEvaluationException
+   *           if the script cannot be evaluated.
+   */
+  ScriptBuilder evaluateChain(String script, String sourceName);
+
+  /**
+   * Evaluates a script.
+   *
+   * @param script
+   *          string representation of the script to evaluate.
+   * @param sourceName
+   *          the name of the evaluated script.
+   * @return evaluated object.
+   * @throws ScriptEvaluationException
+   *           if the script cannot be evaluated.
+   */
+  Object evaluate(String script, String sourceName);
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright wro4j@2012
+ */
+package ro.isdc.wro.extensions.script;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.config.jmx.WroConfiguration;
+
+
+/**
+ * Creates the {@link ScriptBuilder} used by the javascript based processors. The javascript engine is selected with the
+ * scriptEngine property of the {@link WroConfiguration} of the current request cycle, or when not configured, with the
+ * {@value #PARAM_SCRIPT_ENGINE} system property:
+ * <ul>
+ * <li>{@value #ENGINE_RHINO} (default) - the rhino engine bundled with wro4j, see {@link RhinoScriptBuilder}.</li>
+ * <li>the name of any JSR-223 javascript engine available in the classpath (ex: nashorn, graal.js), see
+ * {@link Jsr223ScriptBuilder}.</li>
+ * </ul>
+ * The complete client side environment (env.rhino) is available only with rhino, see
+ * {@link RhinoScriptBuilder#newClientSideAwareChain()}.
+ *
+ * @since 1.4.7
+ */
+public final class ScriptBuilderFactory {
+  private static final Logger LOG = LoggerFactory.getLogger(ScriptBuilderFactory.class);
+  /**
+   * The system property used to select the javascript engine when it is not configured by {@link WroConfiguration}.
+   */
+  public static final String PARAM_SCRIPT_ENGINE = "wro4j.scriptEngine";
+  /**
+   * The name of the default engine.
+   */
+  public static final String ENGINE_RHINO = "rhino";
+
+  private ScriptBuilderFactory() {
+  }
+
+  /**
+   * @return the name of the configured javascript engine.
+   */
+  public static String getEngineName() {
+    if (Context.isContextSet()) {
+      final String engineName = Context.get().getConfig().getScriptEngine();
+      if (StringUtils.isNotBlank(engineName)) {
+        return engineName.trim();
+      }
+    }
+    return System.getProperty(PARAM_SCRIPT_ENGINE, ENGINE_RHINO).trim();
+  }
+
+  /**
+   * @return a new {@link ScriptBuilder} backed by the configured javascript engine.
+   */
+  public static ScriptBuilder newChain() {
+    final String engineName = getEngineName();
+    if (ENGINE_RHINO.equalsIgnoreCase(engineName)) {
+      return RhinoScriptBuilder.newChain();
+    }
+    LOG.debug("Using javascript engine: {}", engineName);
+    return new Jsr223ScriptBuilder(engineName);
+  }
+}
@@ -0,0 +1,29 @@
+/**
+ * Copyright wro4j@2012
+ */
+package ro.isdc.wro.extensions.script;
+
+import ro.isdc.wro.WroRuntimeException;
+
+
+/**
+ * Thrown by a {@link ScriptBuilder} when a script cannot be evaluated, regardless of the javascript engine used. The
+ * message describes the script error.
+ *
+ * @since 1.4.7
+ */
+public class ScriptEvaluationException
+    extends WroRuntimeException {
+  /**
+   * serialVersionUID
+   */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * @param message detailed message.
+   * @param cause the exception thrown by the javascript engine.
+   */
+  public ScriptEvaluationException(final String message, final Throwable cause) {
+    super(message, cause);
+  }
+}
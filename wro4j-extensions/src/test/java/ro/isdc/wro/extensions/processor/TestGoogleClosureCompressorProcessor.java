@@ -8,6 +8,8 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import junit.framework.Assert;
 
@@ -20,6 +22,7 @@ import ro.isdc.wro.extensions.processor.js.GoogleClosureCompressorProcessor;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.support.SourceMap;
 import ro.isdc.wro.util.WroTestUtils;
 
 import com.google.javascript.jscomp.CompilationLevel;
@@ -125,6 +128,101 @@ public class TestGoogleClosureCompressorProcessor {
   }
   
 
+  @Test
+  public void shouldApplyCompilationLevelChangedAfterFirstCompilation()
+      throws IOException {
+    final String script = "function test(argument) {return argument;}";
+    processor.setCompilationLevel(CompilationLevel.WHITESPACE_ONLY);
+    StringWriter sw = new StringWriter();
+    processor.process(new StringReader(script), sw);
+    Assert.assertEquals("function test(argument){return argument};", sw.toString());
+
+    processor.setCompilationLevel(CompilationLevel.SIMPLE_OPTIMIZATIONS);
+    sw = new StringWriter();
+    processor.process(new StringReader(script), sw);
+    Assert.assertEquals("function test(a){return a};", sw.toString());
+  }
+
+  @Test
+  public void shouldApplyEncodingChangedAfterFirstCompilation()
+      throws IOException {
+    final AtomicInteger createdOptions = new AtomicInteger();
+    processor = new GoogleClosureCompressorProcessor() {
+      @Override
+      protected CompilerOptions newCompilerOptions() {
+        createdOptions.incrementAndGet();
+        return super.newCompilerOptions();
+      }
+    };
+    processor.setEncoding("UTF-8");
+    processor.process(new StringReader("alert(1);"), new StringWriter());
+    processor.process(new StringReader("alert(1);"), new StringWriter());
+    processor.setEncoding("ISO-8859-1");
+    processor.process(new StringReader("alert(1);"), new StringWriter());
+    // the options are prepared again, using the new encoding as output charset
+    Assert.assertEquals(2, createdOptions.get());
+  }
+
+  @Test
+  public void shouldCompileWhenThreadCreationIsRestricted()
+      throws IOException {
+    processor = new GoogleClosureCompressorProcessor() {
+      @Override
+      protected boolean isThreadCreationRestricted() {
+        return true;
+      }
+    };
+    WroTestUtils.createInjector().inject(processor);
+    final StringWriter sw = new StringWriter();
+    processor.process(new StringReader("alert( 1 );"), sw);
+    Assert.assertEquals("alert(1);", sw.toString());
+  }
+
+  @Test
+  public void shouldMapCompiledScriptToInput()
+      throws IOException {
+    final String script = "function sum(first, second) {\n  return first + second;\n}\nvar total = sum(1, 2);";
+    final StringWriter sw = new StringWriter();
+    final SourceMap sourceMap = processor.processWithSourceMap(null, new StringReader(script), sw);
+    Assert.assertEquals("function sum(a,b){return a+b}var total=sum(1,2);", sw.toString());
+    Assert.assertEquals("[0, 3, 4]", Arrays.toString(sourceMap.getOriginalPosition(0, sw.toString().indexOf("total"))));
+    Assert.assertEquals("[0, 1, 2]", Arrays.toString(sourceMap.getOriginalPosition(0, sw.toString().indexOf("return"))));
+  }
+
+  @Test
+  public void shouldNotProcessEachResourceSeparatelyWithAdvancedOptimizations() {
+    Assert.assertTrue(new GoogleClosureCompressorProcessor(CompilationLevel.SIMPLE_OPTIMIZATIONS).isResourceIndependent());
+    Assert.assertFalse(new GoogleClosureCompressorProcessor(CompilationLevel.ADVANCED_OPTIMIZATIONS).isResourceIndependent());
+  }
+
+  @Test
+  public void shouldIdentifyCompilationLevelByFingerprint() {
+    final String simple = new GoogleClosureCompressorProcessor(CompilationLevel.SIMPLE_OPTIMIZATIONS).getFingerprint();
+    Assert.assertEquals(simple, new GoogleClosureCompressorProcessor().getFingerprint());
+    Assert.assertFalse(simple.equals(new GoogleClosureCompressorProcessor(
+        CompilationLevel.ADVANCED_OPTIMIZATIONS).getFingerprint()));
+    Assert.assertNull(new GoogleClosureCompressorProcessor().setCompilerOptions(new CompilerOptions()).getFingerprint());
+  }
+
+  @Test
+  public void shouldCompileResourcesOfGroupAsSeparateInputs()
+      throws IOException {
+    final StringWriter sw = new StringWriter();
+    // the unterminated line comment of the first resource doesn't hide the second one
+    processor.processGroup(Arrays.asList(Resource.create("1.js", ResourceType.JS), Resource.create("2.js",
+        ResourceType.JS)), Arrays.asList("var a = 1 // first", "var b = 2"), sw);
+    Assert.assertEquals("var a=1;var b=2;", sw.toString());
+  }
+
+  @Test
+  public void shouldLeaveGroupUnchangedWhenCompilationFails()
+      throws IOException {
+    final StringWriter sw = new StringWriter();
+    processor.processGroup(Arrays.asList(Resource.create("1.js", ResourceType.JS), Resource.create("1.js",
+        ResourceType.JS)), Arrays.asList("var a = 1;", "var = ;"), sw);
+    Assert.assertEquals("var a = 1;var = ;", sw.toString());
+  }
+
   @Test
   public void shouldSupportCorrectResourceTypes() {
     WroTestUtils.assertProcessorSupportResourceTypes(new GoogleClosureCompressorProcessor(), ResourceType.JS);
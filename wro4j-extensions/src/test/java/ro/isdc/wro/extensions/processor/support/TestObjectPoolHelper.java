@@ -3,6 +3,10 @@
  */
 package ro.isdc.wro.extensions.processor.support;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import junit.framework.Assert;
 
 import org.apache.commons.pool.impl.GenericObjectPool;
@@ -75,4 +79,93 @@ public class TestObjectPoolHelper {
     pool.getObject();
     Mockito.verify(mockObjectPool, Mockito.times(1)).borrowObject();
   }
+
+  @Test
+  public void shouldReuseAllReturnedObjects()
+      throws Exception {
+    final ObjectPoolHelper<Object> pool = new ObjectPoolHelper<Object>(new ObjectFactory<Object>() {
+      @Override
+      public Object create() {
+        return new Object();
+      }
+    });
+    final int size = 4;
+    for (int i = 0; i < 2; i++) {
+      final Object[] objects = new Object[size];
+      for (int j = 0; j < size; j++) {
+        objects[j] = pool.getObject();
+      }
+      Assert.assertEquals(size, pool.getNumActive());
+      for (final Object object : objects) {
+        pool.returnObject(object);
+      }
+    }
+    Assert.assertEquals(size, pool.getNumIdle());
+    Assert.assertEquals(size, pool.getNumCreated());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void cannotAcceptNegativeMinIdle() {
+    new ObjectPoolHelper<Object>(new ObjectFactory<Object>() {
+      @Override
+      public Object create() {
+        return new Object();
+      }
+    }, 1, -1, 1000);
+  }
+
+  @Test
+  public void shouldNotBlockWhenMaxActiveIsReached() {
+    final ObjectPoolHelper<Object> pool = new ObjectPoolHelper<Object>(new ObjectFactory<Object>() {
+      @Override
+      public Object create() {
+        return new Object();
+      }
+    }, 1, 1, 1000);
+    pool.getObject();
+    pool.getObject();
+    Assert.assertEquals(2, pool.getNumActive());
+  }
+
+  @Test
+  public void shouldEvictIdleObjectsAfterConfiguredTime()
+      throws Exception {
+    final ObjectPoolHelper<Object> pool = new ObjectPoolHelper<Object>(new ObjectFactory<Object>() {
+      @Override
+      public Object create() {
+        return new Object();
+      }
+    }, 2, 1, 50);
+    final Object first = pool.getObject();
+    final Object second = pool.getObject();
+    pool.returnObject(first);
+    pool.returnObject(second);
+    Assert.assertEquals(2, pool.getNumIdle());
+    Thread.sleep(500);
+    // the minimum number of idle objects is kept
+    Assert.assertEquals(1, pool.getNumIdle());
+    pool.destroy();
+  }
+
+  @Test
+  public void shouldDestroyObjectsRemovedFromPool()
+      throws Exception {
+    final List<Object> destroyed = new ArrayList<Object>();
+    final ObjectPoolHelper<Object> pool = new ObjectPoolHelper<Object>(new ObjectFactory<Object>() {
+      @Override
+      public Object create() {
+        return new Object();
+      }
+    }) {
+      @Override
+      protected void destroyObject(final Object object) {
+        destroyed.add(object);
+      }
+    };
+    final Object object = pool.getObject();
+    pool.returnObject(object);
+    Assert.assertTrue(destroyed.isEmpty());
+    pool.destroy();
+    Assert.assertEquals(Arrays.asList(object), destroyed);
+  }
 }
@@ -0,0 +1,125 @@
+/**
+ * Copyright wro4j@2012
+ */
+package ro.isdc.wro.extensions.processor.support.less;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.extensions.script.RhinoScriptBuilder;
+import ro.isdc.wro.extensions.script.ScriptBuilder;
+
+
+public class TestLessCss {
+  private static final Logger LOG = LoggerFactory.getLogger(TestLessCss.class);
+  private static final String LESS = "@width: 10px;\n.a { width: @width * 2; }";
+  private static final String CSS = ".a {\n  width: 20px;\n}\n";
+  private static final int MEASURED_RUNS = 3;
+
+  @Test
+  public void shouldProcessLessWithMinimalEnvironment() {
+    Assert.assertEquals(CSS, new LessCss().less(LESS));
+  }
+
+  @Test
+  public void shouldReuseLoadedScriptForMultipleInvocations() {
+    final LessCss lessCss = new LessCss();
+    Assert.assertEquals(CSS, lessCss.less(LESS));
+    Assert.assertEquals(CSS, lessCss.less(LESS));
+  }
+
+  @Test
+  public void shouldFallbackToClientSideEnvironmentWhenMinimalEnvironmentIsNotEnough() {
+    final LessCss lessCss = new LessCss() {
+      @Override
+      protected InputStream getEnvironmentAsStream() {
+        return new ByteArrayInputStream(new byte[] {});
+      }
+    };
+    Assert.assertEquals(CSS, lessCss.less(LESS));
+  }
+
+  @Test
+  public void shouldFallbackToClientSideEnvironmentWhenProcessingNeedsMissingGlobal() {
+    final LessCss lessCss = new LessCss() {
+      @Override
+      protected InputStream getRunScriptAsStream() {
+        // the navigator global is defined only by the client side environment.
+        final String run = "var lessIt = function(css) { return navigator.userAgent ? css : ''; };";
+        return new ByteArrayInputStream(run.getBytes());
+      }
+    };
+    Assert.assertEquals(LESS, lessCss.less(LESS));
+  }
+
+  @Test
+  public void logCostOfMinimalEnvironmentComparedToClientSideEnvironment()
+      throws Exception {
+    // warm up: the library scripts are compiled only once.
+    createMinimalEnvironment();
+    RhinoScriptBuilder.newClientSideAwareChain();
+
+    final Measurement minimal = new Measurement();
+    final Measurement clientSide = new Measurement();
+    for (int i = 0; i < MEASURED_RUNS; i++) {
+      minimal.start();
+      final ScriptBuilder minimalBuilder = createMinimalEnvironment();
+      minimal.stop(minimalBuilder);
+      clientSide.start();
+      final ScriptBuilder clientSideBuilder = RhinoScriptBuilder.newClientSideAwareChain();
+      clientSide.stop(clientSideBuilder);
+    }
+    LOG.info("Minimal environment: {} ms, {} bytes retained", minimal.getAverageTime(), minimal.getAverageHeap());
+    LOG.info("Client side environment: {} ms, {} bytes retained", clientSide.getAverageTime(),
+        clientSide.getAverageHeap());
+  }
+
+  private ScriptBuilder createMinimalEnvironment()
+      throws Exception {
+    return RhinoScriptBuilder.newChain().evaluateChain(LessCss.class.getResourceAsStream("env.js"), "env.js");
+  }
+
+  /**
+   * Accumulates the time spent and the heap retained by the creation of an environment.
+   */
+  private static class Measurement {
+    private long totalTime;
+    private long totalHeap;
+    private long startTime;
+    private long startHeap;
+    private int runs;
+
+    void start() {
+      startHeap = usedHeap();
+      startTime = System.currentTimeMillis();
+    }
+
+    void stop(final Object retained) {
+      totalTime += System.currentTimeMillis() - startTime;
+      totalHeap += usedHeap() - startHeap;
+      runs++;
+      // keep the environment reachable until the used heap is measured.
+      Assert.assertNotNull(retained);
+    }
+
+    long getAverageTime() {
+      return totalTime / runs;
+    }
+
+    long getAverageHeap() {
+      return totalHeap / runs;
+    }
+
+    private static long usedHeap() {
+      final Runtime runtime = Runtime.getRuntime();
+      System.gc();
+      return runtime.totalMemory() - runtime.freeMemory();
+    }
+  }
+}
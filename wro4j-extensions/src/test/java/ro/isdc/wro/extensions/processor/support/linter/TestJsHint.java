@@ -3,6 +3,8 @@
  */
 package ro.isdc.wro.extensions.processor.support.linter;
 
+import junit.framework.Assert;
+
 import org.junit.Test;
 
 
@@ -79,4 +81,18 @@ public class TestJsHint {
     jsHint.setOptions("eqeqeq");
     jsHint.validate("if (text == 0) {win.location.href = link; }");
   }
+
+  @Test
+  public void shouldReuseLinterForMultipleScripts()
+    throws Exception {
+    for (int i = 0; i < 3; i++) {
+      try {
+        jsHint.validate("al ert(1)");
+        Assert.fail("Invalid script should not be accepted");
+      } catch (final LinterException e) {
+        Assert.assertFalse(e.getErrors().isEmpty());
+      }
+      jsHint.validate("var a = 1;");
+    }
+  }
 }
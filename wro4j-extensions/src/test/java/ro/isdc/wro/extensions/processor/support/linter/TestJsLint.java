@@ -3,6 +3,8 @@
  */
 package ro.isdc.wro.extensions.processor.support.linter;
 
+import junit.framework.Assert;
+
 import org.junit.Test;
 
 
@@ -63,4 +65,18 @@ public class TestJsLint {
     jsLint.setOptions("undef");
     jsLint.validate("$(function(){})(jQuery);");
   }
+
+  @Test
+  public void shouldReuseLinterForMultipleScripts()
+    throws Exception {
+    for (int i = 0; i < 3; i++) {
+      try {
+        jsLint.validate("al ert(1)");
+        Assert.fail("Invalid script should not be accepted");
+      } catch (final LinterException e) {
+        Assert.assertFalse(e.getErrors().isEmpty());
+      }
+      jsLint.validate("var a = 1;");
+    }
+  }
 }
@@ -53,4 +53,25 @@ public class TestRubySassEngine {
     throws IOException {
     Assert.assertNotNull(engine.process("#element { #child {color: red;}}"));
   }
+
+  @Test
+  public void shouldProcessContentContainingQuotes() {
+    final String result = engine.process("#element { #child {font-family: 'Times New Roman', \"Arial\";}}");
+    Assert.assertTrue(result, result.contains("'Times New Roman'"));
+    Assert.assertTrue(result, result.contains("\"Arial\""));
+  }
+
+  @Test
+  public void shouldProcessMultipleTimesWithSameEngine() {
+    for (int i = 0; i < 3; i++) {
+      Assert.assertTrue(engine.process("#element { #child {color: red;}}").contains("#element #child"));
+    }
+  }
+
+  @Test
+  public void shouldProcessAfterDestroy() {
+    engine.process("#element {color: red;}");
+    engine.destroy();
+    Assert.assertTrue(engine.process("#element { #child {color: red;}}").contains("#element #child"));
+  }
 }
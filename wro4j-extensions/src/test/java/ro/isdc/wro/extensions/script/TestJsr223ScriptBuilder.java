@@ -0,0 +1,73 @@
+/**
+ * Copyright wro4j@2012
+ */
+package ro.isdc.wro.extensions.script;
+
+import javax.script.ScriptEngineManager;
+
+import junit.framework.Assert;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import ro.isdc.wro.WroRuntimeException;
+
+
+public class TestJsr223ScriptBuilder {
+  private static final String ENGINE_NAME = "JavaScript";
+
+  @Before
+  public void setUp() {
+    Assume.assumeNotNull(new ScriptEngineManager().getEngineByName(ENGINE_NAME));
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void cannotUseNullEngineName() {
+    new Jsr223ScriptBuilder(null);
+  }
+
+  @Test(expected = WroRuntimeException.class)
+  public void cannotUseUnknownEngine() {
+    new Jsr223ScriptBuilder("unknown");
+  }
+
+  @Test
+  public void shouldEvaluateScript() {
+    Assert.assertEquals("wro4j", new Jsr223ScriptBuilder(ENGINE_NAME).evaluate("'wro' + 4 + 'j'", "concat"));
+  }
+
+  @Test
+  public void shouldEvaluateCommonsScript() {
+    Assert.assertEquals("function", new Jsr223ScriptBuilder(ENGINE_NAME).evaluate("typeof print", "print"));
+  }
+
+  @Test
+  public void shouldNotShareVariablesBetweenBuilders() {
+    new Jsr223ScriptBuilder(ENGINE_NAME).evaluateChain("var shared = 1;", "define");
+    Assert.assertEquals("undefined", new Jsr223ScriptBuilder(ENGINE_NAME).evaluate("typeof shared", "read"));
+  }
+
+  @Test
+  public void shouldUseJsonLibrary() {
+    Assert.assertEquals("{\"a\":1}",
+        new Jsr223ScriptBuilder(ENGINE_NAME).addJSON().evaluate("JSON.stringify({a: 1})", "json"));
+  }
+
+  @Test
+  public void shouldUseBinding() {
+    Assert.assertEquals("a'b\"c\n",
+        new Jsr223ScriptBuilder(ENGINE_NAME).addBinding("content", "a'b\"c").evaluate("content + '\\n'", "binding"));
+  }
+
+  @Test
+  public void shouldRemoveBinding() {
+    Assert.assertEquals("undefined", new Jsr223ScriptBuilder(ENGINE_NAME).addBinding("content", "a").removeBinding(
+        "content").evaluate("typeof content", "binding"));
+  }
+
+  @Test(expected = ScriptEvaluationException.class)
+  public void shouldWrapScriptErrors() {
+    new Jsr223ScriptBuilder(ENGINE_NAME).evaluate("undefinedFunction();", "invalid");
+  }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright Alex Objelean
+ */
+package ro.isdc.wro.extensions.script;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+import org.mozilla.javascript.ScriptableObject;
+
+
+public class TestRhinoScriptBuilder {
+  @Test
+  public void shouldEvaluateScript() {
+    Assert.assertEquals("wro4j", RhinoScriptBuilder.newChain().evaluate("'wro' + 4 + 'j'", "concat"));
+  }
+
+  @Test
+  public void shouldEvaluateCommonsScript() {
+    Assert.assertEquals("function", RhinoScriptBuilder.newChain().evaluate("typeof print", "print"));
+  }
+
+  @Test
+  public void shouldNotShareVariablesBetweenBuilders() {
+    RhinoScriptBuilder.newChain().evaluateChain("var shared = 1;", "define").evaluate("shared", "read");
+    Assert.assertEquals("undefined", RhinoScriptBuilder.newChain().evaluate("typeof shared", "read"));
+  }
+
+  @Test
+  public void shouldReuseScopeOfPreviousBuilder() {
+    final ScriptableObject scope = RhinoScriptBuilder.newChain().evaluateChain("var value = 'wro4j';", "define").getScope();
+    Assert.assertEquals("wro4j", RhinoScriptBuilder.newChain(scope).evaluate("value", "read"));
+  }
+
+  @Test
+  public void shouldNotShareChangesOfStandardObjectsBetweenBuilders() {
+    RhinoScriptBuilder.newChain().evaluate("String.prototype.changed = true;", "change");
+    Assert.assertEquals("undefined", RhinoScriptBuilder.newChain().evaluate("typeof ''.changed", "read"));
+  }
+
+  @Test
+  public void shouldRemoveBinding() {
+    Assert.assertEquals("undefined", RhinoScriptBuilder.newChain().addBinding("content", "a").removeBinding("content").evaluate(
+        "typeof content", "binding"));
+  }
+
+  @Test(expected = ScriptEvaluationException.class)
+  public void shouldWrapScriptErrors() {
+    RhinoScriptBuilder.newChain().evaluate("undefinedFunction();", "invalid");
+  }
+
+  @Test
+  public void shouldUseJsonLibrary() {
+    Assert.assertEquals("{\"a\":1}", RhinoScriptBuilder.newChain().addJSON().evaluate("JSON.stringify({a: 1})", "json"));
+  }
+
+  @Test
+  public void shouldCreateClientSideEnvironment() {
+    Assert.assertEquals("object", RhinoScriptBuilder.newClientSideAwareChain().evaluate("typeof window", "window"));
+  }
+
+  @Test
+  public void shouldEvaluateStreamsHavingSameNameAndDifferentContent()
+      throws Exception {
+    Assert.assertEquals("one", RhinoScriptBuilder.newChain().evaluateChain(
+        new ByteArrayInputStream("var value = 'one';".getBytes()), "script.js").evaluate("value", "read"));
+    Assert.assertEquals("two", RhinoScriptBuilder.newChain().evaluateChain(
+        new ByteArrayInputStream("var value = 'two';".getBytes()), "script.js").evaluate("value", "read"));
+    // the compiled script is reused
+    Assert.assertEquals("one", RhinoScriptBuilder.newChain().evaluateChain(
+        new ByteArrayInputStream("var value = 'one';".getBytes()), "script.js").evaluate("value", "read"));
+  }
+
+  @Test(expected = ScriptEvaluationException.class)
+  public void shouldWrapSyntaxErrorsOfStream()
+      throws Exception {
+    RhinoScriptBuilder.newChain().evaluateChain(new ByteArrayInputStream("var = ;".getBytes()), "invalid.js");
+  }
+
+  @Test
+  public void shouldCreateClientSideEnvironmentConcurrently()
+      throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final Callable<Object> task = new Callable<Object>() {
+        public Object call()
+            throws Exception {
+          return RhinoScriptBuilder.newClientSideAwareChain().evaluate("typeof document", "document");
+        }
+      };
+      final Future<?>[] futures = new Future<?>[8];
+      for (int i = 0; i < futures.length; i++) {
+        futures[i] = executor.submit(task);
+      }
+      for (final Future<?> future : futures) {
+        Assert.assertEquals("object", future.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright wro4j@2012
+ */
+package ro.isdc.wro.extensions.script;
+
+import javax.script.ScriptEngineManager;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+
+import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.config.jmx.WroConfiguration;
+import ro.isdc.wro.extensions.processor.support.coffeescript.CoffeeScript;
+
+
+public class TestScriptBuilderFactory {
+  @After
+  public void tearDown() {
+    System.clearProperty(ScriptBuilderFactory.PARAM_SCRIPT_ENGINE);
+    Context.unset();
+  }
+
+  @Test
+  public void shouldUseRhinoByDefault() {
+    Assert.assertEquals(ScriptBuilderFactory.ENGINE_RHINO, ScriptBuilderFactory.getEngineName());
+    Assert.assertTrue(ScriptBuilderFactory.newChain() instanceof RhinoScriptBuilder);
+  }
+
+  @Test
+  public void shouldUseConfiguredJsr223Engine() {
+    assumeJsr223EngineAvailable();
+    System.setProperty(ScriptBuilderFactory.PARAM_SCRIPT_ENGINE, "JavaScript");
+    Assert.assertTrue(ScriptBuilderFactory.newChain() instanceof Jsr223ScriptBuilder);
+  }
+
+  @Test
+  public void shouldUseEngineConfiguredByWroConfiguration() {
+    assumeJsr223EngineAvailable();
+    final WroConfiguration config = new WroConfiguration();
+    config.setScriptEngine("JavaScript");
+    Context.set(Context.standaloneContext(), config);
+    Assert.assertTrue(ScriptBuilderFactory.newChain() instanceof Jsr223ScriptBuilder);
+  }
+
+  @Test
+  public void shouldPreferWroConfigurationToSystemProperty() {
+    System.setProperty(ScriptBuilderFactory.PARAM_SCRIPT_ENGINE, "unknown");
+    final WroConfiguration config = new WroConfiguration();
+    config.setScriptEngine(ScriptBuilderFactory.ENGINE_RHINO);
+    Context.set(Context.standaloneContext(), config);
+    Assert.assertTrue(ScriptBuilderFactory.newChain() instanceof RhinoScriptBuilder);
+  }
+
+  @Test(expected = WroRuntimeException.class)
+  public void cannotUseUnknownEngine() {
+    System.setProperty(ScriptBuilderFactory.PARAM_SCRIPT_ENGINE, "unknown");
+    ScriptBuilderFactory.newChain();
+  }
+
+  @Test
+  public void shouldProduceSameResultWithDifferentEngines() {
+    assumeJsr223EngineAvailable();
+    final String script = "square = (x) -> x * x";
+    final String rhinoResult = new CoffeeScript().compile(script);
+    System.setProperty(ScriptBuilderFactory.PARAM_SCRIPT_ENGINE, "JavaScript");
+    Assert.assertEquals(rhinoResult, new CoffeeScript().compile(script));
+  }
+
+  private void assumeJsr223EngineAvailable() {
+    Assume.assumeNotNull(new ScriptEngineManager().getEngineByName("JavaScript"));
+  }
+}
@@ -3,23 +3,43 @@
  */
 package ro.isdc.wro.maven.plugin;
 
-import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-import javax.servlet.FilterConfig;
-import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpServletResponse;
-
-import org.mockito.Mockito;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BOMInputStream;
 
 import ro.isdc.wro.config.Context;
-import ro.isdc.wro.config.jmx.WroConfiguration;
-import ro.isdc.wro.http.support.DelegatingServletOutputStream;
+import ro.isdc.wro.config.ContextPropagatingCallable;
+import ro.isdc.wro.manager.WroManager;
 import ro.isdc.wro.manager.factory.standalone.StandaloneContextAwareManagerFactory;
-import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.maven.plugin.support.LintResultCache;
+import ro.isdc.wro.model.WroModel;
+import ro.isdc.wro.model.factory.DefaultWroModelFactoryDecorator;
+import ro.isdc.wro.model.factory.WroModelFactory;
+import ro.isdc.wro.model.group.processor.InjectorBuilder;
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.locator.factory.UriLocatorFactory;
+import ro.isdc.wro.model.resource.processor.ProcessorsUtils;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
 import ro.isdc.wro.model.resource.processor.factory.ProcessorsFactory;
 import ro.isdc.wro.model.resource.processor.factory.SimpleProcessorsFactory;
+import ro.isdc.wro.util.WroUtil;
 
 
 /**
@@ -42,6 +62,18 @@ public abstract class AbstractSingleProcessorMojo extends AbstractWro4jMojo {
    * @optional
    */
   private boolean failNever;
+  /**
+   * The folder where the resources found valid are remembered. The resources which didn't change since the previous
+   * execution are not processed again. When not set, all the resources are processed.
+   *
+   * @parameter default-value="${project.build.directory}/wro4j-lint" expression="${lintCacheFolder}"
+   * @optional
+   */
+  private File cacheFolder;
+  /**
+   * The uri's of the resources found invalid during current execution.
+   */
+  private final Set<String> invalidResources = Collections.synchronizedSet(new HashSet<String>());
 
   /**
    * {@inheritDoc}
@@ -52,35 +84,142 @@ public abstract class AbstractSingleProcessorMojo extends AbstractWro4jMojo {
     getLog().info("options: " + options);
     getLog().info("failNever: " + failNever);
 
-    final Collection<String> groupsAsList = getTargetGroupsAsList();
-    for (final String group : groupsAsList) {
-      for (final ResourceType resourceType : ResourceType.values()) {
-        final String groupWithExtension = group + "." + resourceType.name().toLowerCase();
-        processGroup(groupWithExtension);
-      }
+    final WroManager manager = getManagerFactory().create();
+    final ResourcePreProcessor processor = createResourceProcessor();
+    final Collection<Resource> resources = getResourcesToProcess(createModel(manager));
+    final LintResultCache cache = new LintResultCache(getCacheFile(), options);
+    invalidResources.clear();
+    try {
+      processResources(resources, processor, manager.getUriLocatorFactory(), cache);
+    } finally {
+      cache.persist();
     }
   }
 
   /**
-   * @param group the name of the group to process.
+   * @return the model created by the decorated model factory, this way the model transformers (ex: wildcard expander)
+   *         are applied and each resource matched by a wildcard is processed (and remembered) individually.
    */
-  private void processGroup(final String group) throws Exception {
-    getLog().info("processing group: " + group);
+  private WroModel createModel(final WroManager manager)
+    throws Exception {
+    WroModelFactory modelFactory = manager.getModelFactory();
+    if (!(modelFactory instanceof DefaultWroModelFactoryDecorator)) {
+      modelFactory = new DefaultWroModelFactoryDecorator(modelFactory, manager.getModelTransformers());
+      InjectorBuilder.create(getManagerFactory()).build().inject(modelFactory);
+    }
+    return modelFactory.create();
+  }
+
+  /**
+   * @return the unique resources of the target groups. A resource belonging to more than one group is processed only
+   *         once.
+   */
+  private Collection<Resource> getResourcesToProcess(final WroModel model)
+    throws Exception {
+    final Collection<Resource> resources = new LinkedHashSet<Resource>();
+    for (final String group : getTargetGroupsAsList()) {
+      getLog().info("processing group: " + group);
+      resources.addAll(model.getGroupByName(group).getResources());
+    }
+    return resources;
+  }
+
+  /**
+   * Process the resources in parallel. All the resources are processed even if some of them fail, this way all the
+   * errors are reported, after which the first failure is thrown.
+   */
+  private void processResources(final Collection<Resource> resources, final ResourcePreProcessor processor,
+    final UriLocatorFactory uriLocatorFactory, final LintResultCache cache)
+    throws Exception {
+    final int threadPoolSize = Math.max(1, Math.min(resources.size(), Runtime.getRuntime().availableProcessors()));
+    final ExecutorService executor = Executors.newFixedThreadPool(threadPoolSize,
+      WroUtil.createDaemonThreadFactory("lint"));
+    try {
+      final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      for (final Resource resource : resources) {
+        futures.add(executor.submit(new ContextPropagatingCallable<Void>(new Callable<Void>() {
+          public Void call()
+            throws Exception {
+            processResource(resource, processor, uriLocatorFactory, cache);
+            return null;
+          }
+        })));
+      }
+      Exception failure = null;
+      for (final Future<Void> future : futures) {
+        try {
+          future.get();
+        } catch (final ExecutionException e) {
+          if (failure == null) {
+            failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+          }
+        }
+      }
+      if (failure != null) {
+        throw failure;
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
 
-    //mock request
-    final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
-    Mockito.when(request.getRequestURI()).thenReturn(group);
-    //mock response
-    final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
-    Mockito.when(response.getOutputStream()).thenReturn(new DelegatingServletOutputStream(new ByteArrayOutputStream()));
+  private void processResource(final Resource resource, final ResourcePreProcessor processor,
+    final UriLocatorFactory uriLocatorFactory, final LintResultCache cache)
+    throws Exception {
+    // the content of each resource is retrieved, even if not processed, in order to detect the missing resources.
+    final String content = getResourceContent(resource, uriLocatorFactory);
+    if (content == null || !isProcessorApplicable(processor, resource)) {
+      return;
+    }
+    if (cache.isValid(resource.getUri(), content)) {
+      getLog().debug("Skipping unchanged resource: " + resource.getUri());
+      return;
+    }
+    processor.process(resource, new StringReader(content), new StringWriter());
+    if (!invalidResources.contains(resource.getUri())) {
+      cache.markValid(resource.getUri(), content);
+    }
+    getLog().debug("Processing resource: " + resource.getUri() + " [OK]");
+  }
 
-    //init context
-    final WroConfiguration config = Context.get().getConfig();
-    Context.set(Context.webContext(request, response, Mockito.mock(FilterConfig.class)), config);
-    //perform processing
-    getManagerFactory().create().process();
+  private boolean isProcessorApplicable(final ResourcePreProcessor processor, final Resource resource) {
+    final Collection<ResourcePreProcessor> processors = Collections.singleton(processor);
+    return !ProcessorsUtils.filterProcessorsToApply(isMinimize(), resource.getType(), processors).isEmpty();
+  }
 
-    getLog().debug("Processing group: " + group + " [OK]");
+  /**
+   * Must be invoked by the processor when errors are found in the processed resource, this way the resource is not
+   * remembered as valid and the errors are reported again by the next execution.
+   */
+  protected final void onInvalidResource(final Resource resource) {
+    invalidResources.add(resource.getUri());
+  }
+
+  /**
+   * @return the content of the resource or null if the resource is missing and missing resources are ignored.
+   */
+  private String getResourceContent(final Resource resource, final UriLocatorFactory uriLocatorFactory)
+    throws IOException {
+    InputStream is = null;
+    try {
+      is = new BOMInputStream(uriLocatorFactory.locate(resource.getUri()));
+      return IOUtils.toString(is, Context.get().getConfig().getEncoding());
+    } catch (final IOException e) {
+      if (isIgnoreMissingResources()) {
+        getLog().warn("Invalid resource found: " + resource);
+        return null;
+      }
+      throw e;
+    } finally {
+      IOUtils.closeQuietly(is);
+    }
+  }
+
+  /**
+   * @return the file where the results of previous executions are stored or null if the results are not stored.
+   */
+  private File getCacheFile() {
+    return cacheFolder == null ? null : new File(cacheFolder, getClass().getName() + ".properties");
   }
 
   /**
@@ -118,6 +257,14 @@ public abstract class AbstractSingleProcessorMojo extends AbstractWro4jMojo {
     this.options = options;
   }
 
+  /**
+   * Used for tests only.
+   * @param cacheFolder the folder where the lint results are stored.
+   */
+  void setCacheFolder(final File cacheFolder) {
+    this.cacheFolder = cacheFolder;
+  }
+
   /**
    * @param failNever the failFast to set
    */
@@ -43,6 +43,7 @@ public class CssLintMojo extends AbstractSingleProcessorMojo {
 
       @Override
       protected void onCssLintException(final CssLintException e, final Resource resource) throws Exception {
+        onInvalidResource(resource);
         getLog().error(
             e.getErrors().size() + " errors found while processing resource: " + resource.getUri() + " Errors are: "
               + e.getErrors());
@@ -48,6 +48,7 @@ public class JsHintMojo
 
       @Override
       protected void onLinterException(final LinterException e, final Resource resource) {
+        onInvalidResource(resource);
         getLog().error(
             e.getErrors().size() + " errors found while processing resource: " + resource.getUri() + " Errors are: "
                 + e.getErrors());
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2012.
+ * All rights reserved.
+ */
+package ro.isdc.wro.maven.plugin.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.model.resource.support.hash.HashStrategy;
+import ro.isdc.wro.model.resource.support.hash.SHA1HashStrategy;
+
+
+/**
+ * Remembers the resources found valid by a linter, identified by the hash of their content and of the linter options.
+ * The cache is stored in a file, this way the resources which didn't change since the previous build are not linted
+ * again. Only the valid resources are remembered, the errors of an invalid resource are reported by each build. This
+ * class is thread-safe.
+ *
+ * @since 1.4.7
+ */
+public class LintResultCache {
+  private static final Logger LOG = LoggerFactory.getLogger(LintResultCache.class);
+  private static final String ENCODING = "UTF-8";
+  private final HashStrategy hashStrategy = new SHA1HashStrategy();
+  /**
+   * Maps the uri of valid resources to the hash of their content.
+   */
+  private final Map<String, String> validResources = new ConcurrentHashMap<String, String>();
+  private final File file;
+  private final String options;
+
+  /**
+   * Creates a cache and loads the content previously stored in the provided file (if it exists).
+   *
+   * @param file
+   *          the file where the cache is stored. When null, nothing is stored and all resources are considered changed.
+   * @param options
+   *          the options of the linter. When options change, all the resources are linted again.
+   */
+  public LintResultCache(final File file, final String options) {
+    this.file = file;
+    this.options = options == null ? "" : options;
+    load();
+  }
+
+  private void load() {
+    if (file != null && file.isFile()) {
+      InputStream input = null;
+      try {
+        input = new FileInputStream(file);
+        final Properties properties = new Properties();
+        properties.load(input);
+        for (final Map.Entry<Object, Object> entry : properties.entrySet()) {
+          validResources.put(String.valueOf(entry.getKey()), String.valueOf(entry.getValue()));
+        }
+        LOG.debug("Loaded {} valid resources from {}", validResources.size(), file);
+      } catch (final IOException e) {
+        LOG.warn("Cannot load lint cache: " + file, e);
+      } finally {
+        IOUtils.closeQuietly(input);
+      }
+    }
+  }
+
+  /**
+   * @return true if the resource with provided uri and content was found valid by a previous lint.
+   */
+  public boolean isValid(final String uri, final String content)
+      throws IOException {
+    Validate.notNull(uri);
+    return computeHash(content).equals(validResources.get(uri));
+  }
+
+  /**
+   * Remember that the resource with provided uri and content is valid.
+   */
+  public void markValid(final String uri, final String content)
+      throws IOException {
+    Validate.notNull(uri);
+    validResources.put(uri, computeHash(content));
+  }
+
+  /**
+   * Stores the remembered valid resources into the file.
+   */
+  public void persist() {
+    if (file != null) {
+      OutputStream output = null;
+      try {
+        file.getParentFile().mkdirs();
+        output = new FileOutputStream(file);
+        final Properties properties = new Properties();
+        properties.putAll(validResources);
+        properties.store(output, "wro4j lint results");
+      } catch (final IOException e) {
+        LOG.warn("Cannot store lint cache: " + file, e);
+      } finally {
+        IOUtils.closeQuietly(output);
+      }
+    }
+  }
+
+  private String computeHash(final String content)
+      throws IOException {
+    final String source = options + "\n" + (content == null ? "" : content);
+    return hashStrategy.getHash(new ByteArrayInputStream(source.getBytes(ENCODING)));
+  }
+}
@@ -4,11 +4,19 @@
 package ro.isdc.wro.maven.plugin;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.Properties;
 
+import junit.framework.Assert;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.project.MavenProject;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -27,10 +35,12 @@ import ro.isdc.wro.model.resource.processor.factory.ProcessorsFactory;
  */
 public abstract class AbstractTestLinterMojo {
   private AbstractSingleProcessorMojo mojo;
+  private File cacheFolder;
   
   @Before
   public void setUp()
       throws Exception {
+    cacheFolder = new File(FileUtils.getTempDirectory(), "wro4j-lint-" + System.nanoTime());
     mojo = newLinterMojo();
     mojo.setIgnoreMissingResources(false);
     setWroWithValidResources();
@@ -38,10 +48,34 @@ public abstract class AbstractTestLinterMojo {
     mojo.setMavenProject(Mockito.mock(MavenProject.class));
   }
   
+  @After
+  public void tearDown() {
+    FileUtils.deleteQuietly(cacheFolder);
+  }
+  
   protected final AbstractSingleProcessorMojo getMojo() {
     return mojo;
   }
   
+  /**
+   * @return the results stored by the mojo in the cache folder.
+   */
+  protected final Properties executeWithCache()
+      throws Exception {
+    mojo.setCacheFolder(cacheFolder);
+    mojo.execute();
+    final File[] files = cacheFolder.listFiles();
+    Assert.assertEquals(1, files.length);
+    final InputStream input = new FileInputStream(files[0]);
+    try {
+      final Properties properties = new Properties();
+      properties.load(input);
+      return properties;
+    } finally {
+      IOUtils.closeQuietly(input);
+    }
+  }
+  
   /**
    * @return Mojo to test.
    */
@@ -97,6 +131,15 @@ public abstract class AbstractTestLinterMojo {
     mojo.execute();
   }
   
+  @Test
+  public void shouldNotRememberInvalidResources()
+      throws Exception {
+    mojo.setFailNever(true);
+    mojo.setOptions("undef, browser");
+    mojo.setTargetGroups("undef");
+    Assert.assertTrue(executeWithCache().isEmpty());
+  }
+  
   @Test
   public void shouldOverrideCustomProcessorsFactory()
       throws Exception {
@@ -3,10 +3,19 @@
  */
 package ro.isdc.wro.maven.plugin;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import junit.framework.Assert;
 
 import org.junit.Test;
 
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.decorator.ProcessorDecorator;
+
 
 
 /**
@@ -15,6 +24,11 @@ import org.junit.Test;
  * @author Alex Objelean
  */
 public class TestJsHintMojo extends AbstractTestLinterMojo {
+  /**
+   * Number of resources processed by the linter.
+   */
+  private final AtomicInteger processedResources = new AtomicInteger();
+
   /**
    * {@inheritDoc}
    */
@@ -25,6 +39,18 @@ public class TestJsHintMojo extends AbstractTestLinterMojo {
       void onException(final Exception e) {
         Assert.fail("Shouldn't fail. Exception message: " + e.getMessage());
       }
+
+      @Override
+      protected ResourcePreProcessor createResourceProcessor() {
+        return new ProcessorDecorator(super.createResourceProcessor()) {
+          @Override
+          public void process(final Resource resource, final Reader reader, final Writer writer)
+            throws IOException {
+            processedResources.incrementAndGet();
+            super.process(resource, reader, writer);
+          }
+        };
+      }
     };
   }
 
@@ -59,6 +85,30 @@ public class TestJsHintMojo extends AbstractTestLinterMojo {
   }
 
 
+  @Test
+  public void shouldRememberValidResources()
+    throws Exception {
+    getMojo().setTargetGroups("g2");
+    Assert.assertEquals(1, executeWithCache().size());
+    Assert.assertEquals(1, processedResources.get());
+    // the unchanged resource is skipped by the next execution
+    Assert.assertEquals(1, executeWithCache().size());
+    Assert.assertEquals(1, processedResources.get());
+  }
+
+  @Test
+  public void shouldProcessEachResourceMatchedByWildcard()
+    throws Exception {
+    getMojo().setFailNever(true);
+    getMojo().setTargetGroups("g4");
+    final int validResources = executeWithCache().size();
+    Assert.assertEquals(4, processedResources.get());
+    processedResources.set(0);
+    // only the invalid resources are processed again
+    Assert.assertEquals(validResources, executeWithCache().size());
+    Assert.assertEquals(4 - validResources, processedResources.get());
+  }
+
   @Test
   public void testEmptyOptions()
     throws Exception {
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2012.
+ * All rights reserved.
+ */
+package ro.isdc.wro.maven.plugin.support;
+
+import java.io.File;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class TestLintResultCache {
+  private File file;
+
+  @Before
+  public void setUp() {
+    file = new File(FileUtils.getTempDirectory(), "wro4j-lint-" + System.nanoTime() + "/results.properties");
+  }
+
+  @After
+  public void tearDown() {
+    FileUtils.deleteQuietly(file.getParentFile());
+  }
+
+  @Test
+  public void shouldNotConsiderValidUnknownResource()
+      throws Exception {
+    Assert.assertFalse(new LintResultCache(file, null).isValid("/a.js", "content"));
+  }
+
+  @Test
+  public void shouldRememberValidResource()
+      throws Exception {
+    final LintResultCache cache = new LintResultCache(file, null);
+    cache.markValid("/a.js", "content");
+    Assert.assertTrue(cache.isValid("/a.js", "content"));
+    Assert.assertFalse(cache.isValid("/a.js", "changed content"));
+    Assert.assertFalse(cache.isValid("/b.js", "content"));
+  }
+
+  @Test
+  public void shouldLoadPersistedResults()
+      throws Exception {
+    final LintResultCache cache = new LintResultCache(file, "undef");
+    cache.markValid("/a.js", "content");
+    cache.persist();
+    Assert.assertTrue(new LintResultCache(file, "undef").isValid("/a.js", "content"));
+  }
+
+  @Test
+  public void shouldNotReuseResultsWhenOptionsChange()
+      throws Exception {
+    final LintResultCache cache = new LintResultCache(file, "undef");
+    cache.markValid("/a.js", "content");
+    cache.persist();
+    Assert.assertFalse(new LintResultCache(file, "browser").isValid("/a.js", "content"));
+  }
+
+  @Test
+  public void shouldNotPersistWhenNoFileProvided()
+      throws Exception {
+    final LintResultCache cache = new LintResultCache(null, null);
+    cache.markValid("/a.js", "content");
+    cache.persist();
+    Assert.assertTrue(cache.isValid("/a.js", "content"));
+  }
+}